@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.bench;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.mina.core.filterchain.IoFilter.NextFilter;
+import org.apache.mina.core.future.WriteFuture;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.codec.ProtocolDecoderOutput;
+import org.apache.mina.filter.codec.ProtocolEncoderOutput;
+import org.yx.rpc.client.Req;
+import org.yx.rpc.codec.Protocols;
+import org.yx.rpc.codec.ReqParamType;
+import org.yx.rpc.codec.SumkCodecFactory;
+import org.yx.rpc.codec.SumkProtocolDecoder;
+import org.yx.rpc.codec.SumkProtocolEncoder;
+import org.yx.rpc.codec.decoders.BatchRequestDeserializer;
+import org.yx.rpc.codec.decoders.BinaryRequestDeserializer;
+import org.yx.rpc.codec.decoders.BinaryResponseDeserializer;
+import org.yx.rpc.codec.decoders.SumkBufferDeserializer;
+import org.yx.rpc.codec.encoders.ReqEncoder;
+import org.yx.rpc.codec.encoders.ResponseEncoder;
+import org.yx.rpc.codec.encoders.SumkMinaEncoder;
+import org.yx.util.UUIDSeed;
+
+/**
+ * 基准测试的公共工具。不启动IOC，需要注入的字段通过反射设置
+ */
+public final class BenchKits {
+
+	public static void inject(Object target, String fieldName, Object value) {
+		Class<?> clz = target.getClass();
+		while (clz != Object.class) {
+			try {
+				Field f = clz.getDeclaredField(fieldName);
+				f.setAccessible(true);
+				f.set(target, value);
+				return;
+			} catch (NoSuchFieldException e) {
+				clz = clz.getSuperclass();
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		throw new RuntimeException(fieldName + " not found in " + target.getClass().getName());
+	}
+
+	public static SumkProtocolEncoder encoder() {
+		SumkProtocolEncoder encoder = new SumkProtocolEncoder();
+		inject(encoder, "encoders", new SumkMinaEncoder[] { new ReqEncoder(), new ResponseEncoder() });
+		return encoder;
+	}
+
+	public static SumkProtocolDecoder decoder() {
+		SumkProtocolDecoder decoder = new SumkProtocolDecoder();
+		inject(decoder, "bufferDecoders", new SumkBufferDeserializer<?>[] { new BatchRequestDeserializer(),
+				new BinaryRequestDeserializer(), new BinaryResponseDeserializer() });
+		return decoder;
+	}
+
+	public static SumkCodecFactory codecFactory() {
+		SumkCodecFactory factory = new SumkCodecFactory();
+		inject(factory, "encoder", encoder());
+		inject(factory, "decoder", decoder());
+		return factory;
+	}
+
+	/**
+	 * 长度大约为size的json字符串，带一些中文，跟真实的业务参数接近
+	 */
+	public static String jsonPayload(int size) {
+		StringBuilder sb = new StringBuilder(size + 32).append("{\"name\":\"sumk性能测试\",\"items\":[");
+		int i = 0;
+		while (sb.length() < size) {
+			if (i > 0) {
+				sb.append(',');
+			}
+			sb.append("{\"id\":").append(i).append(",\"value\":\"v").append(i).append("\"}");
+			i++;
+		}
+		return sb.append("]}").toString();
+	}
+
+	/**
+	 * @param binary
+	 *            true表示服务端支持二进制帧，否则使用老的字符串分隔格式
+	 */
+	public static Req createReq(String api, String[] params, boolean binary) {
+		Req req = new Req();
+		req.setStart(System.currentTimeMillis());
+		req.setId(1);
+		req.setFullSn(UUIDSeed.seq18(), "trace", "1");
+		req.setApi(api);
+		req.setFrom("bench");
+		req.initAcceptResponseTypes(binary ? Protocols.RESPONSE_ACCEPT_TYPES : Protocols.RESPONSE_SPLIT);
+		req.setServerProtocol(binary ? Protocols.profile() : 0);
+		req.setParams(ReqParamType.REQ_PARAM_ORDER, params);
+		return req;
+	}
+
+	public static class EncoderOutput implements ProtocolEncoderOutput {
+		public final List<Object> messages = new ArrayList<>(2);
+
+		@Override
+		public void write(Object encodedMessage) {
+			messages.add(encodedMessage);
+		}
+
+		@Override
+		public void mergeAll() {
+		}
+
+		@Override
+		public WriteFuture flush() {
+			return null;
+		}
+	}
+
+	public static class DecoderOutput implements ProtocolDecoderOutput {
+		public final List<Object> messages = new ArrayList<>(2);
+
+		@Override
+		public void write(Object message) {
+			messages.add(message);
+		}
+
+		@Override
+		public void flush(NextFilter nextFilter, IoSession session) {
+		}
+	}
+}
@@ -0,0 +1,63 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.bench;
+
+import java.util.Date;
+
+import org.yx.annotation.db.Column;
+import org.yx.annotation.db.Table;
+import org.yx.db.enums.ColumnType;
+
+@Table
+public class BenchUser {
+
+	@Column(type = ColumnType.ID_BOTH)
+	private Long id;
+	private String name;
+	private Integer age;
+	private String email;
+	private Double balance;
+	private Byte status;
+	private Date lastUpdate;
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Integer getAge() {
+		return age;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public Double getBalance() {
+		return balance;
+	}
+
+	public Byte getStatus() {
+		return status;
+	}
+
+	public Date getLastUpdate() {
+		return lastUpdate;
+	}
+}
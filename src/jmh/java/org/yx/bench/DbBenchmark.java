@@ -0,0 +1,175 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.bench;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.yx.db.sql.ColumnMeta;
+import org.yx.db.sql.PojoMeta;
+import org.yx.db.sql.PojoMetaHolder;
+import org.yx.db.sql.TableFactory;
+import org.yx.db.visit.PojoResultHandler;
+import org.yx.db.visit.ResultSetUtils;
+
+/**
+ * 查询结果到map、pojo的转换。<BR>
+ * ResultSet是内存中的动态代理，它本身的开销可以参考scanBaseline。<BR>
+ * toPojoList是Select默认的RowMapper方式，toMapListThenPojo是原先经过Map的方式
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+@State(Scope.Thread)
+public class DbBenchmark {
+
+	@Param({ "1", "100", "1000" })
+	private int rows;
+
+	private PojoMeta pm;
+	private String[] columns;
+	private Object[][] data;
+	private Map<String, Object> pojoMap;
+
+	@Setup
+	public void setup() {
+		new TableFactory().accept(BenchUser.class);
+		this.pm = PojoMetaHolder.getPojoMeta(BenchUser.class);
+		List<ColumnMeta> metas = pm.fieldMetas();
+		this.columns = new String[metas.size()];
+		this.data = new Object[rows][];
+		for (int r = 0; r < rows; r++) {
+			Object[] row = new Object[columns.length];
+			for (int c = 0; c < columns.length; c++) {
+				ColumnMeta cm = metas.get(c);
+				columns[c] = cm.getDbColumn();
+				row[c] = sampleValue(cm.getField().getType(), r);
+			}
+			data[r] = row;
+		}
+		this.pojoMap = new HashMap<>();
+		for (int c = 0; c < columns.length; c++) {
+			pojoMap.put(metas.get(c).getFieldName(), data[0][c]);
+		}
+	}
+
+	private static Object sampleValue(Class<?> type, int row) {
+		if (type == Long.class) {
+			return 100000L + row;
+		}
+		if (type == Integer.class) {
+			return row % 100;
+		}
+		if (type == Double.class) {
+			return row * 1.5;
+		}
+		if (type == Byte.class) {
+			return (byte) (row & 1);
+		}
+		if (type == Date.class) {
+			return new Date(1500000000000L + row);
+		}
+		return "user_" + row + "@sumk.org";
+	}
+
+	private ResultSet resultSet() {
+		ResultSetMetaData md = (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { ResultSetMetaData.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getColumnCount":
+						return columns.length;
+					case "getColumnName":
+					case "getColumnLabel":
+						return columns[(Integer) args[0] - 1];
+					default:
+						throw new SQLException(method.getName() + " not supported");
+					}
+				});
+		int[] cursor = { -1 };
+		return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { ResultSet.class },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "next":
+						return ++cursor[0] < data.length;
+					case "getObject":
+						return data[cursor[0]][(Integer) args[0] - 1];
+					case "getMetaData":
+						return md;
+					case "close":
+						return null;
+					default:
+						throw new SQLException(method.getName() + " not supported");
+					}
+				});
+	}
+
+	@Benchmark
+	public void scanBaseline(Blackhole bh) throws SQLException {
+		ResultSet rs = resultSet();
+		int count = rs.getMetaData().getColumnCount();
+		while (rs.next()) {
+			for (int i = 1; i <= count; i++) {
+				bh.consume(rs.getObject(i));
+			}
+		}
+	}
+
+	@Benchmark
+	public List<Map<String, Object>> toMapList() throws SQLException {
+		return ResultSetUtils.toMapList(resultSet());
+	}
+
+	@Benchmark
+	public List<Map<String, Object>> toMapListWithPojoMeta() throws SQLException {
+		return ResultSetUtils.toMapList(resultSet(), pm);
+	}
+
+	@Benchmark
+	public List<Object> toPojoList() throws Exception {
+		return ResultSetUtils.toPojoList(resultSet(), pm);
+	}
+
+	@Benchmark
+	public List<Object> toMapListThenPojo() throws Exception {
+		return PojoResultHandler.handler.parse(pm, ResultSetUtils.toMapList(resultSet(), pm));
+	}
+
+	@Benchmark
+	public Object buildPojo() throws Exception {
+		return pm.buildPojo(pojoMap);
+	}
+}
@@ -0,0 +1,218 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.bench;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yx.annotation.http.Web;
+import org.yx.common.StringEntity;
+import org.yx.http.act.HttpActionInfo;
+import org.yx.http.act.HttpActionNode;
+import org.yx.http.act.IngoreNameActionInfo;
+import org.yx.http.handler.HttpHandler;
+import org.yx.http.handler.HttpHandlerChain;
+import org.yx.http.handler.InvokeHandler;
+import org.yx.http.handler.ReqDataHandler;
+import org.yx.http.handler.ReqToStringHandler;
+import org.yx.http.handler.RespBodyHandler;
+import org.yx.http.handler.RespToStringHandler;
+import org.yx.http.handler.ToBytesHandler;
+import org.yx.http.handler.WebContext;
+import org.yx.http.invoke.WebHandler;
+import org.yx.http.kit.HttpSettings;
+import org.yx.http.start.WebAnnotationResolver;
+import org.yx.util.S;
+
+/**
+ * 不需要登录、不加密的普通http请求，从读取请求数据到写出响应的整个handler链。<BR>
+ * request和response都是动态代理，body表示数据在请求体里，否则是在data参数里。<BR>
+ * 参数类是asm生成的，jdk9以上需要开放java.lang给defineClass
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-XX:+IgnoreUnrecognizedVMOptions", "--add-opens=java.base/java.lang=ALL-UNNAMED" })
+@State(Scope.Thread)
+public class HttpChainBenchmark {
+
+	@Param({ "4", "64" })
+	private int tagCount;
+
+	@Param({ "true", "false" })
+	private boolean body;
+
+	private final HttpHandlerChain chain = new HttpHandlerChain();
+	private HttpActionInfo actionInfo;
+	private String data;
+	private byte[] dataBytes;
+	private HttpServletResponse resp;
+
+	public static class BenchWeb {
+
+		@Web(requireLogin = false)
+		public Map<String, Object> echo(String name, int age, List<String> tags) {
+			Map<String, Object> map = new HashMap<>();
+			map.put("name", name);
+			map.put("age", age);
+			map.put("tags", tags);
+			return map;
+		}
+	}
+
+	@Setup
+	public void setup() throws Exception {
+		HttpSettings.init();
+		WebHandler.init();
+		List<StringEntity<HttpActionNode>> nodes = new WebAnnotationResolver().resolve(new BenchWeb());
+		StringEntity<HttpActionNode> node = nodes.get(0);
+		this.actionInfo = new IngoreNameActionInfo(node.key(), node.value(), node.key());
+		List<HttpHandler> handlers = Arrays.asList(new ReqDataHandler(), new ReqToStringHandler(),
+				new InvokeHandler(), new RespToStringHandler(), new ToBytesHandler(), new RespBodyHandler());
+		chain.setHandlers(handlers);
+
+		List<String> tags = new ArrayList<>(tagCount);
+		for (int i = 0; i < tagCount; i++) {
+			tags.add("标签" + i);
+		}
+		Map<String, Object> param = new HashMap<>();
+		param.put("name", "sumk");
+		param.put("age", 18);
+		param.put("tags", tags);
+		this.data = S.json().toJson(param);
+		this.dataBytes = data.getBytes(StandardCharsets.UTF_8);
+		this.resp = response();
+	}
+
+	private HttpServletRequest request() {
+		ByteArrayInputStream in = new ByteArrayInputStream(dataBytes);
+		ServletInputStream sin = new ServletInputStream() {
+
+			@Override
+			public int read() {
+				return in.read();
+			}
+
+			@Override
+			public int read(byte[] b, int off, int len) {
+				return in.read(b, off, len);
+			}
+
+			@Override
+			public boolean isFinished() {
+				return in.available() == 0;
+			}
+
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+
+			@Override
+			public void setReadListener(ReadListener readListener) {
+			}
+		};
+		return (HttpServletRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { HttpServletRequest.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "getParameter":
+						return !body && "data".equals(args[0]) ? data : null;
+					case "getInputStream":
+						return sin;
+					case "getContentLength":
+						return dataBytes.length;
+					default:
+						return defaultValue(method.getReturnType());
+					}
+				});
+	}
+
+	private HttpServletResponse response() {
+		ServletOutputStream out = new ServletOutputStream() {
+
+			@Override
+			public void write(int b) {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+
+			@Override
+			public boolean isReady() {
+				return true;
+			}
+
+			@Override
+			public void setWriteListener(WriteListener writeListener) {
+			}
+		};
+		return (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { HttpServletResponse.class }, (proxy, method, args) -> {
+					if ("getOutputStream".equals(method.getName())) {
+						return out;
+					}
+					return defaultValue(method.getReturnType());
+				});
+	}
+
+	private static Object defaultValue(Class<?> type) {
+		if (!type.isPrimitive() || type == void.class) {
+			return null;
+		}
+		if (type == boolean.class) {
+			return false;
+		}
+		if (type == long.class) {
+			return 0L;
+		}
+		return 0;
+	}
+
+	@Benchmark
+	public Object handle() throws Throwable {
+		WebContext ctx = new WebContext(actionInfo, request(), resp, System.currentTimeMillis(),
+				StandardCharsets.UTF_8);
+		chain.handle(ctx);
+		return ctx.result();
+	}
+}
@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.session.DummySession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yx.rpc.codec.ProtocolObject;
+import org.yx.rpc.codec.Request;
+import org.yx.rpc.codec.decoders.OrderedParamDeserializer;
+
+/**
+ * 老格式下按顺序传递的参数的解析，数据来自ReqEncoder的真实输出
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParamDeserializerBenchmark {
+
+	@Param({ "1", "4", "16" })
+	private int paramCount;
+
+	@Param({ "32", "1024" })
+	private int paramSize;
+
+	private final OrderedParamDeserializer deserializer = new OrderedParamDeserializer();
+	private int protocol;
+	private byte[] data;
+
+	@Setup
+	public void setup() throws Exception {
+		String[] params = new String[paramCount];
+		for (int i = 0; i < paramCount; i++) {
+			params[i] = BenchKits.jsonPayload(paramSize);
+		}
+		BenchKits.EncoderOutput encoded = new BenchKits.EncoderOutput();
+		DummySession session = new DummySession();
+		BenchKits.encoder().encode(session, BenchKits.createReq("bench.echo", params, false), encoded);
+		BenchKits.DecoderOutput decoded = new BenchKits.DecoderOutput();
+		BenchKits.decoder().decode(session, (IoBuffer) encoded.messages.get(0), decoded);
+		ProtocolObject obj = (ProtocolObject) decoded.messages.get(0);
+		this.protocol = obj.getProtocol();
+		this.data = obj.getData();
+	}
+
+	@Benchmark
+	public Request decodeOrdered() {
+		return deserializer.decode(protocol, data);
+	}
+}
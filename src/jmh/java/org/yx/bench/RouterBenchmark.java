@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yx.common.route.AbstractWeightedServer;
+import org.yx.common.route.Router;
+import org.yx.common.route.Routes;
+import org.yx.common.route.WeightedServer;
+
+/**
+ * 路由选择。带Contended后缀的是多线程共用一个路由的场景
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RouterBenchmark {
+
+	@Param({ "3", "16" })
+	private int serverCount;
+
+	private Router<String> weighted;
+	private Router<String> p2c;
+
+	@Setup
+	public void setup() {
+		List<WeightedServer<String>> servers = new ArrayList<>(serverCount);
+		for (int i = 0; i < serverCount; i++) {
+			BenchServer s = new BenchServer("192.168.0." + i + ":8080");
+			s.setWeight(i % 3 + 1);
+			servers.add(s);
+		}
+		this.weighted = Routes.createWeightedRouter(servers);
+		this.p2c = Routes.createP2CRouter(servers, String::length);
+	}
+
+	@Benchmark
+	public String weightedSelect() {
+		return weighted.select();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public String weightedSelectContended() {
+		return weighted.select();
+	}
+
+	@Benchmark
+	public String p2cSelect() {
+		return p2c.select();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public String p2cSelectContended() {
+		return p2c.select();
+	}
+
+	private static final class BenchServer extends AbstractWeightedServer<String> {
+
+		BenchServer(String source) {
+			super(source);
+		}
+
+		@Override
+		public boolean isEnable() {
+			return true;
+		}
+	}
+}
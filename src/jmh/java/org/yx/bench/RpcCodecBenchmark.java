@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.session.DummySession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yx.rpc.client.Req;
+import org.yx.rpc.codec.IoBufferPool;
+import org.yx.rpc.codec.SumkProtocolDecoder;
+import org.yx.rpc.codec.SumkProtocolEncoder;
+import org.yx.rpc.server.Response;
+
+/**
+ * rpc帧的编解码，不经过网络。binary表示二进制帧，false是老的字符串分隔格式
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RpcCodecBenchmark {
+
+	@Param({ "64", "1024", "16384" })
+	private int payloadSize;
+
+	@Param({ "true", "false" })
+	private boolean binary;
+
+	private SumkProtocolEncoder encoder;
+	private SumkProtocolDecoder decoder;
+	private DummySession session;
+	private Req req;
+	private Response resp;
+	private IoBuffer reqFrame;
+	private IoBuffer respFrame;
+
+	@Setup
+	public void setup() throws Exception {
+		this.encoder = BenchKits.encoder();
+		this.decoder = BenchKits.decoder();
+		this.session = new DummySession();
+		String payload = BenchKits.jsonPayload(payloadSize);
+		this.req = BenchKits.createReq("bench.echo", new String[] { payload, "12345" }, binary);
+		this.resp = new Response(req.getSn());
+		this.resp.id(req.getId());
+		this.resp.json(payload);
+		this.resp.setClientAcceptedProtocol(req.getAcceptResponseTypes());
+		this.reqFrame = copy(encode(req));
+		this.respFrame = copy(encode(resp));
+	}
+
+	private IoBuffer encode(Object message) throws Exception {
+		BenchKits.EncoderOutput out = new BenchKits.EncoderOutput();
+		encoder.encode(session, message, out);
+		return (IoBuffer) out.messages.get(0);
+	}
+
+	private static IoBuffer copy(IoBuffer buffer) {
+		IoBuffer ret = IoBuffer.allocate(buffer.remaining(), false);
+		ret.put(buffer);
+		ret.flip();
+		IoBufferPool.release(buffer);
+		return ret;
+	}
+
+	private Object decode(IoBuffer frame) throws Exception {
+		frame.rewind();
+		BenchKits.DecoderOutput out = new BenchKits.DecoderOutput();
+		decoder.decode(session, frame, out);
+		return out.messages.get(0);
+	}
+
+	@Benchmark
+	public int encodeRequest() throws Exception {
+		IoBuffer buffer = encode(req);
+		int len = buffer.remaining();
+		IoBufferPool.release(buffer);
+		return len;
+	}
+
+	@Benchmark
+	public Object decodeRequest() throws Exception {
+		return decode(reqFrame);
+	}
+
+	@Benchmark
+	public int encodeResponse() throws Exception {
+		IoBuffer buffer = encode(resp);
+		int len = buffer.remaining();
+		IoBufferPool.release(buffer);
+		return len;
+	}
+
+	@Benchmark
+	public Object decodeResponse() throws Exception {
+		return decode(respFrame);
+	}
+}
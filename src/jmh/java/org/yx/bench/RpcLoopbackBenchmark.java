@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.bench;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mina.core.filterchain.DefaultIoFilterChainBuilder;
+import org.apache.mina.core.future.ConnectFuture;
+import org.apache.mina.core.service.IoHandlerAdapter;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.codec.ProtocolCodecFilter;
+import org.apache.mina.transport.socket.nio.NioSocketAcceptor;
+import org.apache.mina.transport.socket.nio.NioSocketConnector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.yx.rpc.client.Req;
+import org.yx.rpc.codec.IoBufferRecycleFilter;
+import org.yx.rpc.codec.ProtocolObject;
+import org.yx.rpc.codec.Request;
+import org.yx.rpc.codec.decoders.OrderedParamDeserializer;
+import org.yx.rpc.server.Response;
+
+/**
+ * 在127.0.0.1上启动mina的acceptor，测量一次请求响应的往返时间。<BR>
+ * 服务端直接把参数回显，不经过业务线程池，所以结果只包含编解码和网络层的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RpcLoopbackBenchmark {
+
+	private static final OrderedParamDeserializer ORDERED = new OrderedParamDeserializer();
+
+	@Param({ "64", "1024", "16384" })
+	private int payloadSize;
+
+	@Param({ "true", "false" })
+	private boolean binary;
+
+	private NioSocketAcceptor acceptor;
+	private NioSocketConnector connector;
+	private IoSession session;
+	private final BlockingQueue<Object> responses = new LinkedBlockingQueue<>();
+	private Req req;
+
+	private static void buildChain(DefaultIoFilterChainBuilder chain) {
+		chain.addLast("recycle", new IoBufferRecycleFilter());
+		chain.addLast("codec", new ProtocolCodecFilter(BenchKits.codecFactory()));
+	}
+
+	@Setup
+	public void setup() throws Exception {
+		acceptor = new NioSocketAcceptor(1);
+		acceptor.setReuseAddress(true);
+		buildChain(acceptor.getFilterChain());
+		acceptor.setHandler(new IoHandlerAdapter() {
+			@Override
+			public void messageReceived(IoSession session, Object message) throws Exception {
+				session.write(echo(message));
+			}
+		});
+		acceptor.bind(new InetSocketAddress("127.0.0.1", 0));
+
+		connector = new NioSocketConnector(1);
+		buildChain(connector.getFilterChain());
+		connector.setHandler(new IoHandlerAdapter() {
+			@Override
+			public void messageReceived(IoSession session, Object message) throws Exception {
+				responses.offer(message);
+			}
+		});
+		ConnectFuture cf = connector.connect(acceptor.getLocalAddress());
+		cf.awaitUninterruptibly();
+		session = cf.getSession();
+
+		String payload = BenchKits.jsonPayload(payloadSize);
+		req = BenchKits.createReq("bench.echo", new String[] { payload }, binary);
+	}
+
+	private static Response echo(Object message) {
+		Request request;
+		if (message instanceof Request) {
+			request = (Request) message;
+		} else {
+			ProtocolObject obj = (ProtocolObject) message;
+			request = ORDERED.decode(obj.getProtocol(), obj.getData());
+		}
+		Response resp = new Response(request.getSn());
+		resp.id(request.getId());
+		resp.json(request.getParamArray()[0]);
+		resp.setClientAcceptedProtocol(request.getAcceptResponseTypes());
+		return resp;
+	}
+
+	@TearDown
+	public void tearDown() {
+		session.closeNow().awaitUninterruptibly();
+		connector.dispose();
+		acceptor.unbind();
+		acceptor.dispose();
+	}
+
+	@Benchmark
+	public Object roundTrip() throws InterruptedException {
+		session.write(req);
+		return responses.take();
+	}
+}
@@ -53,4 +53,16 @@ public @interface Table {
 	 * @return 主键缓存都是SINGLE，外键缓存一般用LIST
 	 */
 	CacheType cacheType() default CacheType.SINGLE;
+
+	/**
+	 * 本地缓存，存放的是反序列化后的对象，位于redis缓存之前
+	 * 
+	 * @return 本地缓存的最大条数。0表示使用全局设置，小于0表示不使用本地缓存
+	 */
+	int nearCacheSize() default 0;
+
+	/**
+	 * @return 本地缓存的存活时间，单位秒。0表示使用全局设置
+	 */
+	int nearCacheTtl() default 0;
 }
@@ -64,4 +64,13 @@ public @interface Web {
 	int toplimit() default 0;
 
 	String[] method() default {};
+
+	/**
+	 * 异步处理，请求体用非阻塞的方式读取，不占用http线程。<BR>
+	 * 方法返回CompletableFuture(或CompletionStage)时，等它完成后才发送响应。
+	 * 同步模式下，返回CompletableFuture的方法会在http线程中等待它完成
+	 * 
+	 * @return true表示使用servlet的异步模式
+	 */
+	boolean async() default false;
 }
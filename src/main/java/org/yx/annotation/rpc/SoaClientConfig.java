@@ -32,4 +32,9 @@ public @interface SoaClientConfig {
 	int timeout() default -1;
 
 	int tryCount() default -1;
+
+	/**
+	 * 是否使用紧凑的二进制参数。服务端不支持的时候会自动使用json
+	 */
+	boolean compactParam() default false;
 }
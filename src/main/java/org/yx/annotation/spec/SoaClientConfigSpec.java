@@ -19,10 +19,16 @@ public class SoaClientConfigSpec {
 
 	private final int timeout;
 	private final int tryCount;
+	private final boolean compactParam;
 
 	public SoaClientConfigSpec(int timeout, int tryCount) {
+		this(timeout, tryCount, false);
+	}
+
+	public SoaClientConfigSpec(int timeout, int tryCount, boolean compactParam) {
 		this.timeout = timeout;
 		this.tryCount = tryCount;
+		this.compactParam = compactParam;
 	}
 
 	public int timeout() {
@@ -32,4 +38,8 @@ public class SoaClientConfigSpec {
 	public int tryCount() {
 		return this.tryCount;
 	}
+
+	public boolean compactParam() {
+		return this.compactParam;
+	}
 }
@@ -25,13 +25,22 @@ public class TableSpec {
 	private final String preInCache;
 	private final int maxHit;
 	private final CacheType cacheType;
+	private final int nearCacheSize;
+	private final int nearCacheTtl;
 
 	public TableSpec(String value, int duration, String preInCache, int maxHit, CacheType cacheType) {
+		this(value, duration, preInCache, maxHit, cacheType, 0, 0);
+	}
+
+	public TableSpec(String value, int duration, String preInCache, int maxHit, CacheType cacheType,
+			int nearCacheSize, int nearCacheTtl) {
 		this.value = value;
 		this.duration = duration;
 		this.preInCache = preInCache;
 		this.maxHit = maxHit;
 		this.cacheType = Objects.requireNonNull(cacheType);
+		this.nearCacheSize = nearCacheSize;
+		this.nearCacheTtl = nearCacheTtl;
 	}
 
 	/**
@@ -71,4 +80,20 @@ public class TableSpec {
 		return cacheType;
 	}
 
+	/**
+	 * 本地缓存，存放的是反序列化后的对象，位于redis缓存之前
+	 * 
+	 * @return 本地缓存的最大条数。0表示使用全局设置，小于0表示不使用本地缓存
+	 */
+	public int nearCacheSize() {
+		return nearCacheSize;
+	}
+
+	/**
+	 * @return 本地缓存的存活时间，单位秒。0表示使用全局设置
+	 */
+	public int nearCacheTtl() {
+		return nearCacheTtl;
+	}
+
 }
@@ -30,9 +30,15 @@ public class WebSpec {
 	private final String[] tags;
 	private final int toplimit;
 	private final String[] method;
+	private final boolean async;
 
 	public WebSpec(String value, String cnName, boolean requireLogin, MessageType requestType, boolean sign,
 			MessageType responseType, String[] tags, int toplimit, String[] method) {
+		this(value, cnName, requireLogin, requestType, sign, responseType, tags, toplimit, method, false);
+	}
+
+	public WebSpec(String value, String cnName, boolean requireLogin, MessageType requestType, boolean sign,
+			MessageType responseType, String[] tags, int toplimit, String[] method, boolean async) {
 		this.value = Objects.requireNonNull(value);
 		this.cnName = Objects.requireNonNull(cnName);
 		this.requireLogin = requireLogin;
@@ -42,6 +48,7 @@ public class WebSpec {
 		this.tags = Objects.requireNonNull(tags);
 		this.toplimit = toplimit;
 		this.method = Objects.requireNonNull(method);
+		this.async = async;
 	}
 
 	public String value() {
@@ -79,4 +86,8 @@ public class WebSpec {
 	public String[] method() {
 		return this.method;
 	}
+
+	public boolean async() {
+		return this.async;
+	}
 }
@@ -55,7 +55,8 @@ public final class BuiltIn {
 		if (table == null) {
 			return null;
 		}
-		return new TableSpec(table.value(), table.duration(), table.preInCache(), table.maxHit(), table.cacheType());
+		return new TableSpec(table.value(), table.duration(), table.preInCache(), table.maxHit(), table.cacheType(),
+				table.nearCacheSize(), table.nearCacheTtl());
 	};
 
 	public static final BiFunction<Class<?>, Field, ColumnSpec> COLUMN_PARSER = (clz, f) -> {
@@ -166,6 +167,6 @@ public final class BuiltIn {
 		if (c == null) {
 			return null;
 		}
-		return new SoaClientConfigSpec(c.timeout(), c.tryCount());
+		return new SoaClientConfigSpec(c.timeout(), c.tryCount(), c.compactParam());
 	};
 }
@@ -46,6 +46,6 @@ public final class SpecFactory {
 
 	public static WebSpec create(Web web) {
 		return new WebSpec(web.value(), web.cnName(), web.requireLogin(), web.requestType(), web.sign(),
-				web.responseType(), web.tags(), web.toplimit(), web.method());
+				web.responseType(), web.tags(), web.toplimit(), web.method(), web.async());
 	}
 }
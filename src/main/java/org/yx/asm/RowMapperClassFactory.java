@@ -0,0 +1,176 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.asm;
+
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ARETURN;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.CHECKCAST;
+import static org.objectweb.asm.Opcodes.DUP;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.IFNULL;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKESTATIC;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.NEW;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
+import static org.objectweb.asm.Opcodes.RETURN;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import org.yx.conf.AppInfo;
+import org.yx.db.sql.ColumnMeta;
+import org.yx.db.visit.RowMapper;
+import org.yx.log.Logs;
+
+/**
+ * 生成RowMapper的实现类。按下标读取列，public属性直接赋值，其它的通过ColumnMeta反射赋值。<BR>
+ * 跟ColumnMeta.setValue一样直接给属性赋值，不调用setter
+ */
+public final class RowMapperClassFactory {
+	private static final AtomicInteger SEED = new AtomicInteger(0);
+	private static final String COLUMN_META = Type.getInternalName(ColumnMeta.class);
+	private static final String METAS_DESC = "[L" + COLUMN_META + ";";
+
+	private final String pojoName;
+	private final ColumnMeta[] metas;
+	private final String fullName;
+
+	/**
+	 * @param metas
+	 *            第i个元素对应ResultSet的第i+1列
+	 */
+	public RowMapperClassFactory(Class<?> pojoClz, ColumnMeta[] metas) {
+		this.pojoName = Type.getInternalName(pojoClz);
+		this.metas = metas;
+		this.fullName = "org/ytl/rowmapper/" + pojoClz.getSimpleName() + "_" + SEED.incrementAndGet();
+	}
+
+	public static boolean canGenerate(Class<?> pojoClz) {
+		for (Class<?> clz = pojoClz; clz != null; clz = clz.getEnclosingClass()) {
+			if (!Modifier.isPublic(clz.getModifiers())) {
+				return false;
+			}
+		}
+		if (pojoClz.getEnclosingClass() != null && !Modifier.isStatic(pojoClz.getModifiers())) {
+			return false;
+		}
+		try {
+			pojoClz.getConstructor();
+			return true;
+		} catch (NoSuchMethodException e) {
+			return false;
+		}
+	}
+
+	public RowMapper create() throws Exception {
+		if (Logs.asm().isTraceEnabled()) {
+			Logs.asm().trace("begin generate row mapper :{}", fullName);
+		}
+		ClassWriter cw = new ClassWriter(
+				AppInfo.getInt("sumk.asm.writer.rowmapper.compute", ClassWriter.COMPUTE_FRAMES));
+		cw.visit(AsmUtils.jvmVersion(), ACC_PUBLIC | ACC_SUPER, fullName, null, "java/lang/Object",
+				new String[] { Type.getInternalName(RowMapper.class) });
+		cw.visitField(ACC_PRIVATE | ACC_FINAL, "metas", METAS_DESC, null, null).visitEnd();
+		this.buildInit(cw);
+		this.buildMap(cw);
+		cw.visitEnd();
+
+		Class<?> clz = AsmUtils.loadClass(fullName.replace('/', '.'), cw.toByteArray());
+		return (RowMapper) clz.getConstructor(ColumnMeta[].class).newInstance((Object) metas);
+	}
+
+	private void buildInit(ClassWriter cw) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "<init>", "(" + METAS_DESC + ")V", null, null);
+		mv.visitCode();
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitMethodInsn(INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitVarInsn(ALOAD, 1);
+		mv.visitFieldInsn(PUTFIELD, fullName, "metas", METAS_DESC);
+		mv.visitInsn(RETURN);
+		mv.visitMaxs(2, 2);
+		mv.visitEnd();
+	}
+
+	private void buildMap(ClassWriter cw) {
+		MethodVisitor mv = cw.visitMethod(ACC_PUBLIC, "map", "(Ljava/sql/ResultSet;)Ljava/lang/Object;", null,
+				new String[] { "java/lang/Exception" });
+		mv.visitCode();
+		mv.visitTypeInsn(NEW, pojoName);
+		mv.visitInsn(DUP);
+		mv.visitMethodInsn(INVOKESPECIAL, pojoName, "<init>", "()V", false);
+		mv.visitVarInsn(ASTORE, 2);
+		for (int i = 0; i < metas.length; i++) {
+			mv.visitVarInsn(ALOAD, 1);
+			WriterHelper.visitInt(mv, i + 1);
+			mv.visitMethodInsn(INVOKEINTERFACE, "java/sql/ResultSet", "getObject", "(I)Ljava/lang/Object;", true);
+			mv.visitVarInsn(ASTORE, 3);
+			mv.visitVarInsn(ALOAD, 3);
+			Label skip = new Label();
+			mv.visitJumpInsn(IFNULL, skip);
+			this.setValue(mv, i);
+			mv.visitLabel(skip);
+		}
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitInsn(ARETURN);
+		mv.visitMaxs(4, 4);
+		mv.visitEnd();
+	}
+
+	private void setValue(MethodVisitor mv, int index) {
+		Field field = metas[index].getField();
+		Class<?> type = field.getType();
+		if (!type.isPrimitive()) {
+			int mod = field.getModifiers();
+			if (Modifier.isPublic(mod) && !Modifier.isFinal(mod) && !Modifier.isStatic(mod)
+					&& Modifier.isPublic(field.getDeclaringClass().getModifiers())) {
+				mv.visitVarInsn(ALOAD, 2);
+				convert(mv, type);
+				mv.visitFieldInsn(PUTFIELD, Type.getInternalName(field.getDeclaringClass()), field.getName(),
+						Type.getDescriptor(type));
+				return;
+			}
+		}
+		mv.visitVarInsn(ALOAD, 0);
+		mv.visitFieldInsn(GETFIELD, fullName, "metas", METAS_DESC);
+		WriterHelper.visitInt(mv, index);
+		mv.visitInsn(AALOAD);
+		mv.visitVarInsn(ALOAD, 2);
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitMethodInsn(INVOKEVIRTUAL, COLUMN_META, "setValue", "(Ljava/lang/Object;Ljava/lang/Object;)V", false);
+	}
+
+	private static void convert(MethodVisitor mv, Class<?> type) {
+		mv.visitVarInsn(ALOAD, 3);
+		mv.visitLdcInsn(Type.getType(type));
+		mv.visitMethodInsn(INVOKESTATIC, "org/yx/util/kit/TypeConverter", "convert",
+				"(Ljava/lang/Object;Ljava/lang/Class;)Ljava/lang/Object;", false);
+		mv.visitTypeInsn(CHECKCAST, Type.getInternalName(type));
+	}
+}
@@ -37,6 +37,8 @@ import org.yx.conf.AppInfo;
 import org.yx.conf.Const;
 import org.yx.db.conn.DataSourceManager;
 import org.yx.db.conn.DataSources;
+import org.yx.db.sql.LatencyHistogram;
+import org.yx.db.sql.NearCache;
 import org.yx.db.sql.PojoMeta;
 import org.yx.db.sql.PojoMetaHolder;
 import org.yx.db.sql.VisitCounter;
@@ -44,6 +46,7 @@ import org.yx.db.visit.SumkStatement;
 import org.yx.log.LogLevel;
 import org.yx.log.Loggers;
 import org.yx.main.SumkServer;
+import org.yx.redis.CacheWriteBehind;
 import org.yx.util.StringUtil;
 import org.yx.util.SumkDate;
 
@@ -164,18 +167,40 @@ public class Monitors {
 		return sb.toString();
 	}
 
+	private static String latency(LatencyHistogram h) {
+		return h == null ? "-" : h.toString();
+	}
+
 	public static String dbCacheVisitInfo() {
 		List<PojoMeta> list = PojoMetaHolder.allPojoMeta();
 		StringBuilder sb = new StringBuilder(32);
 		sb.append("##tableName").append(BLANK).append("modifyCount").append(BLANK).append("visitCount").append(BLANK)
-				.append("cachedMeeted").append(AppInfo.LN);
+				.append("cachedMeeted").append(BLANK).append("cacheMissed").append(BLANK).append("bypass").append(BLANK)
+				.append("redisLatency").append(BLANK).append("dbLatency").append(BLANK).append("nearHits").append(BLANK)
+				.append("nearMisses").append(BLANK).append("nearSize").append(AppInfo.LN);
 		for (PojoMeta p : list) {
 			if (p.isNoCache()) {
 				continue;
 			}
 			VisitCounter c = p.getCounter();
 			sb.append(p.getTableName()).append(BLANK).append(c.getModifyCount()).append(BLANK).append(c.getVisitCount())
-					.append(BLANK).append(c.getCachedMeet()).append(AppInfo.LN);
+					.append(BLANK).append(c.getCachedMeet()).append(BLANK).append(c.getCacheMiss()).append(BLANK)
+					.append(c.getBypassCount()).append(BLANK).append(latency(c.redisLatency())).append(BLANK)
+					.append(latency(c.dbLatency())).append(BLANK);
+			NearCache near = p.nearCache();
+			if (near != null) {
+				sb.append(near.getHits()).append(BLANK).append(near.getMisses()).append(BLANK).append(near.size());
+			} else {
+				sb.append('-').append(BLANK).append('-').append(BLANK).append('-');
+			}
+			sb.append(AppInfo.LN);
+		}
+		if (CacheWriteBehind.enabled()) {
+			sb.append("#asyncPending").append(BLANK).append(CacheWriteBehind.pending()).append(BLANK)
+					.append("lag(ms)").append(BLANK).append(CacheWriteBehind.lastLag()).append(BLANK)
+					.append("coalesced").append(BLANK).append(CacheWriteBehind.coalescedCount()).append(BLANK)
+					.append("overflow").append(BLANK).append(CacheWriteBehind.overflowCount()).append(BLANK)
+					.append("dropped").append(BLANK).append(CacheWriteBehind.droppedCount()).append(AppInfo.LN);
 		}
 		return sb.toString();
 	}
@@ -15,6 +15,7 @@
  */
 package org.yx.common.json;
 
+import java.io.Writer;
 import java.lang.reflect.Type;
 import java.util.Objects;
 
@@ -46,6 +47,11 @@ public class GsonOperator implements JsonOperator {
 		return writer.toString();
 	}
 
+	@Override
+	public void toJson(Object obj, Writer writer) {
+		gson.toJson(obj, writer);
+	}
+
 	@Override
 	public <T> T fromJson(String json, Class<T> clz) {
 		return gson.fromJson(json, clz);
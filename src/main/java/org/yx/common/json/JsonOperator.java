@@ -15,12 +15,21 @@
  */
 package org.yx.common.json;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.lang.reflect.Type;
 
 public interface JsonOperator {
 
 	String toJson(Object obj);
 
+	/**
+	 * 直接写入writer，大对象可以避免生成中间的字符串
+	 */
+	default void toJson(Object obj, Writer writer) throws IOException {
+		writer.write(toJson(obj));
+	}
+
 	<T> T fromJson(String json, Class<T> clz);
 
 	<T> T fromJson(String json, Type type);
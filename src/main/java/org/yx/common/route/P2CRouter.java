@@ -0,0 +1,122 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.common.route;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * power of two choices：随机挑选两个可用的节点，选择负载较小的那个。<BR>
+ * 负载由cost计算，再除以权重。权重小于等于0的节点只有在其它节点都不可用时才会被选中
+ */
+public class P2CRouter<T> implements Router<T> {
+
+	protected final WeightedServer<T>[] SERVERS;
+
+	protected final ToDoubleFunction<T> cost;
+
+	public P2CRouter(Collection<WeightedServer<T>> servers, ToDoubleFunction<T> cost) {
+		@SuppressWarnings("unchecked")
+		WeightedServer<T>[] ws = servers.toArray((WeightedServer<T>[]) new WeightedServer<?>[servers.size()]);
+		this.SERVERS = ws;
+		this.cost = Objects.requireNonNull(cost);
+	}
+
+	protected double load(WeightedServer<T> server) {
+		int weight = server.getWeight();
+		if (weight <= 0) {
+			return Double.MAX_VALUE;
+		}
+		return cost.applyAsDouble(server.getSource()) / weight;
+	}
+
+	@Override
+	public T select() {
+		final int SERVER_COUNT = SERVERS.length;
+		if (SERVER_COUNT == 0) {
+			return null;
+		}
+		if (SERVER_COUNT == 1) {
+			return SERVERS[0].isEnable() ? SERVERS[0].getSource() : null;
+		}
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int a = random.nextInt(SERVER_COUNT);
+		int b = random.nextInt(SERVER_COUNT - 1);
+		if (b >= a) {
+			b++;
+		}
+		WeightedServer<T> s1 = SERVERS[a];
+		WeightedServer<T> s2 = SERVERS[b];
+		boolean e1 = s1.isEnable();
+		boolean e2 = s2.isEnable();
+		if (e1 && e2) {
+			return load(s1) <= load(s2) ? s1.getSource() : s2.getSource();
+		}
+		if (e1) {
+			return s1.getSource();
+		}
+		if (e2) {
+			return s2.getSource();
+		}
+		return selectLeastLoad();
+	}
+
+	private T selectLeastLoad() {
+		WeightedServer<T> best = null;
+		double min = 0;
+		for (WeightedServer<T> s : SERVERS) {
+			if (!s.isEnable()) {
+				continue;
+			}
+			double load = load(s);
+			if (best == null || load < min) {
+				best = s;
+				min = load;
+			}
+		}
+		return best == null ? null : best.getSource();
+	}
+
+	@Override
+	public List<T> allSources() {
+		List<T> list = new ArrayList<>(SERVERS.length);
+		for (WeightedServer<T> s : this.SERVERS) {
+			list.add(s.getSource());
+		}
+		return list;
+	}
+
+	@Override
+	public List<T> aliveSources() {
+		List<T> list = new ArrayList<>(SERVERS.length);
+		for (WeightedServer<T> s : this.SERVERS) {
+			if (!s.isEnable()) {
+				continue;
+			}
+			list.add(s.getSource());
+		}
+		return list;
+	}
+
+	@Override
+	public String toString() {
+		return "[P2C, SERVER_COUNT=" + SERVERS.length + "]";
+	}
+}
@@ -16,6 +16,7 @@
 package org.yx.common.route;
 
 import java.util.Collection;
+import java.util.function.ToDoubleFunction;
 
 public final class Routes {
 
@@ -28,4 +29,14 @@ public final class Routes {
 		}
 		return new WeightedRouter<>(servers);
 	}
+
+	public static <T> Router<T> createP2CRouter(Collection<WeightedServer<T>> servers, ToDoubleFunction<T> cost) {
+		if (servers == null || servers.isEmpty()) {
+			return new EmptyRouter<>();
+		}
+		if (servers.size() == 1) {
+			return new SingleRouter<>(servers.iterator().next());
+		}
+		return new P2CRouter<>(servers, cost);
+	}
 }
@@ -20,12 +20,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class WeightedRouter<T> implements Router<T> {
 
-	protected int currentIndex = -1;
-
-	protected int currentWeight;
+	/**
+	 * 高32位是currentWeight，低32位是currentIndex。两者一起用CAS更新，多线程调用时不需要加锁
+	 */
+	private final AtomicLong state;
 
 	protected final int MAX_WEIGHT;
 
@@ -40,7 +42,11 @@ public class WeightedRouter<T> implements Router<T> {
 		SERVERS = ws;
 		MAX_WEIGHT = getMaxWeightForServers();
 		GCD_WEIGHT = getGCDForServers();
-		this.currentWeight = this.MAX_WEIGHT;
+		this.state = new AtomicLong(pack(this.MAX_WEIGHT, -1));
+	}
+
+	private static long pack(int weight, int index) {
+		return ((long) weight << 32) | (index & 0xFFFFFFFFL);
 	}
 
 	private BigInteger gcd(BigInteger a, BigInteger b) {
@@ -101,21 +107,24 @@ public class WeightedRouter<T> implements Router<T> {
 
 	@Override
 	public T select() {
-		int index = 0;
 		final int SERVER_COUNT = SERVERS.length;
 
 		for (int i = 0; i < SERVER_COUNT; i++) {
-			index = (currentIndex + 1) % SERVER_COUNT;
-			currentIndex = index;
-
-			if (index == 0) {
-				int tempWeight = currentWeight - GCD_WEIGHT;
-
-				currentWeight = tempWeight < 1 ? MAX_WEIGHT : tempWeight;
-			}
+			int index;
+			int weight;
+			long current;
+			do {
+				current = state.get();
+				index = ((int) current + 1) % SERVER_COUNT;
+				weight = (int) (current >>> 32);
+				if (index == 0) {
+					int tempWeight = weight - GCD_WEIGHT;
+					weight = tempWeight < 1 ? MAX_WEIGHT : tempWeight;
+				}
+			} while (!state.compareAndSet(current, pack(weight, index)));
 
 			WeightedServer<T> server = SERVERS[index];
-			if (server.getWeight() >= currentWeight) {
+			if (server.getWeight() >= weight) {
 				if (!server.isEnable()) {
 					continue;
 				}
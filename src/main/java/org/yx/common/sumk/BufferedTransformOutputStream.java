@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.common.sumk;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * 先把写入的数据缓存起来，close的时候一次性转换，并写到下层的流里。<BR>
+ * 给不支持流式处理的编码、加密实现做兼容用
+ */
+public class BufferedTransformOutputStream extends OutputStream {
+
+	@FunctionalInterface
+	public interface Transformer {
+		byte[] transform(byte[] data) throws Exception;
+	}
+
+	private final OutputStream out;
+	private final Transformer transformer;
+	private final UnsafeByteArrayOutputStream buffer = new UnsafeByteArrayOutputStream(1024);
+	private boolean closed;
+
+	public BufferedTransformOutputStream(OutputStream out, Transformer transformer) {
+		this.out = Objects.requireNonNull(out);
+		this.transformer = Objects.requireNonNull(transformer);
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		buffer.write(b);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		buffer.write(b, off, len);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			byte[] data = transformer.transform(buffer.toByteArray());
+			if (data != null && data.length > 0) {
+				out.write(data);
+			}
+		} catch (IOException | RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IOException(e);
+		} finally {
+			out.close();
+		}
+	}
+}
@@ -0,0 +1,193 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.common.sumk;
+
+/**
+ * 以long为key的并发map，key不能为0。<BR>
+ * 内部按key分成多个段，每个段是开放寻址的数组，不会像ConcurrentHashMap那样产生装箱和节点对象
+ */
+public final class LongConcurrentMap<V> {
+
+	private final Segment<V>[] segments;
+	private final int segmentMask;
+
+	public LongConcurrentMap() {
+		this(64, 64);
+	}
+
+	public LongConcurrentMap(int concurrency, int initSegmentCapacity) {
+		int size = 1;
+		while (size < concurrency) {
+			size <<= 1;
+		}
+		@SuppressWarnings("unchecked")
+		Segment<V>[] segs = (Segment<V>[]) new Segment<?>[size];
+		this.segments = segs;
+		for (int i = 0; i < size; i++) {
+			segments[i] = new Segment<>(initSegmentCapacity);
+		}
+		this.segmentMask = size - 1;
+	}
+
+	private static long mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		return key;
+	}
+
+	private Segment<V> segment(long hash) {
+		return segments[(int) hash & segmentMask];
+	}
+
+	public V putIfAbsent(long key, V value) {
+		long h = mix(key);
+		Segment<V> seg = segment(h);
+		synchronized (seg) {
+			return seg.putIfAbsent(key, (int) (h >>> 32), value);
+		}
+	}
+
+	public V get(long key) {
+		long h = mix(key);
+		Segment<V> seg = segment(h);
+		synchronized (seg) {
+			return seg.get(key, (int) (h >>> 32));
+		}
+	}
+
+	public V remove(long key) {
+		long h = mix(key);
+		Segment<V> seg = segment(h);
+		synchronized (seg) {
+			return seg.remove(key, (int) (h >>> 32));
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment<V> seg : segments) {
+			size += seg.size;
+		}
+		return size;
+	}
+
+	private static final class Segment<V> {
+		long[] keys;
+		Object[] values;
+		volatile int size;
+
+		Segment(int capacity) {
+			int c = 4;
+			while (c < capacity) {
+				c <<= 1;
+			}
+			this.keys = new long[c];
+			this.values = new Object[c];
+		}
+
+		@SuppressWarnings("unchecked")
+		V get(long key, int hash) {
+			int mask = keys.length - 1;
+			for (int i = hash & mask;; i = (i + 1) & mask) {
+				long k = keys[i];
+				if (k == key) {
+					return (V) values[i];
+				}
+				if (k == 0) {
+					return null;
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		V putIfAbsent(long key, int hash, V value) {
+			if (key == 0) {
+				throw new IllegalArgumentException("key cannot be 0");
+			}
+			if ((size + 1) << 1 > keys.length) {
+				resize();
+			}
+			int mask = keys.length - 1;
+			for (int i = hash & mask;; i = (i + 1) & mask) {
+				long k = keys[i];
+				if (k == key) {
+					return (V) values[i];
+				}
+				if (k == 0) {
+					keys[i] = key;
+					values[i] = value;
+					size++;
+					return null;
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		V remove(long key, int hash) {
+			int mask = keys.length - 1;
+			int i = hash & mask;
+			for (;; i = (i + 1) & mask) {
+				long k = keys[i];
+				if (k == 0) {
+					return null;
+				}
+				if (k == key) {
+					break;
+				}
+			}
+			V old = (V) values[i];
+			size--;
+			int gap = i;
+			for (int j = (i + 1) & mask;; j = (j + 1) & mask) {
+				long k = keys[j];
+				if (k == 0) {
+					break;
+				}
+				int home = (int) (mix(k) >>> 32) & mask;
+				if (((j - home) & mask) >= ((j - gap) & mask)) {
+					keys[gap] = k;
+					values[gap] = values[j];
+					gap = j;
+				}
+			}
+			keys[gap] = 0;
+			values[gap] = null;
+			return old;
+		}
+
+		private void resize() {
+			long[] oldKeys = this.keys;
+			Object[] oldValues = this.values;
+			int c = oldKeys.length << 1;
+			this.keys = new long[c];
+			this.values = new Object[c];
+			int mask = c - 1;
+			for (int n = 0; n < oldKeys.length; n++) {
+				long k = oldKeys[n];
+				if (k == 0) {
+					continue;
+				}
+				int i = (int) (mix(k) >>> 32) & mask;
+				while (keys[i] != 0) {
+					i = (i + 1) & mask;
+				}
+				keys[i] = k;
+				values[i] = oldValues[n];
+			}
+		}
+	}
+}
@@ -80,6 +80,13 @@ public class UnsafeByteArrayOutputStream extends OutputStream {
 		return new String(buf, 0, count, charsetName);
 	}
 
+	/**
+	 * 跟toByteArray的区别在于：如果缓存刚好满了，就直接返回内部的数组
+	 */
+	public byte[] extractData() {
+		return count == buf.length ? buf : Arrays.copyOf(buf, count);
+	}
+
 	public byte[] extractHttpBodyData() {
 		int dataLength = this.count;
 		if (dataLength == 0) {
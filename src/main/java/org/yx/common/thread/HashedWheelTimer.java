@@ -0,0 +1,287 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.common.thread;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.yx.log.Log;
+
+/**
+ * 单线程驱动的时间轮。新增和取消都是无锁的，任务在时间轮线程中执行，所以任务本身要尽量轻量。<BR>
+ * 到期误差在一个tick以内
+ */
+public final class HashedWheelTimer {
+
+	private static final int INIT = 0;
+	private static final int CANCELLED = 1;
+	private static final int EXPIRED = 2;
+
+	private final String name;
+	private final long tickNanos;
+	private final Bucket[] wheel;
+	private final int mask;
+	private final Queue<WheelTimeout> added = new ConcurrentLinkedQueue<>();
+	private final Queue<WheelTimeout> cancelled = new ConcurrentLinkedQueue<>();
+	private final AtomicLong pending = new AtomicLong();
+	private final AtomicInteger state = new AtomicInteger();
+	private volatile long startTime;
+	private final CountDownLatch startTimeInitialized = new CountDownLatch(1);
+	private long tick;
+
+	public HashedWheelTimer(String name, long tickDuration, TimeUnit unit, int wheelSize) {
+		this.name = name;
+		this.tickNanos = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+		int size = 1;
+		while (size < wheelSize) {
+			size <<= 1;
+		}
+		this.wheel = new Bucket[size];
+		for (int i = 0; i < size; i++) {
+			wheel[i] = new Bucket();
+		}
+		this.mask = size - 1;
+	}
+
+	public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+		this.start();
+		long deadline = System.nanoTime() + unit.toNanos(delay) - startTime;
+		WheelTimeout timeout = new WheelTimeout(this, task, deadline);
+		pending.incrementAndGet();
+		added.add(timeout);
+		return timeout;
+	}
+
+	public long pendingTimeouts() {
+		return pending.get();
+	}
+
+	/**
+	 * 抢到启动权的线程设置startTime，其它线程要等startTime设置好了才能计算deadline
+	 */
+	private void start() {
+		if (state.get() == 0 && state.compareAndSet(0, 1)) {
+			long now = System.nanoTime();
+			this.startTime = now == 0 ? 1 : now;
+			startTimeInitialized.countDown();
+			Thread t = new Thread(this::work, name);
+			t.setDaemon(true);
+			t.start();
+			return;
+		}
+		boolean interrupted = false;
+		while (startTime == 0) {
+			try {
+				startTimeInitialized.await();
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public void stop() {
+		state.set(2);
+	}
+
+	private void work() {
+		while (state.get() == 1) {
+			long deadline = this.waitForNextTick();
+			if (deadline < 0) {
+				continue;
+			}
+			try {
+				this.processCancelled();
+				this.transferAdded();
+				wheel[(int) (tick & mask)].expire(deadline);
+			} catch (Throwable e) {
+				Log.printStack("sumk.error", e);
+			}
+			tick++;
+		}
+	}
+
+	private long waitForNextTick() {
+		long deadline = tickNanos * (tick + 1);
+		for (;;) {
+			long current = System.nanoTime() - startTime;
+			long sleep = deadline - current;
+			if (sleep <= 0) {
+				return current;
+			}
+			LockSupport.parkNanos(this, sleep);
+			if (state.get() != 1) {
+				return -1;
+			}
+		}
+	}
+
+	private void transferAdded() {
+		for (int i = 0; i < 100000; i++) {
+			WheelTimeout timeout = added.poll();
+			if (timeout == null) {
+				return;
+			}
+			if (timeout.state.get() == CANCELLED) {
+				continue;
+			}
+			long calculated = timeout.deadline / tickNanos;
+			timeout.remainingRounds = (calculated - tick) / wheel.length;
+			long ticks = Math.max(calculated, tick);
+			wheel[(int) (ticks & mask)].add(timeout);
+		}
+	}
+
+	private void processCancelled() {
+		WheelTimeout timeout;
+		while ((timeout = cancelled.poll()) != null) {
+			if (timeout.bucket != null) {
+				timeout.bucket.remove(timeout);
+			}
+		}
+	}
+
+	public interface Timeout {
+
+		boolean cancel();
+
+		boolean isExpired();
+
+		boolean isCancelled();
+
+		/**
+		 * @return 实际执行时间跟计划时间的差值，单位是纳秒。没有执行的话返回0
+		 */
+		long lateNanos();
+	}
+
+	private static final class WheelTimeout implements Timeout {
+		final HashedWheelTimer timer;
+		final Runnable task;
+		final long deadline;
+		final AtomicInteger state = new AtomicInteger(INIT);
+		long remainingRounds;
+		long late;
+		WheelTimeout next;
+		WheelTimeout prev;
+		Bucket bucket;
+
+		WheelTimeout(HashedWheelTimer timer, Runnable task, long deadline) {
+			this.timer = timer;
+			this.task = task;
+			this.deadline = deadline;
+		}
+
+		@Override
+		public boolean cancel() {
+			if (!state.compareAndSet(INIT, CANCELLED)) {
+				return false;
+			}
+			timer.pending.decrementAndGet();
+			timer.cancelled.add(this);
+			return true;
+		}
+
+		@Override
+		public boolean isExpired() {
+			return state.get() == EXPIRED;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return state.get() == CANCELLED;
+		}
+
+		@Override
+		public long lateNanos() {
+			return late;
+		}
+
+		void expire(long now) {
+			if (!state.compareAndSet(INIT, EXPIRED)) {
+				return;
+			}
+			timer.pending.decrementAndGet();
+			this.late = Math.max(0, now - deadline);
+			try {
+				task.run();
+			} catch (Throwable e) {
+				Log.printStack("sumk.error", e);
+			}
+		}
+	}
+
+	private static final class Bucket {
+		private WheelTimeout head;
+		private WheelTimeout tail;
+
+		void add(WheelTimeout timeout) {
+			timeout.bucket = this;
+			if (head == null) {
+				head = tail = timeout;
+				return;
+			}
+			tail.next = timeout;
+			timeout.prev = tail;
+			tail = timeout;
+		}
+
+		void expire(long now) {
+			WheelTimeout timeout = head;
+			while (timeout != null) {
+				WheelTimeout next = timeout.next;
+				if (timeout.remainingRounds <= 0) {
+					remove(timeout);
+					timeout.expire(now);
+				} else if (timeout.isCancelled()) {
+					remove(timeout);
+				} else {
+					timeout.remainingRounds--;
+				}
+				timeout = next;
+			}
+		}
+
+		void remove(WheelTimeout timeout) {
+			if (timeout.bucket != this) {
+				return;
+			}
+			WheelTimeout next = timeout.next;
+			if (timeout.prev != null) {
+				timeout.prev.next = next;
+			}
+			if (next != null) {
+				next.prev = timeout.prev;
+			}
+			if (timeout == head) {
+				head = next;
+			}
+			if (timeout == tail) {
+				tail = timeout.prev;
+			}
+			timeout.prev = null;
+			timeout.next = null;
+			timeout.bucket = null;
+		}
+	}
+}
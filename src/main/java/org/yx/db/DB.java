@@ -25,6 +25,7 @@ import org.yx.db.enums.TxHook;
 import org.yx.db.exec.DBExecutor;
 import org.yx.db.exec.DBSource;
 import org.yx.db.exec.DBTransaction;
+import org.yx.db.sql.Batch;
 import org.yx.db.sql.DBFactory;
 import org.yx.db.sql.Delete;
 import org.yx.db.sql.Insert;
@@ -115,6 +116,16 @@ public final class DB {
 		return DBFactory.select();
 	}
 
+	/**
+	 * 批量执行insert、update、delete，使用jdbc的executeBatch<BR>
+	 * 要执行execute方法才能生效
+	 * 
+	 * @return Batch对象
+	 */
+	public static Batch batch() {
+		return new Batch();
+	}
+
 	public static Select select(Object pojo) {
 		if (pojo instanceof Class) {
 			return select().tableClass((Class<?>) pojo);
@@ -17,12 +17,14 @@ package org.yx.db;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.yx.db.kit.DBKits;
 import org.yx.db.kit.SDBuilder;
 import org.yx.db.mapper.NamedExecutor;
 import org.yx.db.mapper.SqlHolder;
 import org.yx.db.sql.InsertResult;
+import org.yx.db.visit.QueryCursor;
 
 public class SDB {
 
@@ -38,6 +40,17 @@ public class SDB {
 		return NamedExecutor.list(SqlHolder.findSql(name), map);
 	}
 
+	/**
+	 * 流式查询，适合结果集很大的场景。游标用完一定要关闭，建议使用try-with-resources
+	 */
+	public static QueryCursor<Map<String, Object>> cursor(String name, Map<String, Object> map) {
+		return NamedExecutor.cursor(SqlHolder.findSql(name), map);
+	}
+
+	public static long stream(String name, Map<String, Object> map, Consumer<Map<String, Object>> consumer) {
+		return NamedExecutor.stream(SqlHolder.findSql(name), map, consumer);
+	}
+
 	public static List<Object[]> listInArray(String name, Map<String, Object> map) {
 		return NamedExecutor.listInArray(SqlHolder.findSql(name), map);
 	}
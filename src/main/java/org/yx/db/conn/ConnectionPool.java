@@ -52,6 +52,7 @@ public final class ConnectionPool implements AutoCloseable {
 	private SumkConnection readConn;
 	private SumkConnection writeConn;
 	private List<SqlSessionHook> hooks;
+	private List<AutoCloseable> cursors;
 
 	public void addHook(TxHook type, Consumer<HookContext> r) {
 		SqlSessionHook act = new SqlSessionHook(type, r);
@@ -147,6 +148,17 @@ public final class ConnectionPool implements AutoCloseable {
 		}
 	}
 
+	/**
+	 * 用userType查询的时候会使用读连接，并且当前上下文没有打开过写连接，就返回true。<BR>
+	 * 这时候查询结果不会包含本事务未提交的修改，可以给其它线程共享
+	 */
+	public boolean isCleanRead(DBType userType) {
+		if (ActionContext.current().isTest() || this.writeConn != null || userType == DBType.WRITE) {
+			return false;
+		}
+		return this.dbType != DBType.WRITE;
+	}
+
 	private SumkConnection connectionByCommand(DBType type) throws SQLException {
 		if (type == DBType.WRITE) {
 			return this.getWriteConnection();
@@ -226,6 +238,41 @@ public final class ConnectionPool implements AutoCloseable {
 		}
 	}
 
+	/**
+	 * 流式查询打开的游标，在它关闭之前，连接不会被释放。如果到了连接关闭的时候还没关闭，会被强制关闭
+	 */
+	public void pin(AutoCloseable cursor) {
+		if (this.cursors == null) {
+			this.cursors = new ArrayList<>(2);
+		}
+		this.cursors.add(cursor);
+	}
+
+	public void unpin(AutoCloseable cursor) {
+		if (this.cursors != null) {
+			this.cursors.remove(cursor);
+		}
+	}
+
+	public int pinnedCount() {
+		return this.cursors == null ? 0 : this.cursors.size();
+	}
+
+	private void closeCursors() {
+		if (this.cursors == null || this.cursors.isEmpty()) {
+			return;
+		}
+		LOGGER.warn("{} has {} cursor not closed", this.dbName, this.cursors.size());
+		for (AutoCloseable c : new ArrayList<>(this.cursors)) {
+			try {
+				c.close();
+			} catch (Exception e) {
+				Log.printStack("sumk.sql.error", e);
+			}
+		}
+		this.cursors = null;
+	}
+
 	public void commit() throws SQLException {
 		if (this.hooks != null) {
 			runHook(TxHook.ON_COMMIT, null);
@@ -255,6 +302,7 @@ public final class ConnectionPool implements AutoCloseable {
 
 	@Override
 	public void close() throws Exception {
+		this.closeCursors();
 		if (this.writeConn != null) {
 			try {
 				this.writeConn.close();
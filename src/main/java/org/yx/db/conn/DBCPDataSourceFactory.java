@@ -23,6 +23,7 @@ import java.util.Map;
 import javax.sql.DataSource;
 
 import org.apache.commons.dbcp2.BasicDataSource;
+import org.yx.conf.AppInfo;
 import org.yx.conf.SimpleBeanUtil;
 import org.yx.exception.SumkException;
 import org.yx.log.Logs;
@@ -65,6 +66,7 @@ public class DBCPDataSourceFactory implements DataSourceFactory {
 		BasicDataSource basic = new BasicDataSource();
 		try {
 			Map<String, String> map = new HashMap<>(DEFAULT_PROPERTIES);
+			this.statementPool(map);
 			if (properties != null && properties.size() > 0) {
 				map.putAll(properties);
 			}
@@ -77,6 +79,19 @@ public class DBCPDataSourceFactory implements DataSourceFactory {
 		return basic;
 	}
 
+	/**
+	 * PreparedStatement缓存交给dbcp，它挂在物理连接上，连接归还到连接池之后也不会失效。
+	 * 每个连接最多缓存sumk.db.statement.cache.size个，小于1表示不缓存。数据源自己的配置优先
+	 */
+	private void statementPool(Map<String, String> map) {
+		int size = AppInfo.getInt("sumk.db.statement.cache.size", 32);
+		if (size < 1) {
+			return;
+		}
+		map.put("poolPreparedStatements", "true");
+		map.put("maxOpenPreparedStatements", String.valueOf(size));
+	}
+
 	@Override
 	public Map<String, Number> status(final DataSource datasource) {
 		BasicDataSource ds = null;
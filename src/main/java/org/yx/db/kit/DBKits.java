@@ -16,6 +16,7 @@
 package org.yx.db.kit;
 
 import java.sql.PreparedStatement;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.function.Function;
@@ -77,6 +78,7 @@ public final class DBKits {
 		if (pm == null || pm.isNoCache()) {
 			return total;
 		}
+		List<String> ids = new ArrayList<>();
 		for (T src : pojos) {
 			if (src == null) {
 				continue;
@@ -85,9 +87,10 @@ public final class DBKits {
 			if (StringUtil.isEmpty(id)) {
 				continue;
 			}
-			RecordRepository.del(pm, id);
+			ids.add(id);
 			total++;
 		}
+		RecordRepository.write(pm, null, ids);
 		return total;
 	}
 }
@@ -15,8 +15,10 @@
  */
 package org.yx.db.listener;
 
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.yx.annotation.Bean;
 import org.yx.db.event.DeleteEvent;
@@ -45,10 +47,11 @@ public class DeleteListener implements DBEventListener {
 			if (wheres == null || wheres.isEmpty()) {
 				return;
 			}
+			Set<String> ids = new HashSet<>();
 			for (Map<String, Object> src : wheres) {
-				String id = pm.getCacheID(src, true);
-				RecordRepository.del(pm, id);
+				ids.add(pm.getCacheID(src, true));
 			}
+			RecordRepository.write(pm, null, ids);
 		} catch (Exception e) {
 			Log.printStack("sumk.db.listener", e);
 		}
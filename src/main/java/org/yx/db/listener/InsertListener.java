@@ -15,8 +15,11 @@
  */
 package org.yx.db.listener;
 
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.yx.annotation.Bean;
 import org.yx.db.DBJson;
@@ -44,17 +47,20 @@ public class InsertListener implements DBEventListener {
 			if (pm == null || pm.isNoCache() || list == null) {
 				return;
 			}
+			Map<String, String> sets = new LinkedHashMap<>();
+			Set<String> dels = new HashSet<>();
 			for (Map<String, Object> map : list) {
 				String id = pm.getCacheID(map, false);
 				if (id == null) {
 					continue;
 				}
 				if (pm.cacheType() == CacheType.LIST) {
-					RecordRepository.del(pm, id);
-					return;
+					dels.add(id);
+					continue;
 				}
-				RecordRepository.set(pm, id, DBJson.operator().toJson(map));
+				sets.put(id, DBJson.operator().toJson(map));
 			}
+			RecordRepository.write(pm, sets, dels);
 		} catch (Exception e) {
 			Log.printStack("sumk.db.listener", e);
 		}
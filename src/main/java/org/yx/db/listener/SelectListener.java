@@ -16,8 +16,11 @@
 package org.yx.db.listener;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.yx.annotation.Bean;
 import org.yx.db.DBJson;
@@ -45,7 +48,11 @@ public class SelectListener implements DBEventListener {
 				return;
 			}
 			List<Map<String, Object>> in = event.getIn();
-			if (in == null || in.size() != 1) {
+			if (in == null || in.isEmpty()) {
+				return;
+			}
+			if (in.size() != 1) {
+				fillMissing(pm, in, event.getResult());
 				return;
 			}
 
@@ -65,20 +72,48 @@ public class SelectListener implements DBEventListener {
 				}
 			}
 			if (list.isEmpty()) {
+				RecordRepository.fillMissing(pm, Collections.singletonList(id));
 				return;
 			}
 
 			if (pm.cacheType() == CacheType.LIST) {
-				RecordRepository.set(pm, id, DBJson.operator().toJson(list));
+				RecordRepository.fill(pm, id, DBJson.operator().toJson(list));
 				return;
 			}
 			if (list.size() != 1 || list.get(0) == null) {
 				return;
 			}
-			RecordRepository.set(pm, id, DBJson.operator().toJson(list.get(0)));
+			RecordRepository.fill(pm, id, DBJson.operator().toJson(list.get(0)));
 		} catch (Exception e) {
 			Log.printStack("sumk.db.listener", e);
 		}
 	}
 
+	/**
+	 * 多个条件的时候只标记不存在的记录，存在的记录不写入缓存
+	 */
+	private void fillMissing(PojoMeta pm, List<Map<String, Object>> in, List<?> result) throws Exception {
+		if (RecordRepository.negativeTtl() <= 0) {
+			return;
+		}
+		Set<String> found = new HashSet<>();
+		for (Object obj : result) {
+			String id = pm.getCacheID(obj, false);
+			if (id != null) {
+				found.add(id);
+			}
+		}
+		Set<String> missing = new HashSet<>();
+		for (Map<String, Object> where : in) {
+			if (!pm.isOnlyCacheID(where)) {
+				continue;
+			}
+			String id = pm.getCacheID(where, false);
+			if (id != null && !found.contains(id)) {
+				missing.add(id);
+			}
+		}
+		RecordRepository.fillMissing(pm, missing);
+	}
+
 }
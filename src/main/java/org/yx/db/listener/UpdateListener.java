@@ -16,8 +16,11 @@
 package org.yx.db.listener;
 
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.yx.annotation.Bean;
 import org.yx.db.DBJson;
@@ -46,17 +49,21 @@ public class UpdateListener implements DBEventListener {
 				return;
 			}
 			List<Map<String, Object>> wheres = event.getWheres();
+			Map<String, String> sets = new LinkedHashMap<>();
+			Set<String> dels = new HashSet<>();
 			for (Map<String, Object> where : wheres) {
 
-				handleUpdate(event, pm, where);
+				handleUpdate(event, pm, where, sets, dels);
 			}
+			RecordRepository.write(pm, sets, dels);
 
 		} catch (Exception e) {
 			Log.printStack("sumk.db.listener", e);
 		}
 	}
 
-	private void handleUpdate(UpdateEvent event, PojoMeta pm, Map<String, Object> where) throws Exception {
+	private void handleUpdate(UpdateEvent event, PojoMeta pm, Map<String, Object> where, Map<String, String> sets,
+			Set<String> dels) throws Exception {
 		String id = pm.getCacheID(where, true);
 		Map<String, Object> to = new HashMap<>(event.getTo());
 		if (!event.isUpdateDBID()) {
@@ -76,17 +83,17 @@ public class UpdateListener implements DBEventListener {
 		if (event.isFullUpdate() && event.getIncrMap() == null) {
 			String id_new = pm.getCacheID(to, true);
 			if (!id.equals(id_new)) {
-				RecordRepository.del(pm, id);
+				dels.add(id);
 			}
 			if (pm.cacheType() == CacheType.LIST || event.getIncrMap() != null) {
-				RecordRepository.del(pm, id_new);
+				dels.add(id_new);
 			} else {
-				RecordRepository.set(pm, id_new, DBJson.operator().toJson(to));
+				sets.put(id_new, DBJson.operator().toJson(to));
 			}
 			return;
 		}
 
-		RecordRepository.del(pm, id);
+		dels.add(id);
 
 		Map<String, Object> where2 = new HashMap<>(where);
 		where2.putAll(to);
@@ -95,7 +102,7 @@ public class UpdateListener implements DBEventListener {
 		if (id.equals(id_new)) {
 			return;
 		}
-		RecordRepository.del(pm, id_new);
+		dels.add(id_new);
 	}
 
 }
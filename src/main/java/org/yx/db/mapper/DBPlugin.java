@@ -30,11 +30,15 @@ import org.yx.conf.MultiResourceLoader;
 import org.yx.db.conn.DataSources;
 import org.yx.db.event.DBEventPublisher;
 import org.yx.db.listener.DBEventListener;
+import org.yx.db.sql.CacheMetricsSink;
 import org.yx.db.sql.DBSettings;
+import org.yx.db.sql.PojoMeta;
+import org.yx.db.sql.PojoMetaHolder;
 import org.yx.exception.SumkException;
 import org.yx.log.Log;
 import org.yx.log.Logs;
 import org.yx.util.SumkDate;
+import org.yx.util.Task;
 
 @Bean
 public class DBPlugin implements Plugin {
@@ -51,6 +55,29 @@ public class DBPlugin implements Plugin {
 		loadSDBResources();
 
 		preHotDataSource();
+		startMetricsSink();
+	}
+
+	protected void startMetricsSink() {
+		List<CacheMetricsSink> sinks = IOC.getBeans(CacheMetricsSink.class);
+		if (sinks == null || sinks.isEmpty()) {
+			return;
+		}
+		long interval = AppInfo.getLong("sumk.db.metrics.interval", 60_000L);
+		Task.scheduleAtFixedRate(() -> {
+			for (PojoMeta pm : PojoMetaHolder.allPojoMeta()) {
+				if (pm.isNoCache()) {
+					continue;
+				}
+				for (CacheMetricsSink sink : sinks) {
+					try {
+						sink.report(pm.getTableName(), pm.getCounter());
+					} catch (Exception e) {
+						Log.printStack("sumk.db.metrics", e);
+					}
+				}
+			}
+		}, interval, interval);
 	}
 
 	@Override
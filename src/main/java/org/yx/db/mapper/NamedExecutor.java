@@ -19,10 +19,13 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.yx.db.sql.InsertResult;
 import org.yx.db.sql.MapedSql;
 import org.yx.db.sql.SqlBuilder;
+import org.yx.db.visit.QueryCursor;
+import org.yx.db.visit.RowMappers;
 import org.yx.db.visit.Visitors;
 import org.yx.exception.SumkException;
 
@@ -80,6 +83,23 @@ public final class NamedExecutor {
 		}
 	}
 
+	/**
+	 * 流式查询，map的key是列名。游标用完一定要关闭
+	 */
+	public static QueryCursor<Map<String, Object>> cursor(SqlParser sql, Map<String, Object> map) {
+		try {
+			return QueryCursor.open(createSqlBuilder(sql, map), md -> RowMappers.forMap(md, null));
+		} catch (Exception e) {
+			throw SumkException.wrap(e);
+		}
+	}
+
+	public static long stream(SqlParser sql, Map<String, Object> map, Consumer<Map<String, Object>> consumer) {
+		try (QueryCursor<Map<String, Object>> cursor = cursor(sql, map)) {
+			return cursor.forEach(consumer);
+		}
+	}
+
 	public static List<Object[]> listInArray(SqlParser sql, Map<String, Object> map) {
 		try {
 			return Visitors.arrayListQueryVisitor.visit(createSqlBuilder(sql, map));
@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.sql;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.yx.db.visit.BatchExecutor;
+import org.yx.exception.SumkException;
+import org.yx.util.kit.Asserts;
+
+/**
+ * 批量执行insert、update、delete，使用jdbc的executeBatch。要执行execute方法才能生效<BR>
+ * 只有连续的、sql完全相同的语句才能放在同一个batch里，所以同类语句尽量放在一起。
+ * 部分更新的时候，每个pojo的null字段不同会导致sql不同，批量更新建议开启fullUpdate<BR>
+ * 每个insert只包含一条记录，不会像Insert那样拼成一个很大的sql
+ */
+public class Batch {
+
+	private final List<AbstractSqlBuilder<Integer>> builders = new ArrayList<>();
+	private int chunkSize = DBSettings.batchSize();
+	private boolean fullUpdate;
+
+	/**
+	 * @param chunkSize
+	 *            每次executeBatch的最大条数，默认是sumk.db.batch.size
+	 * @return 当前对象
+	 */
+	public Batch chunkSize(int chunkSize) {
+		Asserts.requireTrue(chunkSize > 0, "chunkSize must bigger than 0");
+		this.chunkSize = chunkSize;
+		return this;
+	}
+
+	/**
+	 * 只对之后调用的update(pojo)有效
+	 * 
+	 * @param fullUpdate
+	 *            设置为true的话，整条记录全部更新，包括null字段。默认为false
+	 * @return 当前对象
+	 */
+	public Batch fullUpdate(boolean fullUpdate) {
+		this.fullUpdate = fullUpdate;
+		return this;
+	}
+
+	public Batch insert(Object pojo) {
+		return this.add(DBFactory.insert().insert(pojo));
+	}
+
+	public Batch insert(Collection<?> pojos) {
+		for (Object pojo : pojos) {
+			this.insert(pojo);
+		}
+		return this;
+	}
+
+	/**
+	 * 根据数据库主键更新
+	 * 
+	 * @param pojo
+	 *            修改后的pojo值
+	 * @return 当前对象
+	 */
+	public Batch update(Object pojo) {
+		return this.add(DBFactory.update().updateTo(pojo).fullUpdate(this.fullUpdate));
+	}
+
+	public Batch update(Collection<?> pojos) {
+		for (Object pojo : pojos) {
+			this.update(pojo);
+		}
+		return this;
+	}
+
+	public Batch delete(Object pojo) {
+		return this.add(DBFactory.delete().delete(pojo));
+	}
+
+	public Batch delete(Collection<?> pojos) {
+		for (Object pojo : pojos) {
+			this.delete(pojo);
+		}
+		return this;
+	}
+
+	/**
+	 * 添加自定义的修改语句，比如带tableClass的Map参数
+	 * 
+	 * @param builder
+	 *            Insert、Update或Delete对象，不要调用它的execute方法
+	 * @return 当前对象
+	 */
+	public Batch add(AbstractSqlBuilder<Integer> builder) {
+		this.builders.add(builder);
+		return this;
+	}
+
+	public int size() {
+		return this.builders.size();
+	}
+
+	/**
+	 * @return 修改的记录数。如果驱动没有返回具体的数量，每条语句按1计算
+	 */
+	public int execute() {
+		if (builders.isEmpty()) {
+			return 0;
+		}
+		try {
+			List<MapedSql> list = new ArrayList<>(builders.size());
+			for (AbstractSqlBuilder<Integer> builder : builders) {
+				list.add(builder.toMapedSql());
+			}
+			return BatchExecutor.execute(list, this.chunkSize);
+		} catch (Exception e) {
+			throw SumkException.wrap(e);
+		}
+	}
+}
@@ -0,0 +1,31 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.sql;
+
+/**
+ * 把表的缓存计数输出到外部的监控系统。实现类声明成bean就行，每隔sumk.db.metrics.interval毫秒(默认60秒)调用一次
+ */
+@FunctionalInterface
+public interface CacheMetricsSink {
+
+	/**
+	 * @param tableName
+	 *            表名
+	 * @param counter
+	 *            该表的计数器，里面的值都是累计值
+	 */
+	void report(String tableName, VisitCounter counter);
+}
@@ -32,6 +32,8 @@ public final class DBSettings {
 	private static int UNION_LOG_TIME;
 	private static boolean UNION_LOG_ENABLE;
 	private static int DEBUG_LOG_SPEND_TIME;
+	private static int STREAM_FETCH_SIZE;
+	private static int BATCH_SIZE;
 	private static byte[] PASSWORD_KEY = new byte[] { 121, 111, 117, 116, 111, 110, 103, 108, 117, 97, 110, 64, 115,
 			117, 109, 107 };
 
@@ -81,6 +83,20 @@ public final class DBSettings {
 		return MAX_LOG_PARAM_LENGTH;
 	}
 
+	/**
+	 * @return 流式查询的fetchSize，0表示根据数据库类型自动设置
+	 */
+	public static int streamFetchSize() {
+		return STREAM_FETCH_SIZE;
+	}
+
+	/**
+	 * @return 批量执行的时候，每次executeBatch的最大条数
+	 */
+	public static int batchSize() {
+		return BATCH_SIZE;
+	}
+
 	public static synchronized void init() {
 		if (LIMIT_AS_NO_LIMIT > 0) {
 			return;
@@ -95,6 +111,8 @@ public final class DBSettings {
 				UNION_LOG_TIME = AppInfo.getInt("sumk.unionlog.sql.time", 0);
 				UNION_LOG_ENABLE = AppInfo.getBoolean("sumk.unionlog.sql.enable", true);
 				DEBUG_LOG_SPEND_TIME = AppInfo.getInt("sumk.sql.debug.spendTime", 100);
+				STREAM_FETCH_SIZE = AppInfo.getInt("sumk.db.stream.fetchsize", 0);
+				BATCH_SIZE = AppInfo.getInt("sumk.db.batch.size", 500);
 			} catch (Exception e) {
 				Logs.db().info(e.getMessage(), e);
 			}
@@ -15,15 +15,29 @@
  */
 package org.yx.db.sql;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
 import org.yx.conf.AppInfo;
 
+/**
+ * 计数都是线程安全的。每interval次访问中，正好有一次会绕过缓存
+ */
 public class DefaultVisitCounter implements VisitCounter {
 
-	private int visitCount;
+	private final AtomicLong visitCount = new AtomicLong();
+
+	private final LongAdder cacheMeet = new LongAdder();
 
-	private int cacheMeet;
+	private final LongAdder cacheMiss = new LongAdder();
 
-	private int modifyCount;
+	private final LongAdder bypass = new LongAdder();
+
+	private final LongAdder modifyCount = new LongAdder();
+
+	private final LatencyHistogram redisLatency = new LatencyHistogram();
+
+	private final LatencyHistogram dbLatency = new LatencyHistogram();
 
 	private final int interval;
 
@@ -32,30 +46,81 @@ public class DefaultVisitCounter implements VisitCounter {
 	}
 
 	public int getVisitCount() {
-		return visitCount;
+		return (int) visitCount.get();
 	}
 
 	public int getCachedMeet() {
-		return cacheMeet;
+		return (int) cacheMeet.sum();
 	}
 
 	public boolean visit() {
-		++visitCount;
-		return visitCount % interval != 0;
+		if (visitCount.incrementAndGet() % interval != 0) {
+			return true;
+		}
+		bypass.increment();
+		return false;
+	}
+
+	@Override
+	public boolean visit(int keys) {
+		if (keys <= 0) {
+			return true;
+		}
+		long after = visitCount.addAndGet(keys);
+		if ((after - keys) / interval == after / interval) {
+			return true;
+		}
+		bypass.add(keys);
+		return false;
 	}
 
 	public void incrCacheMeet() {
-		cacheMeet++;
+		cacheMeet.increment();
 	}
 
 	@Override
 	public int getModifyCount() {
-		return this.modifyCount;
+		return (int) this.modifyCount.sum();
 	}
 
 	@Override
 	public void incrModifyCount() {
-		this.modifyCount++;
+		this.modifyCount.increment();
+	}
+
+	@Override
+	public void incrCacheMiss() {
+		cacheMiss.increment();
+	}
+
+	@Override
+	public long getCacheMiss() {
+		return cacheMiss.sum();
+	}
+
+	@Override
+	public long getBypassCount() {
+		return bypass.sum();
+	}
+
+	@Override
+	public void recordRedisLatency(long nanos) {
+		redisLatency.record(nanos);
+	}
+
+	@Override
+	public void recordDBLatency(long nanos) {
+		dbLatency.record(nanos);
+	}
+
+	@Override
+	public LatencyHistogram redisLatency() {
+		return redisLatency;
+	}
+
+	@Override
+	public LatencyHistogram dbLatency() {
+		return dbLatency;
 	}
 
 }
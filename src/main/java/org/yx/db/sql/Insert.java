@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.yx.common.ItemJoiner;
+import org.yx.conf.AppInfo;
 import org.yx.db.event.InsertEvent;
 import org.yx.db.visit.SumkDbVisitor;
 import org.yx.util.SeqUtil;
@@ -75,33 +76,11 @@ public class Insert extends AbstractSqlBuilder<Integer> {
 
 	protected MapedSql batchInsert() throws Exception {
 		MapedSql ms = new MapedSql();
-		ItemJoiner columns = ItemJoiner.create(",", " ( ", " ) ");
-		ItemJoiner placeholder = ItemJoiner.create(",", " ( ", " ) ");
 		List<ColumnMeta> fms = pojoMeta.fieldMetas;
 		int recodeSize = in.size();
 
 		boolean softDeleteAndNotProvided = pojoMeta.isSoftDelete() && !pojoMeta.softDelete.fieldProvided;
-		for (ColumnMeta fm : fms) {
-			String name = fm.dbColumn;
-			columns.item().append(name);
-			placeholder.item().append('?');
-		}
-		if (softDeleteAndNotProvided) {
-			String columnName = pojoMeta.softDelete.columnName;
-			columns.item().append(columnName);
-			placeholder.item().append('?');
-		}
-		StringBuilder sql = new StringBuilder();
-		sql.append("INSERT INTO ").append(pojoMeta.getTableName()).append(columns.toCharSequence(true))
-				.append(" VALUES ");
-		CharSequence place = placeholder.toCharSequence(true);
-		for (int i = 0; i < recodeSize; i++) {
-			if (i > 0) {
-				sql.append(',');
-			}
-			sql.append(place);
-		}
-		ms.sql = sql.toString();
+		ms.sql = insertSql(recodeSize, softDeleteAndNotProvided);
 
 		List<Map<String, Object>> cacheList = new ArrayList<>(recodeSize);
 		for (int i = 0; i < recodeSize; i++) {
@@ -127,6 +106,48 @@ public class Insert extends AbstractSqlBuilder<Integer> {
 		return ms;
 	}
 
+	/**
+	 * 记录数不超过sumk.db.sqlshape.insert.maxrows的语句会被缓存起来，下次直接使用
+	 */
+	protected String insertSql(int recodeSize, boolean softDeleteAndNotProvided) {
+		SqlShapeCache shapes = pojoMeta.sqlShapes();
+		long[] shape = recodeSize <= AppInfo.getInt("sumk.db.sqlshape.insert.maxrows", 64) ? new long[] { recodeSize }
+				: null;
+		if (shape != null) {
+			String sql = shapes.get(SqlShapeCache.INSERT, shape);
+			if (sql != null) {
+				return sql;
+			}
+		}
+		ItemJoiner columns = ItemJoiner.create(",", " ( ", " ) ");
+		ItemJoiner placeholder = ItemJoiner.create(",", " ( ", " ) ");
+		for (ColumnMeta fm : pojoMeta.fieldMetas) {
+			String name = fm.dbColumn;
+			columns.item().append(name);
+			placeholder.item().append('?');
+		}
+		if (softDeleteAndNotProvided) {
+			String columnName = pojoMeta.softDelete.columnName;
+			columns.item().append(columnName);
+			placeholder.item().append('?');
+		}
+		StringBuilder sql = new StringBuilder();
+		sql.append("INSERT INTO ").append(pojoMeta.getTableName()).append(columns.toCharSequence(true))
+				.append(" VALUES ");
+		CharSequence place = placeholder.toCharSequence(true);
+		for (int i = 0; i < recodeSize; i++) {
+			if (i > 0) {
+				sql.append(',');
+			}
+			sql.append(place);
+		}
+		String ret = sql.toString();
+		if (shape != null) {
+			shapes.put(SqlShapeCache.INSERT, shape, ret);
+		}
+		return ret;
+	}
+
 	protected void fillSpecialColumns(Map<String, Object> pojoMap, Object srcObject) throws Exception {
 		List<ColumnMeta> idColumns = pojoMeta.getDatabaseIds();
 		if (idColumns.size() != 1) {
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.sql;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时分布，按2的幂次划分区间，单位是微秒。最后一个区间包含所有更大的值。<BR>
+ * 各个区间都是LongAdder，可以在多线程下记录
+ */
+public final class LatencyHistogram {
+
+	private static final int BUCKETS = 26;
+
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+	private final LongAdder totalNanos = new LongAdder();
+
+	public LatencyHistogram() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	public void record(long nanos) {
+		if (nanos < 0) {
+			return;
+		}
+		long micros = nanos / 1000;
+		int index = micros == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+		buckets[index].increment();
+		totalNanos.add(nanos);
+	}
+
+	public long count() {
+		long count = 0;
+		for (LongAdder b : buckets) {
+			count += b.sum();
+		}
+		return count;
+	}
+
+	/**
+	 * @return 平均耗时，单位毫秒
+	 */
+	public double mean() {
+		long count = count();
+		return count == 0 ? 0 : totalNanos.sum() / 1000_000d / count;
+	}
+
+	/**
+	 * @param percent
+	 *            0到100之间
+	 * @return 该百分位所在区间的上限，单位毫秒。没有数据的时候返回0
+	 */
+	public double percentile(double percent) {
+		long[] counts = new long[BUCKETS];
+		long total = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets[i].sum();
+			total += counts[i];
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(total * percent / 100));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= target) {
+				return (1L << i) / 1000d;
+			}
+		}
+		return (1L << (BUCKETS - 1)) / 1000d;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("p50=%.3fms,p99=%.3fms,mean=%.3fms", percentile(50), percentile(99), mean());
+	}
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.sql;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * DB缓存的本地缓存，位于redis之前，存放的是已经反序列化的对象，key跟redis中的key一致。<BR>
+ * 由多个加锁的LRU段组成，超过条数、到了存活时间或者数据被修改，都会失效。<BR>
+ * 外部拿到的对象要先复制再使用，不能直接修改缓存里的对象
+ */
+public final class NearCache {
+
+	private static final Map<String, NearCache> CACHES = new ConcurrentHashMap<>();
+
+	private final String name;
+	private final long ttlMillis;
+	private final Segment[] segments;
+	private final int mask;
+
+	/**
+	 * 每次失效都会加1，用于防止put的时候把已经失效的数据放进来
+	 */
+	private final AtomicLong version = new AtomicLong();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	private NearCache(String name, int maxSize, int ttlSec) {
+		this.name = name;
+		this.ttlMillis = ttlSec * 1000L;
+		int count = 1;
+		while (count < 16 && count * 64 < maxSize) {
+			count <<= 1;
+		}
+		this.mask = count - 1;
+		this.segments = new Segment[count];
+		int segmentSize = (maxSize + count - 1) / count;
+		for (int i = 0; i < count; i++) {
+			segments[i] = new Segment(segmentSize);
+		}
+	}
+
+	static NearCache create(String name, int maxSize, int ttlSec) {
+		NearCache cache = new NearCache(name, maxSize, ttlSec);
+		CACHES.put(name, cache);
+		return cache;
+	}
+
+	public static NearCache byName(String name) {
+		return CACHES.get(name);
+	}
+
+	public static Collection<NearCache> all() {
+		return CACHES.values();
+	}
+
+	public static void clearAll() {
+		for (NearCache c : CACHES.values()) {
+			c.clear();
+		}
+	}
+
+	public String name() {
+		return name;
+	}
+
+	private Segment segment(String key) {
+		int h = key.hashCode();
+		return segments[(h ^ (h >>> 16)) & mask];
+	}
+
+	/**
+	 * @return 没有或者已过期的时候返回null
+	 */
+	public List<Object> get(String key) {
+		Segment seg = segment(key);
+		Item item;
+		synchronized (seg) {
+			item = seg.get(key);
+			if (item != null && item.expireTime < System.currentTimeMillis()) {
+				seg.remove(key);
+				item = null;
+			}
+		}
+		if (item == null) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return item.value;
+	}
+
+	/**
+	 * 读取redis之前调用，并作为put的参数
+	 */
+	public long version() {
+		return version.get();
+	}
+
+	/**
+	 * 如果在stamp之后有数据失效了，就放弃这次的put。宁可少缓存，也不能缓存脏数据
+	 */
+	public void put(String key, List<Object> value, long stamp) {
+		Segment seg = segment(key);
+		synchronized (seg) {
+			if (version.get() != stamp) {
+				return;
+			}
+			seg.put(key, new Item(value, System.currentTimeMillis() + ttlMillis));
+		}
+	}
+
+	public void invalidate(String key) {
+		version.incrementAndGet();
+		Segment seg = segment(key);
+		synchronized (seg) {
+			seg.remove(key);
+		}
+	}
+
+	public void clear() {
+		version.incrementAndGet();
+		for (Segment seg : segments) {
+			synchronized (seg) {
+				seg.clear();
+			}
+		}
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment seg : segments) {
+			synchronized (seg) {
+				size += seg.size();
+			}
+		}
+		return size;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	public long getEvictions() {
+		return evictions.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "NearCache [name=" + name + ", size=" + size() + ", hits=" + getHits() + ", misses=" + getMisses()
+				+ ", evictions=" + getEvictions() + "]";
+	}
+
+	private static final class Item {
+		final List<Object> value;
+		final long expireTime;
+
+		Item(List<Object> value, long expireTime) {
+			this.value = value;
+			this.expireTime = expireTime;
+		}
+	}
+
+	private final class Segment extends LinkedHashMap<String, Item> {
+		private static final long serialVersionUID = 1L;
+		private final int maxSize;
+
+		Segment(int maxSize) {
+			super(16, 0.75f, true);
+			this.maxSize = maxSize;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Item> eldest) {
+			if (size() > maxSize) {
+				evictions.increment();
+				return true;
+			}
+			return false;
+		}
+	}
+}
@@ -67,6 +67,10 @@ public final class PojoMeta implements Cloneable {
 	private String tableName;
 	final SoftDeleteMeta softDelete;
 
+	private NearCache nearCache;
+
+	private SqlShapeCache sqlShapes = new SqlShapeCache();
+
 	private final Map<String, ColumnMeta> columnDBNameMap = new HashMap<>();
 	private final Map<String, ColumnMeta> filedNameMap = new HashMap<>();
 
@@ -191,6 +195,37 @@ public final class PojoMeta implements Cloneable {
 			_pre = DBNameResolvers.getCachePrefixResolver().apply(this.tableName);
 		}
 		this.pre = _pre.replace('?', '#');
+
+		int nearSize = table.nearCacheSize() != 0 ? table.nearCacheSize()
+				: AppInfo.getInt("sumk.db.nearcache.size", 0);
+		if (nearSize > 0 && this.cacheType != CacheType.NOCACHE) {
+			int nearTtl = table.nearCacheTtl() > 0 ? table.nearCacheTtl()
+					: AppInfo.getInt("sumk.db.nearcache.ttl", 60);
+			this.nearCache = NearCache.create(this.pojoClz.getName(), nearSize, nearTtl);
+		}
+	}
+
+	/**
+	 * 通配符表的子表跟主表共用一个本地缓存，它们的key不一样，不会冲突
+	 * 
+	 * @return 没有开启本地缓存的时候返回null
+	 */
+	public NearCache nearCache() {
+		return this.isNoCache() ? null : this.nearCache;
+	}
+
+	/**
+	 * 浅复制，只复制数据库字段。用于把本地缓存里的对象交给调用方
+	 */
+	public Object copyPojo(Object src) throws Exception {
+		Object obj = Loader.newInstance(this.pojoClz);
+		for (ColumnMeta m : this.fieldMetas) {
+			Object v = m.value(src);
+			if (v != null) {
+				m.setValue(obj, v);
+			}
+		}
+		return obj;
 	}
 
 	public String getTableName() {
@@ -383,6 +418,7 @@ public final class PojoMeta implements Cloneable {
 		}
 		clone.tableName = subTableName(sub);
 		clone.pre = this.pre.replace(WILDCHAR, sub.toLowerCase());
+		clone.sqlShapes = new SqlShapeCache();
 		return clone;
 	}
 
@@ -390,6 +426,10 @@ public final class PojoMeta implements Cloneable {
 		return this.tableName.replace(WILDCHAR, sub);
 	}
 
+	SqlShapeCache sqlShapes() {
+		return this.sqlShapes;
+	}
+
 	public List<ColumnMeta> createColumns() {
 		return createColumns;
 	}
@@ -23,6 +23,8 @@ import static org.yx.db.sql.Operation.LESS_EQUAL;
 import static org.yx.db.sql.Operation.LIKE;
 import static org.yx.db.sql.Operation.NOT;
 
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -33,16 +35,25 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import org.yx.db.enums.CompareNullPolicy;
 import org.yx.db.event.DBEventPublisher;
 import org.yx.db.event.QueryEvent;
 import org.yx.db.kit.DBKits;
+import org.yx.db.visit.CacheLoads;
 import org.yx.db.visit.Exchange;
+import org.yx.db.visit.MapResultHandler;
 import org.yx.db.visit.PojoResultHandler;
+import org.yx.db.visit.QueryCursor;
 import org.yx.db.visit.ResultHandler;
+import org.yx.db.visit.RowMapper;
+import org.yx.db.visit.RowMapperResultHandler;
+import org.yx.db.visit.RowMappers;
 import org.yx.db.visit.SumkDbVisitor;
+import org.yx.db.visit.Visitors;
 import org.yx.exception.SumkException;
+import org.yx.redis.RecordRepository;
 import org.yx.util.CollectionUtil;
 import org.yx.util.kit.Asserts;
 
@@ -412,9 +423,21 @@ public class Select extends SelectBuilder {
 	}
 
 	protected ResultHandler resultHandler() {
-		return this.resultHandler == null ? PojoResultHandler.handler : this.resultHandler;
+		return this.resultHandler == null ? RowMapperResultHandler.handler : this.resultHandler;
 	}
 
+	/**
+	 * 默认的handler直接从ResultSet生成pojo，自定义的visitor或handler仍然经过Map
+	 */
+	@SuppressWarnings("unchecked")
+	protected <T> List<T> queryFromDB(ResultHandler handler) throws Exception {
+		if (handler instanceof RowMapperResultHandler && this.visitor == Visitors.queryVisitorForORM) {
+			return (List<T>) Visitors.pojoQueryVisitor.visit(this);
+		}
+		return handler.parse(pojoMeta, this.accept(visitor));
+	}
+
+	@SuppressWarnings("unchecked")
 	public <T> List<T> queryList() {
 		try {
 			ResultHandler handler = this.resultHandler();
@@ -425,7 +448,10 @@ public class Select extends SelectBuilder {
 
 			if (fromCache && this.selectColumns == null && _compare == null && this.orderby == null
 					&& this.offset == 0) {
-				exchange.findFromCache(pojoMeta);
+				exchange.findFromCache(pojoMeta, handler instanceof PojoResultHandler ? handler : null);
+				if (exchange.getPojos() != null) {
+					list.addAll((List<T>) exchange.getPojos());
+				}
 				if (exchange.getData() != null && exchange.getData().size() > 0) {
 					List<T> tmp = handler.parseFromJson(pojoMeta, exchange.getData());
 					if (tmp != null && tmp.size() > 0) {
@@ -438,23 +464,13 @@ public class Select extends SelectBuilder {
 				return list;
 			}
 
-			this.in = exchange.getLeftIn();
-			List<T> dbData = handler.parse(pojoMeta, this.accept(visitor));
-			this.in = origin;
+			List<Map<String, Object>> leftIn = exchange.getLeftIn();
+			List<Map<String, Object>> eventIn = fromCache ? leftIn : origin;
+			List<T> dbData = this.loadFromDB(handler, leftIn, eventIn);
 			if (dbData == null || dbData.isEmpty()) {
 				return list;
 			}
 			list = merge(list, dbData);
-			List<Map<String, Object>> eventIn = fromCache ? exchange.getLeftIn() : this.in;
-
-			if (this.toCache && selectColumns == null && _compare == null && this.offset == 0
-					&& (limit <= 0 || limit >= DBSettings.asNoLimit()) && CollectionUtil.isNotEmpty(eventIn)) {
-
-				QueryEvent event = new QueryEvent(this.parsePojoMeta(true).getTableName());
-				event.setIn(eventIn);
-				event.setResult(dbData);
-				DBEventPublisher.publish(event);
-			}
 			if (this.limit > 0 && list.size() > this.limit) {
 				return list.subList(0, this.limit);
 			}
@@ -464,6 +480,68 @@ public class Select extends SelectBuilder {
 		}
 	}
 
+	/**
+	 * 只按一个缓存id查询的时候，同一节点内的并发请求合并成一次数据库查询，其它线程拿到的是结果的拷贝
+	 */
+	@SuppressWarnings("unchecked")
+	protected <T> List<T> loadFromDB(ResultHandler handler, List<Map<String, Object>> leftIn,
+			List<Map<String, Object>> eventIn) throws Exception {
+		String id = this.singleFlightId(handler, leftIn);
+		if (id == null) {
+			return this.queryAndPublish(handler, leftIn, eventIn);
+		}
+		CacheLoads.Loaded<List<T>> loaded = CacheLoads.load(pojoMeta, id,
+				() -> this.queryAndPublish(handler, leftIn, eventIn));
+		List<T> data = loaded.value();
+		if (loaded.isLeader() || data == null || data.isEmpty()) {
+			return data;
+		}
+		List<T> copy = new ArrayList<>(data.size());
+		for (T t : data) {
+			copy.add((T) pojoMeta.copyPojo(t));
+		}
+		return copy;
+	}
+
+	private String singleFlightId(ResultHandler handler, List<Map<String, Object>> leftIn) throws Exception {
+		if (!fromCache || !(handler instanceof PojoResultHandler) || leftIn == null || leftIn.size() != 1
+				|| this.selectColumns != null || _compare != null || this.orderby != null || this.offset != 0
+				|| pojoMeta.isNoCache() || !CacheLoads.singleFlightEnable()) {
+			return null;
+		}
+		Map<String, Object> where = leftIn.get(0);
+		return pojoMeta.isOnlyCacheID(where) ? pojoMeta.getCacheID(where, false) : null;
+	}
+
+	protected <T> List<T> queryAndPublish(ResultHandler handler, List<Map<String, Object>> leftIn,
+			List<Map<String, Object>> eventIn) throws Exception {
+		List<Map<String, Object>> origin = this.in;
+		List<T> dbData;
+		this.in = leftIn;
+		long begin = System.nanoTime();
+		try {
+			dbData = this.queryFromDB(handler);
+		} finally {
+			this.in = origin;
+		}
+		if (fromCache && !pojoMeta.isNoCache()) {
+			pojoMeta.getCounter().recordDBLatency(System.nanoTime() - begin);
+		}
+		boolean empty = dbData == null || dbData.isEmpty();
+		if (empty && RecordRepository.negativeTtl() <= 0) {
+			return dbData;
+		}
+		if (this.toCache && selectColumns == null && _compare == null && this.offset == 0
+				&& (limit <= 0 || limit >= DBSettings.asNoLimit()) && CollectionUtil.isNotEmpty(eventIn)) {
+
+			QueryEvent event = new QueryEvent(this.parsePojoMeta(true).getTableName());
+			event.setIn(eventIn);
+			event.setResult(empty ? Collections.emptyList() : dbData);
+			DBEventPublisher.publish(event);
+		}
+		return dbData;
+	}
+
 	protected <T> List<T> merge(List<T> cacheList, List<T> dbList) throws Exception {
 		if (cacheList.isEmpty()) {
 			return dbList;
@@ -492,6 +570,113 @@ public class Select extends SelectBuilder {
 		return DBKits.queryOne(this.queryList());
 	}
 
+	/**
+	 * 流式查询，边读边转化，适合导出之类结果集很大的场景。不走缓存，也不经过visitor。<BR>
+	 * 返回的游标用完一定要关闭，在它关闭之前会一直占用数据库连接
+	 * 
+	 * @return 游标
+	 */
+	public <T> QueryCursor<T> cursor() {
+		try {
+			this.pojoMeta = this.parsePojoMeta(true);
+			ResultHandler handler = this.resultHandler();
+			return QueryCursor.open(this, md -> this.rowMapper(md, handler));
+		} catch (Exception e) {
+			throw SumkException.wrap(e);
+		}
+	}
+
+	/**
+	 * 流式查询，每读一条就交给consumer处理
+	 * 
+	 * @param consumer
+	 *            每条记录的处理器
+	 * @return 处理的记录数
+	 */
+	public <T> long stream(Consumer<T> consumer) {
+		try (QueryCursor<T> cursor = this.cursor()) {
+			return cursor.forEach(consumer);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	protected RowMapper rowMapper(ResultSetMetaData md, ResultHandler handler) throws SQLException {
+		if (handler instanceof RowMapperResultHandler || handler == PojoResultHandler.handler) {
+			return RowMappers.get(this.pojoMeta, md);
+		}
+		RowMapper mapper = RowMappers.forMap(md, this.pojoMeta);
+		if (handler == MapResultHandler.handler) {
+			return mapper;
+		}
+		PojoMeta pm = this.pojoMeta;
+		return rs -> {
+			List<Object> list = handler.parse(pm, Collections.singletonList((Map<String, Object>) mapper.map(rs)));
+			return list == null || list.isEmpty() ? null : list.get(0);
+		};
+	}
+
+	/**
+	 * 按数据库主键做keyset分页，逐页处理。每一页都是一次独立的查询，条件是主键大于上一页的最后一条，
+	 * 跟offset分页不同，越往后不会越慢，也不会长时间占用连接。<BR>
+	 * 不走缓存，不能跟offset、orderBy一起使用。如果设置了limit，它表示总条数的上限。
+	 * 查询结果要能取到主键的值，也就是pojo或者map
+	 * 
+	 * @param pageSize
+	 *            每一页的大小
+	 * @param consumer
+	 *            每条记录的处理器
+	 * @return 处理的记录数
+	 */
+	public <T> long scanByKeyset(int pageSize, Consumer<T> consumer) {
+		Asserts.requireTrue(pageSize > 0, "pageSize must bigger than 0");
+		if (this.offset > 0 || CollectionUtil.isNotEmpty(this.orderby)) {
+			throw new SumkException(-5345341, "keyset分页不能跟offset、orderBy一起使用");
+		}
+		this.pojoMeta = this.parsePojoMeta(true);
+		List<ColumnMeta> ids = this.pojoMeta.getDatabaseIds();
+		if (ids.isEmpty()) {
+			throw new SumkException(-5345342, pojoMeta.getTableName() + "没有数据库主键，不能使用keyset分页");
+		}
+		if (this.selectColumns != null) {
+			for (ColumnMeta cm : ids) {
+				if (!this.selectColumns.contains(cm.getFieldName())) {
+					throw new SumkException(-5345343, "keyset分页的时候，selectColumns要包含主键" + cm.getFieldName());
+				}
+			}
+		}
+		ResultHandler handler = this.resultHandler();
+		final int maxCount = this.limit;
+		long count = 0;
+		this.keyset = new Object[ids.size()];
+		try {
+			while (true) {
+				int size = maxCount > 0 ? (int) Math.min(pageSize, maxCount - count) : pageSize;
+				if (size <= 0) {
+					break;
+				}
+				this.limit = size;
+				List<T> page = this.queryFromDB(handler);
+				for (T t : page) {
+					consumer.accept(t);
+				}
+				count += page.size();
+				if (page.size() < size) {
+					break;
+				}
+				T last = page.get(page.size() - 1);
+				for (int i = 0; i < ids.size(); i++) {
+					this.keyset[i] = ids.get(i).value(last);
+				}
+			}
+		} catch (Exception e) {
+			throw SumkException.wrap(e);
+		} finally {
+			this.limit = maxCount;
+			this.keyset = null;
+		}
+		return count;
+	}
+
 	/**
 	 * 根据select的条件，查询符合条件的记录数。其中offset、limit、order by属性被过滤掉<BR>
 	 * 这个方法可以在select执行前调用，也可以在select执行后调用
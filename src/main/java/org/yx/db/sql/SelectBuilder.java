@@ -37,6 +37,8 @@ public class SelectBuilder extends AbstractSqlBuilder<List<Map<String, Object>>>
 
 	protected List<String> selectColumns;
 
+	private static final long[] EMPTY_SHAPE = new long[0];
+
 	protected List<ColumnOperation> _compare;
 
 	protected List<Order> orderby;
@@ -52,6 +54,12 @@ public class SelectBuilder extends AbstractSqlBuilder<List<Map<String, Object>>>
 
 	protected CompareNullPolicy compareNullPolicy = CompareNullPolicy.CONTINUE;
 
+	/**
+	 * keyset分页用，不为null的时候按数据库主键升序排列。<BR>
+	 * 它的元素跟数据库主键一一对应，第一个元素不为null的时候，只查询主键比它大的记录
+	 */
+	protected Object[] keyset;
+
 	@Override
 	public MapedSql toMapedSql() throws Exception {
 		List<Object> paramters = new ArrayList<>(10);
@@ -90,6 +98,13 @@ public class SelectBuilder extends AbstractSqlBuilder<List<Map<String, Object>>>
 	}
 
 	protected CharSequence buildOrder() {
+		if (this.keyset != null) {
+			StringJoiner sj = new StringJoiner(",");
+			for (ColumnMeta cm : this.pojoMeta.databaseIds) {
+				sj.add(cm.dbColumn);
+			}
+			return sj.toString();
+		}
 		if (CollectionUtil.isEmpty(this.orderby)) {
 			return null;
 		}
@@ -115,16 +130,44 @@ public class SelectBuilder extends AbstractSqlBuilder<List<Map<String, Object>>>
 			}
 			return sj.toString();
 		}
+		SqlShapeCache shapes = this.pojoMeta.sqlShapes();
+		String fields = shapes.get(SqlShapeCache.SELECT_FIELDS, EMPTY_SHAPE);
+		if (fields != null) {
+			return fields;
+		}
 		for (ColumnMeta cm : this.pojoMeta.fieldMetas) {
 			sj.add(cm.dbColumn);
 		}
-		return sj.toString();
+		fields = sj.toString();
+		shapes.put(SqlShapeCache.SELECT_FIELDS, EMPTY_SHAPE, fields);
+		return fields;
 	}
 
 	protected CharSequence buildWhere(List<Object> paramters) {
 		ItemJoiner joiner = new ItemJoiner(" AND ", null, null);
 		joiner.appendNotEmptyItem(buildValid(paramters)).appendNotEmptyItem(buildEquals(paramters))
-				.appendNotEmptyItem(buildCompare(paramters));
+				.appendNotEmptyItem(buildCompare(paramters)).appendNotEmptyItem(buildKeyset(paramters));
+		return joiner.toCharSequence();
+	}
+
+	/**
+	 * 主键是(a,b)的时候，生成 ( a &gt; ? OR ( a = ? AND b &gt; ? ) )
+	 */
+	private CharSequence buildKeyset(List<Object> paramters) {
+		if (this.keyset == null || this.keyset[0] == null) {
+			return null;
+		}
+		List<ColumnMeta> ids = this.pojoMeta.databaseIds;
+		ItemJoiner joiner = ItemJoiner.create(" OR ", " ( ", " ) ");
+		for (int i = 0; i < ids.size(); i++) {
+			joiner.item().append(" ( ");
+			for (int j = 0; j < i; j++) {
+				joiner.append(ids.get(j).dbColumn).append(" = ? AND ");
+				paramters.add(this.keyset[j]);
+			}
+			joiner.append(ids.get(i).dbColumn).append(" > ? ) ");
+			paramters.add(this.keyset[i]);
+		}
 		return joiner.toCharSequence();
 	}
 
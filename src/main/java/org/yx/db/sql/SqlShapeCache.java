@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.sql;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.yx.conf.AppInfo;
+
+/**
+ * 同一张表的sql形状缓存。形状由操作类型和一组位图组成，比如update的set字段、where条件里的字段、insert的记录数。<BR>
+ * 形状相同的sql，语句是一样的，参数的顺序也一样(按fieldMetas的顺序)，所以只需要重新填充参数。<BR>
+ * 超过64个字段的表不缓存
+ */
+final class SqlShapeCache {
+
+	static final char INSERT = 'I';
+	static final char UPDATE = 'U';
+	static final char SELECT_FIELDS = 'F';
+
+	private final ConcurrentHashMap<ShapeKey, String> shapes = new ConcurrentHashMap<>();
+
+	static boolean shapeable(List<ColumnMeta> fms) {
+		return fms.size() <= Long.SIZE && AppInfo.getInt("sumk.db.sqlshape.size", 256) > 0;
+	}
+
+	String get(char op, long[] bits) {
+		return shapes.get(new ShapeKey(op, bits));
+	}
+
+	void put(char op, long[] bits, String sql) {
+		if (shapes.size() >= AppInfo.getInt("sumk.db.sqlshape.size", 256)) {
+			return;
+		}
+		shapes.putIfAbsent(new ShapeKey(op, bits), sql);
+	}
+
+	int size() {
+		return shapes.size();
+	}
+
+	private static final class ShapeKey {
+		private final char op;
+		private final long[] bits;
+		private final int hash;
+
+		ShapeKey(char op, long[] bits) {
+			this.op = op;
+			this.bits = bits;
+			this.hash = 31 * op + Arrays.hashCode(bits);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof ShapeKey)) {
+				return false;
+			}
+			ShapeKey other = (ShapeKey) obj;
+			return this.op == other.op && Arrays.equals(this.bits, other.bits);
+		}
+	}
+}
@@ -36,6 +36,8 @@ public class Update extends AbstractSqlBuilder<Integer> implements Executable {
 
 	private Map<String, Number> incrMap;
 
+	private static final int MAX_SHAPE_WHERE = 8;
+
 	/**
 	 * @param update
 	 *            如果为false，则数据库主键不会被更新。默认为false。
@@ -158,19 +160,128 @@ public class Update extends AbstractSqlBuilder<Integer> implements Executable {
 	}
 
 	protected MapedSql _toMapedSql() throws Exception {
+		for (Map<String, Object> where : this.in) {
+			if (!where.isEmpty()) {
+				this.checkMap(where, this.pojoMeta);
+			}
+		}
+		SqlShapeCache shapes = pojoMeta.sqlShapes();
+		long[] shape = this.shape();
+		String sql = shape == null ? null : shapes.get(SqlShapeCache.UPDATE, shape);
+		MapedSql ms;
+		if (sql != null) {
+			ms = this.bindParams(sql);
+		} else {
+			ms = this.buildMapedSql();
+			if (shape != null) {
+				shapes.put(SqlShapeCache.UPDATE, shape, ms.sql);
+			}
+		}
+		Map<String, Object> to = new HashMap<>(this.updateTo);
+		if (this.incrMap != null) {
+			to.keySet().removeAll(this.incrMap.keySet());
+		}
+		ms.event = new UpdateEvent(pojoMeta.getTableName(), to, this.incrMap, this.in, this.fullUpdate,
+				this.updateDBID);
+		return ms;
+	}
+
+	/**
+	 * sql的形状：set字段、incr字段、每个where条件的字段以及其中为null的字段，都按fieldMetas的下标记成位图
+	 * 
+	 * @return 不能缓存的时候返回null
+	 */
+	private long[] shape() throws Exception {
+		List<ColumnMeta> fms = pojoMeta.fieldMetas;
+		if (!SqlShapeCache.shapeable(fms) || this.in.size() > MAX_SHAPE_WHERE) {
+			return null;
+		}
+		long[] shape = new long[2 + 2 * this.in.size()];
+		for (int i = 0; i < fms.size(); i++) {
+			ColumnMeta fm = fms.get(i);
+			long bit = 1L << i;
+			if (this.incrMap != null && this.incrMap.containsKey(fm.getFieldName())) {
+				shape[1] |= bit;
+				continue;
+			}
+			if (!fm.containsKey(this.updateTo) && !this.fullUpdate) {
+				continue;
+			}
+			if (fm.isDBID() && !this.updateDBID) {
+				continue;
+			}
+			shape[0] |= bit;
+		}
+		for (int j = 0; j < this.in.size(); j++) {
+			Map<String, Object> where = this.in.get(j);
+			for (int i = 0; i < fms.size(); i++) {
+				String fieldName = fms.get(i).getFieldName();
+				if (!where.containsKey(fieldName)) {
+					continue;
+				}
+				shape[2 + 2 * j] |= 1L << i;
+				if (where.get(fieldName) == null) {
+					shape[3 + 2 * j] |= 1L << i;
+				}
+			}
+		}
+		return shape;
+	}
+
+	/**
+	 * 形状命中缓存的时候，只按buildMapedSql的顺序填充参数
+	 */
+	private MapedSql bindParams(String sql) throws Exception {
+		MapedSql ms = new MapedSql();
+		ms.sql = sql;
+		List<ColumnMeta> fms = pojoMeta.fieldMetas;
+		SoftDeleteMeta softDelete = pojoMeta.softDelete;
+		for (ColumnMeta fm : fms) {
+			String fieldName = fm.getFieldName();
+			if (this.incrMap != null && this.incrMap.containsKey(fieldName)) {
+				ms.addParam(this.incrMap.get(fieldName));
+				continue;
+			}
+			if (!fm.containsKey(this.updateTo) && !this.fullUpdate) {
+				continue;
+			}
+			if (fm.isDBID() && !this.updateDBID) {
+				continue;
+			}
+			ms.addParam(fm.value(this.updateTo));
+		}
+		for (Map<String, Object> where : this.in) {
+			boolean empty = true;
+			for (ColumnMeta fm : fms) {
+				if (!where.containsKey(fm.getFieldName())) {
+					continue;
+				}
+				empty = false;
+				Object value = where.get(fm.getFieldName());
+				if (value != null) {
+					ms.addParam(value);
+				}
+			}
+			if (empty || softDelete == null) {
+				continue;
+			}
+			ms.addParam(softDelete.equalValid ? softDelete.validValue : softDelete.inValidValue);
+		}
+		return ms;
+	}
+
+	protected MapedSql buildMapedSql() throws Exception {
 		MapedSql ms = new MapedSql();
 		StringBuilder sb = new StringBuilder(32);
 		List<ColumnMeta> fms = pojoMeta.fieldMetas;
 		SoftDeleteMeta softDelete = pojoMeta.softDelete;
 		sb.append("UPDATE ").append(pojoMeta.getTableName());
 		boolean notFirst = false;
-		Map<String, Object> to = new HashMap<>(this.updateTo);
 
 		for (ColumnMeta fm : fms) {
 			String fieldName = fm.getFieldName();
 
 			if (this.incrMap != null && this.incrMap.containsKey(fieldName)) {
-				to.remove(fieldName);
 				sb.append(notFirst ? " , " : " SET ").append(fm.dbColumn).append('=').append(fm.dbColumn)
 						.append(" +? ");
 				notFirst = true;
@@ -196,7 +307,6 @@ public class Update extends AbstractSqlBuilder<Integer> implements Executable {
 			if (where.isEmpty()) {
 				continue;
 			}
-			this.checkMap(where, this.pojoMeta);
 			ItemJoiner andItem = isSingle ? new ItemJoiner(" AND ", null, null) : new ItemJoiner(" AND ", " ( ", " ) ");
 			for (ColumnMeta fm : fms) {
 				Object value = null;
@@ -232,8 +342,6 @@ public class Update extends AbstractSqlBuilder<Integer> implements Executable {
 		}
 		sb.append(whereStr);
 		ms.sql = sb.toString();
-		ms.event = new UpdateEvent(pojoMeta.getTableName(), to, this.incrMap, this.in, this.fullUpdate,
-				this.updateDBID);
 		return ms;
 	}
 
@@ -27,5 +27,59 @@ public interface VisitCounter {
 
 	void incrModifyCount();
 
+	/**
+	 * 线程安全。返回false表示这次访问要绕过缓存，直接查询数据库
+	 * 
+	 * @return true表示可以使用缓存
+	 */
 	boolean visit();
+
+	/**
+	 * 批量访问，按key计数。返回false表示这批key都绕过缓存
+	 * 
+	 * @param keys
+	 *            这次访问的key数量
+	 * @return true表示可以使用缓存
+	 */
+	default boolean visit(int keys) {
+		boolean ret = true;
+		for (int i = 0; i < keys; i++) {
+			ret &= visit();
+		}
+		return ret;
+	}
+
+	default void incrCacheMiss() {
+	}
+
+	default long getCacheMiss() {
+		return 0;
+	}
+
+	/**
+	 * @return 绕过缓存的key数
+	 */
+	default long getBypassCount() {
+		return 0;
+	}
+
+	default void recordRedisLatency(long nanos) {
+	}
+
+	/**
+	 * 缓存没命中，从数据库加载的耗时
+	 * 
+	 * @param nanos
+	 *            纳秒
+	 */
+	default void recordDBLatency(long nanos) {
+	}
+
+	default LatencyHistogram redisLatency() {
+		return null;
+	}
+
+	default LatencyHistogram dbLatency() {
+		return null;
+	}
 }
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.visit;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.yx.db.conn.ConnectionPool;
+import org.yx.db.enums.DBType;
+import org.yx.db.event.DBEvent;
+import org.yx.db.event.DeleteEvent;
+import org.yx.db.event.EventLane;
+import org.yx.db.event.InsertEvent;
+import org.yx.db.sql.MapedSql;
+import org.yx.log.Logs;
+
+/**
+ * 批量执行修改语句。连续的相同sql放在同一个PreparedStatement里，每chunkSize条执行一次executeBatch，
+ * 同一个sql在整个批次中只prepare一次。<BR>
+ * 每次executeBatch之后，同一张表的InsertEvent、DeleteEvent会合并成一个事件
+ */
+public final class BatchExecutor {
+
+	/**
+	 * @return 修改的记录数。如果驱动返回SUCCESS_NO_INFO(比如mysql开启了rewriteBatchedStatements)，每条按1计算
+	 */
+	public static int execute(List<MapedSql> list, int chunkSize) throws Exception {
+		if (list == null || list.isEmpty()) {
+			return 0;
+		}
+		if (chunkSize < 1) {
+			chunkSize = 1;
+		}
+		Connection conn = ConnectionPool.get().connection(DBType.WRITE);
+		if (Logs.db().isDebugEnabled() && rewriteBatched(conn)) {
+			Logs.db().debug("rewriteBatchedStatements is enabled, modify count may be SUCCESS_NO_INFO");
+		}
+		Map<String, SumkStatement> statements = new HashMap<>();
+		int total = 0;
+		try {
+			int begin = 0;
+			final int size = list.size();
+			while (begin < size) {
+				String sql = list.get(begin).getSql();
+				int end = begin + 1;
+				while (end < size && end - begin < chunkSize && sql.equals(list.get(end).getSql())) {
+					end++;
+				}
+				SumkStatement statement = statements.get(sql);
+				if (statement == null) {
+					statement = SumkStatement.createBatch(conn, sql);
+					statements.put(sql, statement);
+				}
+				for (int i = begin; i < end; i++) {
+					statement.addBatch(list.get(i).getParamters());
+				}
+				int[] ret = statement.executeBatch();
+				List<DBEvent> events = new ArrayList<>(end - begin);
+				for (int i = begin; i < end; i++) {
+					int c = i - begin < ret.length ? ret[i - begin] : Statement.SUCCESS_NO_INFO;
+					if (c == Statement.SUCCESS_NO_INFO) {
+						c = 1;
+					}
+					if (c > 0) {
+						total += c;
+						events.add(list.get(i).getEvent());
+					}
+				}
+				for (DBEvent event : merge(events)) {
+					EventLane.pubuish(conn, event);
+				}
+				begin = end;
+			}
+		} finally {
+			for (SumkStatement statement : statements.values()) {
+				statement.close();
+			}
+		}
+		return total;
+	}
+
+	private static boolean rewriteBatched(Connection conn) {
+		try {
+			String url = conn.getMetaData().getURL();
+			return url != null && url.contains("rewriteBatchedStatements=true");
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	static List<DBEvent> merge(List<DBEvent> events) {
+		if (events.size() < 2) {
+			return events;
+		}
+		List<DBEvent> ret = new ArrayList<>(4);
+		DBEvent last = null;
+		List<Map<String, Object>> merged = null;
+		for (DBEvent event : events) {
+			if (event == null) {
+				continue;
+			}
+			List<Map<String, Object>> items = mergeItems(event);
+			if (items != null && last != null && last.getClass() == event.getClass()
+					&& last.getTable().equals(event.getTable())) {
+				if (merged == null) {
+					merged = new ArrayList<>(mergeItems(last));
+					last = event.getClass() == InsertEvent.class ? new InsertEvent(last.getTable(), merged)
+							: new DeleteEvent(last.getTable(), merged);
+					ret.set(ret.size() - 1, last);
+				}
+				merged.addAll(items);
+				continue;
+			}
+			ret.add(event);
+			last = event;
+			merged = null;
+		}
+		return ret;
+	}
+
+	private static List<Map<String, Object>> mergeItems(DBEvent event) {
+		if (event.getClass() == InsertEvent.class) {
+			return ((InsertEvent) event).getPojos();
+		}
+		if (event.getClass() == DeleteEvent.class) {
+			return ((DeleteEvent) event).getWheres();
+		}
+		return null;
+	}
+}
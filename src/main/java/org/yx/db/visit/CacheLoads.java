@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.visit;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.yx.conf.AppInfo;
+import org.yx.db.conn.ConnectionPool;
+import org.yx.db.sql.DBSettings;
+import org.yx.db.sql.PojoMeta;
+import org.yx.exception.SumkException;
+import org.yx.log.Logs;
+
+/**
+ * 按缓存id从数据库加载数据时的防击穿措施。
+ * <UL>
+ * <LI>single-flight：同一个节点内，同一张表同一个缓存id的并发加载只有一个线程真正查数据库，其它线程等待它的结果。
+ * 当前上下文打开过写连接或者不走读连接的时候不参与，免得把未提交的数据共享出去</LI>
+ * <LI>提前刷新：缓存快过期的时候，按概率让少数请求提前回源(XFetch算法)，由sumk.db.cache.refresh.beta开启</LI>
+ * </UL>
+ */
+public final class CacheLoads {
+
+	private static final ConcurrentHashMap<String, CompletableFuture<Object>> LOADING = new ConcurrentHashMap<>();
+
+	/**
+	 * 每张表回源耗时的移动平均，单位毫秒
+	 */
+	private static final ConcurrentHashMap<String, Double> LOAD_COST = new ConcurrentHashMap<>();
+
+	public static boolean singleFlightEnable() {
+		return AppInfo.getBoolean("sumk.db.singleflight", true);
+	}
+
+	/**
+	 * 执行或者等待加载
+	 * 
+	 * @param pm
+	 *            表结构
+	 * @param id
+	 *            缓存id
+	 * @param loader
+	 *            真正的加载逻辑
+	 * @return 加载结果。如果是等待别人的结果，leader为false
+	 * @throws Exception
+	 *             加载过程中的异常
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Loaded<T> load(PojoMeta pm, String id, Callable<T> loader) throws Exception {
+		if (!ConnectionPool.get().isCleanRead(DBSettings.readType())) {
+			return new Loaded<>(loader.call(), true);
+		}
+		String key = pm.getTableName().concat("\n").concat(id);
+		CompletableFuture<Object> future = new CompletableFuture<>();
+		CompletableFuture<Object> exist = LOADING.putIfAbsent(key, future);
+		if (exist != null) {
+			try {
+				Object v = exist.get(AppInfo.getLong("sumk.db.singleflight.timeout", 3000), TimeUnit.MILLISECONDS);
+				return new Loaded<>((T) v, false);
+			} catch (Exception e) {
+				Logs.db().debug("wait single-flight {} failed: {}", key, e.toString());
+				return new Loaded<>(loader.call(), true);
+			}
+		}
+		long begin = System.nanoTime();
+		try {
+			T v = loader.call();
+			future.complete(v);
+			recordCost(pm, System.nanoTime() - begin);
+			return new Loaded<>(v, true);
+		} catch (Throwable e) {
+			future.completeExceptionally(e);
+			throw e instanceof Exception ? (Exception) e : SumkException.wrap(e);
+		} finally {
+			LOADING.remove(key, future);
+		}
+	}
+
+	private static void recordCost(PojoMeta pm, long nanos) {
+		double ms = nanos / 1000_000d;
+		LOAD_COST.merge(pm.getTableName(), ms, (old, v) -> old * 0.8 + v * 0.2);
+	}
+
+	public static double refreshBeta() {
+		String beta = AppInfo.get("sumk.db.cache.refresh.beta", null);
+		return beta == null || beta.isEmpty() ? 0 : Double.parseDouble(beta);
+	}
+
+	/**
+	 * XFetch算法：-cost * beta * ln(random) &gt;= 剩余时间，就提前刷新
+	 * 
+	 * @param pm
+	 *            表结构
+	 * @param pttl
+	 *            redis中的剩余时间，单位毫秒
+	 * @return true表示这次请求要回源刷新
+	 */
+	public static boolean shouldRefreshEarly(PojoMeta pm, long pttl) {
+		if (pttl < 0) {
+			return false;
+		}
+		double beta = refreshBeta();
+		if (beta <= 0) {
+			return false;
+		}
+		Double cost = LOAD_COST.get(pm.getTableName());
+		double delta = cost == null ? 1 : Math.max(cost, 1);
+		double r = ThreadLocalRandom.current().nextDouble();
+		if (r <= 0) {
+			return true;
+		}
+		return -delta * beta * Math.log(r) >= pttl;
+	}
+
+	public static final class Loaded<T> {
+		private final T value;
+		private final boolean leader;
+
+		Loaded(T value, boolean leader) {
+			this.value = value;
+			this.leader = leader;
+		}
+
+		public T value() {
+			return value;
+		}
+
+		/**
+		 * @return true表示是当前线程执行的加载
+		 */
+		public boolean isLeader() {
+			return leader;
+		}
+	}
+}
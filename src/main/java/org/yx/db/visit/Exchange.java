@@ -20,8 +20,10 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
+import org.yx.db.sql.NearCache;
 import org.yx.db.sql.PojoMeta;
 import org.yx.log.Log;
+import org.yx.redis.NearCacheBus;
 import org.yx.redis.RecordRepository;
 import org.yx.redis.RedisPool;
 import org.yx.util.StringUtil;
@@ -32,6 +34,8 @@ public class Exchange {
 
 	private List<String> data;
 
+	private List<Object> pojos;
+
 	public Exchange(List<Map<String, Object>> leftIn) {
 		this.leftIn = leftIn == null ? null : Collections.unmodifiableList(leftIn);
 	}
@@ -44,48 +48,154 @@ public class Exchange {
 		return data;
 	}
 
+	/**
+	 * @return 从本地缓存或者经handler解析后的对象，它们不会出现在getData()中
+	 */
+	public List<Object> getPojos() {
+		return pojos;
+	}
+
 	public void findFromCache(PojoMeta pm) {
+		this.findFromCache(pm, null);
+	}
+
+	/**
+	 * @param handler
+	 *            不为null并且表开启了本地缓存，就先查本地缓存，redis中查到的数据用它解析后放入本地缓存
+	 */
+	public void findFromCache(PojoMeta pm, ResultHandler handler) {
 		List<Map<String, Object>> origin = this.leftIn;
 
 		if (origin == null || origin.isEmpty() || RedisPool.defaultRedis() == null) {
 			return;
 		}
+		NearCache near = handler == null ? null : pm.nearCache();
+		if (near != null && !NearCacheBus.ready(pm)) {
+			near = null;
+		}
 		try {
 			List<String> redisList = new ArrayList<>(origin.size());
 			List<Map<String, Object>> redisConditions = new ArrayList<>(origin.size());
 
 			List<Map<String, Object>> notFound = new ArrayList<>(origin.size());
+
+			List<List<Object>> nearSlots = near == null ? null : new ArrayList<>(origin.size());
+			List<Integer> redisSlots = near == null ? null : new ArrayList<>(origin.size());
+
+			boolean nearHit = false;
 			for (Map<String, Object> map : origin) {
 				if (pm.isOnlyCacheID(map)) {
-					redisList.add(pm.getCacheID(map, false));
+					String id = pm.getCacheID(map, false);
+					if (near != null) {
+						List<Object> cached = near.get(RecordRepository.getKey(pm, id));
+						if (cached != null) {
+							List<Object> copy = new ArrayList<>(cached.size());
+							for (Object obj : cached) {
+								copy.add(pm.copyPojo(obj));
+							}
+							nearSlots.add(copy);
+							nearHit = true;
+							continue;
+						}
+						redisSlots.add(nearSlots.size());
+						nearSlots.add(null);
+					}
+					redisList.add(id);
 					redisConditions.add(map);
 				} else {
 					notFound.add(map);
 				}
 			}
+			this.pojos = flat(nearSlots);
 			if (redisList.isEmpty()) {
+				if (nearHit) {
+					this.leftIn = Collections.unmodifiableList(notFound);
+				}
 				return;
 			}
-			List<String> redisData = RecordRepository.getMultiValue(pm, redisList);
-			if (redisData == null || redisData.isEmpty()) {
+			long stamp = near == null ? 0 : near.version();
+			List<String> redisData = this.getFromRedis(pm, redisList);
+			if ((redisData == null || redisData.isEmpty()) && !nearHit) {
 				return;
 			}
-			this.data = new ArrayList<>(redisData.size());
+			int redisSize = redisData == null ? 0 : redisData.size();
+			this.data = new ArrayList<>(redisSize);
 			for (int i = 0; i < redisConditions.size(); i++) {
 				Map<String, Object> conditon = redisConditions.get(i);
 
-				if (i < redisData.size() && StringUtil.isNotEmpty(redisData.get(i))) {
-					this.data.add(redisData.get(i));
+				if (i < redisSize && RecordRepository.isNegative(redisData.get(i))) {
+					if (near != null) {
+						near.put(RecordRepository.getKey(pm, redisList.get(i)), Collections.emptyList(), stamp);
+					}
+					continue;
+				}
+				if (i < redisSize && StringUtil.isNotEmpty(redisData.get(i))) {
+					if (near == null) {
+						this.data.add(redisData.get(i));
+						continue;
+					}
+					List<Object> objs = handler.parseFromJson(pm, Collections.singletonList(redisData.get(i)));
+					if (objs != null && objs.size() > 0) {
+						List<Object> cached = new ArrayList<>(objs.size());
+						for (Object obj : objs) {
+							cached.add(pm.copyPojo(obj));
+						}
+						near.put(RecordRepository.getKey(pm, redisList.get(i)), cached, stamp);
+						nearSlots.set(redisSlots.get(i), objs);
+					}
 					continue;
 				}
 
 				notFound.add(conditon);
 			}
+			this.pojos = flat(nearSlots);
 			this.leftIn = Collections.unmodifiableList(notFound);
 		} catch (Exception e) {
 			this.data = null;
+			this.pojos = null;
 			Log.printStack("sumk.sql", e);
 		}
 	}
 
+	/**
+	 * 按调用方传入的id顺序，把本地缓存和redis中找到的对象合并起来
+	 * 
+	 * @return 一个都没有的时候返回null
+	 */
+	private static List<Object> flat(List<List<Object>> slots) {
+		if (slots == null) {
+			return null;
+		}
+		List<Object> list = null;
+		for (List<Object> objs : slots) {
+			if (objs == null || objs.isEmpty()) {
+				continue;
+			}
+			if (list == null) {
+				list = new ArrayList<>(slots.size());
+			}
+			list.addAll(objs);
+		}
+		return list;
+	}
+
+	/**
+	 * 只查一条记录并且开启了提前刷新的时候，同时获取剩余存活时间，按概率提前回源。<BR>
+	 * 回源的记录当作没找到，它会由查询监听器重新写入缓存
+	 */
+	private List<String> getFromRedis(PojoMeta pm, List<String> redisList) {
+		if (redisList.size() != 1 || pm.getTtlSec() <= 0 || CacheLoads.refreshBeta() <= 0) {
+			return RecordRepository.getMultiValue(pm, redisList);
+		}
+		Object[] valueAndTtl = RecordRepository.getWithPttl(pm, redisList.get(0));
+		if (valueAndTtl == null || valueAndTtl[0] == null) {
+			return null;
+		}
+		String value = (String) valueAndTtl[0];
+		if (!RecordRepository.isNegative(value) && CacheLoads.shouldRefreshEarly(pm, (Long) valueAndTtl[1])) {
+			return null;
+		}
+		return Collections.singletonList(value);
+	}
+
 }
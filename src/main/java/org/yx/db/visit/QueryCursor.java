@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.visit;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+import org.yx.db.conn.ConnectionPool;
+import org.yx.db.sql.DBSettings;
+import org.yx.db.sql.SqlBuilder;
+import org.yx.exception.SumkException;
+
+/**
+ * 流式查询的游标，边读边转化，不会把结果全部放到内存里。<BR>
+ * 用完一定要close，建议使用try-with-resources。在它关闭之前，连接会一直被占用。<BR>
+ * mysql在游标关闭之前，同一个连接上不能执行其它sql
+ * 
+ * @param <T>
+ *            每一行的类型
+ */
+public final class QueryCursor<T> implements Iterator<T>, AutoCloseable {
+
+	@FunctionalInterface
+	public static interface RowMapperFactory {
+		RowMapper create(ResultSetMetaData md) throws SQLException;
+	}
+
+	private final ConnectionPool pool;
+	private final SumkStatement statement;
+	private final ResultSet rs;
+	private final RowMapper mapper;
+	private boolean fetched;
+	private boolean hasNext;
+	private boolean closed;
+
+	private QueryCursor(ConnectionPool pool, SumkStatement statement, ResultSet rs, RowMapper mapper) {
+		this.pool = pool;
+		this.statement = statement;
+		this.rs = rs;
+		this.mapper = mapper;
+	}
+
+	public static <T> QueryCursor<T> open(SqlBuilder builder, RowMapperFactory factory) throws Exception {
+		ConnectionPool pool = ConnectionPool.get();
+		Connection conn = pool.connection(DBSettings.readType());
+		SumkStatement statement = SumkStatement.createStreaming(conn, builder.toMapedSql());
+		try {
+			ResultSet rs = statement.executeQuery();
+			QueryCursor<T> cursor = new QueryCursor<>(pool, statement, rs, factory.create(rs.getMetaData()));
+			pool.pin(cursor);
+			return cursor;
+		} catch (Exception e) {
+			statement.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (closed) {
+			return false;
+		}
+		if (!fetched) {
+			try {
+				hasNext = rs.next();
+			} catch (SQLException e) {
+				throw new SumkException(-53172190, e.getMessage(), e);
+			}
+			fetched = true;
+			if (!hasNext) {
+				this.close();
+			}
+		}
+		return hasNext;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T next() {
+		if (!hasNext()) {
+			throw new NoSuchElementException();
+		}
+		fetched = false;
+		try {
+			return (T) mapper.map(rs);
+		} catch (Exception e) {
+			throw SumkException.wrap(e);
+		}
+	}
+
+	/**
+	 * 遍历剩下的所有记录，遍历完后自动关闭
+	 * 
+	 * @return 遍历的记录数
+	 */
+	public long forEach(Consumer<? super T> consumer) {
+		long count = 0;
+		try {
+			while (hasNext()) {
+				consumer.accept(next());
+				count++;
+			}
+		} finally {
+			this.close();
+		}
+		return count;
+	}
+
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		pool.unpin(this);
+		try {
+			rs.close();
+		} catch (SQLException e) {
+			throw new SumkException(-53172191, e.getMessage(), e);
+		} finally {
+			try {
+				statement.close();
+			} catch (SQLException e) {
+				throw new SumkException(-53172191, e.getMessage(), e);
+			}
+		}
+	}
+}
@@ -67,6 +67,19 @@ public final class ResultSetUtils {
 		return list;
 	}
 
+	public static List<Object> toPojoList(ResultSet rs, PojoMeta pm) throws Exception {
+		List<Object> list = new ArrayList<>(10);
+		if (rs == null) {
+			return list;
+		}
+		RowMapper mapper = RowMappers.get(pm, rs.getMetaData());
+		while (rs.next()) {
+			list.add(mapper.map(rs));
+		}
+		rs.close();
+		return list;
+	}
+
 	public static List<Object> toList(ResultSet rs) throws java.sql.SQLException {
 		List<Object> list = new ArrayList<>(10);
 		if (rs == null) {
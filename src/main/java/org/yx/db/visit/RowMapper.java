@@ -0,0 +1,26 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.visit;
+
+import java.sql.ResultSet;
+
+/**
+ * 把ResultSet的当前行转化为pojo。实现类跟列的顺序绑定，只能用于同一种select语句
+ */
+public interface RowMapper {
+
+	Object map(ResultSet rs) throws Exception;
+}
@@ -0,0 +1,29 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.visit;
+
+/**
+ * Select默认的ResultHandler。查询数据库的时候通过RowMapper直接从ResultSet生成pojo，不再经过Map。<BR>
+ * 缓存数据的解析跟PojoResultHandler一样
+ */
+public final class RowMapperResultHandler extends PojoResultHandler {
+
+	public static final RowMapperResultHandler handler = new RowMapperResultHandler();
+
+	private RowMapperResultHandler() {
+
+	}
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.visit;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.yx.asm.RowMapperClassFactory;
+import org.yx.bean.Loader;
+import org.yx.conf.AppInfo;
+import org.yx.db.sql.ColumnMeta;
+import org.yx.db.sql.PojoMeta;
+import org.yx.log.Logs;
+
+/**
+ * RowMapper的缓存，key是pojo类加上查询出来的字段列表。<BR>
+ * 默认使用asm生成的类，不能生成的时候(比如pojo不是public的)，退化为按下标反射赋值
+ */
+public final class RowMappers {
+
+	private static final Map<String, RowMapper> MAPPERS = new ConcurrentHashMap<>();
+
+	public static RowMapper get(PojoMeta pm, ResultSetMetaData md) throws SQLException {
+		int count = md.getColumnCount();
+		ColumnMeta[] metas = new ColumnMeta[count];
+		StringBuilder key = new StringBuilder(pm.pojoClz().getName());
+		for (int i = 0; i < count; i++) {
+			String columnName = md.getColumnName(i + 1);
+			ColumnMeta cm = pm.getByColumnDBName(columnName);
+			Objects.requireNonNull(cm, columnName + "这个字段没有在java的pojo类中定义");
+			metas[i] = cm;
+			key.append(',').append(cm.getFieldName());
+		}
+		String k = key.toString();
+		RowMapper mapper = MAPPERS.get(k);
+		if (mapper != null) {
+			return mapper;
+		}
+		mapper = create(pm, metas);
+		if (MAPPERS.size() < AppInfo.getInt("sumk.db.rowmapper.max", 2000)) {
+			RowMapper old = MAPPERS.putIfAbsent(k, mapper);
+			if (old != null) {
+				return old;
+			}
+		}
+		return mapper;
+	}
+
+	/**
+	 * 每一行转化为一个map
+	 * 
+	 * @param pm
+	 *            为null的时候，map的key是列名，否则是java字段名
+	 */
+	public static RowMapper forMap(ResultSetMetaData md, PojoMeta pm) throws SQLException {
+		int count = md.getColumnCount();
+		String[] names = new String[count];
+		for (int i = 0; i < count; i++) {
+			String columnName = md.getColumnName(i + 1);
+			if (pm == null) {
+				names[i] = columnName;
+				continue;
+			}
+			ColumnMeta cm = pm.getByColumnDBName(columnName);
+			Objects.requireNonNull(cm, columnName + "这个字段没有在java的pojo类中定义");
+			names[i] = cm.getFieldName();
+		}
+		return rs -> {
+			Map<String, Object> row = new HashMap<>(count * 2);
+			for (int i = 0; i < count; i++) {
+				row.put(names[i], rs.getObject(i + 1));
+			}
+			return row;
+		};
+	}
+
+	private static RowMapper create(PojoMeta pm, ColumnMeta[] metas) {
+		Class<?> clz = pm.pojoClz();
+		if (AppInfo.getBoolean("sumk.db.rowmapper.asm", true) && RowMapperClassFactory.canGenerate(clz)) {
+			try {
+				return new RowMapperClassFactory(clz, metas).create();
+			} catch (Throwable e) {
+				Logs.db().warn(clz.getName() + "的RowMapper生成失败，使用反射方式", e);
+			}
+		}
+		return new ReflectRowMapper(clz, metas);
+	}
+
+	private static final class ReflectRowMapper implements RowMapper {
+		private final Class<?> pojoClz;
+		private final ColumnMeta[] metas;
+
+		ReflectRowMapper(Class<?> pojoClz, ColumnMeta[] metas) {
+			this.pojoClz = pojoClz;
+			this.metas = metas;
+		}
+
+		@Override
+		public Object map(ResultSet rs) throws Exception {
+			Object obj = Loader.newInstance(pojoClz);
+			for (int i = 0; i < metas.length; i++) {
+				Object v = rs.getObject(i + 1);
+				if (v != null) {
+					metas[i].setValue(obj, v);
+				}
+			}
+			return obj;
+		}
+	}
+}
@@ -21,6 +21,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLong;
@@ -110,6 +111,40 @@ public class SumkStatement implements AutoCloseable {
 		return new SumkStatement(conn.prepareStatement(maped.getSql()), maped);
 	}
 
+	/**
+	 * 只读、只能向前的statement，用于流式查询。mysql的fetchSize是Integer.MIN_VALUE，也就是逐行读取
+	 */
+	static SumkStatement createStreaming(Connection conn, MapedSql maped) throws Exception {
+		PreparedStatement ps = conn.prepareStatement(maped.getSql(), ResultSet.TYPE_FORWARD_ONLY,
+				ResultSet.CONCUR_READ_ONLY);
+		try {
+			ps.setFetchSize(streamFetchSize(conn));
+		} catch (Exception e) {
+			ps.close();
+			throw e;
+		}
+		return new SumkStatement(ps, maped);
+	}
+
+	private static int streamFetchSize(Connection conn) throws SQLException {
+		int size = DBSettings.streamFetchSize();
+		if (size != 0) {
+			return size;
+		}
+		String url = conn.getMetaData().getURL();
+		if (url != null && (url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:"))) {
+			return Integer.MIN_VALUE;
+		}
+		return 1000;
+	}
+
+	/**
+	 * 批量执行用，参数通过addBatch设置
+	 */
+	static SumkStatement createBatch(Connection conn, String sql) throws Exception {
+		return new SumkStatement(conn.prepareStatement(sql), new MapedSql(sql, new ArrayList<>(0)));
+	}
+
 	static SumkStatement createAutoGenerateKeyStatement(Connection conn, MapedSql maped) throws Exception {
 		return new SumkStatement(conn.prepareStatement(maped.getSql(), Statement.RETURN_GENERATED_KEYS), maped);
 	}
@@ -144,6 +179,40 @@ public class SumkStatement implements AutoCloseable {
 		return modifyCount;
 	}
 
+	public void addBatch(List<Object> params) throws SQLException {
+		PreparedStatement statement = this.statement.get();
+		if (statement == null) {
+			throw new SumkException(SumkExceptionCode.DB_CONNECTION_CLOSED, "连接已关闭");
+		}
+		statementParamAttacher.accept(statement, params);
+		statement.addBatch();
+	}
+
+	/**
+	 * 如果mysql开启了rewriteBatchedStatements，返回值里可能是Statement.SUCCESS_NO_INFO
+	 */
+	public int[] executeBatch() throws SQLException {
+		PreparedStatement statement = checkStatement();
+		int[] ret;
+		try {
+			ret = statement.executeBatch();
+		} catch (Exception e) {
+			this.exception = e;
+			sqlTime = (int) (System.currentTimeMillis() - beginTime);
+			throw e;
+		}
+		sqlTime = (int) (System.currentTimeMillis() - beginTime);
+		if (this.modifyCount < 0) {
+			this.modifyCount = 0;
+		}
+		for (int c : ret) {
+			if (c > 0) {
+				this.modifyCount += c;
+			}
+		}
+		return ret;
+	}
+
 	public ResultSet executeQuery() throws Exception {
 		PreparedStatement statement = checkStatement();
 		ResultSet ret = null;
@@ -100,6 +100,16 @@ public final class Visitors {
 		}
 	};
 
+	public static final SumkDbVisitor<List<Object>> pojoQueryVisitor = builder -> {
+		MapedSql maped = builder.toMapedSql();
+		Connection conn = ConnectionPool.get().connection(DBSettings.readType());
+		try (SumkStatement statement = SumkStatement.create(conn, maped)) {
+			ResultSet ret = statement.executeQuery();
+			PojoMeta pm = ((SelectBuilder) builder).parsePojoMeta(true);
+			return ResultSetUtils.toPojoList(ret, pm);
+		}
+	};
+
 	public static final SumkDbVisitor<List<Map<String, Object>>> queryVisitor = new QueryVisitor<>(
 			ResultSetUtils::toMapList);
 
@@ -15,6 +15,9 @@
  */
 package org.yx.http;
 
+import java.io.OutputStream;
+
+import org.yx.common.sumk.BufferedTransformOutputStream;
 import org.yx.http.handler.WebContext;
 
 public interface HttpEncryptor {
@@ -22,4 +25,19 @@ public interface HttpEncryptor {
 
 	byte[] decrypt(byte[] data, WebContext ctx) throws Exception;
 
+	/**
+	 * 流式加密，在流式响应的时候使用。默认实现是close的时候一次性加密
+	 * 
+	 * @param out
+	 *            密文写入这里，返回值close的时候会关闭它
+	 * @param ctx
+	 *            上下文
+	 * @return 明文写入这里
+	 * @throws Exception
+	 *             异常信息
+	 */
+	default OutputStream encrypt(OutputStream out, WebContext ctx) throws Exception {
+		return new BufferedTransformOutputStream(out, bs -> encrypt(bs, ctx));
+	}
+
 }
@@ -95,6 +95,11 @@ public interface HttpErrorCode {
 	 */
 	int ACT_NOT_FOUND = 954;
 
+	/**
+	 * 异步请求超时
+	 */
+	int ASYNC_TIMEOUT = 955;
+
 	/**
 	 * 不支持该http方法，比如GET
 	 */
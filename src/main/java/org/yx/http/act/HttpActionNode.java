@@ -47,6 +47,7 @@ public final class HttpActionNode extends CalleeNode {
 	private final List<String> tags;
 	private final String cnName;
 	private final UploadSpec upload;
+	private final boolean async;
 
 	public UploadSpec upload() {
 		return this.upload;
@@ -104,6 +105,16 @@ public final class HttpActionNode extends CalleeNode {
 				&& AppInfo.getBoolean("sumk.http.sign.enable", true);
 		this.tags = CollectionUtil.unmodifyList(action.tags());
 		this.upload = Specs.extractUpload(obj, method);
+		this.async = action.async() && this.upload == null && AppInfo.getBoolean("sumk.http.async.enable", true);
+	}
+
+	/**
+	 * 上传接口不支持异步。可以通过sumk.http.async.enable=false禁用全部的异步接口
+	 * 
+	 * @return true表示使用servlet的异步模式处理
+	 */
+	public boolean async() {
+		return async;
 	}
 
 	/**
@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.http.handler;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+
+import org.yx.common.sumk.UnsafeByteArrayOutputStream;
+import org.yx.exception.BizException;
+import org.yx.http.HttpErrorCode;
+import org.yx.http.kit.HttpSettings;
+import org.yx.http.kit.InnerHttpUtil;
+
+/**
+ * 异步模式下用非阻塞的方式读取请求体，读完后设置到WebContext的data中
+ */
+public final class AsyncBodyReader implements ReadListener {
+
+	private final WebContext ctx;
+	private final ServletInputStream in;
+	private final Runnable onComplete;
+	private final Consumer<Throwable> onError;
+	private final UnsafeByteArrayOutputStream buffer;
+	private final byte[] temp = new byte[1024];
+
+	public AsyncBodyReader(WebContext ctx, ServletInputStream in, Runnable onComplete, Consumer<Throwable> onError) {
+		this.ctx = Objects.requireNonNull(ctx);
+		this.in = Objects.requireNonNull(in);
+		this.onComplete = Objects.requireNonNull(onComplete);
+		this.onError = Objects.requireNonNull(onError);
+		this.buffer = new UnsafeByteArrayOutputStream(
+				InnerHttpUtil.getKit().expectReqDataSize(ctx.httpRequest().getContentLength()));
+	}
+
+	/**
+	 * 开始读取，读取完成或出错的时候会回调
+	 */
+	public void start() {
+		in.setReadListener(this);
+	}
+
+	@Override
+	public void onDataAvailable() throws IOException {
+		int n;
+		while (in.isReady() && (n = in.read(temp)) != -1) {
+			buffer.write(temp, 0, n);
+			if (buffer.size() > HttpSettings.maxHttpBody()) {
+				throw BizException.create(HttpErrorCode.BODY_TOO_BIG, "请求数据太长");
+			}
+		}
+	}
+
+	@Override
+	public void onAllDataRead() throws IOException {
+		ctx.data(buffer.extractHttpBodyData());
+		onComplete.run();
+	}
+
+	@Override
+	public void onError(Throwable t) {
+		onError.accept(t);
+	}
+}
@@ -15,6 +15,8 @@
  */
 package org.yx.http.handler;
 
+import java.io.InputStream;
+
 import org.yx.annotation.Bean;
 import org.yx.http.kit.HttpSettings;
 import org.yx.util.S;
@@ -33,6 +35,10 @@ public class Base64DecodeHandler implements HttpHandler {
 		if (!ctx.node().requestType().isBase64() || HttpSettings.allowPlain(ctx.httpRequest())) {
 			return;
 		}
+		if (ctx.data() instanceof InputStream) {
+			ctx.data(S.base64().decode((InputStream) ctx.data()));
+			return;
+		}
 		byte[] bs = ctx.getDataInByteArray();
 		if (bs == null) {
 			return;
@@ -32,6 +32,10 @@ public class Base64EncodeHandler implements HttpHandler {
 		if (!ctx.node().responseType().isBase64() || HttpSettings.allowPlain(ctx.httpRequest())) {
 			return;
 		}
+		if (RespBodyHandler.isStreamResult(ctx)) {
+			ctx.addRespStage(out -> S.base64().encode(out));
+			return;
+		}
 		byte[] bs = (byte[]) ctx.result();
 		byte[] data = S.base64().encode(bs);
 		ctx.result(data, false);
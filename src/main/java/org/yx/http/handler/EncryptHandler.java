@@ -32,6 +32,10 @@ public class EncryptHandler implements HttpHandler {
 		if (!ctx.node().responseType().isEncrypt() || HttpSettings.allowPlain(ctx.httpRequest())) {
 			return;
 		}
+		if (RespBodyHandler.isStreamResult(ctx)) {
+			ctx.addRespStage(out -> HttpCiphers.getEncryptor().encrypt(out, ctx));
+			return;
+		}
 		byte[] bs = (byte[]) ctx.result();
 		byte[] data = HttpCiphers.getEncryptor().encrypt(bs, ctx);
 		ctx.result(data, false);
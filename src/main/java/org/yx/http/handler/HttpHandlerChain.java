@@ -16,8 +16,14 @@
 package org.yx.http.handler;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
 
 import org.slf4j.Logger;
+import org.yx.common.context.ActionContext;
+import org.yx.http.kit.LocalWebContext;
 import org.yx.log.Log;
 
 public final class HttpHandlerChain {
@@ -32,18 +38,96 @@ public final class HttpHandlerChain {
 		this.handlers = handlers.toArray(new HttpHandler[handlers.size()]);
 	}
 
+	/**
+	 * 同步处理。如果接口返回的是CompletionStage，就在当前线程等待它完成
+	 */
 	public void handle(WebContext ctx) throws Throwable {
 		for (HttpHandler h : this.handlers) {
-			if (h.order() < ctx.getLowestOrder()) {
-				continue;
+			handle(h, ctx);
+			Object r = ctx.result();
+			if (r instanceof CompletionStage) {
+				try {
+					ctx.result(((CompletionStage<?>) r).toCompletableFuture().get(), true);
+				} catch (ExecutionException e) {
+					throw e.getCause() == null ? e : e.getCause();
+				}
+			}
+		}
+	}
+
+	/**
+	 * 异步处理。如果接口返回的是CompletionStage，剩下的handler会在它完成的线程里执行，
+	 * 执行的时候会带上当前的ActionContext和WebContext。<BR>
+	 * 执行的时候不加锁，每个handler执行前都会检查ctx是否已经结束了(比如超时)，结束了的话剩下的handler就不再执行，返回的future会被cancel。
+	 * 正在执行的handler不会被中断
+	 * 
+	 * @param ctx
+	 *            上下文
+	 * @return 所有handler执行完毕后完成
+	 * @throws Throwable
+	 *             同步部分抛出的异常
+	 */
+	public CompletableFuture<Void> handleAsync(WebContext ctx) throws Throwable {
+		CompletableFuture<Void> future = new CompletableFuture<>();
+		handleAsync(ctx, 0, future);
+		return future;
+	}
+
+	private void handleAsync(WebContext ctx, int from, CompletableFuture<Void> future) throws Throwable {
+		for (int i = from; i < handlers.length; i++) {
+			if (ctx.isCompleted()) {
+				future.cancel(false);
+				return;
+			}
+			handle(handlers[i], ctx);
+			Object r = ctx.result();
+			if (r instanceof CompletionStage) {
+				resumeOnComplete(ctx, (CompletionStage<?>) r, i + 1, future);
+				return;
 			}
-			if (LOG.isTraceEnabled()) {
-				if (ctx.data() instanceof String) {
-					String s = ((String) ctx.data());
-					LOG.trace("{} - {} with data:{}", ctx.rawAct(), h.getClass().getSimpleName(), s);
+		}
+		future.complete(null);
+	}
+
+	private void resumeOnComplete(WebContext ctx, CompletionStage<?> stage, int next,
+			CompletableFuture<Void> future) {
+		final ActionContext actionContext = ActionContext.current();
+		stage.whenComplete((v, e) -> {
+			ActionContext oldAction = ActionContext.current();
+			WebContext oldWeb = LocalWebContext.getCtx();
+			ActionContext.store(actionContext);
+			LocalWebContext.setCtx(ctx);
+			try {
+				if (ctx.isCompleted()) {
+					future.cancel(false);
+					return;
+				}
+				if (e != null) {
+					future.completeExceptionally(
+							e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+					return;
 				}
+				ctx.result(v, true);
+				handleAsync(ctx, next, future);
+			} catch (Throwable t) {
+				future.completeExceptionally(t);
+			} finally {
+				ActionContext.store(oldAction);
+				LocalWebContext.setCtx(oldWeb);
+			}
+		});
+	}
+
+	private void handle(HttpHandler h, WebContext ctx) throws Throwable {
+		if (h.order() < ctx.getLowestOrder()) {
+			return;
+		}
+		if (LOG.isTraceEnabled()) {
+			if (ctx.data() instanceof String) {
+				String s = ((String) ctx.data());
+				LOG.trace("{} - {} with data:{}", ctx.rawAct(), h.getClass().getSimpleName(), s);
 			}
-			h.handle(ctx);
 		}
+		h.handle(ctx);
 	}
 }
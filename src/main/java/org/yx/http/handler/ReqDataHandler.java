@@ -49,6 +49,10 @@ public class ReqDataHandler implements HttpHandler {
 			ctx.data(data);
 			return;
 		}
+		if (ctx.isStreaming()) {
+			ctx.data(InnerHttpUtil.bodyStream(req.getInputStream()));
+			return;
+		}
 		ctx.data(InnerHttpUtil.extractData(req.getInputStream(), req.getContentLength()));
 	}
 }
@@ -15,6 +15,8 @@
  */
 package org.yx.http.handler;
 
+import java.io.InputStream;
+
 import org.yx.annotation.Bean;
 
 @Bean
@@ -31,6 +33,9 @@ public class ReqToStringHandler implements HttpHandler {
 		if (obj == null) {
 			return;
 		}
+		if (obj instanceof InputStream) {
+			obj = ctx.getDataInByteArray();
+		}
 		if (!(obj instanceof byte[])) {
 			return;
 		}
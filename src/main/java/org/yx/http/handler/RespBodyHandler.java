@@ -15,7 +15,16 @@
  */
 package org.yx.http.handler;
 
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
 import org.yx.annotation.Bean;
+import org.yx.http.HttpJson;
+import org.yx.http.kit.HttpSettings;
 
 @Bean
 public class RespBodyHandler implements HttpHandler {
@@ -25,12 +34,122 @@ public class RespBodyHandler implements HttpHandler {
 		return 2600;
 	}
 
+	/**
+	 * 流式处理模式下，result还没有被序列化成字节数组
+	 */
+	static boolean isStreamResult(WebContext ctx) {
+		Object result = ctx.result();
+		return ctx.isStreaming() && result != null && result.getClass() != byte[].class;
+	}
+
 	@Override
 	public void handle(WebContext ctx) throws Throwable {
+		if (isStreamResult(ctx)) {
+			writeStream(ctx);
+			return;
+		}
 		byte[] data = (byte[]) ctx.result();
 		if (data != null && data.length > 0) {
 			ctx.httpResponse().getOutputStream().write(data);
 		}
 	}
 
+	/**
+	 * 用json序列化结果，直接写入到经过各个处理环节的servlet输出流中。<BR>
+	 * 前sumk.http.stream.firstchunk个字节先缓冲起来，在这之前序列化失败的话，servlet里什么都没写，异常会按正常的错误返回。
+	 * 超过这个大小以后才失败的话，响应已经提交，客户端只能收到被截断的报文
+	 */
+	protected void writeStream(WebContext ctx) throws Exception {
+		FirstChunkOutputStream first = new FirstChunkOutputStream(ctx.httpResponse().getOutputStream(),
+				HttpSettings.streamFirstChunk());
+		OutputStream out = first;
+		List<RespStreamStage> stages = ctx.respStages();
+		for (int i = stages.size() - 1; i >= 0; i--) {
+			out = stages.get(i).wrap(out);
+		}
+		Writer writer = new OutputStreamWriter(out, ctx.charset());
+		try {
+			HttpJson.operator().toJson(ctx.result(), writer);
+		} catch (Throwable e) {
+			first.abort();
+			try {
+				writer.close();
+			} catch (Exception e2) {
+			}
+			throw e;
+		}
+		writer.close();
+	}
+
+	/**
+	 * 缓冲第一块数据，超出以后才写入servlet。close的时候只flush，servlet的输出流由容器关闭
+	 */
+	static final class FirstChunkOutputStream extends FilterOutputStream {
+
+		private byte[] buf;
+		private int count;
+		private boolean aborted;
+
+		FirstChunkOutputStream(OutputStream out, int firstChunk) {
+			super(out);
+			this.buf = firstChunk > 0 ? new byte[firstChunk] : null;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (aborted) {
+				return;
+			}
+			if (buf != null) {
+				if (count + len <= buf.length) {
+					System.arraycopy(b, off, buf, count, len);
+					count += len;
+					return;
+				}
+				commit();
+			}
+			out.write(b, off, len);
+		}
+
+		private void commit() throws IOException {
+			byte[] data = buf;
+			buf = null;
+			if (count > 0) {
+				out.write(data, 0, count);
+			}
+		}
+
+		/**
+		 * 丢弃还没写入servlet的数据，以后的写入也都忽略
+		 */
+		void abort() {
+			aborted = true;
+			buf = null;
+			count = 0;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			if (buf == null && !aborted) {
+				out.flush();
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (aborted) {
+				return;
+			}
+			if (buf != null) {
+				commit();
+			}
+			out.flush();
+		}
+	}
+
 }
@@ -0,0 +1,34 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.http.handler;
+
+import java.io.OutputStream;
+
+/**
+ * 流式响应的处理环节，比如加密、base64编码
+ */
+@FunctionalInterface
+public interface RespStreamStage {
+
+	/**
+	 * @param out
+	 *            下一个环节的输出流
+	 * @return 本环节的输出流，写入这里的数据经过处理后写入out。close的时候要关闭out
+	 * @throws Exception
+	 *             异常信息
+	 */
+	OutputStream wrap(OutputStream out) throws Exception;
+}
@@ -45,6 +45,9 @@ public class RespToStringHandler implements HttpHandler {
 			ctx.result(String.valueOf(obj), true);
 			return;
 		}
+		if (ctx.isStreaming()) {
+			return;
+		}
 		ctx.result(HttpJson.operator().toJson(obj), true);
 	}
 
@@ -15,16 +15,24 @@
  */
 package org.yx.http.handler;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.yx.common.context.NodeContext;
+import org.yx.exception.SumkException;
 import org.yx.http.act.HttpActionInfo;
 import org.yx.http.act.HttpActionNode;
+import org.yx.http.kit.HttpSettings;
+import org.yx.http.kit.InnerHttpUtil;
 
 public class WebContext extends NodeContext<HttpActionNode> {
 
@@ -43,6 +51,10 @@ public class WebContext extends NodeContext<HttpActionNode> {
 
 	private boolean failed;
 
+	private final boolean streaming;
+	private final AtomicBoolean completed = new AtomicBoolean();
+	private List<RespStreamStage> respStages;
+
 	public long beginTime() {
 		return this.beginTime;
 	}
@@ -74,6 +86,7 @@ public class WebContext extends NodeContext<HttpActionNode> {
 		this.charset = Objects.requireNonNull(charset);
 		this.httpResponse = resp;
 		this.beginTime = beginTime;
+		this.streaming = HttpSettings.isStreamEnable();
 	}
 
 	public Charset charset() {
@@ -84,13 +97,49 @@ public class WebContext extends NodeContext<HttpActionNode> {
 		return data;
 	}
 
+	/**
+	 * 如果data是流，会把它全部读出来，并替换掉原来的data
+	 * 
+	 * @return 请求体的字节数组
+	 */
 	public byte[] getDataInByteArray() {
 		if (data instanceof String) {
 			return ((String) data).getBytes(charset());
 		}
+		if (data instanceof InputStream) {
+			try {
+				this.data(InnerHttpUtil.readStream((InputStream) data, httpRequest.getContentLength()));
+			} catch (IOException e) {
+				throw SumkException.wrap(e);
+			}
+		}
 		return (byte[]) data;
 	}
 
+	/**
+	 * 是否流式处理。流式处理的时候，data可能是InputStream，result可能是未序列化的对象
+	 */
+	public boolean isStreaming() {
+		return streaming;
+	}
+
+	/**
+	 * 添加流式响应的处理环节，按添加的顺序处理数据
+	 * 
+	 * @param stage
+	 *            处理环节
+	 */
+	public void addRespStage(RespStreamStage stage) {
+		if (this.respStages == null) {
+			this.respStages = new ArrayList<>(2);
+		}
+		this.respStages.add(stage);
+	}
+
+	List<RespStreamStage> respStages() {
+		return respStages == null ? Collections.emptyList() : respStages;
+	}
+
 	public HttpServletRequest httpRequest() {
 		return httpRequest;
 	}
@@ -135,6 +184,22 @@ public class WebContext extends NodeContext<HttpActionNode> {
 		this.failed = failed;
 	}
 
+	/**
+	 * 异步请求已经结束(包括超时、出错)，之后不能再操作httpResponse
+	 */
+	public boolean isCompleted() {
+		return completed.get();
+	}
+
+	/**
+	 * 标记请求结束，不会等待正在执行的handler
+	 * 
+	 * @return 如果之前已经结束了，就返回false
+	 */
+	public boolean markCompleted() {
+		return completed.compareAndSet(false, true);
+	}
+
 	public HttpActionInfo actionInfo() {
 		return actionInfo;
 	}
@@ -15,6 +15,7 @@
  */
 package org.yx.http.kit;
 
+import java.io.OutputStream;
 import java.util.Objects;
 
 import org.yx.exception.BizException;
@@ -47,6 +48,11 @@ public class DefaultHttpEncryptor implements HttpEncryptor {
 		return cipher.decrypt(data, getKey());
 	}
 
+	@Override
+	public OutputStream encrypt(OutputStream out, WebContext ctx) throws Exception {
+		return cipher.encrypt(out, getKey());
+	}
+
 	public Encryptor getCipher() {
 		return cipher;
 	}
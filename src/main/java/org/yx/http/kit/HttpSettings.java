@@ -50,6 +50,9 @@ public final class HttpSettings {
 
 	private static boolean singleLogin;
 
+	private static boolean streamEnable;
+	private static int streamFirstChunk;
+
 	private static String traceHeaderName;
 
 	private static String testKey = DEFAULT_TEST_KEY;
@@ -113,6 +116,21 @@ public final class HttpSettings {
 		return singleLogin;
 	}
 
+	/**
+	 * 流式处理请求体和响应体，大报文的内存占用比较稳定。<BR>
+	 * 开启后json响应直接写入到servlet的输出流，响应日志要另外序列化一次
+	 */
+	public static boolean isStreamEnable() {
+		return streamEnable;
+	}
+
+	/**
+	 * 流式响应时，先缓冲这么多字节才真正写入servlet。序列化在这之前失败的话，还能返回正常的错误信息
+	 */
+	public static int streamFirstChunk() {
+		return streamFirstChunk;
+	}
+
 	public static boolean allowPlain(HttpServletRequest request) {
 		String plainKey = HttpSettings.plainKey;
 		return plainKey != null && plainKey.equals(request.getParameter("plainKey"));
@@ -150,6 +168,8 @@ public final class HttpSettings {
 			HttpSettings.infoTime = AppInfo.getInt("sumk.http.log.info.time", 1000);
 			HttpSettings.maxHttpBody = AppInfo.getInt("sumk.http.body.maxLength", 1024 * 1024 * 100);
 			HttpSettings.singleLogin = AppInfo.getBoolean("sumk.http.session.single", false);
+			HttpSettings.streamEnable = AppInfo.getBoolean("sumk.http.stream", false);
+			HttpSettings.streamFirstChunk = AppInfo.getInt("sumk.http.stream.firstchunk", 8192);
 			String plain = AppInfo.get("sumk.http.plain.key", null);
 			HttpSettings.plainKey = "".equals(plain) ? null : plain;
 
@@ -17,8 +17,10 @@ package org.yx.http.kit;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.function.BiConsumer;
 
@@ -42,6 +44,7 @@ public final class InnerHttpUtil {
 	private static HttpKit kit = new DefaultHttpKit();
 	private static ActionStatis actStatis = new ActionStatisImpl();
 	private static BiConsumer<HttpServletRequest, HttpServletResponse> optionMethodHandler;
+	private static final byte[] DATA_PREFIX = "data=".getBytes(StandardCharsets.US_ASCII);
 
 	public static BiConsumer<HttpServletRequest, HttpServletResponse> getOptionMethodHandler() {
 		return optionMethodHandler;
@@ -64,6 +67,40 @@ public final class InnerHttpUtil {
 	}
 
 	public static byte[] extractData(InputStream in, int expectSize) throws IOException {
+		UnsafeByteArrayOutputStream output = read(in, expectSize);
+		byte[] bs = output.extractHttpBodyData();
+		output.close();
+		return bs;
+	}
+
+	/**
+	 * 读取流中的全部数据，跟extractData的区别是不会去掉data=前缀
+	 */
+	public static byte[] readStream(InputStream in, int expectSize) throws IOException {
+		UnsafeByteArrayOutputStream output = read(in, expectSize);
+		byte[] bs = output.extractData();
+		output.close();
+		return bs;
+	}
+
+	/**
+	 * 流式读取请求体，如果以data=开头，就去掉这个前缀
+	 */
+	public static InputStream bodyStream(InputStream in) throws IOException {
+		PushbackInputStream pin = new PushbackInputStream(in, DATA_PREFIX.length);
+		byte[] head = new byte[DATA_PREFIX.length];
+		int len = 0;
+		int n;
+		while (len < head.length && (n = pin.read(head, len, head.length - len)) > 0) {
+			len += n;
+		}
+		if (len > 0 && !Arrays.equals(head, DATA_PREFIX)) {
+			pin.unread(head, 0, len);
+		}
+		return pin;
+	}
+
+	private static UnsafeByteArrayOutputStream read(InputStream in, int expectSize) throws IOException {
 		int count = 0;
 		int n = 0;
 		expectSize = kit.expectReqDataSize(expectSize);
@@ -71,7 +108,6 @@ public final class InnerHttpUtil {
 			Logs.http().trace("expect request content length: {}", expectSize);
 		}
 		byte[] temp = new byte[512];
-		@SuppressWarnings("resource")
 		UnsafeByteArrayOutputStream output = new UnsafeByteArrayOutputStream(expectSize);
 		while (-1 != (n = in.read(temp))) {
 			output.write(temp, 0, n);
@@ -80,9 +116,7 @@ public final class InnerHttpUtil {
 				throw BizException.create(HttpErrorCode.BODY_TOO_BIG, "请求数据太长");
 			}
 		}
-		byte[] bs = output.extractHttpBodyData();
-		output.close();
-		return bs;
+		return output;
 	}
 
 	public static Charset charset(HttpServletRequest req) {
@@ -1,10 +1,14 @@
 package org.yx.http.log;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.Objects;
 
 import javax.servlet.http.HttpServletRequest;
 
+import org.yx.exception.SumkException;
 import org.yx.http.HttpJson;
 import org.yx.http.handler.WebContext;
 import org.yx.log.LogKits;
@@ -42,7 +46,7 @@ public class HttpLogs {
 		if (data != null) {
 			return LogKits.shorterSubfix(data, maxLength);
 		}
-		if (obj == null) {
+		if (obj == null || obj instanceof InputStream) {
 			return null;
 		}
 		if (obj.getClass() == byte[].class) {
@@ -54,8 +58,88 @@ public class HttpLogs {
 			String temp = new String(bs, 0, len, charset);
 			return LogKits.shorterSubfix(temp, maxLength);
 		}
-		String resp = HttpJson.operator().toJson(obj);
-		return LogKits.shorterSubfix(resp, maxLength);
+		if (maxLength < 5) {
+			return HttpJson.operator().toJson(obj);
+		}
+		LimitedWriter writer = new LimitedWriter(maxLength + 1);
+		try {
+			HttpJson.operator().toJson(obj, writer);
+		} catch (Exception e) {
+			if (writer.isFull()) {
+				return LogKits.shorterSubfix(writer.toString(), maxLength);
+			}
+			if (e instanceof RuntimeException) {
+				throw (RuntimeException) e;
+			}
+			throw new SumkException(3475345, e.getMessage(), e);
+		}
+		return LogKits.shorterSubfix(writer.toString(), maxLength);
+	}
+
+	/**
+	 * 写满以后抛出异常来中断序列化，大对象只需要序列化日志用到的那一小段
+	 */
+	static final class LimitedWriter extends Writer {
+		private static final IOException FULL = new IOException("log buffer is full") {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			public synchronized Throwable fillInStackTrace() {
+				return this;
+			}
+		};
+
+		private final StringBuilder sb;
+		private final int limit;
+
+		LimitedWriter(int limit) {
+			this.limit = limit;
+			this.sb = new StringBuilder(Math.min(limit, 256));
+		}
+
+		boolean isFull() {
+			return sb.length() >= limit;
+		}
+
+		@Override
+		public void write(int c) throws IOException {
+			this.write(String.valueOf((char) c), 0, 1);
+		}
+
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			if (isFull()) {
+				throw FULL;
+			}
+			sb.append(cbuf, off, Math.min(len, limit - sb.length()));
+			if (isFull()) {
+				throw FULL;
+			}
+		}
+
+		@Override
+		public void write(String str, int off, int len) throws IOException {
+			if (isFull()) {
+				throw FULL;
+			}
+			sb.append(str, off, off + Math.min(len, limit - sb.length()));
+			if (isFull()) {
+				throw FULL;
+			}
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public String toString() {
+			return sb.toString();
+		}
 	}
 
 }
@@ -18,6 +18,7 @@ package org.yx.http.server;
 import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.Charset;
+import java.util.concurrent.CompletableFuture;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -48,6 +49,7 @@ public abstract class AbstractActionServer extends AbstractCommonHttpServlet {
 		final long beginTime = System.currentTimeMillis();
 		Throwable ex = null;
 		WebContext wc = null;
+		boolean async = false;
 		try {
 			final Charset charset = InnerHttpUtil.charset(req);
 			this.setRespHeader(req, resp, charset);
@@ -73,6 +75,11 @@ public abstract class AbstractActionServer extends AbstractCommonHttpServlet {
 			InnerHttpUtil.startContext(req, resp, rawAct);
 			wc = new WebContext(info, req, resp, beginTime, charset);
 			LocalWebContext.setCtx(wc);
+			if (info.node().async() && req.isAsyncSupported()) {
+				new AsyncActionHandler(this, wc).start();
+				async = true;
+				return;
+			}
 			handle(wc);
 		} catch (Throwable e) {
 			try {
@@ -82,11 +89,13 @@ public abstract class AbstractActionServer extends AbstractCommonHttpServlet {
 				log.error("处理异常发生错误。可能是网络问题，也可能是异常处理出问题(不该发生)", e2);
 			}
 		} finally {
-			long time = System.currentTimeMillis() - beginTime;
-			HttpLogs.log(wc, req, ex, time);
-			if (wc != null) {
+			if (!async) {
+				long time = System.currentTimeMillis() - beginTime;
+				HttpLogs.log(wc, req, ex, time);
+				if (wc != null) {
 
-				InnerHttpUtil.record(wc.rawAct(), time, ex == null && !wc.isFailed());
+					InnerHttpUtil.record(wc.rawAct(), time, ex == null && !wc.isFailed());
+				}
 			}
 			LocalWebContext.remove();
 			ActionContext.remove();
@@ -114,6 +123,20 @@ public abstract class AbstractActionServer extends AbstractCommonHttpServlet {
 
 	protected abstract void handle(WebContext wc) throws Throwable;
 
+	/**
+	 * 异步模式下的处理，默认是同步处理
+	 * 
+	 * @param wc
+	 *            上下文
+	 * @return 处理完成后完成
+	 * @throws Throwable
+	 *             同步部分抛出的异常
+	 */
+	protected CompletableFuture<Void> handleAsync(WebContext wc) throws Throwable {
+		handle(wc);
+		return CompletableFuture.completedFuture(null);
+	}
+
 	protected Throwable handleError(HttpServletRequest req, HttpServletResponse resp, Throwable e) {
 		Throwable temp = e;
 		if (temp instanceof InvocationTargetException) {
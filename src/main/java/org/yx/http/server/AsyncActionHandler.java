@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.http.server;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+
+import org.yx.common.context.ActionContext;
+import org.yx.conf.AppInfo;
+import org.yx.exception.BizException;
+import org.yx.http.HttpErrorCode;
+import org.yx.http.handler.AsyncBodyReader;
+import org.yx.http.handler.WebContext;
+import org.yx.http.kit.InnerHttpUtil;
+import org.yx.http.kit.LocalWebContext;
+import org.yx.http.log.HttpLogs;
+import org.yx.util.M;
+
+/**
+ * 异步模式的请求处理。请求体用非阻塞方式读取，接口返回的CompletableFuture完成后才结束请求。<BR>
+ * 回调可能在其它线程执行，执行的时候会带上ActionContext和WebContext
+ */
+final class AsyncActionHandler implements AsyncListener {
+
+	private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+	private final AbstractActionServer server;
+	private final WebContext wc;
+	private final ActionContext actionContext;
+	private AsyncContext asyncContext;
+
+	AsyncActionHandler(AbstractActionServer server, WebContext wc) {
+		this.server = server;
+		this.wc = wc;
+		this.actionContext = ActionContext.current();
+	}
+
+	void start() {
+		HttpServletRequest req = wc.httpRequest();
+		this.asyncContext = req.startAsync(req, wc.httpResponse());
+		asyncContext.setTimeout(AppInfo.getLong("sumk.http.async.timeout", 30000L));
+		asyncContext.addListener(this);
+		try {
+			if (needReadBody(req)) {
+				new AsyncBodyReader(wc, req.getInputStream(), () -> runInContext(this::execute),
+						e -> runInContext(() -> finish(e))).start();
+				return;
+			}
+			execute();
+		} catch (Throwable e) {
+			finish(e);
+		}
+	}
+
+	/**
+	 * 表单类型的请求体由容器解析，data参数也从url中获取，这两种情况由ReqDataHandler处理
+	 */
+	private boolean needReadBody(HttpServletRequest req) {
+		if (wc.node().paramLength() == 0 || req.getContentLength() == 0) {
+			return false;
+		}
+		String type = req.getContentType();
+		if (type != null && type.startsWith(FORM_CONTENT_TYPE)) {
+			return false;
+		}
+		return req.getParameter("data") == null;
+	}
+
+	private void execute() {
+		if (wc.isCompleted()) {
+			return;
+		}
+		CompletableFuture<Void> future;
+		try {
+			future = server.handleAsync(wc);
+		} catch (Throwable e) {
+			finish(e);
+			return;
+		}
+		future.whenComplete((v, e) -> finish(e));
+	}
+
+	/**
+	 * 结束请求，通过wc.markCompleted()保证只有第一次调用有效。不加锁，超时的时候不会等待正在执行的handler。<BR>
+	 * 超时的时候如果正好有handler在写响应体，客户端收到的内容是不完整的，这种情况只能由客户端按超时处理
+	 */
+	private void finish(Throwable e) {
+		if (!wc.markCompleted()) {
+			return;
+		}
+		runInContext(() -> {
+			HttpServletRequest req = wc.httpRequest();
+			Throwable ex = null;
+			try {
+				if (e != null) {
+					ex = server.handleError(req, wc.httpResponse(), e);
+				}
+			} catch (Exception e2) {
+				ex = e;
+				server.log.error("处理异常发生错误。可能是网络问题，也可能是异常处理出问题(不该发生)", e2);
+			} finally {
+				long time = System.currentTimeMillis() - wc.beginTime();
+				HttpLogs.log(wc, req, ex, time);
+				InnerHttpUtil.record(wc.rawAct(), time, ex == null && !wc.isFailed());
+				asyncContext.complete();
+			}
+		});
+	}
+
+	private void runInContext(Runnable r) {
+		ActionContext oldAction = ActionContext.current();
+		WebContext oldWeb = LocalWebContext.getCtx();
+		ActionContext.store(actionContext);
+		LocalWebContext.setCtx(wc);
+		try {
+			r.run();
+		} finally {
+			ActionContext.store(oldAction);
+			LocalWebContext.setCtx(oldWeb);
+		}
+	}
+
+	@Override
+	public void onComplete(AsyncEvent event) throws IOException {
+	}
+
+	@Override
+	public void onTimeout(AsyncEvent event) throws IOException {
+		finish(BizException.create(HttpErrorCode.ASYNC_TIMEOUT,
+				M.get("sumk.http.error." + HttpErrorCode.ASYNC_TIMEOUT, "请求超时", wc.rawAct())));
+	}
+
+	@Override
+	public void onError(AsyncEvent event) throws IOException {
+		finish(event.getThrowable());
+	}
+
+	@Override
+	public void onStartAsync(AsyncEvent event) throws IOException {
+	}
+}
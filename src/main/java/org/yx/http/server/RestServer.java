@@ -15,13 +15,15 @@
  */
 package org.yx.http.server;
 
+import java.util.concurrent.CompletableFuture;
+
 import org.yx.annotation.Bean;
 import org.yx.annotation.http.SumkServlet;
 import org.yx.http.handler.HttpHandlerChain;
 import org.yx.http.handler.WebContext;
 
 @Bean
-@SumkServlet(path = { "/rest/*" }, loadOnStartup = 1, appKey = "rest")
+@SumkServlet(path = { "/rest/*" }, loadOnStartup = 1, asyncSupported = true, appKey = "rest")
 public class RestServer extends AbstractActionServer {
 
 	private static final long serialVersionUID = 7437235491L;
@@ -30,4 +32,9 @@ public class RestServer extends AbstractActionServer {
 	protected void handle(WebContext wc) throws Throwable {
 		HttpHandlerChain.rest.handle(wc);
 	}
+
+	@Override
+	protected CompletableFuture<Void> handleAsync(WebContext wc) throws Throwable {
+		return HttpHandlerChain.rest.handleAsync(wc);
+	}
 }
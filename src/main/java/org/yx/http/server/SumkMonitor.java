@@ -44,7 +44,12 @@ import org.yx.http.kit.InnerHttpUtil;
 import org.yx.http.user.UserSession;
 import org.yx.http.user.WebSessions;
 import org.yx.main.SumkThreadPool;
+import org.yx.rpc.RpcActionNode;
 import org.yx.rpc.RpcActions;
+import org.yx.rpc.client.LockHolder;
+import org.yx.rpc.client.ReqSessionHolder;
+import org.yx.rpc.client.ReqSessionPool;
+import org.yx.rpc.client.route.HostLoads;
 import org.yx.util.StringUtil;
 
 @Bean
@@ -67,6 +72,9 @@ public class SumkMonitor extends AbstractCommonHttpServlet {
 		this.visitInfo(req, writer);
 		this.outputActs(req, writer);
 		this.outputRpcActs(req, writer);
+		this.outputRpcLocks(req, writer);
+		this.outputRpcSessions(req, writer);
+		this.outputRpcLimits(req, writer);
 		this.outputSystem(req, writer);
 		this.outputJvmInfo(req, writer);
 		this.outputAllTrack(req, writer);
@@ -86,7 +94,8 @@ public class SumkMonitor extends AbstractCommonHttpServlet {
 		if (userSession == null) {
 			return "";
 		}
-		return new StringBuilder("##localSessions:").append("  ").append(userSession.localCacheSize()).toString();
+		return new StringBuilder("##localSessions:").append("  ").append(userSession.localCacheSize()).append(LN)
+				.append(userSession.localCacheStatus()).toString();
 	}
 
 	private void outputLocalSessions(HttpServletRequest req, Writer writer) throws IOException {
@@ -123,6 +132,42 @@ public class SumkMonitor extends AbstractCommonHttpServlet {
 		writer.append(TYPE_SPLIT);
 	}
 
+	private void outputRpcLocks(HttpServletRequest req, Writer writer) throws IOException {
+		if (!"1".equals(req.getParameter("rpc.lock"))) {
+			return;
+		}
+		writer.append(LockHolder.lockInfo());
+		writer.append(TYPE_SPLIT);
+	}
+
+	private void outputRpcSessions(HttpServletRequest req, Writer writer) throws IOException {
+		if (!"1".equals(req.getParameter("rpc.sessions"))) {
+			return;
+		}
+		for (ReqSessionPool pool : ReqSessionHolder.view().values()) {
+			HostLoads.HostLoad load = HostLoads.view().get(pool.host());
+			writer.append(pool.toString());
+			if (load != null) {
+				writer.append(" ").append(load.toString());
+			}
+			writer.append(LN);
+		}
+		writer.append(TYPE_SPLIT);
+	}
+
+	private void outputRpcLimits(HttpServletRequest req, Writer writer) throws IOException {
+		if (!"1".equals(req.getParameter("rpc.limit"))) {
+			return;
+		}
+		for (String api : RpcActions.soaSet()) {
+			RpcActionNode node = RpcActions.getActionNode(api);
+			if (node != null) {
+				writer.append(api).append(" ").append(node.limiter().toString()).append(LN);
+			}
+		}
+		writer.append(TYPE_SPLIT);
+	}
+
 	private void outputStatis(HttpServletRequest req, Writer writer) throws IOException {
 		if (!"1".equals(req.getParameter("statis"))) {
 			return;
@@ -15,19 +15,51 @@
  */
 package org.yx.http.user;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 import org.slf4j.Logger;
+import org.yx.conf.AppInfo;
 import org.yx.http.kit.HttpSettings;
 import org.yx.log.Log;
-import org.yx.util.S;
 import org.yx.util.StringUtil;
 import org.yx.util.SumkDate;
+import org.yx.util.Task;
 
 public abstract class AbstractUserSession implements UserSession {
 	protected final Logger log = Log.get("sumk.http.session");
-	protected final ConcurrentMap<String, TimedCachedObject> cache = new ConcurrentHashMap<>();
+	/**
+	 * 以前的类型是ConcurrentMap，现在是SessionCache。get、put、putIfAbsent、remove、size的用法不变，但不再支持遍历
+	 */
+	protected final SessionCache cache;
+
+	/**
+	 * 本地缓存不限制容量，过期时间跟session的超时时间一致
+	 */
+	protected AbstractUserSession() {
+		this(0, HttpSettings::httpSessionTimeoutInMs);
+	}
+
+	/**
+	 * @param maxSize
+	 *            本地缓存的最大容量，小于等于0表示不限制
+	 * @param duration
+	 *            本地缓存中的对象多长时间没刷新就过期，单位毫秒
+	 */
+	protected AbstractUserSession(int maxSize, LongSupplier duration) {
+		long tick = tickMs();
+		this.cache = new SessionCache(maxSize, duration, tick);
+		Task.scheduleAtFixedRate(cache::cleanUp, tick, tick, TimeUnit.MILLISECONDS);
+	}
+
+	private long tickMs() {
+		if (AppInfo.get("sumk.http.session.tick") == null && AppInfo.get("sumk.http.session.period") != null) {
+			long seconds = AppInfo.getLong("sumk.http.session.period", 30L);
+			log.warn("sumk.http.session.period已经过时，请改用sumk.http.session.tick(单位毫秒)。现在使用{}毫秒", seconds * 1000);
+			return seconds * 1000;
+		}
+		return AppInfo.getLong("sumk.http.session.tick", 1000L);
+	}
 
 	protected abstract TimedCachedObject loadTimedCachedObject(String sessionId, boolean needRefresh);
 
@@ -57,7 +89,7 @@ public abstract class AbstractUserSession implements UserSession {
 		if (obj == null) {
 			return null;
 		}
-		return S.json().fromJson(obj.json, clz);
+		return obj.decode(clz);
 	}
 
 	@Override
@@ -92,11 +124,16 @@ public abstract class AbstractUserSession implements UserSession {
 		if (obj == null) {
 			return null;
 		}
-		return S.json().fromJson(obj.json, SessionObject.class);
+		return obj.decode(SessionObject.class);
 	}
 
 	@Override
 	public int localCacheSize() {
 		return this.cache.size();
 	}
+
+	@Override
+	public String localCacheStatus() {
+		return this.cache.toString();
+	}
 }
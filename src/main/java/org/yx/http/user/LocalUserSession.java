@@ -19,13 +19,11 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.concurrent.TimeUnit;
 
 import org.yx.conf.AppInfo;
 import org.yx.http.kit.HttpSettings;
 import org.yx.log.Logs;
 import org.yx.util.S;
-import org.yx.util.Task;
 
 public class LocalUserSession extends AbstractUserSession {
 
@@ -41,10 +39,8 @@ public class LocalUserSession extends AbstractUserSession {
 			});
 
 	public LocalUserSession() {
+		super(0, HttpSettings::httpSessionTimeoutInMs);
 		log.info("$$$use local user session");
-		long seconds = AppInfo.getLong("sumk.http.session.period", 30L);
-		Task.scheduleAtFixedRate(() -> CacheHelper.expire(cache, HttpSettings.httpSessionTimeoutInMs()), seconds,
-				seconds, TimeUnit.SECONDS);
 	}
 
 	@Override
@@ -93,7 +89,7 @@ public class LocalUserSession extends AbstractUserSession {
 		if (to == null || userSessionMap.isEmpty()) {
 			return;
 		}
-		SessionObject obj = S.json().fromJson(to.json, SessionObject.class);
+		SessionObject obj = to.decode(SessionObject.class);
 		this.userSessionMap.remove(obj.userId);
 	}
 
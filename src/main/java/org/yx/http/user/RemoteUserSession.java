@@ -15,11 +15,17 @@
  */
 package org.yx.http.user;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.yx.conf.AppInfo;
 import org.yx.http.kit.HttpSettings;
 import org.yx.redis.Redis;
+import org.yx.redis.RedisPipeline;
 import org.yx.util.S;
 import org.yx.util.StringUtil;
 import org.yx.util.Task;
@@ -30,22 +36,24 @@ public class RemoteUserSession extends AbstractUserSession {
 
 	protected long noFreshTime = AppInfo.getLong("sumk.http.session.cache.nofreshtime", 1000L * 2);
 
-	protected final int maxSize;
-
 	private final Redis redis;
 
+	/**
+	 * 等待异步刷新过期时间的sessionId
+	 */
+	private final Set<String> touched = ConcurrentHashMap.newKeySet();
+
 	public RemoteUserSession(Redis redis) {
+		super(Math.max(AppInfo.getInt("sumk.http.session.cache.maxsize", 5000), 10),
+				RemoteUserSession::localDuration);
 		this.redis = redis.isMuted() ? redis : redis.mute();
-		this.maxSize = Math.max(AppInfo.getInt("sumk.http.session.cache.maxsize", 5000), 10);
-		long seconds = AppInfo.getLong("sumk.http.session.period", 30L);
-		Task.scheduleAtFixedRate(() -> {
+		long interval = AppInfo.getLong("sumk.http.session.touch.interval", 500L);
+		Task.scheduleAtFixedRate(this::flushTouched, interval, interval, TimeUnit.MILLISECONDS);
+	}
 
-			long duration = AppInfo.getLong("sumk.http.session.remote.duration", 1000L * 60);
-			if (duration > HttpSettings.httpSessionTimeoutInMs()) {
-				duration = HttpSettings.httpSessionTimeoutInMs();
-			}
-			CacheHelper.expire(cache, duration);
-		}, seconds, seconds, TimeUnit.SECONDS);
+	private static long localDuration() {
+		long duration = AppInfo.getLong("sumk.http.session.remote.duration", 1000L * 60);
+		return Math.min(duration, HttpSettings.httpSessionTimeoutInMs());
 	}
 
 	protected final String singleKey(String userId) {
@@ -59,13 +67,51 @@ public class RemoteUserSession extends AbstractUserSession {
 		return ("_SES_#" + sessionId).getBytes(AppInfo.UTF8);
 	}
 
-	private void removeOne() {
+	/**
+	 * 异步刷新的条件：开启了sumk.http.session.touch.async(默认开启)，并且待刷新的数量没超过sumk.http.session.touch.max
+	 */
+	protected boolean touchLater(String sid) {
+		if (!AppInfo.getBoolean("sumk.http.session.touch.async", true)
+				|| touched.size() >= AppInfo.getInt("sumk.http.session.touch.max", 50000)) {
+			return false;
+		}
+		touched.add(sid);
+		return true;
+	}
+
+	/**
+	 * 用pipeline批量刷新redis中session的过期时间，已经不存在的session从本地缓存中移除。<BR>
+	 * 本地缓存里的session最多比redis晚sumk.http.session.touch.interval毫秒发现被删除
+	 */
+	protected void flushTouched() {
+		if (touched.isEmpty()) {
+			return;
+		}
+		List<String> sids = new ArrayList<>(touched.size());
+		Iterator<String> it = touched.iterator();
+		while (it.hasNext()) {
+			sids.add(it.next());
+			it.remove();
+		}
+		long durationInMS = HttpSettings.httpSessionTimeoutInMs();
 		try {
-			String key = cache.keySet().iterator().next();
-			log.debug("remove session {} from local cache", key);
-			cache.remove(key);
+			RedisPipeline[] holder = new RedisPipeline[1];
+			redis.pipeline(p -> {
+				for (String sid : sids) {
+					p.pexpire("_SES_#" + sid, durationInMS);
+				}
+				holder[0] = p;
+			});
+			List<Object> rets = holder[0].results();
+			for (int i = 0; i < sids.size(); i++) {
+				Object v = rets.get(i);
+				if (v instanceof Number && ((Number) v).longValue() == 0) {
+					cache.remove(sids.get(i));
+					log.trace("{} was pexpire by redis,and remove from local cache", sids.get(i));
+				}
+			}
 		} catch (Exception e) {
-			log.error(e.getMessage(), e);
+			log.error("batch pexpire failed," + e.getMessage(), e);
 		}
 	}
 
@@ -90,14 +136,15 @@ public class RemoteUserSession extends AbstractUserSession {
 				if (log.isTraceEnabled()) {
 					log.trace("{} add to local cache", sid);
 				}
-				if (cache.size() >= this.maxSize) {
-					removeOne();
-				}
 				cache.put(sid, to);
 			}
 		}
 
 		if (needRefresh && to.refreshTime + this.noFreshTime < now) {
+			if (this.touchLater(sid)) {
+				to.refreshTime = now;
+				return to;
+			}
 			long durationInMS = HttpSettings.httpSessionTimeoutInMs();
 			Long v = redis.pexpire(bigKey, durationInMS);
 			if (v != null && v.longValue() == 0) {
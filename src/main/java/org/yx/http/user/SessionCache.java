@@ -0,0 +1,441 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.http.user;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * session的本地缓存，分段加锁。
+ * <UL>
+ * <LI>有容量限制的时候，采用W-TinyLFU：新数据先进入窗口区(1%)，从窗口区淘汰出来的数据要跟主区(SLRU)里最久没访问的数据比较访问频率，频率高的才能留下来</LI>
+ * <LI>过期使用时间轮，每个tick只检查到期的那个槽，不会全量扫描。refreshTime被修改过的对象会被重新放到对应的槽里</LI>
+ * </UL>
+ * 过期的判断标准跟TimedCachedObject.isExpired一致
+ */
+public final class SessionCache {
+
+	private static final byte WINDOW = 0;
+	private static final byte PROBATION = 1;
+	private static final byte PROTECTED = 2;
+
+	private static final int WHEEL_SIZE = 64;
+
+	private final Segment[] segments;
+	private final LongSupplier duration;
+	private final long tickMs;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder expirations = new LongAdder();
+
+	/**
+	 * @param maxSize
+	 *            最大容量，小于等于0表示不限制容量，只做过期处理
+	 * @param duration
+	 *            多长时间没有刷新就过期，单位毫秒
+	 * @param tickMs
+	 *            时间轮每个槽的时间跨度，单位毫秒
+	 */
+	public SessionCache(int maxSize, LongSupplier duration, long tickMs) {
+		this.duration = duration;
+		this.tickMs = Math.max(tickMs, 1);
+		int count = maxSize <= 0 ? 16 : Math.min(16, Integer.highestOneBit(Math.max(1, maxSize / 64)));
+		this.segments = new Segment[count];
+		int segmentSize = maxSize <= 0 ? 0 : (maxSize + count - 1) / count;
+		long tick = System.currentTimeMillis() / this.tickMs;
+		for (int i = 0; i < count; i++) {
+			segments[i] = new Segment(segmentSize, tick);
+		}
+	}
+
+	private Segment segment(int hash) {
+		return segments[hash & (segments.length - 1)];
+	}
+
+	private static int hash(Object key) {
+		int h = key.hashCode();
+		h ^= h >>> 16;
+		return h * 0x45d9f3b;
+	}
+
+	public TimedCachedObject get(String key) {
+		int h = hash(key);
+		TimedCachedObject v = segment(h).get(key, h, System.currentTimeMillis());
+		if (v == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return v;
+	}
+
+	public void put(String key, TimedCachedObject value) {
+		int h = hash(key);
+		segment(h).put(key, h, value, false);
+	}
+
+	/**
+	 * @return 如果已经存在并且没过期，就返回已存在的对象，否则返回null
+	 */
+	public TimedCachedObject putIfAbsent(String key, TimedCachedObject value) {
+		int h = hash(key);
+		return segment(h).put(key, h, value, true);
+	}
+
+	public TimedCachedObject remove(String key) {
+		int h = hash(key);
+		return segment(h).remove(key);
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment s : segments) {
+			size += s.size();
+		}
+		return size;
+	}
+
+	/**
+	 * 推进时间轮，清除过期的数据。由定时任务调用
+	 */
+	public void cleanUp() {
+		long now = System.currentTimeMillis();
+		for (Segment s : segments) {
+			s.advance(now);
+		}
+	}
+
+	public long hitCount() {
+		return hits.sum();
+	}
+
+	public long missCount() {
+		return misses.sum();
+	}
+
+	public long evictionCount() {
+		return evictions.sum();
+	}
+
+	public long expireCount() {
+		return expirations.sum();
+	}
+
+	public double hitRatio() {
+		long h = hits.sum();
+		long total = h + misses.sum();
+		return total == 0 ? 0 : (double) h / total;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("size:%d hits:%d misses:%d hitRatio:%.4f evictions:%d expired:%d", size(), hitCount(),
+				missCount(), hitRatio(), evictionCount(), expireCount());
+	}
+
+	private static final class Node {
+		final String key;
+		final int hash;
+		TimedCachedObject value;
+		byte region;
+		Node prev;
+		Node next;
+
+		Node wheelPrev;
+		Node wheelNext;
+
+		Node(String key, int hash, TimedCachedObject value) {
+			this.key = key;
+			this.hash = hash;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * 带哨兵的双向链表，head.next是最久没访问的
+	 */
+	private static final class LruList {
+		final Node head = new Node(null, 0, null);
+		int size;
+
+		LruList() {
+			head.prev = head;
+			head.next = head;
+		}
+
+		void addLast(Node n) {
+			n.prev = head.prev;
+			n.next = head;
+			head.prev.next = n;
+			head.prev = n;
+			size++;
+		}
+
+		void unlink(Node n) {
+			n.prev.next = n.next;
+			n.next.prev = n.prev;
+			n.prev = null;
+			n.next = null;
+			size--;
+		}
+
+		Node first() {
+			return head.next == head ? null : head.next;
+		}
+	}
+
+	private final class Segment {
+		private final HashMap<String, Node> nodes = new HashMap<>();
+		private final int capacity;
+		private final int windowCapacity;
+		private final int protectedCapacity;
+		private final LruList window = new LruList();
+		private final LruList probation = new LruList();
+		private final LruList protect = new LruList();
+		private final FrequencySketch sketch;
+		private final Node[] wheel = new Node[WHEEL_SIZE];
+		private long currentTick;
+
+		Segment(int capacity, long tick) {
+			this.capacity = capacity;
+			this.windowCapacity = Math.max(1, capacity / 100);
+			this.protectedCapacity = (capacity - windowCapacity) * 8 / 10;
+			this.sketch = capacity > 0 ? new FrequencySketch(capacity) : null;
+			this.currentTick = tick;
+			for (int i = 0; i < WHEEL_SIZE; i++) {
+				Node sentinel = new Node(null, 0, null);
+				sentinel.wheelPrev = sentinel;
+				sentinel.wheelNext = sentinel;
+				wheel[i] = sentinel;
+			}
+		}
+
+		synchronized int size() {
+			return nodes.size();
+		}
+
+		synchronized TimedCachedObject get(String key, int hash, long now) {
+			if (sketch != null) {
+				sketch.increment(hash);
+			}
+			Node n = nodes.get(key);
+			if (n == null) {
+				return null;
+			}
+			if (n.value.isExpired(duration.getAsLong(), now)) {
+				removeNode(n);
+				expirations.increment();
+				return null;
+			}
+			onAccess(n);
+			return n.value;
+		}
+
+		synchronized TimedCachedObject put(String key, int hash, TimedCachedObject value, boolean onlyIfAbsent) {
+			Node n = nodes.get(key);
+			if (n != null) {
+				if (onlyIfAbsent && !n.value.isExpired(duration.getAsLong(), System.currentTimeMillis())) {
+					return n.value;
+				}
+				n.value = value;
+				onAccess(n);
+				unlinkWheel(n);
+				schedule(n);
+				return null;
+			}
+			n = new Node(key, hash, value);
+			nodes.put(key, n);
+			schedule(n);
+			if (sketch == null) {
+				n.region = WINDOW;
+				window.addLast(n);
+				return null;
+			}
+			sketch.increment(hash);
+			n.region = WINDOW;
+			window.addLast(n);
+			if (window.size > windowCapacity) {
+				Node candidate = window.first();
+				window.unlink(candidate);
+				candidate.region = PROBATION;
+				probation.addLast(candidate);
+				evictFromMain(candidate);
+			}
+			return null;
+		}
+
+		/**
+		 * 主区超出容量的时候，窗口区淘汰出来的candidate跟主区最久没访问的victim比较频率
+		 */
+		private void evictFromMain(Node candidate) {
+			if (probation.size + protect.size <= capacity - windowCapacity) {
+				return;
+			}
+			Node victim = probation.first();
+			Node evict = victim == candidate || sketch.frequency(candidate.hash) <= sketch.frequency(victim.hash)
+					? candidate : victim;
+			removeNode(evict);
+			evictions.increment();
+		}
+
+		private void onAccess(Node n) {
+			switch (n.region) {
+			case WINDOW:
+				window.unlink(n);
+				window.addLast(n);
+				return;
+			case PROBATION:
+				probation.unlink(n);
+				n.region = PROTECTED;
+				protect.addLast(n);
+				if (protect.size > protectedCapacity) {
+					Node demote = protect.first();
+					protect.unlink(demote);
+					demote.region = PROBATION;
+					probation.addLast(demote);
+				}
+				return;
+			default:
+				protect.unlink(n);
+				protect.addLast(n);
+			}
+		}
+
+		synchronized TimedCachedObject remove(String key) {
+			Node n = nodes.get(key);
+			if (n == null) {
+				return null;
+			}
+			removeNode(n);
+			return n.value;
+		}
+
+		private void removeNode(Node n) {
+			nodes.remove(n.key);
+			switch (n.region) {
+			case WINDOW:
+				window.unlink(n);
+				break;
+			case PROBATION:
+				probation.unlink(n);
+				break;
+			default:
+				protect.unlink(n);
+			}
+			unlinkWheel(n);
+		}
+
+		private void schedule(Node n) {
+			long tick = Math.max((n.value.refreshTime + duration.getAsLong()) / tickMs + 1, currentTick + 1);
+			Node sentinel = wheel[(int) (tick & (WHEEL_SIZE - 1))];
+			n.wheelPrev = sentinel.wheelPrev;
+			n.wheelNext = sentinel;
+			sentinel.wheelPrev.wheelNext = n;
+			sentinel.wheelPrev = n;
+		}
+
+		private void unlinkWheel(Node n) {
+			if (n.wheelPrev == null) {
+				return;
+			}
+			n.wheelPrev.wheelNext = n.wheelNext;
+			n.wheelNext.wheelPrev = n.wheelPrev;
+			n.wheelPrev = null;
+			n.wheelNext = null;
+		}
+
+		synchronized void advance(long now) {
+			long nowTick = now / tickMs;
+			long from = Math.max(currentTick + 1, nowTick - WHEEL_SIZE + 1);
+			long dur = duration.getAsLong();
+			currentTick = nowTick;
+			for (long t = from; t <= nowTick; t++) {
+				Node sentinel = wheel[(int) (t & (WHEEL_SIZE - 1))];
+				Node n = sentinel.wheelNext;
+				sentinel.wheelNext = sentinel;
+				sentinel.wheelPrev = sentinel;
+				while (n != sentinel) {
+					Node next = n.wheelNext;
+					n.wheelPrev = null;
+					n.wheelNext = null;
+					if (n.value.isExpired(dur, now)) {
+						removeNode(n);
+						expirations.increment();
+					} else {
+						schedule(n);
+					}
+					n = next;
+				}
+			}
+		}
+	}
+
+	/**
+	 * 4位的Count-Min Sketch，记录的总数达到容量的10倍时，所有计数减半
+	 */
+	private static final class FrequencySketch {
+		private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+				0xcbf29ce484222325L };
+		private final long[] table;
+		private final int counterMask;
+		private final int sampleSize;
+		private int additions;
+
+		FrequencySketch(int capacity) {
+			int words = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+			this.table = new long[Math.max(words / 4, 4)];
+			this.counterMask = table.length * 16 - 1;
+			this.sampleSize = Math.max(capacity, 16) * 10;
+		}
+
+		private int indexOf(int hash, int i) {
+			long h = (hash + SEEDS[i]) * SEEDS[i];
+			h += h >>> 32;
+			return (int) h & counterMask;
+		}
+
+		void increment(int hash) {
+			boolean added = false;
+			for (int i = 0; i < 4; i++) {
+				int index = indexOf(hash, i);
+				int word = index >>> 4;
+				int shift = (index & 15) << 2;
+				if (((table[word] >>> shift) & 0xfL) < 15) {
+					table[word] += 1L << shift;
+					added = true;
+				}
+			}
+			if (added && ++additions >= sampleSize) {
+				for (int i = 0; i < table.length; i++) {
+					table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+				}
+				additions /= 2;
+			}
+		}
+
+		int frequency(int hash) {
+			int freq = 15;
+			for (int i = 0; i < 4; i++) {
+				int index = indexOf(hash, i);
+				freq = Math.min(freq, (int) ((table[index >>> 4] >>> ((index & 15) << 2)) & 0xfL));
+			}
+			return freq;
+		}
+	}
+}
@@ -15,10 +15,12 @@
  */
 package org.yx.http.user;
 
+import org.yx.exception.SumkException;
+
 /**
  * 用户session,要有无构造参数的构造函数。
  */
-public class SessionObject {
+public class SessionObject implements Cloneable {
 
 	protected String userId;
 	private Long expiredTime;
@@ -49,4 +51,17 @@ public class SessionObject {
 	public void setExpiredTime(Long expiredTime) {
 		this.expiredTime = expiredTime;
 	}
+
+	/**
+	 * 浅拷贝。只用于字段都是不可变类型的session对象，本地缓存中解析好的对象每次都拷贝一份给调用方
+	 * 
+	 * @return 跟当前对象类型相同的新对象
+	 */
+	SessionObject copy() {
+		try {
+			return (SessionObject) super.clone();
+		} catch (CloneNotSupportedException e) {
+			throw new SumkException(-3453247, e.getMessage(), e);
+		}
+	}
 }
@@ -15,16 +15,49 @@
  */
 package org.yx.http.user;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.Arrays;
 import java.util.Objects;
 
 import org.yx.conf.AppInfo;
+import org.yx.util.S;
 
 public class TimedCachedObject {
 	long refreshTime;
 	final String json;
 	final byte[] key;
 
+	/**
+	 * 已经解析过的session对象，按[class,object,class,object...]的方式存放。json不会变，所以不需要失效
+	 */
+	private volatile Object[] decoded;
+
+	private static final int MAX_DECODED = 4;
+
+	/**
+	 * 所有实例字段都是不可变类型的session类，浅拷贝才是安全的。其它的类每次都重新解析json
+	 */
+	private static final ClassValue<Boolean> COPYABLE = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+				for (Field f : c.getDeclaredFields()) {
+					if (!Modifier.isStatic(f.getModifiers()) && !isImmutable(f.getType())) {
+						return Boolean.FALSE;
+					}
+				}
+			}
+			return Boolean.TRUE;
+		}
+	};
+
+	private static boolean isImmutable(Class<?> t) {
+		return t.isPrimitive() || t.isEnum() || t == String.class || t == Long.class || t == Integer.class
+				|| t == Short.class || t == Byte.class || t == Double.class || t == Float.class || t == Boolean.class
+				|| t == Character.class;
+	}
+
 	public TimedCachedObject(String json, byte[] key) {
 		this.json = Objects.requireNonNull(json);
 		this.key = Objects.requireNonNull(key);
@@ -46,6 +79,39 @@ public class TimedCachedObject {
 		this.refreshTime = refreshTime;
 	}
 
+	/**
+	 * 同一个对象多次解析成同一个类型的时候，只有第一次需要解析json，后面都是返回拷贝。<BR>
+	 * 缓存是按精确的类型匹配的。session类里有集合之类的可变字段时，不做缓存，每次都重新解析json
+	 * 
+	 * @param clz
+	 *            session对象的类型
+	 * @return 解析后的对象，调用方可以修改它
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends SessionObject> T decode(Class<T> clz) {
+		Object[] ds = this.decoded;
+		if (ds != null) {
+			for (int i = 0; i < ds.length; i += 2) {
+				if (ds[i] == clz) {
+					return (T) ((SessionObject) ds[i + 1]).copy();
+				}
+			}
+		}
+		T obj = S.json().fromJson(json, clz);
+		if (obj == null || obj.getClass() != clz || !COPYABLE.get(clz)
+				|| !AppInfo.getBoolean("sumk.http.session.decoded.cache", true)) {
+			return obj;
+		}
+		int len = ds == null ? 0 : ds.length;
+		if (len < MAX_DECODED * 2) {
+			Object[] newDs = ds == null ? new Object[2] : Arrays.copyOf(ds, len + 2);
+			newDs[len] = clz;
+			newDs[len + 1] = obj.copy();
+			this.decoded = newDs;
+		}
+		return obj;
+	}
+
 	public final boolean isExpired(long duration, long now) {
 		return this.refreshTime + duration < now;
 	}
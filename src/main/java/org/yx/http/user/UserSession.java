@@ -30,4 +30,11 @@ public interface UserSession {
 	String sessionId(String userId);
 
 	int localCacheSize();
+
+	/**
+	 * @return 本地缓存的命中率、淘汰数等信息
+	 */
+	default String localCacheStatus() {
+		return "size:" + localCacheSize();
+	}
 }
@@ -18,12 +18,16 @@ package org.yx.redis;
 import java.util.Objects;
 import java.util.function.Function;
 
+import org.yx.common.Host;
 import org.yx.exception.SimpleSumkException;
 import org.yx.exception.SumkException;
 import org.yx.exception.SumkExceptionCode;
 import org.yx.log.Logs;
+import org.yx.util.StringUtil;
 
+import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisSentinelPool;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.util.Pool;
 
@@ -45,6 +49,29 @@ public abstract class AbstractJedis2Executor implements Jedis2Executor {
 		return pool.getResource();
 	}
 
+	/**
+	 * 创建一个不属于连接池的连接，没有读超时，给subscribe这类长期占用连接的命令使用。调用方负责关闭
+	 */
+	public Jedis newDedicatedJedis() {
+		HostAndPort hp;
+		if (pool instanceof JedisSentinelPool) {
+			hp = ((JedisSentinelPool) pool).getCurrentHostMaster();
+		} else {
+			Host h = RedisSettings.parseHosts(config.hosts()).get(0);
+			hp = new HostAndPort(h.ip(), h.port());
+		}
+		Jedis jedis = new Jedis(hp.getHost(), hp.getPort(), config.getConnectionTimeout(), 0);
+		try {
+			if (StringUtil.isNotEmpty(config.getPassword())) {
+				jedis.auth(config.getPassword());
+			}
+		} catch (RuntimeException e) {
+			jedis.close();
+			throw e;
+		}
+		return jedis;
+	}
+
 	@Override
 	public RedisConfig getRedisConfig() {
 		return this.config;
@@ -0,0 +1,419 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.redis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.yx.conf.AppInfo;
+import org.yx.db.sql.NearCache;
+import org.yx.db.sql.PojoMeta;
+import org.yx.log.Log;
+import org.yx.log.Logs;
+
+/**
+ * 数据库缓存的异步写。通过sumk.db.cache.async=true开启。<BR>
+ * 监听器仍然在调用线程里计算出要修改的key，但redis的读写放到后台线程。<BR>
+ * 按key分条(stripe)，同一个key的修改总在同一个线程里按顺序执行，还没执行的修改会被后来的覆盖。<BR>
+ * 队列满了以后的处理策略由sumk.db.cache.async.overflow决定：invalidate(默认，在调用线程里直接删除缓存)、drop、block。<BR>
+ * 修改操作的本地缓存在调用线程里就失效，写入redis之后再失效一次并通知其它节点。写入失败会重试，
+ * 重试次数由sumk.db.cache.async.retry设置。停机的时候会等待队列写完
+ */
+public final class CacheWriteBehind {
+
+	private static final String OVERFLOW_DROP = "drop";
+	private static final String OVERFLOW_BLOCK = "block";
+
+	private static final boolean ENABLED = AppInfo.getBoolean("sumk.db.cache.async", false);
+
+	private static volatile Stripe[] stripes;
+	private static String overflow;
+	private static Thread[] threads;
+	private static volatile boolean closed;
+
+	private static final LongAdder COALESCED = new LongAdder();
+	private static final LongAdder DROPPED = new LongAdder();
+	private static final LongAdder OVERFLOWED = new LongAdder();
+	private static volatile long lastLag;
+
+	/**
+	 * 启动的时候读取一次，运行期间修改配置不会生效
+	 */
+	public static boolean enabled() {
+		return ENABLED;
+	}
+
+	private static Stripe[] stripes() {
+		Stripe[] ss = stripes;
+		if (ss != null) {
+			return ss;
+		}
+		synchronized (CacheWriteBehind.class) {
+			if (stripes != null) {
+				return stripes;
+			}
+			int count = Math.max(1, AppInfo.getInt("sumk.db.cache.async.threads", 2));
+			int capacity = Math.max(1, AppInfo.getInt("sumk.db.cache.async.capacity", 10000) / count);
+			overflow = AppInfo.get("sumk.db.cache.async.overflow", "invalidate");
+			ss = new Stripe[count];
+			Thread[] ts = new Thread[count];
+			for (int i = 0; i < count; i++) {
+				ss[i] = new Stripe(capacity);
+				ts[i] = new Thread(ss[i], "sumk-cache-writer-" + i);
+				ts[i].setDaemon(true);
+				ts[i].start();
+			}
+			threads = ts;
+			stripes = ss;
+			return ss;
+		}
+	}
+
+	/**
+	 * 参数的含义跟RecordRepository.write一样
+	 * 
+	 * @param fill
+	 *            为true表示从数据库查出来的数据，如果这个key已经有未执行的修改，就忽略它
+	 */
+	static void submit(PojoMeta m, Map<String, String> sets, Collection<String> dels, boolean fill) {
+		if (closed) {
+			RecordRepository.writeNow(m, sets, dels, !fill, true);
+			return;
+		}
+		if (!fill) {
+			invalidateNear(m, sets, dels);
+		}
+		Stripe[] ss = stripes();
+		if (dels != null) {
+			for (String id : dels) {
+				offer(ss, new Op(m, id, null, false));
+			}
+		}
+		if (sets != null) {
+			for (Map.Entry<String, String> en : sets.entrySet()) {
+				if (dels != null && dels.contains(en.getKey())) {
+					continue;
+				}
+				offer(ss, new Op(m, en.getKey(), en.getValue(), fill));
+			}
+		}
+	}
+
+	/**
+	 * 只失效本节点的本地缓存，写入redis之后还会再失效一次，并通知其它节点
+	 */
+	private static void invalidateNear(PojoMeta m, Map<String, String> sets, Collection<String> dels) {
+		NearCache near = m.nearCache();
+		if (near == null) {
+			return;
+		}
+		if (dels != null) {
+			for (String id : dels) {
+				near.invalidate(RecordRepository.getKey(m, id));
+			}
+		}
+		if (sets != null) {
+			for (String id : sets.keySet()) {
+				near.invalidate(RecordRepository.getKey(m, id));
+			}
+		}
+	}
+
+	private static void offer(Stripe[] ss, Op op) {
+		String key = RecordRepository.getKey(op.pm, op.id);
+		Stripe s = ss[(key.hashCode() & Integer.MAX_VALUE) % ss.length];
+		if (s.offer(key, op)) {
+			return;
+		}
+		OVERFLOWED.increment();
+		if (OVERFLOW_DROP.equals(overflow) || op.fill) {
+			DROPPED.increment();
+			return;
+		}
+		if (OVERFLOW_BLOCK.equals(overflow) && s.put(key, op)) {
+			return;
+		}
+		RecordRepository.writeNow(op.pm, null, Collections.singletonList(op.id), true, true);
+	}
+
+	/**
+	 * 停止接收新的异步写，等待队列里的修改写入redis。之后的修改会在调用线程里直接写入
+	 * 
+	 * @param timeout
+	 *            最长等待时间，单位毫秒
+	 * @return 队列在超时之前写完了，就返回true
+	 */
+	public static boolean shutdown(long timeout) {
+		Thread[] ts;
+		synchronized (CacheWriteBehind.class) {
+			closed = true;
+			ts = threads;
+		}
+		Stripe[] ss = stripes;
+		if (ts == null || ss == null) {
+			return true;
+		}
+		for (Stripe s : ss) {
+			s.wakeUp();
+		}
+		long deadline = System.currentTimeMillis() + timeout;
+		boolean stopped = true;
+		try {
+			for (Thread t : ts) {
+				long left = deadline - System.currentTimeMillis();
+				if (left > 0) {
+					t.join(left);
+				}
+				stopped &= !t.isAlive();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			stopped = false;
+		}
+		if (stopped) {
+			for (Stripe s : ss) {
+				LinkedHashMap<String, Op> rest = s.takeNow();
+				if (rest.size() > 0) {
+					s.flush(rest);
+				}
+			}
+		}
+		int left = pending();
+		if (left > 0) {
+			Logs.redis().warn("cache writer stopped with {} pending modifies", left);
+			return false;
+		}
+		return true;
+	}
+
+	public static int pending() {
+		Stripe[] ss = stripes;
+		if (ss == null) {
+			return 0;
+		}
+		int size = 0;
+		for (Stripe s : ss) {
+			size += s.size();
+		}
+		return size;
+	}
+
+	/**
+	 * @return 最近一批修改从入队到写入redis的最大耗时，单位毫秒
+	 */
+	public static long lastLag() {
+		return lastLag;
+	}
+
+	public static long coalescedCount() {
+		return COALESCED.sum();
+	}
+
+	public static long droppedCount() {
+		return DROPPED.sum();
+	}
+
+	public static long overflowCount() {
+		return OVERFLOWED.sum();
+	}
+
+	private static final class Op {
+		final PojoMeta pm;
+		final String id;
+		final String json;
+		final boolean fill;
+		final long time = System.currentTimeMillis();
+		int failed;
+
+		Op(PojoMeta pm, String id, String json, boolean fill) {
+			this.pm = pm;
+			this.id = id;
+			this.json = json;
+			this.fill = fill;
+		}
+	}
+
+	private static final class Stripe implements Runnable {
+		private final int capacity;
+		private LinkedHashMap<String, Op> pending = new LinkedHashMap<>();
+
+		Stripe(int capacity) {
+			this.capacity = capacity;
+		}
+
+		synchronized int size() {
+			return pending.size();
+		}
+
+		synchronized boolean offer(String key, Op op) {
+			Op old = pending.get(key);
+			if (old != null) {
+				if (op.fill && !old.fill) {
+					COALESCED.increment();
+					return true;
+				}
+				pending.put(key, op);
+				COALESCED.increment();
+				return true;
+			}
+			if (pending.size() >= capacity) {
+				return false;
+			}
+			pending.put(key, op);
+			if (pending.size() == 1) {
+				this.notifyAll();
+			}
+			return true;
+		}
+
+		/**
+		 * 写入失败的重新入队。如果这个key已经有了新的修改，就放弃重试
+		 */
+		synchronized void retry(String key, Op op) {
+			if (pending.containsKey(key)) {
+				COALESCED.increment();
+				return;
+			}
+			pending.put(key, op);
+		}
+
+		synchronized void wakeUp() {
+			this.notifyAll();
+		}
+
+		/**
+		 * @return 停机或者被中断的时候返回false
+		 */
+		synchronized boolean put(String key, Op op) {
+			while (!offer(key, op)) {
+				if (closed) {
+					return false;
+				}
+				try {
+					this.wait(100);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * 写线程退出以后，把关闭期间入队的修改取出来
+		 */
+		synchronized LinkedHashMap<String, Op> takeNow() {
+			LinkedHashMap<String, Op> ret = pending;
+			pending = new LinkedHashMap<>();
+			return ret;
+		}
+
+		private synchronized LinkedHashMap<String, Op> take() throws InterruptedException {
+			while (pending.isEmpty()) {
+				if (closed) {
+					return null;
+				}
+				this.wait();
+			}
+			LinkedHashMap<String, Op> ret = pending;
+			pending = new LinkedHashMap<>();
+			this.notifyAll();
+			return ret;
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				try {
+					LinkedHashMap<String, Op> ops = take();
+					if (ops == null) {
+						return;
+					}
+					if (!flush(ops) && !closed) {
+						Thread.sleep(AppInfo.getLong("sumk.db.cache.async.retry.interval", 500));
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				} catch (Throwable e) {
+					Log.printStack("sumk.db.redis", e);
+				}
+			}
+		}
+
+		/**
+		 * @return 有写入失败的话返回false
+		 */
+		private boolean flush(LinkedHashMap<String, Op> ops) {
+			boolean success = true;
+			Map<PojoMeta, List<Op>> tables = new HashMap<>();
+			long oldest = Long.MAX_VALUE;
+			for (Op op : ops.values()) {
+				tables.computeIfAbsent(op.pm, k -> new ArrayList<>()).add(op);
+				oldest = Math.min(oldest, op.time);
+			}
+			for (Map.Entry<PojoMeta, List<Op>> en : tables.entrySet()) {
+				Map<String, String> sets = new LinkedHashMap<>();
+				Map<String, String> fills = new LinkedHashMap<>();
+				Set<String> dels = new HashSet<>();
+				for (Op op : en.getValue()) {
+					if (op.json == null) {
+						dels.add(op.id);
+					} else if (op.fill) {
+						fills.put(op.id, op.json);
+					} else {
+						sets.put(op.id, op.json);
+					}
+				}
+				try {
+					RecordRepository.writeNow(en.getKey(), sets, dels, true, false);
+					RecordRepository.writeNow(en.getKey(), fills, null, false, false);
+				} catch (Exception e) {
+					success = false;
+					this.onFail(en.getKey(), en.getValue(), e);
+				}
+			}
+			lastLag = System.currentTimeMillis() - oldest;
+			return success;
+		}
+
+		private void onFail(PojoMeta pm, List<Op> ops, Exception e) {
+			int maxRetry = AppInfo.getInt("sumk.db.cache.async.retry", 3);
+			List<String> dropped = new ArrayList<>();
+			for (Op op : ops) {
+				if (++op.failed > maxRetry) {
+					dropped.add(op.id);
+					continue;
+				}
+				this.retry(RecordRepository.getKey(pm, op.id), op);
+			}
+			if (dropped.isEmpty()) {
+				Logs.redis().warn("{}缓存异步写入失败,稍后重试. {}", pm.getTableName(), e.toString());
+				return;
+			}
+			DROPPED.add(dropped.size());
+			Logs.redis().error(pm.getTableName() + "缓存异步写入失败，放弃这些id:" + dropped, e);
+		}
+	}
+}
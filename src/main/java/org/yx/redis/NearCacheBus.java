@@ -0,0 +1,177 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.redis;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.yx.conf.AppInfo;
+import org.yx.db.sql.NearCache;
+import org.yx.db.sql.PojoMeta;
+import org.yx.log.Log;
+import org.yx.util.StringUtil;
+import org.yx.util.UUIDSeed;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.JedisPubSub;
+
+/**
+ * 本地缓存的跨节点失效通知。数据被修改后，通过redis的pub/sub把key广播出去，其它节点收到后删除本地缓存。<BR>
+ * 只有订阅成功之后才能使用本地缓存，订阅断开或者重新订阅的时候会清空使用这个redis的表的本地缓存
+ */
+public final class NearCacheBus {
+
+	private static final Logger logger = Log.get("sumk.db.nearcache");
+
+	private static final String NODE = UUIDSeed.random();
+	private static final char SPLIT = '\n';
+
+	private static final Map<Redis, Subscriber> SUBSCRIBERS = new ConcurrentHashMap<>();
+
+	private static String channel() {
+		return AppInfo.get("sumk.db.nearcache.channel", "sumk.db.nearcache");
+	}
+
+	/**
+	 * 第一次调用的时候会启动订阅线程
+	 * 
+	 * @return 对应的redis订阅成功了，才返回true
+	 */
+	public static boolean ready(PojoMeta m) {
+		Redis redis = RedisPool.get(m.getTableName());
+		if (redis == null) {
+			return false;
+		}
+		Subscriber s = SUBSCRIBERS.get(redis);
+		if (s == null) {
+			s = SUBSCRIBERS.computeIfAbsent(redis, Subscriber::start);
+		}
+		NearCache near = m.nearCache();
+		if (near != null) {
+			s.caches.add(near);
+		}
+		return s.subscribed;
+	}
+
+	public static void publish(PojoMeta m, String... keys) {
+		NearCache near = m.nearCache();
+		if (near == null || keys == null || keys.length == 0) {
+			return;
+		}
+		StringBuilder sb = new StringBuilder(64).append(NODE).append(SPLIT).append(near.name());
+		for (String key : keys) {
+			sb.append(SPLIT).append(key);
+		}
+		try {
+			RecordRepository.muteRedis(m.getTableName()).publish(channel(), sb.toString());
+		} catch (Exception e) {
+			logger.warn("{}本地缓存失效通知发送失败:{}", m.getTableName(), e.toString());
+		}
+	}
+
+	static void onMessage(String message) {
+		String[] items = message.split(String.valueOf(SPLIT));
+		if (items.length < 3 || NODE.equals(items[0])) {
+			return;
+		}
+		NearCache near = NearCache.byName(items[1]);
+		if (near == null) {
+			return;
+		}
+		for (int i = 2; i < items.length; i++) {
+			if (StringUtil.isNotEmpty(items[i])) {
+				near.invalidate(items[i]);
+			}
+		}
+		if (logger.isTraceEnabled()) {
+			logger.trace("near cache invalidated by remote: {}", message);
+		}
+	}
+
+	private static final class Subscriber implements Runnable {
+		private final Redis redis;
+		volatile boolean subscribed;
+
+		/**
+		 * 使用这个redis的表的本地缓存，订阅状态变化的时候只清空它们
+		 */
+		final Set<NearCache> caches = ConcurrentHashMap.newKeySet();
+
+		private Subscriber(Redis redis) {
+			this.redis = redis;
+		}
+
+		static Subscriber start(Redis redis) {
+			Subscriber s = new Subscriber(redis);
+			Thread t = new Thread(s, "sumk-nearcache-" + redis.hosts());
+			t.setDaemon(true);
+			t.start();
+			return s;
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				JedisPubSub pubSub = new JedisPubSub() {
+
+					@Override
+					public void onSubscribe(String channel, int subscribedChannels) {
+						clearCaches();
+						subscribed = true;
+						logger.info("near cache subscribed on {}", redis.hosts());
+					}
+
+					@Override
+					public void onMessage(String channel, String message) {
+						NearCacheBus.onMessage(message);
+					}
+				};
+				try {
+					if (redis instanceof Redis2 && ((Redis2) redis).jedis2Executor instanceof AbstractJedis2Executor) {
+						try (Jedis jedis = ((AbstractJedis2Executor) ((Redis2) redis).jedis2Executor)
+								.newDedicatedJedis()) {
+							jedis.subscribe(pubSub, channel());
+						}
+					} else if (redis instanceof JedisCluster) {
+						((JedisCluster) redis).subscribe(pubSub, channel());
+					} else {
+						logger.warn("{} not support subscribe, near cache disabled", redis.getClass().getName());
+						return;
+					}
+				} catch (Throwable e) {
+					logger.warn("near cache subscriber of {} broken: {}", redis.hosts(), e.toString());
+				}
+				this.subscribed = false;
+				clearCaches();
+				try {
+					Thread.sleep(AppInfo.getLong("sumk.db.nearcache.resubscribe.interval", 3000));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+
+		private void clearCaches() {
+			for (NearCache c : caches) {
+				c.clear();
+			}
+		}
+	}
+}
@@ -15,12 +15,17 @@
  */
 package org.yx.redis;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
+import org.yx.conf.AppInfo;
+import org.yx.db.sql.NearCache;
 import org.yx.db.sql.PojoMeta;
 import org.yx.exception.SumkException;
 import org.yx.log.Log;
@@ -29,15 +34,38 @@ public final class RecordRepository {
 
 	private static Logger logger = Log.get("sumk.db.redis");
 
+	/**
+	 * 数据库中不存在的记录，在缓存中用这个值标记。它不是合法的json
+	 */
+	public static final String NEGATIVE = "-";
+
+	private static final String GET_WITH_PTTL = "local v=redis.call('GET',KEYS[1]) if not v then return {} end "
+			+ "return {v,redis.call('PTTL',KEYS[1])}";
+
 	public static String get(PojoMeta m, String id) {
 		if (!m.getCounter().visit()) {
 			return null;
 		}
+		long begin = System.nanoTime();
 		String s = _get(m, id);
+		m.getCounter().recordRedisLatency(System.nanoTime() - begin);
 		if (s != null) {
 			m.getCounter().incrCacheMeet();
+		} else {
+			m.getCounter().incrCacheMiss();
 		}
-		return s;
+		return isNegative(s) ? null : s;
+	}
+
+	public static boolean isNegative(String value) {
+		return NEGATIVE.equals(value);
+	}
+
+	/**
+	 * @return 不存在的记录的缓存时间，单位秒。小于等于0表示不缓存不存在的记录
+	 */
+	public static int negativeTtl() {
+		return AppInfo.getInt("sumk.db.cache.negative.ttl", 0);
 	}
 
 	public static String getKey(PojoMeta m, String id) {
@@ -52,38 +80,121 @@ public final class RecordRepository {
 		return RedisPool.get(tableName).mute();
 	}
 
+	/**
+	 * 数据被修改之后调用，会让本地缓存失效
+	 */
 	public static void set(PojoMeta m, String id, String json) {
 		if (json == null) {
 			return;
 		}
-		if (id == null || id.isEmpty()) {
-			throw new SumkException(657645465, "key of redis value cannot be null");
+		write(m, Collections.singletonMap(id, json), null, true);
+	}
+
+	/**
+	 * 把从数据库查出来的数据放到redis。数据本身没有被修改，所以不需要让本地缓存失效
+	 */
+	public static void fill(PojoMeta m, String id, String json) {
+		if (json == null) {
+			return;
+		}
+		write(m, Collections.singletonMap(id, json), null, false);
+	}
+
+	/**
+	 * 批量修改缓存，所有命令通过一次pipeline发送。如果某个id同时出现在sets和dels里，会被删除
+	 * 
+	 * @param m
+	 *            表结构
+	 * @param sets
+	 *            key是缓存id，value是json。可以为null
+	 * @param dels
+	 *            要删除的缓存id。可以为null
+	 */
+	public static void write(PojoMeta m, Map<String, String> sets, Collection<String> dels) {
+		write(m, sets, dels, true);
+	}
+
+	private static void write(PojoMeta m, Map<String, String> sets, Collection<String> dels,
+			boolean invalidateNear) {
+		if ((sets == null || sets.isEmpty()) && (dels == null || dels.isEmpty())) {
+			return;
+		}
+		if (CacheWriteBehind.enabled()) {
+			CacheWriteBehind.submit(m, sets, dels, !invalidateNear);
+			return;
+		}
+		writeNow(m, sets, dels, invalidateNear, true);
+	}
+
+	/**
+	 * @param mute
+	 *            为true的话，redis出错时不抛异常，相当于写入被忽略。异步写要用false，这样才能重试
+	 */
+	static void writeNow(PojoMeta m, Map<String, String> sets, Collection<String> dels, boolean invalidateNear,
+			boolean mute) {
+		boolean noSet = sets == null || sets.isEmpty();
+		boolean noDel = dels == null || dels.isEmpty();
+		if (noSet && noDel) {
+			return;
 		}
 		m.getCounter().incrModifyCount();
-		String key = getKey(m, id);
 		String tableName = m.getTableName();
 		int ttl = m.getTtlSec();
-		if (ttl <= 0) {
-			muteRedis(tableName).set(key, json);
-			if (logger.isTraceEnabled()) {
-				logger.trace("{} >> SET {} = {}", tableName, key, json);
+		List<String> keys = new ArrayList<>();
+		Redis redis = mute ? muteRedis(tableName) : RedisPool.get(tableName);
+		redis.pipeline(p -> {
+			if (!noDel) {
+				for (String id : dels) {
+					String key = getKey(m, id);
+					keys.add(key);
+					p.del(key);
+					if (logger.isTraceEnabled()) {
+						logger.trace("{} >> DELETE {}", tableName, key);
+					}
+				}
 			}
-			return;
-		}
-		muteRedis(tableName).setex(key, ttl, json);
-		if (logger.isTraceEnabled()) {
-			logger.trace("{} >> SETEX {} = {}", tableName, key, json);
+			if (noSet) {
+				return;
+			}
+			for (Map.Entry<String, String> en : sets.entrySet()) {
+				String id = en.getKey();
+				if (id == null || id.isEmpty()) {
+					throw new SumkException(657645465, "key of redis value cannot be null");
+				}
+				if (!noDel && dels.contains(id)) {
+					continue;
+				}
+				String key = getKey(m, id);
+				keys.add(key);
+				int seconds = isNegative(en.getValue()) ? negativeTtl() : ttl;
+				if (seconds > 0) {
+					p.setex(key, seconds, en.getValue());
+				} else {
+					p.set(key, en.getValue());
+				}
+				if (logger.isTraceEnabled()) {
+					logger.trace("{} >> {} {} = {}", tableName, seconds > 0 ? "SETEX" : "SET", key, en.getValue());
+				}
+			}
+		});
+		if (invalidateNear && keys.size() > 0) {
+			invalidateNearCache(m, keys.toArray(new String[keys.size()]));
 		}
 	}
 
 	public static void del(PojoMeta m, String id) {
-		m.getCounter().incrModifyCount();
-		String key = getKey(m, id);
-		String tableName = m.getTableName();
-		muteRedis(tableName).del(key);
-		if (logger.isTraceEnabled()) {
-			logger.trace("{} >> DELETE {}", tableName, key);
+		write(m, null, Collections.singletonList(id), true);
+	}
+
+	private static void invalidateNearCache(PojoMeta m, String... keys) {
+		NearCache near = m.nearCache();
+		if (near == null) {
+			return;
+		}
+		for (String key : keys) {
+			near.invalidate(key);
 		}
+		NearCacheBus.publish(m, keys);
 	}
 
 	protected static String[] getKeys(PojoMeta m, String[] ids) {
@@ -94,18 +205,52 @@ public final class RecordRepository {
 		return keys;
 	}
 
+	/**
+	 * 用pipeline逐个删除，集群模式下这些key可以不在同一个槽位
+	 */
 	public static void delMulti(PojoMeta m, String[] ids) {
 		if (ids == null || ids.length == 0) {
 			return;
 		}
-		m.getCounter().incrModifyCount();
-		String[] keys = getKeys(m, ids);
-		muteRedis(m.getTableName()).del(keys);
-		if (logger.isTraceEnabled()) {
-			String ks = Arrays.toString(keys);
-			ks = ks.substring(1, ks.length() - 1);
-			logger.trace("{} >> DEL_MULTI {}", m.getTableName(), ks);
+		write(m, null, Arrays.asList(ids), true);
+	}
+
+	/**
+	 * 将数据库中不存在的记录标记到缓存中，由sumk.db.cache.negative.ttl开启
+	 */
+	public static void fillMissing(PojoMeta m, Collection<String> ids) {
+		if (ids == null || ids.isEmpty() || negativeTtl() <= 0) {
+			return;
+		}
+		Map<String, String> sets = new LinkedHashMap<>();
+		for (String id : ids) {
+			sets.put(id, NEGATIVE);
 		}
+		write(m, sets, null, false);
+	}
+
+	/**
+	 * 一次请求同时获取值和剩余存活时间
+	 * 
+	 * @return 第一个元素是值，第二个元素是剩余存活的毫秒数(-1表示永久，-2表示不存在)。出错的时候返回null
+	 */
+	public static Object[] getWithPttl(PojoMeta m, String id) {
+		if (!m.getCounter().visit()) {
+			return null;
+		}
+		long begin = System.nanoTime();
+		Object ret = muteRedis(m.getTableName()).eval(GET_WITH_PTTL, 1, getKey(m, id));
+		m.getCounter().recordRedisLatency(System.nanoTime() - begin);
+		if (!(ret instanceof List)) {
+			return null;
+		}
+		List<?> list = (List<?>) ret;
+		if (list.size() < 2) {
+			m.getCounter().incrCacheMiss();
+			return new Object[] { null, -2L };
+		}
+		m.getCounter().incrCacheMeet();
+		return new Object[] { list.get(0).toString(), ((Number) list.get(1)).longValue() };
 	}
 
 	public static List<String> getMultiValue(PojoMeta m, Collection<String> ids) {
@@ -113,14 +258,23 @@ public final class RecordRepository {
 			return Collections.emptyList();
 		}
 
-		if (!m.getCounter().visit()) {
+		if (!m.getCounter().visit(ids.size())) {
 			return Collections.emptyList();
 		}
 
 		String[] keys = getKeys(m, ids.toArray(new String[ids.size()]));
+		long begin = System.nanoTime();
 		List<String> ret = muteRedis(m.getTableName()).mget(keys);
-		if (ret != null && ret.size() > 0) {
-			m.getCounter().incrCacheMeet();
+		m.getCounter().recordRedisLatency(System.nanoTime() - begin);
+		if (ret == null) {
+			return null;
+		}
+		for (String v : ret) {
+			if (v != null) {
+				m.getCounter().incrCacheMeet();
+			} else {
+				m.getCounter().incrCacheMiss();
+			}
 		}
 		return ret;
 	}
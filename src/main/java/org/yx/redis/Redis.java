@@ -15,6 +15,8 @@
  */
 package org.yx.redis;
 
+import java.util.function.Consumer;
+
 import org.yx.redis.command.BinaryJedisCommand;
 import org.yx.redis.command.JedisCommand;
 import org.yx.redis.command.MultiKeyCommand;
@@ -47,4 +49,13 @@ public interface Redis extends BinaryJedisCommand, JedisCommand, MultiKeyCommand
 	Redis mute();
 
 	boolean isMuted();
+
+	/**
+	 * 将consumer里添加的写命令用pipeline一次性发送。<BR>
+	 * 普通redis和哨兵只占用一次连接，集群按节点分组发送
+	 * 
+	 * @param consumer
+	 *            用来添加命令
+	 */
+	void pipeline(Consumer<RedisPipeline> consumer);
 }
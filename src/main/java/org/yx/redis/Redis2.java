@@ -15,6 +15,8 @@
  */
 package org.yx.redis;
 
+import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 import org.yx.exception.SumkException;
@@ -49,6 +51,23 @@ public abstract class Redis2 implements Redis, Cloneable {
 		return this.jedis2Executor.execAndRetry(callback, mute);
 	}
 
+	@Override
+	public void pipeline(Consumer<RedisPipeline> consumer) {
+		RedisPipeline pipeline = new RedisPipeline();
+		consumer.accept(pipeline);
+		if (pipeline.isEmpty()) {
+			return;
+		}
+		List<RedisPipeline.Command> failed = this
+				.execAndRetry(jedis -> RedisPipeline.sync(jedis, pipeline.commands));
+		if (failed == null) {
+			return;
+		}
+		for (RedisPipeline.Command cmd : failed) {
+			cmd.exec(this);
+		}
+	}
+
 	public void shutdownPool() {
 		this.jedis2Executor.shutdownPool();
 		if (this.jedis2Executor instanceof Checkable) {
@@ -16,20 +16,39 @@
 package org.yx.redis;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import org.yx.conf.AppInfo;
+import org.yx.exception.SumkException;
 import org.yx.log.Logs;
+import org.yx.main.SumkThreadPool;
 
 import redis.clients.jedis.HostAndPort;
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisCluster;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisSlotBasedConnectionHandler;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.util.JedisClusterCRC16;
 
 public class Redis2Cluster extends JedisCluster implements Redis {
 
+	private static volatile ExecutorService mgetExecutor;
+
 	protected String hosts;
 	protected RedisConfig config;
 
@@ -112,6 +131,186 @@ public class Redis2Cluster extends JedisCluster implements Redis {
 		return ret;
 	}
 
+	/**
+	 * 按节点分组后，每个节点用一个pipeline发送。如果某个节点出错了，该节点的命令逐条重新执行。<BR>
+	 * 返回错误的命令(比如槽位迁移时的MOVED、ASK)，通过集群的路由逐条重新执行
+	 */
+	@Override
+	public void pipeline(Consumer<RedisPipeline> consumer) {
+		RedisPipeline pipeline = new RedisPipeline();
+		consumer.accept(pipeline);
+		if (pipeline.isEmpty()) {
+			return;
+		}
+		if (!(this.connectionHandler instanceof JedisSlotBasedConnectionHandler)) {
+			for (RedisPipeline.Command cmd : pipeline.commands) {
+				cmd.exec(this);
+			}
+			return;
+		}
+		JedisSlotBasedConnectionHandler handler = (JedisSlotBasedConnectionHandler) this.connectionHandler;
+		Map<String, Jedis> nodes = new HashMap<>();
+		Map<String, List<RedisPipeline.Command>> groups = new HashMap<>();
+		try {
+			for (RedisPipeline.Command cmd : pipeline.commands) {
+				String node = connect(handler, JedisClusterCRC16.getSlot(cmd.key), nodes);
+				groups.computeIfAbsent(node, k -> new ArrayList<>()).add(cmd);
+			}
+			for (Map.Entry<String, List<RedisPipeline.Command>> en : groups.entrySet()) {
+				List<RedisPipeline.Command> cmds = en.getValue();
+				List<RedisPipeline.Command> failed;
+				try {
+					failed = RedisPipeline.sync(nodes.get(en.getKey()), cmds);
+					if (failed.size() > 0) {
+						Logs.redis().debug("{} commands on {} got error reply,retry by cluster", failed.size(),
+								en.getKey());
+					}
+				} catch (Exception e) {
+					Logs.redis().warn("pipeline on {} failed,retry one by one. {}", en.getKey(), e.getMessage());
+					failed = cmds;
+				}
+				for (RedisPipeline.Command cmd : failed) {
+					cmd.exec(this);
+				}
+			}
+		} finally {
+			for (Jedis jedis : nodes.values()) {
+				jedis.close();
+			}
+		}
+	}
+
+	/**
+	 * 获取槽位所在节点的连接，同一个节点只保留一个连接
+	 * 
+	 * @return 节点名
+	 */
+	private static String connect(JedisSlotBasedConnectionHandler handler, int slot, Map<String, Jedis> nodes) {
+		Jedis jedis = handler.getConnectionFromSlot(slot);
+		String node = jedis.getClient().getHost() + ":" + jedis.getClient().getPort();
+		if (nodes.putIfAbsent(node, jedis) != null) {
+			jedis.close();
+		}
+		return node;
+	}
+
+	/**
+	 * key分布在多个槽位的时候，按节点分组，每个节点用pipeline按槽位发送mget，节点之间并行执行。<BR>
+	 * 返回值的顺序跟keys一致。每个节点的连接由执行它的任务关闭，等待被中断的时候，还在执行的任务不会受影响
+	 */
+	@Override
+	public List<String> mget(String... keys) {
+		if (keys.length < 2 || !(this.connectionHandler instanceof JedisSlotBasedConnectionHandler)) {
+			return super.mget(keys);
+		}
+		Map<Integer, List<Integer>> slots = new HashMap<>();
+		for (int i = 0; i < keys.length; i++) {
+			slots.computeIfAbsent(JedisClusterCRC16.getSlot(keys[i]), k -> new ArrayList<>()).add(i);
+		}
+		if (slots.size() == 1) {
+			return super.mget(keys);
+		}
+		JedisSlotBasedConnectionHandler handler = (JedisSlotBasedConnectionHandler) this.connectionHandler;
+		String[] result = new String[keys.length];
+		Map<String, Jedis> nodes = new HashMap<>();
+		Map<String, List<List<Integer>>> groups = new HashMap<>();
+		try {
+			for (Map.Entry<Integer, List<Integer>> en : slots.entrySet()) {
+				String node = connect(handler, en.getKey(), nodes);
+				groups.computeIfAbsent(node, k -> new ArrayList<>()).add(en.getValue());
+			}
+		} catch (RuntimeException e) {
+			for (Jedis jedis : nodes.values()) {
+				jedis.close();
+			}
+			throw e;
+		}
+		List<Jedis> conns = new ArrayList<>(groups.size());
+		List<Runnable> tasks = new ArrayList<>(groups.size());
+		for (Map.Entry<String, List<List<Integer>>> en : groups.entrySet()) {
+			Jedis jedis = nodes.get(en.getKey());
+			List<List<Integer>> indexes = en.getValue();
+			conns.add(jedis);
+			tasks.add(() -> {
+				try {
+					this.mgetFromNode(jedis, keys, indexes, result);
+				} finally {
+					jedis.close();
+				}
+			});
+		}
+		List<Future<?>> futures = new ArrayList<>(tasks.size());
+		int started = 0;
+		try {
+			for (; started < tasks.size() - 1; started++) {
+				futures.add(mgetExecutor().submit(tasks.get(started)));
+			}
+			started++;
+			tasks.get(tasks.size() - 1).run();
+			for (Future<?> f : futures) {
+				f.get();
+			}
+		} catch (ExecutionException e) {
+			throw SumkException.wrap(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw SumkException.wrap(e);
+		} finally {
+			for (int i = started; i < conns.size(); i++) {
+				conns.get(i).close();
+			}
+		}
+		return Arrays.asList(result);
+	}
+
+	private void mgetFromNode(Jedis jedis, String[] keys, List<List<Integer>> slotIndexes, String[] result) {
+		try {
+			Pipeline p = jedis.pipelined();
+			List<Response<List<String>>> responses = new ArrayList<>(slotIndexes.size());
+			for (List<Integer> indexes : slotIndexes) {
+				String[] ks = new String[indexes.size()];
+				for (int i = 0; i < ks.length; i++) {
+					ks[i] = keys[indexes.get(i)];
+				}
+				responses.add(p.mget(ks));
+			}
+			p.sync();
+			for (int j = 0; j < slotIndexes.size(); j++) {
+				List<Integer> indexes = slotIndexes.get(j);
+				List<String> values = responses.get(j).get();
+				for (int i = 0; i < indexes.size(); i++) {
+					result[indexes.get(i)] = values.get(i);
+				}
+			}
+		} catch (Exception e) {
+			Logs.redis().warn("mget on {}:{} failed,retry one by one. {}", jedis.getClient().getHost(),
+					jedis.getClient().getPort(), e.getMessage());
+			for (List<Integer> indexes : slotIndexes) {
+				for (Integer index : indexes) {
+					result[index] = this.get(keys[index]);
+				}
+			}
+		}
+	}
+
+	private static ExecutorService mgetExecutor() {
+		ExecutorService executor = mgetExecutor;
+		if (executor != null) {
+			return executor;
+		}
+		synchronized (Redis2Cluster.class) {
+			if (mgetExecutor == null) {
+				int threads = AppInfo.getInt("sumk.redis.cluster.mget.threads", 8);
+				ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60_000L, TimeUnit.MILLISECONDS,
+						new ArrayBlockingQueue<>(threads * 4), SumkThreadPool.createThreadFactory("redis-mget-"),
+						new ThreadPoolExecutor.CallerRunsPolicy());
+				pool.allowCoreThreadTimeOut(true);
+				mgetExecutor = pool;
+			}
+			return mgetExecutor;
+		}
+	}
+
 	@Override
 	public Redis mute() {
 		return this;
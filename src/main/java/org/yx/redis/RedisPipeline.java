@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.redis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+/**
+ * 批量写命令，由Redis.pipeline()一次性发送出去。<BR>
+ * 只支持set、setex、del、pexpire这类幂等的写操作，所以连接异常重试的时候可以整批重发。<BR>
+ * 集群模式下，命令会按照节点分组，每个节点一个pipeline
+ */
+public final class RedisPipeline {
+
+	static final byte SET = 1;
+	static final byte SETEX = 2;
+	static final byte DEL = 3;
+	static final byte PEXPIRE = 4;
+
+	final List<Command> commands = new ArrayList<>();
+
+	public RedisPipeline set(String key, String value) {
+		commands.add(new Command(SET, key, 0, value));
+		return this;
+	}
+
+	public RedisPipeline setex(String key, int seconds, String value) {
+		commands.add(new Command(SETEX, key, seconds, value));
+		return this;
+	}
+
+	public RedisPipeline del(String... keys) {
+		for (String key : keys) {
+			commands.add(new Command(DEL, key, 0, null));
+		}
+		return this;
+	}
+
+	public RedisPipeline pexpire(String key, long milliseconds) {
+		commands.add(new Command(PEXPIRE, key, milliseconds, null));
+		return this;
+	}
+
+	/**
+	 * 执行完之后调用，每个命令对应一个结果，顺序跟添加的顺序一致。del多个key的时候，每个key对应一个结果。<BR>
+	 * 执行出错或者redis被mute的时候，对应的结果为null
+	 * 
+	 * @return 各个命令的返回值
+	 */
+	public List<Object> results() {
+		List<Object> list = new ArrayList<>(commands.size());
+		for (Command cmd : commands) {
+			list.add(cmd.result);
+		}
+		return list;
+	}
+
+	public int size() {
+		return commands.size();
+	}
+
+	public boolean isEmpty() {
+		return commands.isEmpty();
+	}
+
+	/**
+	 * pipeline的sync()遇到错误回复(比如集群的MOVED、ASK)不会抛异常，要逐个读取Response才能发现
+	 * 
+	 * @return 返回错误回复的命令，它们的result为null。都成功的话返回空列表
+	 */
+	static List<Command> sync(Jedis jedis, List<Command> cmds) {
+		Pipeline p = jedis.pipelined();
+		List<Response<?>> responses = new ArrayList<>(cmds.size());
+		for (Command cmd : cmds) {
+			responses.add(cmd.appendTo(p));
+		}
+		p.sync();
+		List<Command> failed = null;
+		for (int i = 0; i < cmds.size(); i++) {
+			Command cmd = cmds.get(i);
+			try {
+				cmd.result = responses.get(i).get();
+			} catch (JedisDataException e) {
+				cmd.result = null;
+				if (failed == null) {
+					failed = new ArrayList<>();
+				}
+				failed.add(cmd);
+			}
+		}
+		return failed == null ? Collections.emptyList() : failed;
+	}
+
+	static final class Command {
+		final byte type;
+		final String key;
+		final long time;
+		final String value;
+		Object result;
+
+		Command(byte type, String key, long time, String value) {
+			this.type = type;
+			this.key = key;
+			this.time = time;
+			this.value = value;
+		}
+
+		Response<?> appendTo(Pipeline p) {
+			switch (type) {
+			case SET:
+				return p.set(key, value);
+			case SETEX:
+				return p.setex(key, (int) time, value);
+			case PEXPIRE:
+				return p.pexpire(key, time);
+			default:
+				return p.del(key);
+			}
+		}
+
+		void exec(Redis redis) {
+			switch (type) {
+			case SET:
+				result = redis.set(key, value);
+				break;
+			case SETEX:
+				result = redis.setex(key, (int) time, value);
+				break;
+			case PEXPIRE:
+				result = redis.pexpire(key, time);
+				break;
+			default:
+				result = redis.del(key);
+			}
+		}
+	}
+}
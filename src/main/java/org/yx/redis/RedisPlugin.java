@@ -63,6 +63,13 @@ public class RedisPlugin implements Plugin {
 	public void startAsync() {
 	}
 
+	@Override
+	public void stop() {
+		if (CacheWriteBehind.enabled()) {
+			CacheWriteBehind.shutdown(AppInfo.getLong("sumk.db.cache.async.shutdown.timeout", 5000));
+		}
+	}
+
 	private static void initSeqUtilCounter() {
 		if (SeqHolder.inst().getCounter() != null) {
 			return;
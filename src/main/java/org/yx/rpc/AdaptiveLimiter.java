@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.yx.conf.AppInfo;
+
+/**
+ * 根据响应时间自适应调整的并发上限(gradient算法)。<BR>
+ * 每个窗口内的平均响应时间跟长期平均值比较，变慢就按比例降低上限，否则在上限基础上加上sqrt(limit)的排队余量。
+ * 在途请求数超过上限的请求会被直接拒绝
+ */
+public final class AdaptiveLimiter {
+
+	private final String name;
+	private final AtomicInteger inflight = new AtomicInteger();
+	private volatile int limit;
+	private double estimatedLimit;
+	private double longRtt;
+
+	private final LongAdder rttSum = new LongAdder();
+	private final LongAdder rttCount = new LongAdder();
+	private final LongAdder rejected = new LongAdder();
+	private final AtomicBoolean updating = new AtomicBoolean();
+	private volatile long windowStart = System.nanoTime();
+
+	public AdaptiveLimiter(String name) {
+		this.name = name;
+		this.estimatedLimit = AppInfo.getInt("sumk.rpc.limit.initial", 100);
+		this.limit = (int) estimatedLimit;
+	}
+
+	/**
+	 * 是否对api开启自适应限流，先取sumk.rpc.limit.enable.api，再取sumk.rpc.limit.enable
+	 */
+	public static boolean enable(String api) {
+		return "1".equals(AppInfo.get("sumk.rpc.limit.enable." + api, "sumk.rpc.limit.enable", "0"));
+	}
+
+	public boolean tryAcquire() {
+		if (inflight.incrementAndGet() > limit) {
+			inflight.decrementAndGet();
+			rejected.increment();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * 请求结束的时候调用，跟tryAcquire成功的次数一一对应
+	 * 
+	 * @param rttNanos
+	 *            从收到请求到处理完成的时间，包含排队时间
+	 */
+	public void release(long rttNanos) {
+		int current = inflight.getAndDecrement();
+		rttSum.add(rttNanos);
+		rttCount.increment();
+		long now = System.nanoTime();
+		if (now - windowStart < AppInfo.getLong("sumk.rpc.limit.window", 100L) * 1_000_000L
+				|| rttCount.sum() < AppInfo.getInt("sumk.rpc.limit.minsamples", 10)) {
+			return;
+		}
+		if (!updating.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			long count = rttCount.sumThenReset();
+			long sum = rttSum.sumThenReset();
+			windowStart = now;
+			if (count > 0) {
+				this.update((double) sum / count, current);
+			}
+		} finally {
+			updating.set(false);
+		}
+	}
+
+	private void update(double shortRtt, int inflight) {
+		if (longRtt == 0) {
+			longRtt = shortRtt;
+		} else {
+			longRtt = longRtt * 0.95 + shortRtt * 0.05;
+		}
+		if (longRtt / shortRtt > 2) {
+			longRtt = longRtt * 0.95 + shortRtt * 0.05;
+		}
+		double tolerance = AppInfo.getInt("sumk.rpc.limit.tolerance", 150) / 100d;
+		double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRtt / shortRtt));
+
+		if (gradient >= 1 && inflight < estimatedLimit / 2) {
+			return;
+		}
+		double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+		newLimit = estimatedLimit * 0.8 + newLimit * 0.2;
+		int min = AppInfo.getInt("sumk.rpc.limit.min", 10);
+		int max = AppInfo.getInt("sumk.rpc.limit.max", 1000);
+		estimatedLimit = Math.max(min, Math.min(max, newLimit));
+		this.limit = (int) estimatedLimit;
+	}
+
+	public int limit() {
+		return limit;
+	}
+
+	public int inflight() {
+		return inflight.get();
+	}
+
+	public long rejected() {
+		return rejected.sum();
+	}
+
+	@Override
+	public String toString() {
+		return new StringBuilder().append(name).append(" limit:").append(limit).append(" inflight:")
+				.append(inflight()).append(" rejected:").append(rejected()).toString();
+	}
+}
@@ -23,14 +23,24 @@ import org.yx.common.context.CalleeNode;
 import org.yx.exception.BizException;
 import org.yx.exception.SumkException;
 import org.yx.log.Logs;
+import org.yx.rpc.codec.CompactParamSchema;
+import org.yx.rpc.codec.CompactParams;
 import org.yx.rpc.codec.Request;
 
 public final class RpcActionNode extends CalleeNode {
 	private final boolean publish;
+	private final CompactParamSchema compactSchema;
+	private final AdaptiveLimiter limiter;
 
 	public RpcActionNode(Object obj, Method method, Parameters argClzInfo, int toplimit, boolean publish) {
 		super(obj, method, argClzInfo, toplimit);
 		this.publish = publish;
+		this.compactSchema = new CompactParamSchema(argClzInfo);
+		this.limiter = new AdaptiveLimiter(method.getDeclaringClass().getSimpleName() + "." + method.getName());
+	}
+
+	public AdaptiveLimiter limiter() {
+		return this.limiter;
 	}
 
 	public boolean publish() {
@@ -71,6 +81,19 @@ public final class RpcActionNode extends CalleeNode {
 		return pojo;
 	}
 
+	public ParamPojo createCompactParamPojo(Request req) throws Throwable {
+		ParamPojo pojo = this.createEmptyParamObj();
+		if (params.paramLength() == 0) {
+			return pojo;
+		}
+		byte[] data = req.getCompactParam();
+		if (data == null) {
+			throw new SumkException(12012, method.getName() + "的参数不能为空");
+		}
+		pojo.setParams(CompactParams.decode(data, this.compactSchema));
+		return pojo;
+	}
+
 	public static void checkNode(String api, CalleeNode node) {
 		if (node == null) {
 			throw new SumkException(123546, "[" + api + "] is not found in this server");
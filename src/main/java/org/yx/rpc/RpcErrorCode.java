@@ -22,6 +22,11 @@ public interface RpcErrorCode {
 	 */
 	int THREAD_THRESHOLD_OVER = 700;
 
+	/**
+	 * 并发数超过自适应限流的上限，请求在服务端排队之前就被拒绝了
+	 */
+	int CONCURRENCY_LIMITED = 701;
+
 	int WAIT_TWICE = 710;
 
 	int NO_ROUTE = 720;
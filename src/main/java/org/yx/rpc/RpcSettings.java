@@ -29,6 +29,46 @@ public final class RpcSettings {
 	private static boolean showServerExceptionLog;
 	private static int maxReqLogSize;
 	private static int maxRespLogSize;
+	private static boolean clientBinaryEnable = true;
+	private static boolean clientCompactParam;
+	private static boolean clientBatchEnable;
+	private static int clientBatchSize;
+	private static long clientBatchWindow;
+
+	/**
+	 * 是否将发往同一个连接的小请求合并成一个帧发送，需要服务端支持
+	 */
+	public static boolean clientBatchEnable() {
+		return clientBatchEnable;
+	}
+
+	/**
+	 * 一个帧最多合并的请求数，达到这个数量就立即发送
+	 */
+	public static int clientBatchSize() {
+		return clientBatchSize;
+	}
+
+	/**
+	 * 合并请求的等待时间，单位微秒
+	 */
+	public static long clientBatchWindow() {
+		return clientBatchWindow;
+	}
+
+	/**
+	 * Client的默认参数格式，可以被Client.compactParam()或@SoaClientConfig覆盖
+	 */
+	public static boolean clientCompactParam() {
+		return clientCompactParam;
+	}
+
+	/**
+	 * 服务端支持的时候，客户端是否使用二进制帧
+	 */
+	public static boolean clientBinaryEnable() {
+		return clientBinaryEnable;
+	}
 
 	public static int maxReqLogSize() {
 		return maxReqLogSize;
@@ -86,6 +126,11 @@ public final class RpcSettings {
 			RpcSettings.showServerExceptionLog = AppInfo.getBoolean("sumk.rpc.server.exceptionlog", false);
 			RpcSettings.maxReqLogSize = AppInfo.getInt("sumk.rpc.log.reqsize", 1000);
 			RpcSettings.maxRespLogSize = AppInfo.getInt("sumk.rpc.log.respsize", 5000);
+			RpcSettings.clientBinaryEnable = AppInfo.getBoolean("sumk.rpc.client.binary.enable", true);
+			RpcSettings.clientCompactParam = AppInfo.getBoolean("sumk.rpc.client.compact.param", false);
+			RpcSettings.clientBatchEnable = AppInfo.getBoolean("sumk.rpc.client.batch.enable", false);
+			RpcSettings.clientBatchSize = Math.max(AppInfo.getInt("sumk.rpc.client.batch.size", 32), 1);
+			RpcSettings.clientBatchWindow = Math.max(AppInfo.getLong("sumk.rpc.client.batch.window", 200L), 0);
 		});
 	}
 }
@@ -18,6 +18,7 @@ package org.yx.rpc.client;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
@@ -35,7 +36,9 @@ import org.yx.rpc.RpcJson;
 import org.yx.rpc.RpcSettings;
 import org.yx.rpc.client.route.HostChecker;
 import org.yx.rpc.client.route.RpcRoutes;
+import org.yx.rpc.codec.CompactParams;
 import org.yx.rpc.codec.Protocols;
+import org.yx.rpc.codec.ReqParamType;
 import org.yx.rpc.codec.Request;
 import org.yx.rpc.server.LocalRequestHandler;
 import org.yx.rpc.server.Response;
@@ -47,6 +50,9 @@ public final class Client {
 	private static final AtomicInteger COUNTER = new AtomicInteger();
 	private final String api;
 	private Object params;
+	private Object[] args;
+	private byte[] compactParams;
+	private boolean compactParam;
 	private ParamType paramType;
 	private int totalTimeout;
 
@@ -60,6 +66,7 @@ public final class Client {
 		this.api = Objects.requireNonNull(api).trim();
 		this.totalTimeout = RpcSettings.clientDefaultTimeout();
 		this.tryCount = RpcSettings.clientTryCount();
+		this.compactParam = RpcSettings.clientCompactParam();
 	}
 
 	public Client directUrls(Host... urls) {
@@ -101,17 +108,55 @@ public final class Client {
 		return this;
 	}
 
+	/**
+	 * 是否使用紧凑的二进制格式传递参数，只对paramInArray有效。<BR>
+	 * 服务端不支持的时候，自动使用json格式
+	 * 
+	 * @param compact
+	 *            true表示优先使用二进制参数
+	 * @return 当前对象
+	 */
+	public Client compactParam(boolean compact) {
+		this.compactParam = compact;
+		return this;
+	}
+
 	public Client paramInArray(Object... args) {
 		if (args == null) {
 			args = new String[0];
 		}
+		this.args = args;
+		this.compactParams = null;
+		this.paramType = ParamType.JSONARRAY;
+		if (this.compactParam) {
+			this.params = null;
+			return this;
+		}
+		this.params = toJsonArray(args);
+		return this;
+	}
+
+	private static String[] toJsonArray(Object[] args) {
 		String[] params = new String[args.length];
 		for (int i = 0; i < args.length; i++) {
 			params[i] = RpcJson.client().toJson(args[i]);
 		}
-		this.params = params;
-		this.paramType = ParamType.JSONARRAY;
-		return this;
+		return params;
+	}
+
+	private void fillParams(Req req, int serverProtocol) {
+		if (this.paramType == ParamType.JSONARRAY && this.compactParam && RpcSettings.clientBinaryEnable()
+				&& Protocols.hasFeature(serverProtocol, Protocols.REQUEST_BINARY | ReqParamType.REQ_PARAM_COMPACT)) {
+			if (this.compactParams == null) {
+				this.compactParams = CompactParams.encode(this.args);
+			}
+			req.setParams(ReqParamType.REQ_PARAM_COMPACT, this.compactParams);
+			return;
+		}
+		if (this.params == null) {
+			this.params = toJsonArray(this.args);
+		}
+		req.setParams(this.paramType.protocol(), this.params);
 	}
 
 	public Client paramInJson(String json) {
@@ -131,12 +176,14 @@ public final class Client {
 			req.setTest(true);
 		}
 		req.setStart(System.currentTimeMillis());
+		req.setId(LockHolder.nextId());
 		String sn = UUIDSeed.seq18();
 		req.setFullSn(sn, context.traceId(), context.nextSpanId());
 		req.setUserId(context.userId());
 		req.setApi(this.api);
 		req.setFrom(Rpc.appId());
-		req.initAcceptResponseTypes(Protocols.RESPONSE_ACCEPT_TYPES);
+		req.initAcceptResponseTypes(RpcSettings.clientBinaryEnable() ? Protocols.RESPONSE_ACCEPT_TYPES
+				: Protocols.RESPONSE_SPLIT);
 
 		req.setAttachments(context.attachmentView());
 		return req;
@@ -152,14 +199,13 @@ public final class Client {
 		Objects.requireNonNull(this.paramType, "param have not been set");
 		Req req = this.createReq();
 		long endTime = req.getStart() + this.totalTimeout;
-		req.setParams(this.paramType.protocol(), this.params);
 		int count = this.tryCount;
 		while (true) {
 			RpcFuture f = sendAsync(req, endTime);
 			if (f.getClass() == ErrorRpcFuture.class) {
 				ErrorRpcFuture errorFuture = (ErrorRpcFuture) f;
 				RpcLocker locker = errorFuture.locker;
-				LockHolder.remove(locker.req.getSn());
+				LockHolder.remove(locker.req.getId());
 				if (--count > 0 && errorFuture.rpcResult().exception().getCode() == RpcErrorCode.SEND_FAILED
 						&& System.currentTimeMillis() + 5 < endTime) {
 					locker.discard(errorFuture.rpcResult());
@@ -172,6 +218,29 @@ public final class Client {
 		}
 	}
 
+	/**
+	 * 异步执行，不会阻塞当前线程。本方法调用之后，不允许再调用本对象的任何方法<BR>
+	 * future在收到响应的线程中完成，完成时ActionContext已经切换成调用方的日志上下文，所以直接挂在它上面的thenApply之类的操作也能拿到traceId等信息。
+	 * 耗时的操作请使用带executor的xxxAsync方法
+	 * 
+	 * @return 总是会正常完成，rpc异常包含在RpcResult里
+	 */
+	public CompletableFuture<RpcResult> executeAsync() {
+		CompletableFuture<RpcResult> future = new CompletableFuture<>();
+		final Consumer<RpcCallInfo> cb = this.callback;
+		this.callback = info -> {
+			try {
+				if (cb != null) {
+					cb.accept(info);
+				}
+			} finally {
+				future.complete(info.getResult());
+			}
+		};
+		this.execute();
+		return future;
+	}
+
 	private Host selectDirectUrl() {
 		int index = COUNTER.incrementAndGet();
 		if (index < 0) {
@@ -220,15 +289,19 @@ public final class Client {
 		}
 		locker.url(url);
 		req.setServerProtocol(RpcRoutes.getServerProtocol(url));
+		this.fillParams(req, req.getServerProtocol());
 		WriteFuture f = null;
 		try {
 			ReqSession reqSession = ReqSessionHolder.getSession(url);
+			locker.session(reqSession);
+			locker.markSend();
 			LockHolder.register(locker, endTime);
 			f = reqSession.write(req);
 		} catch (Exception e) {
 			Logs.rpc().error(e.getLocalizedMessage(), e);
 		}
 		if (f == null) {
+			locker.releaseSession();
 			SoaException ex = new SoaException(RpcErrorCode.SEND_FAILED, url + " can not connect", null);
 			return new ErrorRpcFuture(ex, locker);
 		}
@@ -246,6 +319,7 @@ public final class Client {
 			return null;
 		}
 
+		this.fillParams(req, 0);
 		Request request = Request.from(req);
 		req = null;
 
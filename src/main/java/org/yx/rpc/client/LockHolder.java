@@ -17,34 +17,92 @@ package org.yx.rpc.client;
 
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.DelayQueue;
-import java.util.concurrent.Delayed;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.yx.common.sumk.LongConcurrentMap;
+import org.yx.common.thread.HashedWheelTimer;
+import org.yx.conf.AppInfo;
 import org.yx.exception.SumkException;
 import org.yx.log.Log;
+import org.yx.rpc.codec.Protocols;
 import org.yx.rpc.server.Response;
-import org.yx.util.Task;
 
+/**
+ * 请求跟响应的关联表。以数字id为key，超时由时间轮处理。<BR>
+ * 不支持二进制响应的服务端只会返回sn，这类请求会额外记录sn到id的映射
+ */
 public final class LockHolder {
-	private static final ConcurrentMap<String, RpcLocker> locks = new ConcurrentHashMap<>();
-
-	static final LockTimeoutMonitor monitor = new LockTimeoutMonitor();
-	static {
-		Task.scheduleAtFixedRate(monitor, 1000, 500);
+	private static final AtomicLong SEQ = new AtomicLong();
+	private static final LongConcurrentMap<RpcLocker> locks = new LongConcurrentMap<>();
+	private static final ConcurrentMap<String, Long> legacySns = new ConcurrentHashMap<>();
+
+	private static final HashedWheelTimer timer = new HashedWheelTimer("sumk-rpc-timeout",
+			AppInfo.getInt("sumk.rpc.timeout.tick", 5), TimeUnit.MILLISECONDS,
+			AppInfo.getInt("sumk.rpc.timeout.wheelsize", 1024));
+
+	private static final LongAdder timeoutCount = new LongAdder();
+	private static final LongAdder timeoutLateNanos = new LongAdder();
+	private static final AtomicLong maxTimeoutLateNanos = new AtomicLong();
+
+	static long nextId() {
+		long id = SEQ.incrementAndGet();
+		if (id == 0) {
+			id = SEQ.incrementAndGet();
+		}
+		return id;
 	}
 
 	static void register(RpcLocker r, long endTime) {
 		Req req = r.req;
-		if (locks.putIfAbsent(req.getSn(), r) != null) {
-
+		final long id = req.getId();
+		if (locks.putIfAbsent(id, r) != null) {
 			throw new SumkException(-111111111, req.getSn() + " duplicate!!!!!!!!!!!!!!!!!!!!!");
 		}
-		monitor.add(req.getSn(), endTime);
+		if (!responseHasId(req)) {
+			legacySns.put(req.getSn(), id);
+			r.legacy = true;
+		}
+		long delay = Math.max(endTime - System.currentTimeMillis(), 0);
+		r.timeout = timer.newTimeout(() -> onTimeout(id), delay, TimeUnit.MILLISECONDS);
+	}
+
+	private static boolean responseHasId(Req req) {
+		return Protocols.hasFeature(req.getServerProtocol(), Protocols.REQUEST_BINARY)
+				&& Protocols.hasFeature(req.getAcceptResponseTypes(), Protocols.RESPONSE_BINARY);
+	}
+
+	private static void onTimeout(long id) {
+		RpcLocker locker = remove(id);
+		if (locker == null) {
+			return;
+		}
+		long late = locker.timeout.lateNanos();
+		timeoutCount.increment();
+		timeoutLateNanos.add(late);
+		long max;
+		while ((max = maxTimeoutLateNanos.get()) < late && !maxTimeoutLateNanos.compareAndSet(max, late)) {
+		}
+		if (locker.callback == null) {
+			locker.wakeupAndLog(RpcResult.timeout(locker.req));
+			return;
+		}
+		try {
+			Rpc.clientExecutor().execute(() -> locker.wakeupAndLog(RpcResult.timeout(locker.req)));
+		} catch (RejectedExecutionException e) {
+			locker.wakeupAndLog(RpcResult.timeout(locker.req));
+		}
 	}
 
 	static void unLockAndSetResult(Response resp) {
-		RpcLocker r = locks.remove(resp.sn());
+		long id = resp.id();
+		if (id == 0) {
+			Long v = resp.sn() == null ? null : legacySns.get(resp.sn());
+			id = v == null ? 0 : v.longValue();
+		}
+		RpcLocker r = id == 0 ? null : remove(id);
 		if (r == null) {
 			Log.get("sumk.rpc.client").debug("{} has been removed.maybe is timeout.result:{}", resp.sn(), resp.json());
 			return;
@@ -53,65 +111,35 @@ public final class LockHolder {
 		r.wakeupAndLog(result);
 	}
 
-	static RpcLocker remove(String sn) {
-		return locks.remove(sn);
+	static RpcLocker remove(long id) {
+		RpcLocker locker = locks.remove(id);
+		if (locker == null) {
+			return null;
+		}
+		locker.releaseSession();
+		if (locker.timeout != null) {
+			locker.timeout.cancel();
+		}
+		if (locker.legacy) {
+			legacySns.remove(locker.req.getSn());
+		}
+		return locker;
 	}
 
-	static boolean containsKey(String sn) {
-		return locks.containsKey(sn);
+	static boolean containsKey(long id) {
+		return locks.get(id) != null;
 	}
 
 	public static int lockSize() {
 		return locks.size();
 	}
 
-	private static class LockTimeoutMonitor implements Runnable {
-
-		private static final DelayQueue<DelayedObject> QUEUE = new DelayQueue<>();
-
-		@Override
-		public void run() {
-			try {
-				DelayedObject delay;
-				while ((delay = QUEUE.poll()) != null) {
-					RpcLocker locker = LockHolder.remove(delay.sn);
-					if (locker != null) {
-						locker.wakeupAndLog(RpcResult.timeout(locker.req));
-					}
-				}
-			} catch (Exception e) {
-				Log.printStack("sumk.error", e);
-				return;
-			}
-
-		}
-
-		void add(String reqId, long endTime) {
-			QUEUE.add(new DelayedObject(reqId, endTime));
-		}
-	}
-
-	private static class DelayedObject implements Delayed {
-
-		private final long endTime;
-		final String sn;
-
-		public DelayedObject(String sn, long endTime) {
-			this.endTime = endTime;
-			this.sn = sn;
-		}
-
-		@Override
-		public long getDelay(TimeUnit unit) {
-			return unit.convert(endTime - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
-		}
-
-		@Override
-		public int compareTo(Delayed other) {
-			long d = other instanceof DelayedObject ? this.endTime - ((DelayedObject) other).endTime
-					: this.getDelay(TimeUnit.MILLISECONDS) - other.getDelay(TimeUnit.MILLISECONDS);
-			return (d == 0) ? 0 : ((d < 0) ? -1 : 1);
-		}
+	public static String lockInfo() {
+		long count = timeoutCount.sum();
+		long avg = count == 0 ? 0 : timeoutLateNanos.sum() / count / 1000;
+		return new StringBuilder().append("inflight  ").append(lockSize()).append("  legacy  ")
+				.append(legacySns.size()).append("  timeout  ").append(count).append("  timeoutLateAvg(us)  ")
+				.append(avg).append("  timeoutLateMax(us)  ").append(maxTimeoutLateNanos.get() / 1000).toString();
 	}
 
 }
@@ -27,6 +27,8 @@ public class Req implements Serializable {
 
 	private static final long serialVersionUID = 123L;
 
+	private long i;
+
 	private String u;
 
 	private String n;
@@ -95,6 +97,21 @@ public class Req implements Serializable {
 		return this.hasFeature(ReqParamType.REQ_PARAM_ORDER) ? (String[]) params : null;
 	}
 
+	public byte[] getCompactParam() {
+		return this.hasFeature(ReqParamType.REQ_PARAM_COMPACT) ? (byte[]) params : null;
+	}
+
+	/**
+	 * 本进程内唯一的请求id，用于请求跟响应的关联
+	 */
+	public long getId() {
+		return i;
+	}
+
+	public void setId(long id) {
+		this.i = id;
+	}
+
 	public long getStart() {
 		return s;
 	}
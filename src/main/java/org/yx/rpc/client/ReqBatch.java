@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.client;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 合并发送的多个请求，编码成一个REQUEST_BATCH帧
+ */
+public final class ReqBatch {
+
+	private final List<Req> reqs;
+
+	public ReqBatch(List<Req> reqs) {
+		this.reqs = Objects.requireNonNull(reqs);
+	}
+
+	public List<Req> reqs() {
+		return reqs;
+	}
+
+	public int size() {
+		return reqs.size();
+	}
+}
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.client;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.mina.core.future.DefaultWriteFuture;
+import org.apache.mina.core.future.WriteFuture;
+import org.apache.mina.core.session.IoSession;
+import org.yx.rpc.RpcSettings;
+
+/**
+ * 将发往同一个连接的请求在sumk.rpc.client.batch.window微秒内合并成一个帧。<BR>
+ * 请求数达到sumk.rpc.client.batch.size时立即发送
+ */
+final class ReqBatcher {
+
+	private static final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+		Thread t = new Thread(r, "sumk-rpc-batch");
+		t.setDaemon(true);
+		return t;
+	});
+
+	private static final class Pending {
+		final Req req;
+		final DefaultWriteFuture future;
+
+		Pending(Req req, DefaultWriteFuture future) {
+			this.req = req;
+			this.future = future;
+		}
+	}
+
+	private final ReqSession owner;
+	private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger size = new AtomicInteger();
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	ReqBatcher(ReqSession owner) {
+		this.owner = owner;
+	}
+
+	WriteFuture write(IoSession session, Req req) {
+		DefaultWriteFuture future = new DefaultWriteFuture(session);
+		queue.offer(new Pending(req, future));
+		if (size.incrementAndGet() >= RpcSettings.clientBatchSize()) {
+			this.flush();
+		} else if (scheduled.compareAndSet(false, true)) {
+			scheduler.schedule(this::onTimer, RpcSettings.clientBatchWindow(), TimeUnit.MICROSECONDS);
+		}
+		return future;
+	}
+
+	private void onTimer() {
+		scheduled.set(false);
+		this.flush();
+	}
+
+	private void flush() {
+		final int max = RpcSettings.clientBatchSize();
+		while (true) {
+			List<Pending> list = new ArrayList<>(Math.min(Math.max(size.get(), 1), max));
+			Pending p;
+			while (list.size() < max && (p = queue.poll()) != null) {
+				list.add(p);
+			}
+			if (list.isEmpty()) {
+				return;
+			}
+			size.addAndGet(-list.size());
+			this.send(list);
+		}
+	}
+
+	private void send(List<Pending> list) {
+		IoSession session = owner.session;
+		if (session == null) {
+			IOException e = new IOException("rpc session is not connected");
+			for (Pending p : list) {
+				p.future.setException(e);
+			}
+			return;
+		}
+		WriteFuture f;
+		if (list.size() == 1) {
+			f = session.write(list.get(0).req);
+		} else {
+			List<Req> reqs = new ArrayList<>(list.size());
+			for (Pending p : list) {
+				reqs.add(p.req);
+			}
+			f = session.write(new ReqBatch(reqs));
+		}
+		f.addListener(future -> {
+			WriteFuture wf = (WriteFuture) future;
+			for (Pending p : list) {
+				if (wf.isWritten()) {
+					p.future.setWritten();
+				} else {
+					p.future.setException(wf.getException());
+				}
+			}
+		});
+	}
+}
@@ -17,6 +17,7 @@ package org.yx.rpc.client;
 
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
@@ -27,7 +28,9 @@ import org.apache.mina.core.session.IoSession;
 import org.apache.mina.transport.socket.SocketConnector;
 import org.yx.common.Host;
 import org.yx.log.Logs;
+import org.yx.rpc.RpcSettings;
 import org.yx.rpc.client.route.HostChecker;
+import org.yx.rpc.codec.Protocols;
 
 public final class ReqSession {
 
@@ -37,6 +40,13 @@ public final class ReqSession {
 	private final Host addr;
 	private final Lock lock = new ReentrantLock();
 
+	/**
+	 * 在途请求数。-1表示正在被回收，此时不接受新请求
+	 */
+	private final AtomicInteger pending = new AtomicInteger();
+
+	private final ReqBatcher batcher = new ReqBatcher(this);
+
 	public static void setConnectorSupplier(Supplier<SocketConnector> connectorSupplier) {
 		ReqSession.connectorSupplier = Objects.requireNonNull(connectorSupplier);
 	}
@@ -101,6 +111,10 @@ public final class ReqSession {
 		if (!this.ensureSession()) {
 			return null;
 		}
+		if (RpcSettings.clientBatchEnable() && RpcSettings.clientBinaryEnable()
+				&& Protocols.hasFeature(req.getServerProtocol(), Protocols.REQUEST_BINARY | Protocols.REQUEST_BATCH)) {
+			return batcher.write(this.session, req);
+		}
 		return this.session.write(req);
 	}
 
@@ -116,6 +130,59 @@ public final class ReqSession {
 		return s == null || s.isClosing();
 	}
 
+	public int pending() {
+		return pending.get();
+	}
+
+	boolean tryAcquire() {
+		while (true) {
+			int p = pending.get();
+			if (p < 0) {
+				return false;
+			}
+			if (pending.compareAndSet(p, p + 1)) {
+				return true;
+			}
+		}
+	}
+
+	void release() {
+		pending.decrementAndGet();
+	}
+
+	/**
+	 * 建立连接，但不发送数据
+	 * 
+	 * @return 连接是否可用
+	 */
+	public boolean warmUp() {
+		return this.ensureSession();
+	}
+
+	/**
+	 * 没有在途请求，并且超过idleMillis没有读写的话，就关闭连接
+	 * 
+	 * @param idleMillis
+	 *            空闲时间，单位毫秒
+	 * @return 关闭了连接返回true
+	 */
+	boolean closeIfIdle(long idleMillis) {
+		IoSession s = this.session;
+		if (s == null || s.isClosing() || System.currentTimeMillis() - s.getLastIoTime() < idleMillis) {
+			return false;
+		}
+		if (!pending.compareAndSet(0, -1)) {
+			return false;
+		}
+		try {
+			Logs.rpc().debug("close idle session {} for {}", s.getId(), addr);
+			s.closeOnFlush();
+		} finally {
+			pending.set(0);
+		}
+		return true;
+	}
+
 	public static void init() {
 		connectorSupplier.get();
 	}
@@ -19,35 +19,85 @@ import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import org.yx.common.Host;
+import org.yx.conf.AppInfo;
+import org.yx.log.Logs;
+import org.yx.rpc.client.route.HostChecker;
+import org.yx.util.Task;
 
+/**
+ * 每个服务端对应一个连接池，连接数由sumk.rpc.client.connections.per.host指定
+ */
 public class ReqSessionHolder {
-	private static ConcurrentMap<Host, ReqSession> sessions = new ConcurrentHashMap<>();
+	private static ConcurrentMap<Host, ReqSessionPool> sessions = new ConcurrentHashMap<>();
+
+	static {
+		long period = AppInfo.getLong("sumk.rpc.client.connections.drain.period", 30_000L);
+		Task.scheduleAtFixedRate(ReqSessionHolder::drain, period, period, TimeUnit.MILLISECONDS);
+	}
 
-	public static void addClientIfAbsent(Host url, ReqSession s) {
+	private static int connectionsPerHost() {
+		return Math.max(AppInfo.getInt("sumk.rpc.client.connections.per.host", 1), 1);
+	}
+
+	public static void addClientIfAbsent(Host url, ReqSessionPool s) {
 		sessions.putIfAbsent(url, s);
 	}
 
-	public static boolean remove(Host url, ReqSession expect) {
+	public static boolean remove(Host url, ReqSessionPool expect) {
 		return sessions.remove(url, expect);
 	}
 
-	public static ReqSession getSession(Host url) {
-		ReqSession obj = sessions.get(url);
+	public static ReqSessionPool getPool(Host url) {
+		ReqSessionPool obj = sessions.get(url);
 		if (obj != null) {
 			return obj;
 		}
-		ReqSession ses = new ReqSession(url);
-		ReqSession ses0 = sessions.putIfAbsent(url, ses);
-		if (ses0 == null) {
-			return ses;
+		ReqSessionPool pool = new ReqSessionPool(url, connectionsPerHost());
+		ReqSessionPool pool0 = sessions.putIfAbsent(url, pool);
+		return pool0 == null ? pool : pool0;
+	}
+
+	/**
+	 * 获取在途请求最少的连接，它的在途请求数已经加了1
+	 */
+	static ReqSession getSession(Host url) {
+		return getPool(url).acquire();
+	}
+
+	/**
+	 * 在后台线程中预先建立连接，连接数由sumk.rpc.client.connections.warm指定
+	 * 
+	 * @param url
+	 *            服务端地址
+	 */
+	public static void warmUp(Host url) {
+		int count = AppInfo.getInt("sumk.rpc.client.connections.warm", 1);
+		if (count < 1 || HostChecker.get().isDowned(url)) {
+			return;
+		}
+		ReqSessionPool pool = getPool(url);
+		try {
+			Rpc.clientExecutor().execute(() -> pool.warmUp(count));
+		} catch (RejectedExecutionException e) {
+			Logs.rpc().warn("warm up {} rejected", url);
+		}
+	}
+
+	private static void drain() {
+		long idle = AppInfo.getLong("sumk.rpc.client.connections.idle", 60_000L);
+		for (ReqSessionPool pool : sessions.values()) {
+			int count = pool.drain(idle);
+			if (count > 0) {
+				Logs.rpc().debug("{} idle sessions of {} closed", count, pool.host());
+			}
 		}
-		ses.closeOnFlush();
-		return ses0;
 	}
 
-	public static Map<Host, ReqSession> view() {
+	public static Map<Host, ReqSessionPool> view() {
 		return Collections.unmodifiableMap(sessions);
 	}
 
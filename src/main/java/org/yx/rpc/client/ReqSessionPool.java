@@ -0,0 +1,158 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.client;
+
+import java.util.Objects;
+
+import org.yx.common.Host;
+import org.yx.exception.SoaException;
+import org.yx.rpc.RpcErrorCode;
+
+/**
+ * 同一个服务端的多个连接。发送时选择在途请求最少的连接，优先使用已建立的连接，只有在已有连接都有在途请求的时候，才会建立新连接
+ */
+public final class ReqSessionPool {
+
+	/**
+	 * 所有连接都在回收中的时候，最多重试的次数
+	 */
+	private static final int MAX_RETRY = 100;
+
+	private final Host addr;
+	private final ReqSession[] sessions;
+
+	public ReqSessionPool(Host host, int size) {
+		this.addr = Objects.requireNonNull(host);
+		this.sessions = new ReqSession[Math.max(size, 1)];
+		for (int i = 0; i < sessions.length; i++) {
+			sessions[i] = new ReqSession(host);
+		}
+	}
+
+	public Host host() {
+		return this.addr;
+	}
+
+	public int size() {
+		return sessions.length;
+	}
+
+	/**
+	 * 选择在途请求最少的连接，并将它的在途请求数加1。请求结束后要调用ReqSession.release()
+	 * 
+	 * @return 被选中的连接，不会为null
+	 * @throws SoaException
+	 *             重试多次后，所有连接仍在回收中
+	 */
+	ReqSession acquire() {
+		for (int retry = 0; retry < MAX_RETRY; retry++) {
+			ReqSession best = null;
+			int min = Integer.MAX_VALUE;
+			boolean bestIdle = true;
+			for (ReqSession s : sessions) {
+				int p = s.pending();
+				if (p < 0) {
+					continue;
+				}
+				boolean idle = s.isIdle();
+				if (p < min || (p == min && bestIdle && !idle)) {
+					best = s;
+					min = p;
+					bestIdle = idle;
+				}
+			}
+			if (best != null && best.tryAcquire()) {
+				return best;
+			}
+			Thread.yield();
+		}
+		throw new SoaException(RpcErrorCode.SEND_FAILED, addr + " has no available session", null);
+	}
+
+	/**
+	 * 预先建立连接
+	 * 
+	 * @param count
+	 *            要建立的连接数
+	 */
+	public void warmUp(int count) {
+		int n = Math.min(count, sessions.length);
+		for (int i = 0; i < n; i++) {
+			if (!sessions[i].isIdle()) {
+				continue;
+			}
+			if (!sessions[i].warmUp()) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * 关闭空闲的多余连接，第一个连接不在这里关闭
+	 * 
+	 * @param idleMillis
+	 *            空闲时间，单位毫秒
+	 * @return 被关闭的连接数
+	 */
+	public int drain(long idleMillis) {
+		int count = 0;
+		for (int i = 1; i < sessions.length; i++) {
+			if (sessions[i].closeIfIdle(idleMillis)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	public boolean isIdle() {
+		for (ReqSession s : sessions) {
+			if (!s.isIdle()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public int pending() {
+		int sum = 0;
+		for (ReqSession s : sessions) {
+			sum += Math.max(s.pending(), 0);
+		}
+		return sum;
+	}
+
+	public int connected() {
+		int count = 0;
+		for (ReqSession s : sessions) {
+			if (!s.isIdle()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	public void closeOnFlush() {
+		for (ReqSession s : sessions) {
+			s.closeOnFlush();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return new StringBuilder().append(addr).append(" connected:").append(connected()).append('/')
+				.append(sessions.length).append(" pending:").append(pending()).toString();
+	}
+}
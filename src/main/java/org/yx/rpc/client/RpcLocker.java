@@ -26,10 +26,13 @@ import org.apache.mina.core.future.WriteFuture;
 import org.yx.common.Host;
 import org.yx.common.context.ActionContext;
 import org.yx.common.context.LogContext;
+import org.yx.common.thread.HashedWheelTimer;
+import org.yx.exception.CodeException;
 import org.yx.exception.SoaException;
 import org.yx.log.Logs;
 import org.yx.rpc.RpcErrorCode;
 import org.yx.rpc.client.route.HostChecker;
+import org.yx.rpc.client.route.HostLoads;
 import org.yx.rpc.log.RpcLog;
 import org.yx.rpc.log.RpcLogs;
 
@@ -41,6 +44,10 @@ public final class RpcLocker implements IoFutureListener<WriteFuture> {
 	private Host url;
 	final Consumer<RpcCallInfo> callback;
 	private final LogContext originLogContext;
+	volatile HashedWheelTimer.Timeout timeout;
+	volatile boolean legacy;
+	private final AtomicReference<ReqSession> session = new AtomicReference<>();
+	private volatile long sendTime;
 
 	private final AtomicReference<Thread> awaitThread = new AtomicReference<>();
 
@@ -62,6 +69,38 @@ public final class RpcLocker implements IoFutureListener<WriteFuture> {
 		return url;
 	}
 
+	void session(ReqSession s) {
+		this.session.set(s);
+	}
+
+	/**
+	 * 释放连接上的在途计数，多次调用只生效一次
+	 */
+	void releaseSession() {
+		ReqSession s = this.session.getAndSet(null);
+		if (s != null) {
+			s.release();
+		}
+	}
+
+	/**
+	 * 请求即将发往url，用于统计服务端的负载
+	 */
+	void markSend() {
+		this.sendTime = System.currentTimeMillis();
+		HostLoads.onSend(url);
+	}
+
+	private static boolean isCommunicationFailed(RpcResult result) {
+		CodeException e = result.exception();
+		if (e == null || e.getClass() != SoaException.class) {
+			return false;
+		}
+		int code = e.getCode();
+		return code == RpcErrorCode.TIMEOUT || code == RpcErrorCode.SEND_FAILED
+				|| code == RpcErrorCode.THREAD_THRESHOLD_OVER || code == RpcErrorCode.CONCURRENCY_LIMITED;
+	}
+
 	public boolean isWaked() {
 		return this.result.get() != null;
 	}
@@ -82,11 +121,14 @@ public final class RpcLocker implements IoFutureListener<WriteFuture> {
 		if (!this.result.compareAndSet(null, result)) {
 			return;
 		}
+		long receiveTime = System.currentTimeMillis();
+		if (this.sendTime > 0) {
+			HostLoads.onComplete(this.url, receiveTime - this.sendTime, isCommunicationFailed(result));
+		}
 		if (!finish) {
 			return;
 		}
 
-		long receiveTime = System.currentTimeMillis();
 		Thread thread = awaitThread.getAndSet(null);
 		if (thread != null) {
 			LockSupport.unpark(thread);
@@ -112,7 +154,7 @@ public final class RpcLocker implements IoFutureListener<WriteFuture> {
 			return;
 		}
 		Rpc.clientExecutor().execute(() -> {
-			if (LockHolder.remove(req.getSn()) == null) {
+			if (LockHolder.remove(req.getId()) == null) {
 				return;
 			}
 			if (url != null) {
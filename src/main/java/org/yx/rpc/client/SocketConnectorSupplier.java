@@ -29,6 +29,7 @@ import org.yx.conf.AppInfo;
 import org.yx.conf.Const;
 import org.yx.exception.SumkException;
 import org.yx.log.Logs;
+import org.yx.rpc.codec.IoBufferRecycleFilter;
 import org.yx.rpc.codec.SumkCodecFactory;
 import org.yx.util.ExceptionUtil;
 
@@ -55,6 +56,7 @@ public class SocketConnectorSupplier implements Supplier<SocketConnector> {
 			con.setConnectTimeoutMillis(AppInfo.getInt("sumk.rpc.connect.timeout", 5000));
 			con.getSessionConfig().setIdleTime(IdleStatus.BOTH_IDLE, AppInfo.getInt(Const.SOA_SESSION_IDLE, 600));
 			con.setHandler(createClientHandler());
+			con.getFilterChain().addLast("recycle", new IoBufferRecycleFilter());
 			con.getFilterChain().addLast("codec", new ProtocolCodecFilter(IOC.get(SumkCodecFactory.class)));
 			if (AppInfo.getBoolean("sumk.rpc.client.threadpool.enable", true)) {
 				con.getFilterChain().addLast("threadpool", new ExecutorFilter(Rpc.clientExecutor()));
@@ -17,10 +17,12 @@ package org.yx.rpc.client.intf;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.yx.annotation.spec.SoaClientConfigSpec;
 import org.yx.annotation.spec.Specs;
@@ -72,6 +74,9 @@ public class IntfClientHandler implements InvocationHandler {
 	protected Object onInvoke(Object proxy, Method method, Object[] args) throws Exception {
 		SoaClientConfigSpec sc = map.get(method.getName());
 		Client client = Rpc.create(getApi(method));
+		if (sc != null && sc.compactParam()) {
+			client.compactParam(true);
+		}
 		client.paramInArray(args);
 		if (sc != null) {
 			if (sc.timeout() > 0) {
@@ -81,15 +86,49 @@ public class IntfClientHandler implements InvocationHandler {
 				client.tryCount(sc.tryCount());
 			}
 		}
+		if (method.getReturnType() == CompletableFuture.class) {
+			Type type = futureValueType(method.getGenericReturnType());
+			return client.executeAsync().thenApply(result -> {
+				result.throwIfException();
+				return parseResult(result.json(), type, rawClass(type));
+			});
+		}
 		String json = client.execute().getOrException();
-		if (json == null || method.getReturnType() == Void.TYPE) {
+		if (method.getReturnType() == Void.TYPE) {
+			return null;
+		}
+		return parseResult(json, method.getGenericReturnType(), method.getReturnType());
+	}
+
+	/**
+	 * 返回值类型是CompletableFuture&lt;T&gt;的时候，返回T
+	 * 
+	 * @param futureType
+	 *            CompletableFuture的泛型类型
+	 * @return T的类型，没有泛型的话就是Object.class
+	 */
+	public static Type futureValueType(Type futureType) {
+		if (futureType instanceof ParameterizedType) {
+			return ((ParameterizedType) futureType).getActualTypeArguments()[0];
+		}
+		return Object.class;
+	}
+
+	private static Class<?> rawClass(Type type) {
+		if (type instanceof ParameterizedType) {
+			type = ((ParameterizedType) type).getRawType();
+		}
+		return type instanceof Class ? (Class<?>) type : Object.class;
+	}
+
+	protected Object parseResult(String json, Type type, Class<?> rawClass) {
+		if (json == null || rawClass == Void.class) {
 			return null;
 		}
-		String gen = method.getGenericReturnType().getTypeName();
-		Type type = JsonTypes.get(gen);
-		if (type == null) {
-			return S.json().fromJson(json, method.getReturnType());
+		Type t = JsonTypes.get(type.getTypeName());
+		if (t == null) {
+			return S.json().fromJson(json, rawClass);
 		}
-		return S.json().fromJson(json, type);
+		return S.json().fromJson(json, t);
 	}
 }
@@ -28,6 +28,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 
 import org.slf4j.Logger;
@@ -129,6 +130,9 @@ public class SoaClientFactory implements FactoryBean {
 	private void registeGenericReturnType(Method[] ms) {
 		for (Method m : ms) {
 			Type genericReturnType = m.getGenericReturnType();
+			if (m.getReturnType() == CompletableFuture.class) {
+				genericReturnType = IntfClientHandler.futureValueType(genericReturnType);
+			}
 			if (genericReturnType instanceof ParameterizedType) {
 				JsonTypes.registe(genericReturnType);
 			}
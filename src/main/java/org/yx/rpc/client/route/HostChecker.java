@@ -15,31 +15,60 @@
  */
 package org.yx.rpc.client.route;
 
-import java.net.Socket;
-import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.yx.common.Host;
 import org.yx.conf.AppInfo;
 import org.yx.log.Logs;
+import org.yx.rpc.codec.Protocols;
 import org.yx.util.Task;
 
+/**
+ * 不可用节点的管理。所有不可用节点并行地做非阻塞探测，每个节点的探测间隔按失败次数指数退避。<BR>
+ * 节点恢复后立即刷新路由，并预先建立连接
+ */
 public class HostChecker {
 
 	private static final HostChecker holder = new HostChecker();
 
 	private HostChecker() {
-		Task.scheduleAtFixedRate(new Checker(), 5, AppInfo.getInt("sumk.rpc.hosts.check.period", 3), TimeUnit.SECONDS);
+		Task.scheduleAtFixedRate(this::check, 1000, AppInfo.getInt("sumk.rpc.hosts.check.tick", 200),
+				TimeUnit.MILLISECONDS);
 	}
 
 	public static HostChecker get() {
 		return holder;
 	}
 
-	private final ConcurrentHashMap<Host, Long> downUrls = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Host, DownHost> downUrls = new ConcurrentHashMap<>();
+	private final HostProber prober = new HostProber();
+
+	private static final class DownHost {
+		final long downTime = System.currentTimeMillis();
+		final AtomicBoolean probing = new AtomicBoolean();
+		volatile long nextProbeTime = downTime + minBackoff();
+		int failCount;
+	}
+
+	private static long minBackoff() {
+		return AppInfo.getLong("sumk.rpc.hosts.check.backoff.min", 500);
+	}
+
+	private static long backoff(int failCount) {
+		long min = minBackoff();
+		long max = Math.max(AppInfo.getLong("sumk.rpc.hosts.check.backoff.max", 10_000), min);
+		long v = min << Math.min(failCount, 20);
+		if (v <= 0 || v > max) {
+			v = max;
+		}
+		return v + ThreadLocalRandom.current().nextLong(v / 5 + 1);
+	}
 
 	public boolean isDowned(Host url) {
 		return downUrls.containsKey(url);
@@ -61,58 +90,48 @@ public class HostChecker {
 			Logs.rpc().warn("url is null");
 			return;
 		}
-		downUrls.putIfAbsent(url, System.currentTimeMillis());
-		Logs.rpc().info("{} is down", url);
+		if (downUrls.putIfAbsent(url, new DownHost()) == null) {
+			Logs.rpc().info("{} is down", url);
+		}
 	}
 
-	private class Checker implements Runnable {
-
-		private int getTimeOut(int urlSize) {
-			if (urlSize == 1) {
-				return AppInfo.getInt("sumk.rpc.socket.connecttimeout.1", 3000);
-			} else if (urlSize == 2) {
-				return AppInfo.getInt("sumk.rpc.socket.connecttimeout.2", 2500);
-			} else if (urlSize > 5) {
-				return AppInfo.getInt("sumk.rpc.socket.connecttimeout.5", 1000);
-			}
-			return AppInfo.getInt("sumk.rpc.socket.connecttimeout.3", 2000);
+	private void check() {
+		if (downUrls.isEmpty()) {
+			return;
 		}
-
-		@Override
-		public void run() {
-			if (downUrls.isEmpty()) {
-				return;
-			}
-			Host[] urls = downUrls.keySet().toArray(new Host[0]);
-			int timeout = getTimeOut(urls.length);
-			long maxDownMilSecond = AppInfo.getLong("sumk.rpc.returnToAlive", 1000L * 60 * 10);
-			long now = System.currentTimeMillis();
-			for (Host url : urls) {
-				Long addTime = downUrls.get(url);
-				if (addTime != null) {
-					long passedTime = now - addTime;
-					if (passedTime > maxDownMilSecond) {
-						downUrls.remove(url);
-						Logs.rpc().debug("{} remove from checker because it has been retried for {}ms", url,
-								passedTime);
-						continue;
-					}
-				}
-				try (Socket socket = new Socket()) {
-
-					socket.connect(url.toInetSocketAddress(), timeout);
-					if (socket.isConnected()) {
-						downUrls.remove(url);
-						Logs.rpc().info("{} reconected", url);
-					}
-				} catch (UnknownHostException e) {
-					Logs.rpc().error(e.getMessage(), e);
-				} catch (Exception e) {
+		long maxDownMilSecond = AppInfo.getLong("sumk.rpc.returnToAlive", 1000L * 60 * 10);
+		int timeout = AppInfo.getInt("sumk.rpc.hosts.check.timeout", 2000);
+		boolean pingEnable = AppInfo.getBoolean("sumk.rpc.hosts.check.ping", true);
+		long now = System.currentTimeMillis();
+		for (Map.Entry<Host, DownHost> entry : downUrls.entrySet()) {
+			Host url = entry.getKey();
+			DownHost down = entry.getValue();
+			long passedTime = now - down.downTime;
+			if (passedTime > maxDownMilSecond) {
+				if (downUrls.remove(url, down)) {
+					Logs.rpc().debug("{} remove from checker because it has been retried for {}ms", url, passedTime);
 				}
+				continue;
 			}
-
+			if (down.nextProbeTime > now || !down.probing.compareAndSet(false, true)) {
+				continue;
+			}
+			boolean ping = pingEnable && Protocols.hasFeature(RpcRoutes.getServerProtocol(url), Protocols.PING);
+			prober.probe(url, ping, timeout, success -> this.afterProbe(url, down, success));
 		}
+	}
 
+	private void afterProbe(Host url, DownHost down, boolean success) {
+		if (success) {
+			if (downUrls.remove(url, down)) {
+				Logs.rpc().info("{} reconected after {} failed probes", url, down.failCount);
+				RpcRoutes.onHostRecovered(url);
+			}
+			return;
+		}
+		down.failCount++;
+		down.nextProbeTime = System.currentTimeMillis() + backoff(down.failCount);
+		down.probing.set(false);
 	}
 
 }
@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.client.route;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.yx.common.Host;
+import org.yx.conf.AppInfo;
+
+/**
+ * 客户端统计的各个服务端的负载，包括在途请求数和响应时间的指数加权平均值(EWMA)。<BR>
+ * 响应时间超过平均值的时候直接取该值(peak EWMA)，这样变慢的节点能很快被发现
+ */
+public final class HostLoads {
+
+	private static final ConcurrentHashMap<Host, HostLoad> loads = new ConcurrentHashMap<>();
+
+	public static final class HostLoad {
+		private final AtomicInteger inflight = new AtomicInteger();
+
+		/**
+		 * 保存的是Double.doubleToRawLongBits(ewma)，单位是毫秒
+		 */
+		private final AtomicLong ewma = new AtomicLong(Double.doubleToRawLongBits(0));
+		private volatile long lastUpdate = System.nanoTime();
+
+		public int inflight() {
+			return inflight.get();
+		}
+
+		public double ewma() {
+			return Double.longBitsToDouble(ewma.get());
+		}
+
+		void update(long rtt) {
+			long now = System.nanoTime();
+			long elapsed = Math.max(now - lastUpdate, 0);
+			lastUpdate = now;
+			double w = Math.exp(-elapsed / (decayMillis() * 1_000_000d));
+			while (true) {
+				long old = ewma.get();
+				double prev = Double.longBitsToDouble(old);
+				double v = rtt > prev ? rtt : prev * w + rtt * (1 - w);
+				if (ewma.compareAndSet(old, Double.doubleToRawLongBits(v))) {
+					return;
+				}
+			}
+		}
+
+		/**
+		 * 负载值，越小越好
+		 */
+		public double cost() {
+			return (ewma() + 1) * (inflight() + 1);
+		}
+
+		@Override
+		public String toString() {
+			return "inflight:" + inflight() + " ewma:" + String.format("%.2f", ewma()) + "ms";
+		}
+	}
+
+	private static double decayMillis() {
+		return Math.max(AppInfo.getInt("sumk.rpc.router.ewma.decay", 10_000), 1);
+	}
+
+	public static HostLoad get(Host host) {
+		HostLoad load = loads.get(host);
+		if (load != null) {
+			return load;
+		}
+		return loads.computeIfAbsent(host, h -> new HostLoad());
+	}
+
+	public static double cost(Host host) {
+		HostLoad load = loads.get(host);
+		return load == null ? 1 : load.cost();
+	}
+
+	public static void onSend(Host host) {
+		get(host).inflight.incrementAndGet();
+	}
+
+	/**
+	 * 请求结束的时候调用，每次onSend对应一次onComplete
+	 * 
+	 * @param host
+	 *            服务端地址
+	 * @param rtt
+	 *            响应时间，单位毫秒
+	 * @param failed
+	 *            是否是通信失败。失败的话，响应时间至少按sumk.rpc.router.ewma.penalty计算
+	 */
+	public static void onComplete(Host host, long rtt, boolean failed) {
+		HostLoad load = loads.get(host);
+		if (load == null) {
+			return;
+		}
+		load.inflight.decrementAndGet();
+		if (failed) {
+			rtt = Math.max(rtt, AppInfo.getInt("sumk.rpc.router.ewma.penalty", 1000));
+		}
+		load.update(rtt);
+	}
+
+	/**
+	 * 节点恢复后，清除之前通信失败时累积的响应时间
+	 */
+	static void recovered(Host host) {
+		HostLoad load = loads.get(host);
+		if (load != null) {
+			load.ewma.set(Double.doubleToRawLongBits(0));
+		}
+	}
+
+	static void retain(Set<Host> hosts) {
+		loads.keySet().retainAll(hosts);
+	}
+
+	public static Map<Host, HostLoad> view() {
+		return Collections.unmodifiableMap(loads);
+	}
+}
@@ -0,0 +1,215 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.client.route;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+import org.yx.common.Host;
+import org.yx.log.Logs;
+import org.yx.rpc.server.PingFilter;
+
+/**
+ * 用一个selector线程以非阻塞的方式同时探测多个节点。<BR>
+ * 只建立tcp连接就算成功；ping为true的时候，还要收到服务端对心跳帧的应答。结果在探测线程里回调
+ */
+final class HostProber implements Runnable {
+
+	private final Queue<Probe> newProbes = new ConcurrentLinkedQueue<>();
+	private Selector selector;
+
+	private static final class Probe {
+		final Host host;
+		final boolean ping;
+		final long deadline;
+		final Consumer<Boolean> callback;
+		final ByteBuffer buffer = ByteBuffer.allocate(8);
+		SocketChannel channel;
+		boolean done;
+
+		Probe(Host host, boolean ping, long deadline, Consumer<Boolean> callback) {
+			this.host = host;
+			this.ping = ping;
+			this.deadline = deadline;
+			this.callback = callback;
+		}
+	}
+
+	/**
+	 * 异步探测，不会阻塞当前线程
+	 * 
+	 * @param host
+	 *            被探测的节点
+	 * @param ping
+	 *            是否发送心跳帧
+	 * @param timeout
+	 *            超时时间，单位毫秒
+	 * @param callback
+	 *            参数为true表示节点可用
+	 */
+	void probe(Host host, boolean ping, int timeout, Consumer<Boolean> callback) {
+		Selector s;
+		try {
+			s = this.selector();
+		} catch (IOException e) {
+			Logs.rpc().error("open selector failed", e);
+			callback.accept(false);
+			return;
+		}
+		newProbes.offer(new Probe(host, ping, System.currentTimeMillis() + timeout, callback));
+		s.wakeup();
+	}
+
+	private synchronized Selector selector() throws IOException {
+		if (this.selector == null) {
+			this.selector = Selector.open();
+			Thread t = new Thread(this, "sumk-rpc-prober");
+			t.setDaemon(true);
+			t.start();
+		}
+		return this.selector;
+	}
+
+	@Override
+	public void run() {
+		while (true) {
+			try {
+				selector.select(100);
+				this.register();
+				this.processSelected();
+				this.expire();
+			} catch (Throwable e) {
+				Logs.rpc().error("host prober error", e);
+			}
+		}
+	}
+
+	private void register() {
+		Probe p;
+		while ((p = newProbes.poll()) != null) {
+			try {
+				p.channel = SocketChannel.open();
+				p.channel.configureBlocking(false);
+				if (p.channel.connect(p.host.toInetSocketAddress())) {
+					this.connected(p, p.channel.register(selector, 0, p));
+				} else {
+					p.channel.register(selector, SelectionKey.OP_CONNECT, p);
+				}
+			} catch (Exception e) {
+				this.finish(p, null, false);
+			}
+		}
+	}
+
+	private void processSelected() {
+		Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+		while (it.hasNext()) {
+			SelectionKey key = it.next();
+			it.remove();
+			Probe p = (Probe) key.attachment();
+			try {
+				if (!key.isValid()) {
+					this.finish(p, key, false);
+					continue;
+				}
+				if (key.isConnectable()) {
+					if (p.channel.finishConnect()) {
+						this.connected(p, key);
+					}
+					continue;
+				}
+				if (key.isWritable()) {
+					this.write(p, key);
+					continue;
+				}
+				if (key.isReadable()) {
+					this.read(p, key);
+				}
+			} catch (Exception e) {
+				this.finish(p, key, false);
+			}
+		}
+	}
+
+	private void connected(Probe p, SelectionKey key) throws IOException {
+		if (!p.ping) {
+			this.finish(p, key, true);
+			return;
+		}
+		p.buffer.putInt(PingFilter.PING_REQUEST).putInt(0).flip();
+		this.write(p, key);
+	}
+
+	private void write(Probe p, SelectionKey key) throws IOException {
+		p.channel.write(p.buffer);
+		if (p.buffer.hasRemaining()) {
+			key.interestOps(SelectionKey.OP_WRITE);
+			return;
+		}
+		p.buffer.clear();
+		key.interestOps(SelectionKey.OP_READ);
+	}
+
+	private void read(Probe p, SelectionKey key) throws IOException {
+		if (p.channel.read(p.buffer) < 0) {
+			this.finish(p, key, false);
+			return;
+		}
+		if (p.buffer.hasRemaining()) {
+			return;
+		}
+		this.finish(p, key, p.buffer.getInt(0) == PingFilter.PING_RESPONSE);
+	}
+
+	private void expire() {
+		long now = System.currentTimeMillis();
+		for (SelectionKey key : selector.keys()) {
+			Probe p = (Probe) key.attachment();
+			if (p != null && p.deadline < now) {
+				this.finish(p, key, false);
+			}
+		}
+	}
+
+	private void finish(Probe p, SelectionKey key, boolean success) {
+		if (p.done) {
+			return;
+		}
+		p.done = true;
+		if (key != null) {
+			key.cancel();
+		}
+		try {
+			if (p.channel != null) {
+				p.channel.close();
+			}
+		} catch (IOException e) {
+			Logs.rpc().debug("close probe channel of {} failed,{}", p.host, e.toString());
+		}
+		try {
+			p.callback.accept(success);
+		} catch (Throwable e) {
+			Logs.rpc().error(e.getLocalizedMessage(), e);
+		}
+	}
+}
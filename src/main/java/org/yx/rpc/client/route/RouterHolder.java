@@ -23,11 +23,26 @@ import org.yx.common.Host;
 import org.yx.common.route.Router;
 import org.yx.common.route.Routes;
 import org.yx.common.route.WeightedServer;
+import org.yx.conf.AppInfo;
 
 public final class RouterHolder {
 
-	private static BiFunction<String, Collection<WeightedServer<Host>>, Router<Host>> routerFactory = (api,
-			servers) -> Routes.createWeightedRouter(servers);
+	public static final String WEIGHTED = "weighted";
+	public static final String P2C = "p2c";
+
+	private static BiFunction<String, Collection<WeightedServer<Host>>, Router<Host>> routerFactory = RouterHolder::defaultRouter;
+
+	/**
+	 * 路由策略先取sumk.rpc.router.接口名，再取sumk.rpc.router，默认是weighted。<BR>
+	 * p2c表示根据客户端统计的响应时间和在途请求数，从随机挑选的两个节点中选负载小的那个
+	 */
+	public static Router<Host> defaultRouter(String api, Collection<WeightedServer<Host>> servers) {
+		String strategy = AppInfo.get("sumk.rpc.router." + api, "sumk.rpc.router", WEIGHTED);
+		if (P2C.equalsIgnoreCase(strategy)) {
+			return Routes.createP2CRouter(servers, HostLoads::cost);
+		}
+		return Routes.createWeightedRouter(servers);
+	}
 
 	public static void set(BiFunction<String, Collection<WeightedServer<Host>>, Router<Host>> factory) {
 		RouterHolder.routerFactory = Objects.requireNonNull(factory);
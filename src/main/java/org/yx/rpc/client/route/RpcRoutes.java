@@ -26,7 +26,7 @@ import org.yx.common.Host;
 import org.yx.common.route.Router;
 import org.yx.common.route.WeightedServer;
 import org.yx.log.Log;
-import org.yx.rpc.client.ReqSession;
+import org.yx.rpc.client.ReqSessionPool;
 import org.yx.rpc.client.ReqSessionHolder;
 import org.yx.rpc.data.IntfInfo;
 import org.yx.rpc.data.RouteInfo;
@@ -117,18 +117,43 @@ public final class RpcRoutes {
 				routes.put(method, route);
 			}
 		}
+		Set<Host> old = servers();
 		_refresh(datas, routes);
+		warmUpReqSession(old);
 		cleanReqSession();
+		HostLoads.retain(servers());
+	}
+
+	/**
+	 * 节点从不可用状态恢复。重建路由，使之重新参与负载均衡，并预先建立连接
+	 * 
+	 * @param url
+	 *            恢复的节点
+	 */
+	public static synchronized void onHostRecovered(Host url) {
+		HostLoads.recovered(url);
+		if (ROUTE.protocols.containsKey(url)) {
+			refresh(ROUTE.zkDatas);
+		}
+		ReqSessionHolder.warmUp(url);
+	}
+
+	private static void warmUpReqSession(Set<Host> old) {
+		for (Host h : servers()) {
+			if (!old.contains(h)) {
+				ReqSessionHolder.warmUp(h);
+			}
+		}
 	}
 
 	private static void cleanReqSession() {
 		Set<Host> current = servers();
-		Map<Host, ReqSession> map = ReqSessionHolder.view();
+		Map<Host, ReqSessionPool> map = ReqSessionHolder.view();
 		for (Host h : map.keySet()) {
 			if (current.contains(h)) {
 				continue;
 			}
-			ReqSession session = map.get(h);
+			ReqSessionPool session = map.get(h);
 			if (session == null || !session.isIdle()) {
 				continue;
 			}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.codec;
+
+import java.lang.reflect.Type;
+import java.util.function.Function;
+
+import org.yx.asm.Parameters;
+import org.yx.rpc.RpcJson;
+
+/**
+ * 根据ParamPojo的参数类型预先生成的转换器，调用的时候不需要再做类型判断或反射
+ */
+public final class CompactParamSchema {
+
+	private final Type[] types;
+	private final Function<Object, Object>[] converters;
+
+	public CompactParamSchema(Parameters params) {
+		int len = params.paramLength();
+		this.types = new Type[len];
+		@SuppressWarnings("unchecked")
+		Function<Object, Object>[] cs = (Function<Object, Object>[]) new Function<?, ?>[len];
+		this.converters = cs;
+		for (int i = 0; i < len; i++) {
+			Type type = params.getParamType(i);
+			types[i] = type;
+			converters[i] = createConverter(type);
+		}
+	}
+
+	public int paramLength() {
+		return this.types.length;
+	}
+
+	Object convert(int index, Object value) {
+		return converters[index].apply(value);
+	}
+
+	Object fromJson(int index, String json) {
+		return RpcJson.server().fromJson(json, types[index]);
+	}
+
+	private static Function<Object, Object> createConverter(Type type) {
+		Function<Object, Object> byJson = v -> RpcJson.server().fromJson(RpcJson.server().toJson(v), type);
+		if (!(type instanceof Class)) {
+			return byJson;
+		}
+		Class<?> clz = (Class<?>) type;
+		if (clz == int.class || clz == Integer.class) {
+			return v -> v instanceof Number ? ((Number) v).intValue() : byJson.apply(v);
+		}
+		if (clz == long.class || clz == Long.class) {
+			return v -> v instanceof Number ? ((Number) v).longValue() : byJson.apply(v);
+		}
+		if (clz == short.class || clz == Short.class) {
+			return v -> v instanceof Number ? ((Number) v).shortValue() : byJson.apply(v);
+		}
+		if (clz == byte.class || clz == Byte.class) {
+			return v -> v instanceof Number ? ((Number) v).byteValue() : byJson.apply(v);
+		}
+		if (clz == double.class || clz == Double.class) {
+			return v -> v instanceof Number ? ((Number) v).doubleValue() : byJson.apply(v);
+		}
+		if (clz == float.class || clz == Float.class) {
+			return v -> v instanceof Number ? ((Number) v).floatValue() : byJson.apply(v);
+		}
+		if (clz == String.class) {
+			return v -> v instanceof String ? v : String.valueOf(v);
+		}
+		if (clz == char.class || clz == Character.class) {
+			return v -> v instanceof Character ? v : byJson.apply(v);
+		}
+		if (clz.isPrimitive()) {
+			return Function.identity();
+		}
+		return v -> clz.isInstance(v) ? v : byJson.apply(v);
+	}
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.yx.common.sumk.UnsafeByteArrayOutputStream;
+import org.yx.exception.SumkException;
+import org.yx.rpc.Profile;
+import org.yx.rpc.RpcJson;
+
+/**
+ * 紧凑的二进制参数格式。参数个数用varint表示，每个参数以一个字节的tag开头。<BR>
+ * 基本类型、String、byte[]直接编码，其它对象使用json，服务端根据CompactParamSchema进行类型转换
+ */
+public final class CompactParams {
+
+	static final byte NULL = 0;
+	static final byte TRUE = 1;
+	static final byte FALSE = 2;
+	static final byte INT = 3;
+	static final byte LONG = 4;
+	static final byte DOUBLE = 5;
+	static final byte FLOAT = 6;
+	static final byte STRING = 7;
+	static final byte BYTES = 8;
+	static final byte CHAR = 9;
+	static final byte SHORT = 10;
+	static final byte BYTE = 11;
+	static final byte JSON = 12;
+
+	private CompactParams() {
+	}
+
+	public static byte[] encode(Object[] args) {
+		if (args == null) {
+			args = new Object[0];
+		}
+		UnsafeByteArrayOutputStream out = new UnsafeByteArrayOutputStream(64 + args.length * 16);
+		writeVarInt(out, args.length);
+		for (Object arg : args) {
+			writeValue(out, arg);
+		}
+		return out.toByteArray();
+	}
+
+	private static void writeValue(UnsafeByteArrayOutputStream out, Object v) {
+		if (v == null) {
+			out.write(NULL);
+			return;
+		}
+		Class<?> clz = v.getClass();
+		if (clz == String.class) {
+			writeBytes(out, STRING, ((String) v).getBytes(Profile.UTF8));
+		} else if (clz == Integer.class) {
+			out.write(INT);
+			writeVarLong(out, zigzag((Integer) v));
+		} else if (clz == Long.class) {
+			out.write(LONG);
+			writeVarLong(out, zigzag((Long) v));
+		} else if (clz == Boolean.class) {
+			out.write(((Boolean) v) ? TRUE : FALSE);
+		} else if (clz == Double.class) {
+			out.write(DOUBLE);
+			writeFixed(out, Double.doubleToRawLongBits((Double) v), 8);
+		} else if (clz == Float.class) {
+			out.write(FLOAT);
+			writeFixed(out, Float.floatToRawIntBits((Float) v), 4);
+		} else if (clz == byte[].class) {
+			writeBytes(out, BYTES, (byte[]) v);
+		} else if (clz == Short.class) {
+			out.write(SHORT);
+			writeVarLong(out, zigzag((Short) v));
+		} else if (clz == Byte.class) {
+			out.write(BYTE);
+			out.write((Byte) v);
+		} else if (clz == Character.class) {
+			out.write(CHAR);
+			writeVarInt(out, (Character) v);
+		} else {
+			writeBytes(out, JSON, RpcJson.client().toJson(v).getBytes(Profile.UTF8));
+		}
+	}
+
+	private static long zigzag(long v) {
+		return (v << 1) ^ (v >> 63);
+	}
+
+	private static long unzigzag(long v) {
+		return (v >>> 1) ^ -(v & 1);
+	}
+
+	private static void writeBytes(UnsafeByteArrayOutputStream out, byte tag, byte[] bs) {
+		out.write(tag);
+		writeVarInt(out, bs.length);
+		out.write(bs, 0, bs.length);
+	}
+
+	private static void writeFixed(UnsafeByteArrayOutputStream out, long v, int bytes) {
+		for (int i = bytes - 1; i >= 0; i--) {
+			out.write((int) (v >>> (i << 3)));
+		}
+	}
+
+	private static void writeVarInt(UnsafeByteArrayOutputStream out, int v) {
+		writeVarLong(out, v & 0xFFFFFFFFL);
+	}
+
+	private static void writeVarLong(UnsafeByteArrayOutputStream out, long v) {
+		while ((v & ~0x7FL) != 0) {
+			out.write((int) ((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+		out.write((int) v);
+	}
+
+	/**
+	 * 按照schema解析参数，返回的数组长度跟schema的参数个数一致
+	 */
+	public static Object[] decode(byte[] data, CompactParamSchema schema) {
+		ByteBuffer buf = ByteBuffer.wrap(data).order(ByteOrder.BIG_ENDIAN);
+		int count = (int) readVarLong(buf);
+		Object[] objs = new Object[schema.paramLength()];
+		for (int i = 0; i < count; i++) {
+			if (i >= objs.length) {
+				skipValue(buf);
+				continue;
+			}
+			objs[i] = readValue(buf, schema, i);
+		}
+		return objs;
+	}
+
+	private static Object readValue(ByteBuffer buf, CompactParamSchema schema, int index) {
+		byte tag = buf.get();
+		switch (tag) {
+		case NULL:
+			return null;
+		case TRUE:
+			return schema.convert(index, Boolean.TRUE);
+		case FALSE:
+			return schema.convert(index, Boolean.FALSE);
+		case INT:
+			return schema.convert(index, (int) unzigzag(readVarLong(buf)));
+		case LONG:
+			return schema.convert(index, unzigzag(readVarLong(buf)));
+		case SHORT:
+			return schema.convert(index, (short) unzigzag(readVarLong(buf)));
+		case BYTE:
+			return schema.convert(index, buf.get());
+		case CHAR:
+			return schema.convert(index, (char) readVarLong(buf));
+		case DOUBLE:
+			return schema.convert(index, buf.getDouble());
+		case FLOAT:
+			return schema.convert(index, buf.getFloat());
+		case STRING:
+			return schema.convert(index, readString(buf));
+		case BYTES: {
+			byte[] bs = new byte[(int) readVarLong(buf)];
+			buf.get(bs);
+			return schema.convert(index, bs);
+		}
+		case JSON:
+			return schema.fromJson(index, readString(buf));
+		default:
+			throw new SumkException(-345761, "unknown compact param tag:" + tag);
+		}
+	}
+
+	private static void skipValue(ByteBuffer buf) {
+		byte tag = buf.get();
+		switch (tag) {
+		case INT:
+		case LONG:
+		case SHORT:
+		case CHAR:
+			readVarLong(buf);
+			return;
+		case BYTE:
+			buf.get();
+			return;
+		case DOUBLE:
+			buf.position(buf.position() + 8);
+			return;
+		case FLOAT:
+			buf.position(buf.position() + 4);
+			return;
+		case STRING:
+		case BYTES:
+		case JSON: {
+			int len = (int) readVarLong(buf);
+			buf.position(buf.position() + len);
+			return;
+		}
+		default:
+			return;
+		}
+	}
+
+	private static String readString(ByteBuffer buf) {
+		int len = (int) readVarLong(buf);
+		String s = new String(buf.array(), buf.arrayOffset() + buf.position(), len, Profile.UTF8);
+		buf.position(buf.position() + len);
+		return s;
+	}
+
+	private static long readVarLong(ByteBuffer buf) {
+		long v = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = buf.get();
+			v |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return v;
+			}
+		}
+		throw new SumkException(-345762, "malformed varint in compact params");
+	}
+}
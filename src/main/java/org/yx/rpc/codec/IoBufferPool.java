@@ -0,0 +1,113 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.codec;
+
+import java.nio.ByteOrder;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.buffer.IoBufferWrapper;
+import org.yx.conf.AppInfo;
+
+/**
+ * 二进制帧使用的direct buffer池。按2的幂次分档，buffer在写完之后由IoBufferRecycleFilter归还
+ */
+public final class IoBufferPool {
+
+	private static final int MIN_SHIFT = 9;
+	private static final int MAX_SHIFT = Math.max(MIN_SHIFT,
+			32 - Integer.numberOfLeadingZeros(AppInfo.getInt("sumk.rpc.buffer.pool.maxcapacity", 64 * 1024) - 1));
+	private static final int MAX_PER_SLOT = AppInfo.getInt("sumk.rpc.buffer.pool.slotsize", 128);
+
+	private static final Slot[] SLOTS = new Slot[MAX_SHIFT - MIN_SHIFT + 1];
+	static {
+		for (int i = 0; i < SLOTS.length; i++) {
+			SLOTS[i] = new Slot(1 << (i + MIN_SHIFT));
+		}
+	}
+
+	private IoBufferPool() {
+	}
+
+	private static int slotIndex(int capacity) {
+		if (capacity <= (1 << MIN_SHIFT)) {
+			return 0;
+		}
+		return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SHIFT;
+	}
+
+	/**
+	 * 返回的buffer是自动扩展、大端的。超出池子最大容量的，返回普通的heap buffer
+	 */
+	public static IoBuffer acquire(int capacity) {
+		int index = slotIndex(capacity);
+		if (index >= SLOTS.length) {
+			return IoBuffer.allocate(capacity, false).setAutoExpand(true).order(ByteOrder.BIG_ENDIAN);
+		}
+		Slot slot = SLOTS[index];
+		PooledIoBuffer buf = slot.queue.poll();
+		if (buf == null) {
+			return new PooledIoBuffer(IoBuffer.allocate(slot.capacity, true), index);
+		}
+		slot.size.decrementAndGet();
+		buf.clear();
+		return buf;
+	}
+
+	public static void release(IoBuffer buffer) {
+		if (!(buffer instanceof PooledIoBuffer)) {
+			return;
+		}
+		PooledIoBuffer buf = (PooledIoBuffer) buffer;
+		Slot slot = SLOTS[buf.slot];
+		if (buf.capacity() != slot.capacity) {
+			return;
+		}
+		if (slot.size.incrementAndGet() > MAX_PER_SLOT) {
+			slot.size.decrementAndGet();
+			return;
+		}
+		slot.queue.offer(buf);
+	}
+
+	public static int pooledCount() {
+		int count = 0;
+		for (Slot slot : SLOTS) {
+			count += slot.size.get();
+		}
+		return count;
+	}
+
+	private static final class Slot {
+		final int capacity;
+		final AtomicInteger size = new AtomicInteger();
+		final ConcurrentLinkedQueue<PooledIoBuffer> queue = new ConcurrentLinkedQueue<>();
+
+		Slot(int capacity) {
+			this.capacity = capacity;
+		}
+	}
+
+	static final class PooledIoBuffer extends IoBufferWrapper {
+		final int slot;
+
+		PooledIoBuffer(IoBuffer buf, int slot) {
+			super(buf.setAutoExpand(true).order(ByteOrder.BIG_ENDIAN));
+			this.slot = slot;
+		}
+	}
+}
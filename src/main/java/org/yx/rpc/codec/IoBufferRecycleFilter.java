@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.codec;
+
+import org.apache.mina.core.filterchain.IoFilterAdapter;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.core.write.WriteRequest;
+
+/**
+ * 要放在codec的前面（靠近io的一端），写完之后把池化的buffer归还
+ */
+public class IoBufferRecycleFilter extends IoFilterAdapter {
+
+	@Override
+	public void messageSent(NextFilter nextFilter, IoSession session, WriteRequest writeRequest) throws Exception {
+		Object message = writeRequest.getMessage();
+		if (message instanceof IoBufferPool.PooledIoBuffer) {
+			IoBufferPool.release((IoBufferPool.PooledIoBuffer) message);
+		}
+		nextFilter.messageSent(session, writeRequest);
+	}
+
+}
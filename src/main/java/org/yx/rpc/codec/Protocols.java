@@ -16,6 +16,7 @@
 package org.yx.rpc.codec;
 
 import static org.yx.rpc.codec.ReqParamType.REQ_PARAM_BYTES;
+import static org.yx.rpc.codec.ReqParamType.REQ_PARAM_COMPACT;
 import static org.yx.rpc.codec.ReqParamType.REQ_PARAM_JSON;
 import static org.yx.rpc.codec.ReqParamType.REQ_PARAM_ORDER;
 
@@ -29,14 +30,42 @@ public final class Protocols {
 
 	public static final int RESPONSE_SPLIT = 0x1_00_00;
 
-	public static final int REQUEST_PARAM_TYPES = REQ_PARAM_JSON | REQ_PARAM_ORDER | REQ_PARAM_BYTES;
+	/**
+	 * 二进制响应帧，字符串以utf-8直接写入，长度前缀为int
+	 */
+	public static final int RESPONSE_BINARY = 0x2_00_00;
 
-	public static final int RESPONSE_ACCEPT_TYPES = RESPONSE_SPLIT;
+	/**
+	 * 二进制请求帧，需要跟参数类型一起使用
+	 */
+	public static final int REQUEST_BINARY = 0x10_00;
+
+	/**
+	 * 多个二进制请求合并成一个帧，服务端拆开后逐个处理、逐个响应
+	 */
+	public static final int REQUEST_BATCH = 0x20_00;
+
+	/**
+	 * 心跳帧，没有body。跟REQUEST一起是探测，跟RESPONSE一起是应答
+	 */
+	public static final int PING = 0x40_00;
+
+	public static final int REQUEST_PARAM_TYPES = REQ_PARAM_JSON | REQ_PARAM_ORDER | REQ_PARAM_BYTES
+			| REQ_PARAM_COMPACT;
+
+	public static final int RESPONSE_ACCEPT_TYPES = RESPONSE_SPLIT | RESPONSE_BINARY;
 
 	public static final int TEST = 0xF0;
 
 	public static int profile() {
-		return REQUEST | RESPONSE | REQUEST_PARAM_TYPES | RESPONSE_ACCEPT_TYPES;
+		return REQUEST | RESPONSE | REQUEST_PARAM_TYPES | RESPONSE_ACCEPT_TYPES | REQUEST_BINARY | REQUEST_BATCH | PING;
+	}
+
+	public static boolean isBinaryFrame(int protocol) {
+		if (hasFeature(protocol, REQUEST)) {
+			return hasFeature(protocol, REQUEST_BINARY);
+		}
+		return hasFeature(protocol, RESPONSE | RESPONSE_BINARY);
 	}
 
 	public static boolean hasFeature(int protocol, int feature) {
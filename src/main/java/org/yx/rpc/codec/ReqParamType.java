@@ -22,4 +22,9 @@ public interface ReqParamType {
 	int REQ_PARAM_ORDER = 0x0200;
 
 	int REQ_PARAM_BYTES = 0x0400;
+
+	/**
+	 * 紧凑的二进制参数，格式见CompactParams。只能在二进制帧中使用
+	 */
+	int REQ_PARAM_COMPACT = 0x0800;
 }
@@ -27,10 +27,23 @@ public class Request extends Req {
 	 */
 	private long startInServer = System.currentTimeMillis();
 
+	/**
+	 * 占用自适应限流名额时的System.nanoTime()，0表示没有占用。不参与序列化
+	 */
+	private transient long limitAcquired;
+
 	public long getStartInServer() {
 		return startInServer;
 	}
 
+	public long getLimitAcquired() {
+		return limitAcquired;
+	}
+
+	public void setLimitAcquired(long limitAcquired) {
+		this.limitAcquired = limitAcquired;
+	}
+
 	public static Request from(Req req) {
 
 		String json = RpcJson.operator().toJson(req);
@@ -16,6 +16,7 @@
 package org.yx.rpc.codec;
 
 import java.nio.charset.CharacterCodingException;
+import java.util.List;
 
 import org.apache.mina.core.buffer.BufferDataException;
 import org.apache.mina.core.buffer.IoBuffer;
@@ -24,12 +25,17 @@ import org.apache.mina.filter.codec.CumulativeProtocolDecoder;
 import org.apache.mina.filter.codec.ProtocolDecoderException;
 import org.apache.mina.filter.codec.ProtocolDecoderOutput;
 import org.yx.annotation.Bean;
+import org.yx.annotation.Inject;
 import org.yx.log.Logs;
 import org.yx.rpc.Profile;
+import org.yx.rpc.codec.decoders.SumkBufferDeserializer;
 
 @Bean
 public class SumkProtocolDecoder extends CumulativeProtocolDecoder {
 
+	@Inject
+	private SumkBufferDeserializer<?>[] bufferDecoders;
+
 	protected boolean innerDecode(IoSession session, IoBuffer in, ProtocolDecoderOutput out)
 			throws CharacterCodingException, ProtocolDecoderException {
 		int protocol = in.getInt();
@@ -52,12 +58,38 @@ public class SumkProtocolDecoder extends CumulativeProtocolDecoder {
 			return false;
 		}
 
+		if (Protocols.isBinaryFrame(protocol)) {
+			IoBuffer slice = in.getSlice(dataSize);
+			Object decoded = this.decodeBinary(protocol, slice);
+			if (decoded instanceof List) {
+				for (Object obj : (List<?>) decoded) {
+					out.write(obj);
+				}
+				return true;
+			}
+			out.write(decoded);
+			return true;
+		}
+
 		byte[] bs = new byte[dataSize];
 		in.get(bs);
 		out.write(new ProtocolObject(protocol, bs));
 		return true;
 	}
 
+	protected Object decodeBinary(int protocol, IoBuffer slice) throws ProtocolDecoderException {
+		for (SumkBufferDeserializer<?> decoder : this.bufferDecoders) {
+			if (decoder.accept(protocol)) {
+				try {
+					return decoder.decode(protocol, slice);
+				} catch (Exception e) {
+					throw new ProtocolDecoderException(e);
+				}
+			}
+		}
+		throw new ProtocolDecoderException("no sumk buffer decoder:" + Integer.toHexString(protocol));
+	}
+
 	@Override
 	protected boolean doDecode(IoSession session, IoBuffer in, ProtocolDecoderOutput out)
 			throws ProtocolDecoderException, CharacterCodingException {
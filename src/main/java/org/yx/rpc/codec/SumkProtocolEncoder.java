@@ -17,6 +17,7 @@ package org.yx.rpc.codec;
 
 import java.nio.ByteOrder;
 import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
 
 import org.apache.mina.core.buffer.IoBuffer;
 import org.apache.mina.core.session.IoSession;
@@ -31,6 +32,8 @@ import org.yx.rpc.codec.encoders.SumkMinaEncoder;
 @Bean
 public class SumkProtocolEncoder implements ProtocolEncoder {
 
+	private static final ThreadLocal<CharsetEncoder> UTF8_ENCODER = ThreadLocal.withInitial(Profile.UTF8::newEncoder);
+
 	@Inject
 	private SumkMinaEncoder[] encoders;
 
@@ -67,7 +70,38 @@ public class SumkProtocolEncoder implements ProtocolEncoder {
 			buffer.putInt(Integer.MIN_VALUE);
 			return;
 		}
-		buffer.putPrefixedString(msg, 4, Profile.UTF8.newEncoder());
+		buffer.putPrefixedString(msg, 4, UTF8_ENCODER.get());
+	}
+
+	/**
+	 * 二进制帧的字符串格式：int类型的字节长度，后面跟utf-8字节。null的长度为-1
+	 */
+	public static void putBinaryString(CharSequence msg, IoBuffer buffer) throws CharacterCodingException {
+		if (msg == null) {
+			buffer.putInt(-1);
+			return;
+		}
+		int lengthIndex = buffer.position();
+		buffer.putInt(0);
+		if (msg.length() > 0) {
+			buffer.putString(msg, UTF8_ENCODER.get());
+		}
+		buffer.putInt(lengthIndex, buffer.position() - lengthIndex - 4);
+	}
+
+	/**
+	 * 从池中获取direct buffer，并预留8个字节的协议头
+	 */
+	public static IoBuffer createBinaryIoBuffer(int strLength) {
+		IoBuffer buffer = IoBufferPool.acquire(strLength + (strLength >> 2) + 64);
+		buffer.position(8);
+		return buffer;
+	}
+
+	public static void writeFrameLength(IoBuffer buffer) {
+		int pos = buffer.position();
+		buffer.putInt(4, pos - 8);
+		buffer.flip();
 	}
 
 	public static IoBuffer createIoBuffer(int strLength) {
@@ -0,0 +1,51 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.codec.decoders;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.yx.annotation.Bean;
+import org.yx.rpc.codec.Protocols;
+import org.yx.rpc.codec.Request;
+
+/**
+ * 将REQUEST_BATCH帧拆成多个请求，每个请求会作为单独的消息交给ServerHandler
+ */
+@Bean
+public class BatchRequestDeserializer implements SumkBufferDeserializer<List<Request>> {
+
+	@Override
+	public boolean accept(int protocol) {
+		return Protocols.hasFeature(protocol, Protocols.REQUEST | Protocols.REQUEST_BINARY | Protocols.REQUEST_BATCH);
+	}
+
+	@Override
+	public List<Request> decode(int protocol, IoBuffer data) throws Exception {
+		int count = data.getShort();
+		List<Request> list = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int paramType = data.getInt();
+			int length = data.getInt();
+			IoBuffer slice = data.getSlice(length);
+			list.add(BinaryRequestDeserializer.decodeRequest(
+					Protocols.MAGIC | Protocols.REQUEST | Protocols.REQUEST_BINARY | paramType, slice));
+		}
+		return list;
+	}
+
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.codec.decoders;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.yx.annotation.Bean;
+import org.yx.rpc.RpcJson;
+import org.yx.rpc.codec.Protocols;
+import org.yx.rpc.codec.ReqParamType;
+import org.yx.rpc.codec.Request;
+
+@Bean
+public class BinaryRequestDeserializer implements SumkBufferDeserializer<Request> {
+
+	@Override
+	public boolean accept(int protocol) {
+		return Protocols.hasFeature(protocol, Protocols.REQUEST | Protocols.REQUEST_BINARY)
+				&& !Protocols.hasFeature(protocol, Protocols.REQUEST_BATCH);
+	}
+
+	@Override
+	public Request decode(int protocol, IoBuffer data) throws Exception {
+		return decodeRequest(protocol, data);
+	}
+
+	static Request decodeRequest(int protocol, IoBuffer data) throws Exception {
+		String reqJson = DeSerializeKits.getBinaryString(data);
+		Request req = RpcJson.operator().fromJson(reqJson, Request.class);
+		if (Protocols.hasFeature(protocol, ReqParamType.REQ_PARAM_JSON)) {
+			req.setParams(ReqParamType.REQ_PARAM_JSON, DeSerializeKits.getBinaryString(data));
+			return req;
+		}
+		if (Protocols.hasFeature(protocol, ReqParamType.REQ_PARAM_COMPACT)) {
+			byte[] bs = new byte[data.getInt()];
+			data.get(bs);
+			req.setParams(ReqParamType.REQ_PARAM_COMPACT, bs);
+			return req;
+		}
+		int len = data.getShort();
+		String[] params = new String[len];
+		for (int i = 0; i < len; i++) {
+			params[i] = DeSerializeKits.getBinaryString(data);
+		}
+		req.setParams(ReqParamType.REQ_PARAM_ORDER, params);
+		return req;
+	}
+
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.codec.decoders;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.yx.annotation.Bean;
+import org.yx.exception.SoaException;
+import org.yx.rpc.codec.Protocols;
+import org.yx.rpc.server.Response;
+import org.yx.util.S;
+
+@Bean
+public class BinaryResponseDeserializer implements SumkBufferDeserializer<Response> {
+
+	@Override
+	public boolean accept(int protocol) {
+		return Protocols.hasFeature(protocol, Protocols.RESPONSE | Protocols.RESPONSE_BINARY);
+	}
+
+	@Override
+	public Response decode(int protocol, IoBuffer data) throws Exception {
+		long id = data.getLong();
+		Response resp = new Response(DeSerializeKits.getBinaryString(data));
+		resp.id(id);
+		resp.json(DeSerializeKits.getBinaryString(data));
+		String exception = DeSerializeKits.getBinaryString(data);
+		if (exception != null) {
+			resp.exception(S.json().fromJson(exception, SoaException.class));
+		}
+		return resp;
+	}
+
+}
@@ -15,10 +15,17 @@
  */
 package org.yx.rpc.codec.decoders;
 
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.yx.rpc.Profile;
 import org.yx.rpc.codec.Protocols;
 
 public final class DeSerializeKits {
 
+	private static final ThreadLocal<CharsetDecoder> UTF8_DECODER = ThreadLocal.withInitial(Profile.UTF8::newDecoder);
+
 	public static int nextSplitIndex(byte[] data, int start) {
 		for (int i = start; i < data.length; i++) {
 			if (data[i] == Protocols.LINE_SPLIT_BYTE) {
@@ -27,4 +34,29 @@ public final class DeSerializeKits {
 		}
 		return data.length;
 	}
+
+	/**
+	 * 读取SumkProtocolEncoder.putBinaryString写入的字符串。heap buffer直接从底层数组构建字符串，不会复制出中间的byte[]
+	 */
+	public static String getBinaryString(IoBuffer buffer) throws CharacterCodingException {
+		int len = buffer.getInt();
+		if (len < 0) {
+			return null;
+		}
+		if (len == 0) {
+			return "";
+		}
+		if (buffer.hasArray()) {
+			String s = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), len, Profile.UTF8);
+			buffer.skip(len);
+			return s;
+		}
+		int limit = buffer.limit();
+		buffer.limit(buffer.position() + len);
+		try {
+			return UTF8_DECODER.get().decode(buffer.buf()).toString();
+		} finally {
+			buffer.limit(limit);
+		}
+	}
 }
@@ -0,0 +1,28 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.codec.decoders;
+
+import org.apache.mina.core.buffer.IoBuffer;
+
+/**
+ * 在解码线程中直接从累积buffer的切片上解析。data只在decode方法内有效，不能被保存
+ */
+public interface SumkBufferDeserializer<T> {
+
+	boolean accept(int protocol);
+
+	T decode(int protocol, IoBuffer data) throws Exception;
+}
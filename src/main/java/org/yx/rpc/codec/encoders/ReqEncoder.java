@@ -31,7 +31,9 @@ import org.yx.log.Log;
 import org.yx.log.Logs;
 import org.yx.rpc.Profile;
 import org.yx.rpc.RpcJson;
+import org.yx.rpc.RpcSettings;
 import org.yx.rpc.client.Req;
+import org.yx.rpc.client.ReqBatch;
 import org.yx.rpc.codec.Protocols;
 import org.yx.rpc.codec.ReqParamType;
 import org.yx.rpc.codec.SumkProtocolEncoder;
@@ -45,15 +47,27 @@ public class ReqEncoder implements SumkMinaEncoder {
 
 	@Override
 	public boolean accept(Class<?> messageClz) {
-		return messageClz == Req.class;
+		return messageClz == Req.class || messageClz == ReqBatch.class;
 	}
 
 	@Override
 	public void encode(IoSession session, Object message, ProtocolEncoderOutput out) throws Exception {
+		if (message instanceof ReqBatch) {
+			this.encodeBatch((ReqBatch) message, out);
+			return;
+		}
 		Req req = (Req) message;
 		String jsonedArg = req.getJsonedParam();
 		String[] params = req.getParamArray();
 
+		if (RpcSettings.clientBinaryEnable() && Protocols.hasFeature(req.getServerProtocol(), Protocols.REQUEST_BINARY)) {
+			this.encodeBinary(req, out);
+			return;
+		}
+		if (req.hasFeature(ReqParamType.REQ_PARAM_COMPACT)) {
+			throw new SumkException(456544, "compact param only supported in binary frame");
+		}
+
 		if (req.hasFeature(ReqParamType.REQ_PARAM_JSON)) {
 			this.encodeRequestString(ReqParamType.REQ_PARAM_JSON, out, new String[] { RpcJson.operator().toJson(req),
 					Protocols.LINE_SPLIT + Protocols.LINE_SPLIT, jsonedArg });
@@ -113,4 +127,96 @@ public class ReqEncoder implements SumkMinaEncoder {
 		out.write(buffer);
 	}
 
+	protected void encodeBinary(Req req, ProtocolEncoderOutput out) throws CharacterCodingException {
+		String header = RpcJson.operator().toJson(req);
+		IoBuffer buffer = SumkProtocolEncoder.createBinaryIoBuffer(header.length() + paramLength(req));
+		int paramType = this.putBinaryBody(req, header, buffer);
+		buffer.putInt(0, Protocols.MAGIC | Protocols.REQUEST | Protocols.REQUEST_BINARY | paramType);
+		SumkProtocolEncoder.writeFrameLength(buffer);
+		out.write(buffer);
+	}
+
+	/**
+	 * 批量帧的格式：short类型的请求数，然后是每个请求的参数类型(int)、长度(int)和跟单个二进制帧一样的内容
+	 */
+	protected void encodeBatch(ReqBatch batch, ProtocolEncoderOutput out) throws CharacterCodingException {
+		List<Req> reqs = batch.reqs();
+		if (reqs.size() > Short.MAX_VALUE) {
+			throw new SumkException(456545, "批量请求数太多");
+		}
+		int strLength = 0;
+		String[] headers = new String[reqs.size()];
+		for (int i = 0; i < headers.length; i++) {
+			Req req = reqs.get(i);
+			headers[i] = RpcJson.operator().toJson(req);
+			strLength += headers[i].length() + paramLength(req) + 8;
+		}
+		IoBuffer buffer = SumkProtocolEncoder.createBinaryIoBuffer(strLength);
+		buffer.putInt(0, Protocols.MAGIC | Protocols.REQUEST | Protocols.REQUEST_BINARY | Protocols.REQUEST_BATCH);
+		buffer.putShort((short) reqs.size());
+		for (int i = 0; i < headers.length; i++) {
+			int start = buffer.position();
+			buffer.putInt(0);
+			buffer.putInt(0);
+			int paramType = this.putBinaryBody(reqs.get(i), headers[i], buffer);
+			buffer.putInt(start, paramType);
+			buffer.putInt(start + 4, buffer.position() - start - 8);
+		}
+		SumkProtocolEncoder.writeFrameLength(buffer);
+		out.write(buffer);
+	}
+
+	private static int paramLength(Req req) {
+		if (req.hasFeature(ReqParamType.REQ_PARAM_JSON)) {
+			String json = req.getJsonedParam();
+			return json == null ? 0 : json.length();
+		}
+		if (req.hasFeature(ReqParamType.REQ_PARAM_COMPACT)) {
+			return req.getCompactParam().length;
+		}
+		int strLength = 0;
+		String[] params = req.getParamArray();
+		if (params != null) {
+			for (String p : params) {
+				if (p != null) {
+					strLength += p.length() + 4;
+				}
+			}
+		}
+		return strLength;
+	}
+
+	/**
+	 * 写入请求头和参数，不包含帧头
+	 * 
+	 * @return 参数类型
+	 */
+	protected int putBinaryBody(Req req, String header, IoBuffer buffer) throws CharacterCodingException {
+		if (req.hasFeature(ReqParamType.REQ_PARAM_JSON)) {
+			SumkProtocolEncoder.putBinaryString(header, buffer);
+			SumkProtocolEncoder.putBinaryString(req.getJsonedParam(), buffer);
+			return ReqParamType.REQ_PARAM_JSON;
+		}
+		if (req.hasFeature(ReqParamType.REQ_PARAM_COMPACT)) {
+			byte[] compact = req.getCompactParam();
+			SumkProtocolEncoder.putBinaryString(header, buffer);
+			buffer.putInt(compact.length);
+			buffer.put(compact);
+			return ReqParamType.REQ_PARAM_COMPACT;
+		}
+		String[] params = req.getParamArray();
+		if (params == null) {
+			params = new String[0];
+		}
+		if (params.length > Short.MAX_VALUE) {
+			throw new SumkException(456543, "微服务参数太多");
+		}
+		SumkProtocolEncoder.putBinaryString(header, buffer);
+		buffer.putShort((short) params.length);
+		for (String p : params) {
+			SumkProtocolEncoder.putBinaryString(p, buffer);
+		}
+		return ReqParamType.REQ_PARAM_ORDER;
+	}
+
 }
@@ -51,6 +51,18 @@ public class ResponseEncoder implements SumkMinaEncoder {
 			strLength += strException.length();
 		}
 
+		if (Protocols.hasFeature(resp.getClientAcceptedProtocol(), Protocols.RESPONSE_BINARY)) {
+			IoBuffer buffer = SumkProtocolEncoder.createBinaryIoBuffer(strLength);
+			buffer.putInt(0, Protocols.MAGIC | Protocols.RESPONSE | Protocols.RESPONSE_BINARY);
+			buffer.putLong(resp.id());
+			SumkProtocolEncoder.putBinaryString(sn, buffer);
+			SumkProtocolEncoder.putBinaryString(json, buffer);
+			SumkProtocolEncoder.putBinaryString(strException, buffer);
+			SumkProtocolEncoder.writeFrameLength(buffer);
+			out.write(buffer);
+			return;
+		}
+
 		IoBuffer buffer = SumkProtocolEncoder.createIoBuffer(strLength);
 		SumkProtocolEncoder.putResponseProtocol(Protocols.RESPONSE_SPLIT, buffer);
 		buffer.position(8);
@@ -48,6 +48,8 @@ public class PlainRpcLogHandler implements RpcLogHandler {
 	protected void appendParam(StringBuilder sb, Req req) {
 		if (req.hasFeature(ReqParamType.REQ_PARAM_JSON)) {
 			sb.append("   param(json): ").append(shortParam(req.getJsonedParam()));
+		} else if (req.hasFeature(ReqParamType.REQ_PARAM_COMPACT)) {
+			sb.append("   param(compact): ").append(req.getCompactParam().length).append(" bytes");
 		} else {
 			sb.append("   param(array): ").append(shortParam(S.json().toJson(req.getParamArray())));
 		}
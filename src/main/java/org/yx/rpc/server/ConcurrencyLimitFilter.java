@@ -0,0 +1,121 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.server;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.mina.core.filterchain.IoFilterAdapter;
+import org.apache.mina.core.session.IoSession;
+import org.yx.exception.SoaException;
+import org.yx.rpc.AdaptiveLimiter;
+import org.yx.rpc.RpcActionNode;
+import org.yx.rpc.RpcActions;
+import org.yx.rpc.RpcErrorCode;
+import org.yx.rpc.codec.Request;
+import org.yx.rpc.log.RpcLogs;
+
+/**
+ * 放在codec和线程池之间，在io线程里对已解码的请求做自适应限流，超出上限的请求不进入线程池，直接返回CONCURRENCY_LIMITED。<BR>
+ * 只对二进制帧解码出来的Request有效。旧的文本帧(ProtocolObject)要在ServerHandler里反序列化以后才知道接口名，
+ * 它们会先进入线程池，再由ServerHandler限流
+ */
+public class ConcurrencyLimitFilter extends IoFilterAdapter {
+
+	/**
+	 * 正在交给线程池的请求。mina的filter chain会吞掉后续filter抛出的异常，转成同一线程里的exceptionCaught事件，
+	 * 所以线程池拒绝任务的时候，只能在exceptionCaught里通过它找到对应的请求
+	 */
+	private static final ThreadLocal<Request> HANDING_OVER = new ThreadLocal<>();
+
+	@Override
+	public void messageReceived(NextFilter nextFilter, IoSession session, Object message) throws Exception {
+		if (message instanceof Request) {
+			Request req = (Request) message;
+			if (!tryAcquire(req)) {
+				Response resp = reject(req);
+				session.write(resp);
+				RpcLogs.serverLog(req, resp);
+				return;
+			}
+		}
+		if (!(message instanceof Request)) {
+			nextFilter.messageReceived(session, message);
+			return;
+		}
+		HANDING_OVER.set((Request) message);
+		try {
+			nextFilter.messageReceived(session, message);
+		} finally {
+			HANDING_OVER.remove();
+		}
+	}
+
+	@Override
+	public void exceptionCaught(NextFilter nextFilter, IoSession session, Throwable cause) throws Exception {
+		Request req = HANDING_OVER.get();
+		if (req != null && cause instanceof RejectedExecutionException) {
+			HANDING_OVER.remove();
+			release(req);
+			Response resp = reject(req);
+			session.write(resp);
+			RpcLogs.serverLog(req, resp);
+			return;
+		}
+		nextFilter.exceptionCaught(session, cause);
+	}
+
+	/**
+	 * @return 被限流的话返回false
+	 */
+	public static boolean tryAcquire(Request req) {
+		if (req.getLimitAcquired() != 0) {
+			return true;
+		}
+		String api = req.getApi();
+		RpcActionNode node = api == null ? null : RpcActions.getActionNode(api);
+		if (node == null || !AdaptiveLimiter.enable(api)) {
+			return true;
+		}
+		if (!node.limiter().tryAcquire()) {
+			return false;
+		}
+		long now = System.nanoTime();
+		req.setLimitAcquired(now == 0 ? 1 : now);
+		return true;
+	}
+
+	public static void release(Request req) {
+		if (req == null || req.getLimitAcquired() == 0) {
+			return;
+		}
+		long start = req.getLimitAcquired();
+		req.setLimitAcquired(0);
+		RpcActionNode node = RpcActions.getActionNode(req.getApi());
+		if (node != null) {
+			node.limiter().release(System.nanoTime() - start);
+		}
+	}
+
+	public static Response reject(Request req) {
+		Response resp = new Response(req.getSn());
+		resp.id(req.getId());
+		resp.setClientAcceptedProtocol(req.getAcceptResponseTypes());
+		resp.exception(new SoaException(RpcErrorCode.CONCURRENCY_LIMITED, "微服务限流降级",
+				req.getApi() + " is over concurrency limit"));
+		resp.serviceInvokeMilTime(System.currentTimeMillis() - req.getStartInServer());
+		return resp;
+	}
+}
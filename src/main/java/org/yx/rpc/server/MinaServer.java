@@ -37,6 +37,7 @@ import org.yx.exception.SumkException;
 import org.yx.log.Log;
 import org.yx.log.Logs;
 import org.yx.main.StartContext;
+import org.yx.rpc.codec.IoBufferRecycleFilter;
 import org.yx.rpc.codec.SumkCodecFactory;
 import org.yx.util.ExceptionUtil;
 
@@ -96,7 +97,10 @@ public class MinaServer implements Runnable {
 			acceptor.setReuseAddress(AppInfo.getBoolean("sumk.rpc.port.reuse", false));
 			DefaultIoFilterChainBuilder chain = acceptor.getFilterChain();
 
+			chain.addLast("recycle", new IoBufferRecycleFilter());
 			chain.addLast("codec", new ProtocolCodecFilter(IOC.get(SumkCodecFactory.class)));
+			chain.addLast("ping", new PingFilter());
+			chain.addLast("limit", new ConcurrencyLimitFilter());
 
 			chain.addLast("threadpool",
 					new ExecutorFilter(StartContext.inst().getExecutorService("sumk.rpc.server.executor")));
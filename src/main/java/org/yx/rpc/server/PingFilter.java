@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.server;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.filterchain.IoFilterAdapter;
+import org.apache.mina.core.session.IoSession;
+import org.yx.rpc.codec.ProtocolObject;
+import org.yx.rpc.codec.Protocols;
+
+/**
+ * 在io线程里直接应答客户端的心跳探测，不进入限流和线程池
+ */
+public class PingFilter extends IoFilterAdapter {
+
+	public static final int PING_REQUEST = Protocols.MAGIC | Protocols.REQUEST | Protocols.PING;
+	public static final int PING_RESPONSE = Protocols.MAGIC | Protocols.RESPONSE | Protocols.PING;
+
+	@Override
+	public void messageReceived(NextFilter nextFilter, IoSession session, Object message) throws Exception {
+		if (message instanceof ProtocolObject && ((ProtocolObject) message).getProtocol() == PING_REQUEST) {
+			IoBuffer buffer = IoBuffer.allocate(8);
+			buffer.putInt(PING_RESPONSE).putInt(0).flip();
+			session.write(buffer);
+			return;
+		}
+		nextFilter.messageReceived(session, message);
+	}
+}
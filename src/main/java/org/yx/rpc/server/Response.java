@@ -23,6 +23,7 @@ public class Response implements Serializable {
 
 	private static final long serialVersionUID = 45678L;
 
+	private long id;
 	private String sn;
 	private String json;
 	private SoaException exception;
@@ -35,6 +36,17 @@ public class Response implements Serializable {
 		return sn;
 	}
 
+	/**
+	 * 客户端请求的数字id，只在二进制响应中传输。为0表示没有
+	 */
+	public long id() {
+		return id;
+	}
+
+	public void id(long id) {
+		this.id = id;
+	}
+
 	public String json() {
 		return json;
 	}
@@ -101,6 +101,12 @@ public class ServerHandler implements IoHandler {
 			message = null;
 			if (obj instanceof Request) {
 				req = (Request) obj;
+				if (!ConcurrencyLimitFilter.tryAcquire(req)) {
+					resp = ConcurrencyLimitFilter.reject(req);
+					session.write(resp);
+					return;
+				}
+				resp.id(req.getId());
 				resp.setClientAcceptedProtocol(req.getAcceptResponseTypes());
 				InnerRpcUtil.rpcContext(req, req.isTest());
 				for (RequestHandler h : handlers) {
@@ -122,6 +128,7 @@ public class ServerHandler implements IoHandler {
 			resp.exception(new SoaException(e, RpcErrorCode.SERVER_UNKNOW, "server handler error"));
 			session.write(resp);
 		} finally {
+			ConcurrencyLimitFilter.release(req);
 			RpcLogs.serverLog(req, resp);
 			ActionContext.remove();
 		}
@@ -15,7 +15,10 @@
  */
 package org.yx.util.secury;
 
+import java.io.OutputStream;
+
 import javax.crypto.Cipher;
+import javax.crypto.CipherOutputStream;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
@@ -63,4 +66,9 @@ public class AESEncryptor implements Encryptor {
 		return getCipher(Cipher.DECRYPT_MODE, key).doFinal(contentBytes);
 	}
 
+	@Override
+	public OutputStream encrypt(OutputStream out, byte[] key) throws Exception {
+		return new CipherOutputStream(out, getCipher(Cipher.ENCRYPT_MODE, key));
+	}
+
 }
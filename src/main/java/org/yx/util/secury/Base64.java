@@ -15,6 +15,14 @@
  */
 package org.yx.util.secury;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.yx.common.sumk.BufferedTransformOutputStream;
+import org.yx.util.IOUtil;
+
 public interface Base64 {
 
 	/**
@@ -46,4 +54,29 @@ public interface Base64 {
 
 	String encodeToString(byte[] src);
 
+	/**
+	 * 流式解码，默认实现是全部读出来再解码
+	 * 
+	 * @param in
+	 *            密文流
+	 * @return 明文流
+	 * @throws IOException
+	 *             读取异常
+	 */
+	default InputStream decode(InputStream in) throws IOException {
+		return new ByteArrayInputStream(decode(IOUtil.readAllBytes(in, false)));
+	}
+
+	/**
+	 * 流式编码，写入返回值的数据编码后写到out中。返回值close的时候会写入剩余部分，并且关闭out。<BR>
+	 * 默认实现是close的时候一次性编码
+	 * 
+	 * @param out
+	 *            编码后的数据写入这里
+	 * @return 原文写入这里
+	 */
+	default OutputStream encode(OutputStream out) {
+		return new BufferedTransformOutputStream(out, this::encode);
+	}
+
 }
\ No newline at end of file
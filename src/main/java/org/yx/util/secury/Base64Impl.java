@@ -15,6 +15,8 @@
  */
 package org.yx.util.secury;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Base64.Decoder;
 import java.util.Base64.Encoder;
 
@@ -52,4 +54,14 @@ public final class Base64Impl implements Base64 {
 	public String encodeToString(byte[] src) {
 		return new String(encoder.encode(src), AppInfo.UTF8);
 	}
+
+	@Override
+	public InputStream decode(InputStream in) {
+		return decoder.wrap(in);
+	}
+
+	@Override
+	public OutputStream encode(OutputStream out) {
+		return encoder.wrap(out);
+	}
 }
@@ -15,9 +15,21 @@
  */
 package org.yx.util.secury;
 
+import java.io.OutputStream;
+
+import org.yx.common.sumk.BufferedTransformOutputStream;
+
 public interface Encryptor {
 
 	public byte[] encrypt(byte[] contentBytes, byte[] key) throws Exception;
 
 	public byte[] decrypt(byte[] contentBytes, byte[] key) throws Exception;
+
+	/**
+	 * 流式加密，写入返回值的数据加密后写到out中。返回值close的时候会关闭out。<BR>
+	 * 默认实现是close的时候一次性加密
+	 */
+	default OutputStream encrypt(OutputStream out, byte[] key) throws Exception {
+		return new BufferedTransformOutputStream(out, bs -> encrypt(bs, key));
+	}
 }
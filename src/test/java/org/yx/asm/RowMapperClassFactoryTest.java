@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.asm;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.yx.db.sql.ColumnMeta;
+import org.yx.db.visit.RowMapper;
+
+public class RowMapperClassFactoryTest {
+
+	public static class DemoPojo {
+		private String name;
+		private Integer age;
+		private long score;
+		public String remark;
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			this.name = "setter:" + name;
+		}
+
+		public Integer getAge() {
+			return age;
+		}
+
+		public DemoPojo setAge(Integer age) {
+			throw new IllegalStateException("setter should not be called");
+		}
+	}
+
+	private static ColumnMeta meta(String name) throws Exception {
+		Field f = DemoPojo.class.getDeclaredField(name);
+		f.setAccessible(true);
+		return new ColumnMeta(f, null);
+	}
+
+	private static ResultSet resultSet(Object... values) {
+		return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] { ResultSet.class },
+				(proxy, method, args) -> {
+					if ("getObject".equals(method.getName()) && args.length == 1 && args[0] instanceof Integer) {
+						return values[(Integer) args[0] - 1];
+					}
+					throw new UnsupportedOperationException(method.getName());
+				});
+	}
+
+	@Test
+	public void assignFieldsDirectly() throws Exception {
+		Assert.assertTrue(RowMapperClassFactory.canGenerate(DemoPojo.class));
+		ColumnMeta[] metas = { meta("name"), meta("age"), meta("score"), meta("remark") };
+		RowMapper mapper = new RowMapperClassFactory(DemoPojo.class, metas).create();
+
+		DemoPojo pojo = (DemoPojo) mapper.map(resultSet("tom", 12L, 100, "ok"));
+		Assert.assertEquals("tom", pojo.name);
+		Assert.assertEquals(Integer.valueOf(12), pojo.age);
+		Assert.assertEquals(100L, pojo.score);
+		Assert.assertEquals("ok", pojo.remark);
+
+		pojo = (DemoPojo) mapper.map(resultSet(null, null, null, null));
+		Assert.assertNull(pojo.name);
+		Assert.assertNull(pojo.age);
+		Assert.assertEquals(0L, pojo.score);
+		Assert.assertNull(pojo.remark);
+	}
+}
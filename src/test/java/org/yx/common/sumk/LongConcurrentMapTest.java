@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.common.sumk;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LongConcurrentMapTest {
+
+	/**
+	 * 单个段、很小的初始容量，key的范围也很小，保证大量的冲突、扩容和反向移位删除
+	 */
+	@Test
+	public void collisionsAndBackwardShift() {
+		LongConcurrentMap<String> map = new LongConcurrentMap<>(1, 4);
+		Map<Long, String> expect = new HashMap<>();
+		Random r = new Random(20201018L);
+		for (int i = 0; i < 200000; i++) {
+			long key = r.nextInt(300) + 1;
+			if (r.nextInt(3) == 0) {
+				Assert.assertEquals(expect.remove(key), map.remove(key));
+			} else {
+				String v = "v" + i;
+				Assert.assertEquals(expect.putIfAbsent(key, v), map.putIfAbsent(key, v));
+			}
+			if (i % 1000 == 0) {
+				assertSame(expect, map);
+			}
+		}
+		assertSame(expect, map);
+	}
+
+	@Test
+	public void removeFromMiddleOfCluster() {
+		LongConcurrentMap<Long> map = new LongConcurrentMap<>(1, 4);
+		for (long k = 1; k <= 64; k++) {
+			Assert.assertNull(map.putIfAbsent(k, k));
+		}
+		for (long k = 1; k <= 64; k += 2) {
+			Assert.assertEquals(Long.valueOf(k), map.remove(k));
+			Assert.assertNull(map.remove(k));
+		}
+		Assert.assertEquals(32, map.size());
+		for (long k = 1; k <= 64; k++) {
+			Assert.assertEquals(k % 2 == 0 ? Long.valueOf(k) : null, map.get(k));
+		}
+	}
+
+	@Test
+	public void resizeKeepsAllEntries() {
+		LongConcurrentMap<Long> map = new LongConcurrentMap<>(2, 4);
+		for (long k = 1; k <= 10000; k++) {
+			map.putIfAbsent(k * 7919, k);
+		}
+		Assert.assertEquals(10000, map.size());
+		for (long k = 1; k <= 10000; k++) {
+			Assert.assertEquals(Long.valueOf(k), map.get(k * 7919));
+		}
+		Assert.assertNull(map.get(-1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void zeroKeyRejected() {
+		new LongConcurrentMap<String>().putIfAbsent(0, "a");
+	}
+
+	@Test
+	public void concurrentPutAndRemove() throws Exception {
+		LongConcurrentMap<Long> map = new LongConcurrentMap<>(4, 4);
+		int threads = 8;
+		int perThread = 20000;
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicReference<Throwable> error = new AtomicReference<>();
+		List<Thread> list = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			final long base = (long) t * perThread;
+			Thread th = new Thread(() -> {
+				try {
+					start.await();
+					for (long k = base + 1; k <= base + perThread; k++) {
+						Assert.assertNull(map.putIfAbsent(k, k));
+					}
+					for (long k = base + 1; k <= base + perThread; k += 2) {
+						Assert.assertEquals(Long.valueOf(k), map.remove(k));
+					}
+				} catch (Throwable e) {
+					error.set(e);
+				}
+			});
+			th.start();
+			list.add(th);
+		}
+		start.countDown();
+		for (Thread th : list) {
+			th.join();
+		}
+		Assert.assertNull(error.get());
+		Assert.assertEquals(threads * perThread / 2, map.size());
+		for (long k = 1; k <= threads * perThread; k++) {
+			Assert.assertEquals(k % 2 == 0 ? Long.valueOf(k) : null, map.get(k));
+		}
+	}
+
+	private static void assertSame(Map<Long, String> expect, LongConcurrentMap<String> map) {
+		Assert.assertEquals(expect.size(), map.size());
+		for (long k = 1; k <= 300; k++) {
+			Assert.assertEquals(expect.get(k), map.get(k));
+		}
+	}
+}
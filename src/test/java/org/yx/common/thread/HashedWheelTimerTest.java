@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.common.thread;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.yx.common.thread.HashedWheelTimer.Timeout;
+
+public class HashedWheelTimerTest {
+
+	private final HashedWheelTimer timer = new HashedWheelTimer("test-wheel", 10, TimeUnit.MILLISECONDS, 8);
+
+	@After
+	public void stop() {
+		timer.stop();
+	}
+
+	@Test
+	public void fireAfterDelay() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		long begin = System.nanoTime();
+		long[] firedAt = new long[1];
+		Timeout t = timer.newTimeout(() -> {
+			firedAt[0] = System.nanoTime();
+			latch.countDown();
+		}, 50, TimeUnit.MILLISECONDS);
+		Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+		Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(firedAt[0] - begin) >= 50);
+		Assert.assertTrue(t.isExpired());
+		Assert.assertFalse(t.cancel());
+		Assert.assertFalse(t.isCancelled());
+		Assert.assertEquals(0, timer.pendingTimeouts());
+	}
+
+	/**
+	 * 延迟超过一圈的任务，要等剩余圈数减到0才执行
+	 */
+	@Test
+	public void fireAfterSeveralRounds() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		long begin = System.nanoTime();
+		timer.newTimeout(latch::countDown, 250, TimeUnit.MILLISECONDS);
+		Assert.assertFalse(latch.await(200, TimeUnit.MILLISECONDS));
+		Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+		Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin) >= 250);
+	}
+
+	@Test
+	public void cancelBeforeFire() throws Exception {
+		AtomicInteger count = new AtomicInteger();
+		Timeout t1 = timer.newTimeout(count::incrementAndGet, 60, TimeUnit.MILLISECONDS);
+		Timeout t2 = timer.newTimeout(count::incrementAndGet, 60, TimeUnit.MILLISECONDS);
+		Timeout t3 = timer.newTimeout(count::incrementAndGet, 60, TimeUnit.MILLISECONDS);
+		Assert.assertEquals(3, timer.pendingTimeouts());
+		Thread.sleep(20);
+		Assert.assertTrue(t2.cancel());
+		Assert.assertFalse(t2.cancel());
+		Assert.assertTrue(t2.isCancelled());
+		Assert.assertEquals(2, timer.pendingTimeouts());
+		Thread.sleep(300);
+		Assert.assertEquals(2, count.get());
+		Assert.assertTrue(t1.isExpired());
+		Assert.assertFalse(t2.isExpired());
+		Assert.assertTrue(t3.isExpired());
+		Assert.assertEquals(0, timer.pendingTimeouts());
+	}
+
+	@Test
+	public void cancelImmediately() throws Exception {
+		AtomicInteger count = new AtomicInteger();
+		for (int i = 0; i < 1000; i++) {
+			Assert.assertTrue(timer.newTimeout(count::incrementAndGet, 5, TimeUnit.MILLISECONDS).cancel());
+		}
+		Thread.sleep(100);
+		Assert.assertEquals(0, count.get());
+		Assert.assertEquals(0, timer.pendingTimeouts());
+	}
+
+	/**
+	 * 多个线程同时第一次使用，没抢到启动权的线程不能用未初始化的startTime计算deadline
+	 */
+	@Test
+	public void concurrentFirstUse() throws Exception {
+		int threads = 8;
+		for (int round = 0; round < 50; round++) {
+			HashedWheelTimer t = new HashedWheelTimer("test-wheel-" + round, 10, TimeUnit.MILLISECONDS, 8);
+			CountDownLatch latch = new CountDownLatch(threads);
+			CyclicBarrier barrier = new CyclicBarrier(threads);
+			Thread[] ts = new Thread[threads];
+			for (int i = 0; i < threads; i++) {
+				ts[i] = new Thread(() -> {
+					try {
+						barrier.await();
+					} catch (Exception e) {
+						return;
+					}
+					t.newTimeout(latch::countDown, 20, TimeUnit.MILLISECONDS);
+				});
+				ts[i].start();
+			}
+			try {
+				Assert.assertTrue("round " + round, latch.await(2, TimeUnit.SECONDS));
+			} finally {
+				t.stop();
+			}
+		}
+	}
+
+	@Test
+	public void exceptionDoesNotStopTimer() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		timer.newTimeout(() -> {
+			throw new IllegalStateException("test");
+		}, 10, TimeUnit.MILLISECONDS);
+		timer.newTimeout(latch::countDown, 30, TimeUnit.MILLISECONDS);
+		Assert.assertTrue(latch.await(2, TimeUnit.SECONDS));
+	}
+}
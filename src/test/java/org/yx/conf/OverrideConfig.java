@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.conf;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 测试用，在原有配置的基础上覆盖部分配置，用完以后要调用restore恢复
+ */
+public final class OverrideConfig implements SystemConfig {
+
+	private final SystemConfig origin;
+	private final Map<String, String> overrides;
+
+	private OverrideConfig(SystemConfig origin, Map<String, String> overrides) {
+		this.origin = origin;
+		this.overrides = overrides;
+	}
+
+	/**
+	 * @param kvs
+	 *            key、value交替出现
+	 * @return 原来的配置，用于restore
+	 */
+	public static SystemConfig apply(String... kvs) {
+		SystemConfig origin = AppInfo.config();
+		SystemConfig base = origin instanceof OverrideConfig ? ((OverrideConfig) origin).origin : origin;
+		Map<String, String> map = origin instanceof OverrideConfig ? new HashMap<>(((OverrideConfig) origin).overrides)
+				: new HashMap<>();
+		for (int i = 0; i < kvs.length; i += 2) {
+			map.put(kvs[i], kvs[i + 1]);
+		}
+		SystemConfigHolder.setSystemConfig(new OverrideConfig(base, map));
+		return origin;
+	}
+
+	public static void restore(SystemConfig origin) {
+		SystemConfigHolder.setSystemConfig(origin);
+	}
+
+	@Override
+	public String get(String key) {
+		String v = overrides.get(key);
+		return v != null ? v : origin.get(key);
+	}
+
+	@Override
+	public Set<String> keys() {
+		Set<String> keys = new HashSet<>(origin.keys());
+		keys.addAll(overrides.keySet());
+		return keys;
+	}
+
+	@Override
+	public void start() {
+		origin.start();
+	}
+
+	@Override
+	public void stop() {
+	}
+}
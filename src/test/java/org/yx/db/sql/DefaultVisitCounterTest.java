@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.sql;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class DefaultVisitCounterTest {
+
+	@Test
+	public void visitBypassOncePerInterval() {
+		DefaultVisitCounter c = new DefaultVisitCounter(10);
+		int bypass = 0;
+		for (int i = 0; i < 100; i++) {
+			if (!c.visit()) {
+				bypass++;
+			}
+		}
+		assertEquals(10, bypass);
+		assertEquals(100, c.getVisitCount());
+		assertEquals(10, c.getBypassCount());
+	}
+
+	@Test
+	public void batchVisitCountsPerKey() {
+		DefaultVisitCounter c = new DefaultVisitCounter(10);
+		assertTrue(c.visit(4));
+		assertTrue(c.visit(5));
+		assertEquals(9, c.getVisitCount());
+		// 9到12跨过了10，整批绕过缓存
+		assertFalse(c.visit(3));
+		assertEquals(12, c.getVisitCount());
+		assertEquals(3, c.getBypassCount());
+		assertTrue(c.visit(7));
+		assertTrue(c.visit(0));
+		assertEquals(19, c.getVisitCount());
+		assertFalse(c.visit(1));
+		assertEquals(4, c.getBypassCount());
+	}
+
+	@Test
+	public void defaultBatchVisitDelegatesPerKey() {
+		int[] visits = new int[1];
+		VisitCounter c = new VisitCounter() {
+			@Override
+			public int getVisitCount() {
+				return visits[0];
+			}
+
+			@Override
+			public int getCachedMeet() {
+				return 0;
+			}
+
+			@Override
+			public int getModifyCount() {
+				return 0;
+			}
+
+			@Override
+			public void incrCacheMeet() {
+			}
+
+			@Override
+			public void incrModifyCount() {
+			}
+
+			@Override
+			public boolean visit() {
+				return ++visits[0] != 5;
+			}
+		};
+		assertTrue(c.visit(4));
+		assertEquals(4, c.getVisitCount());
+		assertFalse(c.visit(3));
+		assertEquals(7, c.getVisitCount());
+		assertTrue(c.visit(2));
+		assertEquals(9, c.getVisitCount());
+	}
+}
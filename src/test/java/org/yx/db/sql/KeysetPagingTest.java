@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.sql;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.yx.db.visit.SumkDbVisitor;
+import org.yx.demo.member.Multikey;
+
+public class KeysetPagingTest {
+
+	private static final Pattern LIMIT = Pattern.compile(" LIMIT (\\d+)$");
+
+	@BeforeClass
+	public static void register() {
+		if (PojoMetaHolder.getPojoMeta(Multikey.class) == null) {
+			new TableFactory().accept(Multikey.class);
+		}
+	}
+
+	/**
+	 * 内存里的表，按(id1,id2)排序，根据keyset参数和limit返回一页
+	 */
+	private static class MemoryTable implements SumkDbVisitor<List<Map<String, Object>>> {
+		final List<Map<String, Object>> rows = new ArrayList<>();
+		final List<MapedSql> sqls = new ArrayList<>();
+
+		MemoryTable(int count) {
+			for (int i = 0; i < count; i++) {
+				Map<String, Object> row = new HashMap<>();
+				row.put("id1", "a" + (i / 4));
+				row.put("id2", "b" + (i % 4));
+				row.put("name", "n" + i);
+				rows.add(row);
+			}
+		}
+
+		@Override
+		public List<Map<String, Object>> visit(SqlBuilder builder) throws Exception {
+			MapedSql ms = builder.toMapedSql();
+			sqls.add(ms);
+			List<Object> params = ms.getParamters();
+			Matcher m = LIMIT.matcher(ms.getSql());
+			Assert.assertTrue(ms.getSql(), m.find());
+			int limit = Integer.parseInt(m.group(1));
+			List<Map<String, Object>> page = new ArrayList<>();
+			for (Map<String, Object> row : rows) {
+				if (page.size() >= limit) {
+					break;
+				}
+				if (params.isEmpty() || after(row, params)) {
+					page.add(row);
+				}
+			}
+			return page;
+		}
+
+		private boolean after(Map<String, Object> row, List<Object> params) {
+			String id1 = (String) row.get("id1");
+			String id2 = (String) row.get("id2");
+			int c = id1.compareTo((String) params.get(0));
+			return c > 0 || (id1.equals(params.get(1)) && id2.compareTo((String) params.get(2)) > 0);
+		}
+	}
+
+	@Test
+	public void keysetSql() throws Exception {
+		Select select = new Select(null).tableClass(Multikey.class).allowEmptyWhere(true).limit(10);
+		select.keyset = new Object[2];
+		MapedSql first = select.toMapedSql();
+		Assert.assertTrue(first.getSql(), first.getSql().endsWith(" ORDER BY id1,id2 LIMIT 10"));
+		Assert.assertFalse(first.getSql(), first.getSql().contains("WHERE"));
+		Assert.assertTrue(first.getParamters().isEmpty());
+
+		select.keyset = new Object[] { "a1", "b2" };
+		MapedSql next = select.toMapedSql();
+		String sql = next.getSql().replaceAll("\\s+", " ");
+		Assert.assertTrue(sql, sql.contains("WHERE ( ( id1 > ? ) OR ( id1 = ? AND id2 > ? ) )"));
+		Assert.assertEquals(Arrays.asList("a1", "a1", "b2"), next.getParamters());
+	}
+
+	@Test
+	public void scanAllPages() {
+		MemoryTable table = new MemoryTable(25);
+		List<Multikey> list = new ArrayList<>();
+		long count = new Select(table).tableClass(Multikey.class).allowEmptyWhere(true).fromCache(false)
+				.<Multikey>scanByKeyset(10, list::add);
+		Assert.assertEquals(25, count);
+		Assert.assertEquals(3, table.sqls.size());
+		for (int i = 0; i < 25; i++) {
+			Assert.assertEquals("n" + i, list.get(i).getName());
+		}
+		Assert.assertEquals(Arrays.asList("a4", "a4", "b3"), table.sqls.get(2).getParamters());
+	}
+
+	@Test
+	public void exactPagesAndLimit() {
+		MemoryTable table = new MemoryTable(20);
+		List<Multikey> list = new ArrayList<>();
+		long count = new Select(table).tableClass(Multikey.class).allowEmptyWhere(true).fromCache(false)
+				.<Multikey>scanByKeyset(10, list::add);
+		Assert.assertEquals(20, count);
+		Assert.assertEquals(3, table.sqls.size());
+		Assert.assertTrue(table.sqls.get(2).getSql().endsWith(" LIMIT 10"));
+
+		table = new MemoryTable(40);
+		list.clear();
+		Select select = new Select(table).tableClass(Multikey.class).allowEmptyWhere(true).fromCache(false)
+				.limit(15);
+		count = select.<Multikey>scanByKeyset(10, list::add);
+		Assert.assertEquals(15, count);
+		Assert.assertEquals(2, table.sqls.size());
+		Assert.assertTrue(table.sqls.get(1).getSql().endsWith(" LIMIT 5"));
+		Assert.assertEquals("n14", list.get(14).getName());
+		Assert.assertEquals(15, select.limit);
+		Assert.assertNull(select.keyset);
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void rejectOrderBy() {
+		new Select(new MemoryTable(1)).tableClass(Multikey.class).orderByAsc("name").scanByKeyset(10, r -> {
+		});
+	}
+}
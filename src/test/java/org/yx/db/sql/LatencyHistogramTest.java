@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.sql;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	private static final double DELTA = 1e-9;
+
+	@Test
+	public void empty() {
+		LatencyHistogram h = new LatencyHistogram();
+		assertEquals(0, h.count());
+		assertEquals(0, h.mean(), DELTA);
+		assertEquals(0, h.percentile(50), DELTA);
+		assertEquals(0, h.percentile(99), DELTA);
+	}
+
+	@Test
+	public void bucketUpperBound() {
+		// 小于1微秒落在第0个区间，上限是1微秒
+		assertEquals(0.001, single(999), DELTA);
+		// 1微秒落在[1,2)，上限2微秒
+		assertEquals(0.002, single(1_000), DELTA);
+		assertEquals(0.002, single(1_999), DELTA);
+		// 2、3微秒落在[2,4)
+		assertEquals(0.004, single(2_000), DELTA);
+		assertEquals(0.004, single(3_999), DELTA);
+		assertEquals(0.008, single(4_000), DELTA);
+		// 1毫秒=1000微秒，落在[512,1024)
+		assertEquals(1.024, single(1_000_000), DELTA);
+		assertEquals(2.048, single(1_024_000), DELTA);
+	}
+
+	@Test
+	public void lastBucketHoldsLargerValues() {
+		double max = (1L << 25) / 1000d;
+		assertEquals(max, single(3600_000_000_000L), DELTA);
+		assertEquals(max, single(Long.MAX_VALUE), DELTA);
+	}
+
+	@Test
+	public void negativeIgnored() {
+		LatencyHistogram h = new LatencyHistogram();
+		h.record(-1);
+		assertEquals(0, h.count());
+		assertEquals(0, h.mean(), DELTA);
+	}
+
+	@Test
+	public void percentiles() {
+		LatencyHistogram h = new LatencyHistogram();
+		// 90个落在[1,2)微秒，9个落在[512,1024)微秒，1个落在[65536,131072)微秒
+		for (int i = 0; i < 90; i++) {
+			h.record(1_500);
+		}
+		for (int i = 0; i < 9; i++) {
+			h.record(600_000);
+		}
+		h.record(100_000_000);
+		assertEquals(100, h.count());
+		assertEquals(0.002, h.percentile(0), DELTA);
+		assertEquals(0.002, h.percentile(50), DELTA);
+		assertEquals(0.002, h.percentile(90), DELTA);
+		assertEquals(1.024, h.percentile(90.5), DELTA);
+		assertEquals(1.024, h.percentile(99), DELTA);
+		assertEquals(131.072, h.percentile(99.5), DELTA);
+		assertEquals(131.072, h.percentile(100), DELTA);
+	}
+
+	@Test
+	public void mean() {
+		LatencyHistogram h = new LatencyHistogram();
+		h.record(1_000_000);
+		h.record(3_000_000);
+		assertEquals(2, h.count());
+		assertEquals(2.0, h.mean(), DELTA);
+		assertEquals("p50=1.024ms,p99=4.096ms,mean=2.000ms", h.toString());
+	}
+
+	private static double single(long nanos) {
+		LatencyHistogram h = new LatencyHistogram();
+		h.record(nanos);
+		return h.percentile(50);
+	}
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.sql;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.yx.redis.NearCacheBus;
+
+public class NearCacheTest {
+
+	@Test
+	public void putAndInvalidate() {
+		NearCache near = NearCache.create("nearTest.put", 100, 60);
+		List<Object> value = Arrays.asList("a", "b");
+		near.put("k1", value, near.version());
+		Assert.assertEquals(value, near.get("k1"));
+
+		near.invalidate("k1");
+		Assert.assertNull(near.get("k1"));
+		Assert.assertEquals(1, near.getHits());
+		Assert.assertEquals(1, near.getMisses());
+	}
+
+	@Test
+	public void negativeEntry() {
+		NearCache near = NearCache.create("nearTest.negative", 100, 60);
+		near.put("k1", Collections.emptyList(), near.version());
+		List<Object> cached = near.get("k1");
+		Assert.assertNotNull(cached);
+		Assert.assertTrue(cached.isEmpty());
+
+		near.invalidate("k1");
+		Assert.assertNull(near.get("k1"));
+	}
+
+	@Test
+	public void stalePutIgnored() {
+		NearCache near = NearCache.create("nearTest.stale", 100, 60);
+		long stamp = near.version();
+		near.invalidate("other");
+		near.put("k1", Collections.singletonList("old"), stamp);
+		Assert.assertNull(near.get("k1"));
+
+		stamp = near.version();
+		near.clear();
+		near.put("k1", Collections.singletonList("old"), stamp);
+		Assert.assertNull(near.get("k1"));
+		Assert.assertEquals(0, near.size());
+	}
+
+	@Test
+	public void expireAndEvict() throws InterruptedException {
+		NearCache near = NearCache.create("nearTest.expire", 100, 0);
+		near.put("k1", Collections.singletonList("v"), near.version());
+		Thread.sleep(5);
+		Assert.assertNull(near.get("k1"));
+
+		NearCache small = NearCache.create("nearTest.evict", 10, 60);
+		for (int i = 0; i < 100; i++) {
+			small.put("k" + i, Collections.singletonList(i), small.version());
+		}
+		Assert.assertTrue(small.size() <= 10);
+		Assert.assertEquals(100 - small.size(), small.getEvictions());
+		Assert.assertNotNull(small.get("k99"));
+	}
+
+	@Test
+	public void remoteInvalidate() throws Exception {
+		NearCache near = NearCache.create("nearTest.remote", 100, 60);
+		near.put("k1", Collections.singletonList("v1"), near.version());
+		near.put("k2", Collections.singletonList("v2"), near.version());
+		near.put("k3", Collections.singletonList("v3"), near.version());
+
+		Method onMessage = NearCacheBus.class.getDeclaredMethod("onMessage", String.class);
+		onMessage.setAccessible(true);
+		onMessage.invoke(null, "otherNode\nnearTest.remote\nk1\nk3");
+		Assert.assertNull(near.get("k1"));
+		Assert.assertNotNull(near.get("k2"));
+		Assert.assertNull(near.get("k3"));
+
+		onMessage.invoke(null, "otherNode\nnearTest.unknown\nk2");
+		Assert.assertNotNull(near.get("k2"));
+	}
+}
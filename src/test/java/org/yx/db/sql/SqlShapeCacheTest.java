@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.sql;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.yx.annotation.db.Column;
+import org.yx.annotation.db.SoftDelete;
+import org.yx.annotation.db.Table;
+import org.yx.db.enums.ColumnType;
+
+/**
+ * 形状命中缓存的时候，参数的顺序要跟完整构建sql的时候一样
+ */
+public class SqlShapeCacheTest {
+
+	@Table("shape_item")
+	public static class ShapeItem {
+		@Column(type = ColumnType.ID_BOTH)
+		private String id;
+		private String name;
+		private Integer num;
+		private String remark;
+
+		public ShapeItem() {
+		}
+
+		ShapeItem(String id, String name, Integer num) {
+			this.id = id;
+			this.name = name;
+			this.num = num;
+		}
+	}
+
+	@Table("shape_soft")
+	@SoftDelete("enable")
+	public static class SoftItem {
+		@Column(type = ColumnType.ID_BOTH)
+		private String id;
+		private String name;
+		private Integer num;
+	}
+
+	@Table("shape_part_#")
+	public static class PartItem {
+		@Column(type = ColumnType.ID_BOTH)
+		private String id;
+		private String name;
+	}
+
+	@BeforeClass
+	public static void register() {
+		for (Class<?> clz : Arrays.asList(ShapeItem.class, SoftItem.class, PartItem.class)) {
+			if (PojoMetaHolder.getPojoMeta(clz, "a") == null) {
+				new TableFactory().accept(clz);
+			}
+		}
+	}
+
+	private static Map<String, Object> map(Object... kvs) {
+		Map<String, Object> map = new HashMap<>();
+		for (int i = 0; i < kvs.length; i += 2) {
+			map.put((String) kvs[i], kvs[i + 1]);
+		}
+		return map;
+	}
+
+	/**
+	 * 第二次构建一定命中缓存，它的参数要跟buildMapedSql的一样
+	 */
+	private static void assertSameBinding(Callable<Update> factory) throws Exception {
+		MapedSql first = factory.call().toMapedSql();
+		Update update = factory.call();
+		MapedSql cached = update.toMapedSql();
+		Assert.assertSame(first.sql, cached.sql);
+		MapedSql built = update.buildMapedSql();
+		Assert.assertEquals(built.sql, cached.sql);
+		Assert.assertEquals(built.getParamters(), cached.getParamters());
+	}
+
+	@Test
+	public void partialUpdate() throws Exception {
+		assertSameBinding(() -> new Update(null).tableClass(ShapeItem.class).updateTo(map("name", "n1", "num", 3))
+				.addWhere(map("id", "x1")));
+	}
+
+	@Test
+	public void incrNum() throws Exception {
+		assertSameBinding(() -> new Update(null).tableClass(ShapeItem.class).updateTo(map("remark", "r"))
+				.incrNum("num", 5).addWhere(map("id", "x1", "name", "n1")));
+	}
+
+	@Test
+	public void severalWheresWithNull() throws Exception {
+		assertSameBinding(() -> new Update(null).tableClass(ShapeItem.class).updateTo(map("remark", "r", "num", 1))
+				.addWhere(map("id", "x1", "name", null)).addWhere(map("name", "n2", "num", null))
+				.addWhere(map("id", "x3", "remark", "old")));
+	}
+
+	@Test
+	public void softDelete() throws Exception {
+		assertSameBinding(() -> new Update(null).tableClass(SoftItem.class).updateTo(map("name", "n1"))
+				.incrNum("num", 2).addWhere(map("id", "x1")).addWhere(map("name", null)));
+	}
+
+	@Test
+	public void fullUpdate() throws Exception {
+		assertSameBinding(() -> new Update(null).updateTo(new ShapeItem("x1", "n1", null)).fullUpdate(true)
+				.addWhere(map("id", "x1")));
+	}
+
+	private static long placeholders(String sql) {
+		return sql.chars().filter(c -> c == '?').count();
+	}
+
+	@Test
+	public void multiRowInsert() throws Exception {
+		Insert first = new Insert(null).insert(new ShapeItem("i1", "n1", 1)).insert(new ShapeItem("i2", "n2", 2));
+		MapedSql ms1 = first.toMapedSql();
+		Insert second = new Insert(null).insert(new ShapeItem("i3", "n3", 3)).insert(new ShapeItem("i4", null, 4));
+		MapedSql ms2 = second.toMapedSql();
+		Assert.assertSame(ms1.sql, ms2.sql);
+		Assert.assertEquals(8, placeholders(ms2.sql));
+		Assert.assertEquals(Arrays.asList("i3", "n3", 3, null, "i4", null, 4, null), ms2.getParamters());
+
+		MapedSql single = new Insert(null).insert(new ShapeItem("i5", "n5", 5)).toMapedSql();
+		Assert.assertNotEquals(ms1.sql, single.sql);
+		Assert.assertEquals(4, placeholders(single.sql));
+	}
+
+	@Test
+	public void partitionHasItsOwnShapes() throws Exception {
+		Update a = new Update(null).tableClass(PartItem.class).partition("a").updateTo(map("name", "n"))
+				.addWhere(map("id", "x"));
+		MapedSql msA = a.toMapedSql();
+		Update b = new Update(null).tableClass(PartItem.class).partition("b").updateTo(map("name", "n"))
+				.addWhere(map("id", "x"));
+		MapedSql msB = b.toMapedSql();
+		Assert.assertTrue(msA.sql, msA.sql.contains("shape_part_a"));
+		Assert.assertTrue(msB.sql, msB.sql.contains("shape_part_b"));
+		Assert.assertNotSame(a.pojoMeta.sqlShapes(), b.pojoMeta.sqlShapes());
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.visit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.yx.db.event.DBEvent;
+import org.yx.db.event.DeleteEvent;
+import org.yx.db.event.InsertEvent;
+import org.yx.db.event.UpdateEvent;
+
+public class BatchExecutorTest {
+
+	private static List<Map<String, Object>> rows(Object... ids) {
+		List<Map<String, Object>> list = new ArrayList<>();
+		for (Object id : ids) {
+			list.add(Collections.singletonMap("id", id));
+		}
+		return list;
+	}
+
+	private static UpdateEvent update(String table, Object id) {
+		return new UpdateEvent(table, Collections.singletonMap("name", "x"), null, rows(id), false, false);
+	}
+
+	@Test
+	public void mergeSameTableAndType() {
+		List<Map<String, Object>> first = rows(1);
+		List<DBEvent> events = Arrays.asList(new InsertEvent("t", first), new InsertEvent("t", rows(2)),
+				new InsertEvent("t", rows(3, 4)));
+		List<DBEvent> merged = BatchExecutor.merge(events);
+		Assert.assertEquals(1, merged.size());
+		InsertEvent insert = (InsertEvent) merged.get(0);
+		Assert.assertEquals("t", insert.getTable());
+		Assert.assertEquals(rows(1, 2, 3, 4), insert.getPojos());
+		Assert.assertEquals(rows(1), first);
+	}
+
+	@Test
+	public void keepOrderAcrossTablesAndTypes() {
+		List<DBEvent> events = Arrays.asList(new DeleteEvent("t", rows(1)), new DeleteEvent("t", rows(2)),
+				new InsertEvent("t", rows(3)), new InsertEvent("u", rows(4)), new InsertEvent("u", rows(5)), null,
+				new InsertEvent("u", rows(6)), new DeleteEvent("t", rows(7)));
+		List<DBEvent> merged = BatchExecutor.merge(events);
+		Assert.assertEquals(4, merged.size());
+		Assert.assertEquals(rows(1, 2), ((DeleteEvent) merged.get(0)).getWheres());
+		Assert.assertEquals(rows(3), ((InsertEvent) merged.get(1)).getPojos());
+		Assert.assertEquals("u", merged.get(2).getTable());
+		Assert.assertEquals(rows(4, 5, 6), ((InsertEvent) merged.get(2)).getPojos());
+		Assert.assertEquals(rows(7), ((DeleteEvent) merged.get(3)).getWheres());
+	}
+
+	@Test
+	public void updateNotMerged() {
+		UpdateEvent u1 = update("t", 1);
+		UpdateEvent u2 = update("t", 2);
+		InsertEvent i1 = new InsertEvent("t", rows(3));
+		List<DBEvent> merged = BatchExecutor.merge(Arrays.asList(u1, u2, i1));
+		Assert.assertEquals(Arrays.asList(u1, u2, i1), merged);
+
+		List<DBEvent> single = Collections.singletonList(i1);
+		Assert.assertSame(single, BatchExecutor.merge(single));
+	}
+}
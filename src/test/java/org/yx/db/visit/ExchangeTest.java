@@ -0,0 +1,176 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.db.visit;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.yx.annotation.db.Column;
+import org.yx.annotation.db.Table;
+import org.yx.db.DBJson;
+import org.yx.db.enums.ColumnType;
+import org.yx.db.sql.NearCache;
+import org.yx.db.sql.PojoMeta;
+import org.yx.db.sql.PojoMetaHolder;
+import org.yx.db.sql.TableFactory;
+import org.yx.redis.NearCacheBus;
+import org.yx.redis.RecordRepository;
+import org.yx.redis.Redis;
+import org.yx.redis.RedisPool;
+
+/**
+ * 用假的redis测试本地缓存在Exchange里的处理，不需要真正的redis
+ */
+public class ExchangeTest {
+
+	@Table(nearCacheSize = 100)
+	public static class NearPojo {
+		@Column(type = ColumnType.ID_BOTH)
+		private String id;
+		private String name;
+
+		public NearPojo() {
+		}
+
+		NearPojo(String id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+	}
+
+	private static final Map<String, String> REDIS = new HashMap<>();
+	private static final List<String> MGETS = new ArrayList<>();
+	private static Redis redis;
+	private static PojoMeta pm;
+
+	@BeforeClass
+	public static void init() throws Exception {
+		new TableFactory().accept(NearPojo.class);
+		pm = PojoMetaHolder.getPojoMeta(NearPojo.class);
+		redis = (Redis) Proxy.newProxyInstance(Redis.class.getClassLoader(), new Class<?>[] { Redis.class },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "mute":
+						return proxy;
+					case "mget":
+						List<String> list = new ArrayList<>();
+						for (Object key : (Object[]) args[0]) {
+							MGETS.add((String) key);
+							list.add(REDIS.get(key));
+						}
+						return list;
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "equals":
+						return proxy == args[0];
+					case "toString":
+					case "hosts":
+						return "fakeRedis";
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+		Method setDefault = RedisPool.class.getDeclaredMethod("setDefaultRedis", Redis.class);
+		setDefault.setAccessible(true);
+		setDefault.invoke(null, redis);
+
+		Class<?> subClz = Class.forName(NearCacheBus.class.getName() + "$Subscriber");
+		Constructor<?> c = subClz.getDeclaredConstructor(Redis.class);
+		c.setAccessible(true);
+		Object subscriber = c.newInstance(redis);
+		Field subscribed = subClz.getDeclaredField("subscribed");
+		subscribed.setAccessible(true);
+		subscribed.set(subscriber, true);
+		Field subscribers = NearCacheBus.class.getDeclaredField("SUBSCRIBERS");
+		subscribers.setAccessible(true);
+		@SuppressWarnings("unchecked")
+		Map<Object, Object> map = (Map<Object, Object>) subscribers.get(null);
+		map.put(redis, subscriber);
+	}
+
+	@AfterClass
+	public static void clear() throws Exception {
+		Method setDefault = RedisPool.class.getDeclaredMethod("setDefaultRedis", Redis.class);
+		setDefault.setAccessible(true);
+		setDefault.invoke(null, (Object) null);
+	}
+
+	private static List<Map<String, Object>> ids(String... ids) {
+		List<Map<String, Object>> list = new ArrayList<>();
+		for (String id : ids) {
+			list.add(Collections.singletonMap("id", id));
+		}
+		return list;
+	}
+
+	private static String key(String id) {
+		return RecordRepository.getKey(pm, id);
+	}
+
+	@Test
+	public void allNearNegative() {
+		NearCache near = pm.nearCache();
+		near.clear();
+		MGETS.clear();
+		near.put(key("n1"), Collections.emptyList(), near.version());
+		near.put(key("n2"), Collections.emptyList(), near.version());
+
+		Exchange exchange = new Exchange(ids("n1", "n2"));
+		exchange.findFromCache(pm, PojoResultHandler.handler);
+		Assert.assertNull(exchange.getPojos());
+		Assert.assertTrue(exchange.getLeftIn().isEmpty());
+		Assert.assertTrue(MGETS.isEmpty());
+	}
+
+	@Test
+	public void keepCallerOrder() {
+		NearCache near = pm.nearCache();
+		near.clear();
+		MGETS.clear();
+		REDIS.clear();
+		near.put(key("a"), Collections.singletonList(new NearPojo("a", "near-a")), near.version());
+		near.put(key("b"), Collections.emptyList(), near.version());
+		REDIS.put(key("c"), DBJson.operator().toJson(new NearPojo("c", "redis-c")));
+		REDIS.put(key("d"), RecordRepository.NEGATIVE);
+		near.put(key("e"), Collections.singletonList(new NearPojo("e", "near-e")), near.version());
+
+		Exchange exchange = new Exchange(ids("c", "b", "a", "f", "d", "e"));
+		exchange.findFromCache(pm, PojoResultHandler.handler);
+
+		Assert.assertEquals(Arrays.asList(key("c"), key("f"), key("d")), MGETS);
+		List<String> names = new ArrayList<>();
+		for (Object obj : exchange.getPojos()) {
+			names.add(((NearPojo) obj).name);
+		}
+		Assert.assertEquals(Arrays.asList("redis-c", "near-a", "near-e"), names);
+		Assert.assertEquals(ids("f"), exchange.getLeftIn());
+
+		Assert.assertEquals("redis-c", ((NearPojo) near.get(key("c")).get(0)).name);
+		Assert.assertTrue(near.get(key("d")).isEmpty());
+	}
+}
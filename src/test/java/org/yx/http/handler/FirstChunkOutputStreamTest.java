@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.http.handler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.yx.http.handler.RespBodyHandler.FirstChunkOutputStream;
+
+public class FirstChunkOutputStreamTest {
+
+	private static byte[] bytes(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void bufferedUntilClose() throws Exception {
+		ByteArrayOutputStream servlet = new ByteArrayOutputStream();
+		FirstChunkOutputStream out = new FirstChunkOutputStream(servlet, 16);
+		out.write(bytes("{\"a\":"));
+		out.write('1');
+		out.flush();
+		Assert.assertEquals(0, servlet.size());
+		out.write(bytes("}"));
+		out.close();
+		Assert.assertEquals("{\"a\":1}", servlet.toString("UTF-8"));
+	}
+
+	@Test
+	public void abortBeforeCommitWritesNothing() throws Exception {
+		ByteArrayOutputStream servlet = new ByteArrayOutputStream();
+		FirstChunkOutputStream out = new FirstChunkOutputStream(servlet, 16);
+		out.write(bytes("{\"list\":[1,2"));
+		out.abort();
+		out.write(bytes(",3]}"));
+		out.close();
+		Assert.assertEquals(0, servlet.size());
+	}
+
+	@Test
+	public void commitWhenChunkIsFull() throws Exception {
+		ByteArrayOutputStream servlet = new ByteArrayOutputStream();
+		FirstChunkOutputStream out = new FirstChunkOutputStream(servlet, 8);
+		out.write(bytes("12345"));
+		Assert.assertEquals(0, servlet.size());
+		out.write(bytes("67890"));
+		Assert.assertEquals("1234567890", servlet.toString("UTF-8"));
+		out.write(bytes("ab"));
+		out.abort();
+		out.close();
+		Assert.assertEquals("1234567890ab", servlet.toString("UTF-8"));
+	}
+
+	@Test
+	public void noBuffer() throws Exception {
+		ByteArrayOutputStream servlet = new ByteArrayOutputStream();
+		OutputStream out = new FirstChunkOutputStream(servlet, 0);
+		out.write(bytes("abc"));
+		Assert.assertEquals("abc", servlet.toString("UTF-8"));
+	}
+}
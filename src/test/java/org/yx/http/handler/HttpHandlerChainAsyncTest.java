@@ -0,0 +1,207 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.http.handler;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.yx.annotation.spec.WebSpec;
+import org.yx.asm.ParamPojo;
+import org.yx.asm.Parameters;
+import org.yx.http.MessageType;
+import org.yx.http.act.HttpActionInfo;
+import org.yx.http.act.HttpActionNode;
+
+/**
+ * 异步模式下，超时(markCompleted)跟handler执行的竞争
+ */
+public class HttpHandlerChainAsyncTest {
+
+	public static class Echo {
+		public String echo() {
+			return "echo";
+		}
+	}
+
+	public static class EmptyParam implements ParamPojo {
+
+		@Override
+		public Object[] params() {
+			return new Object[0];
+		}
+
+		@Override
+		public Object invoke(Object owner) throws Throwable {
+			return ((Echo) owner).echo();
+		}
+
+		@Override
+		public void setParams(Object[] objs) {
+		}
+
+		@Override
+		public ParamPojo createEmpty() {
+			return new EmptyParam();
+		}
+	}
+
+	private static WebContext context() throws Exception {
+		HttpActionNode node = new HttpActionNode(new Echo(), Echo.class.getMethod("echo"),
+				new Parameters(EmptyParam.class, new String[0], new Class<?>[0]), new WebSpec("echo", "echo", false,
+						MessageType.PLAIN, false, MessageType.PLAIN, new String[0], 0, new String[] { "POST" }, true));
+		HttpActionInfo info = new HttpActionInfo() {
+			@Override
+			public String rawAct() {
+				return "echo";
+			}
+
+			@Override
+			public HttpActionNode node() {
+				return node;
+			}
+
+			@Override
+			public String formalName() {
+				return "echo";
+			}
+
+			@Override
+			public boolean match(String act, String method) {
+				return true;
+			}
+		};
+		HttpServletRequest req = (HttpServletRequest) Proxy.newProxyInstance(
+				HttpServletRequest.class.getClassLoader(), new Class<?>[] { HttpServletRequest.class },
+				(proxy, method, args) -> null);
+		return new WebContext(info, req, null, System.currentTimeMillis(), StandardCharsets.UTF_8);
+	}
+
+	private interface Step {
+		void handle(WebContext ctx) throws Throwable;
+	}
+
+	private static HttpHandler handler(int order, Step h) {
+		return new HttpHandler() {
+			@Override
+			public int order() {
+				return order;
+			}
+
+			@Override
+			public void handle(WebContext ctx) throws Throwable {
+				h.handle(ctx);
+			}
+		};
+	}
+
+	@Test
+	public void timeoutDoesNotWaitForRunningHandler() throws Throwable {
+		WebContext ctx = context();
+		CompletableFuture<String> stage = new CompletableFuture<>();
+		CountDownLatch entered = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicBoolean lastRan = new AtomicBoolean();
+		HttpHandlerChain chain = new HttpHandlerChain();
+		chain.setHandlers(Arrays.asList(handler(1, c -> c.result(stage, false)), handler(2, c -> {
+			entered.countDown();
+			release.await();
+		}), handler(3, c -> lastRan.set(true))));
+
+		CompletableFuture<Void> future = chain.handleAsync(ctx);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			executor.execute(() -> stage.complete("x"));
+			Assert.assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+			Future<Boolean> timeout = executor.submit(ctx::markCompleted);
+			Assert.assertTrue(timeout.get(1, TimeUnit.SECONDS));
+
+			release.countDown();
+			Assert.assertTrue(future.isDone() || waitDone(future));
+			Assert.assertTrue(future.isCancelled());
+			Assert.assertFalse(lastRan.get());
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	private static boolean waitDone(CompletableFuture<?> f) {
+		try {
+			f.get(5, TimeUnit.SECONDS);
+		} catch (Exception e) {
+		}
+		return f.isDone();
+	}
+
+	@Test
+	public void completionRace() throws Throwable {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			for (int i = 0; i < 2000; i++) {
+				WebContext ctx = context();
+				CompletableFuture<String> stage = new CompletableFuture<>();
+				AtomicInteger lastRan = new AtomicInteger();
+				HttpHandlerChain chain = new HttpHandlerChain();
+				chain.setHandlers(Arrays.asList(handler(1, c -> c.result(stage, false)),
+						handler(2, c -> lastRan.incrementAndGet())));
+				CompletableFuture<Void> future = chain.handleAsync(ctx);
+				AtomicInteger winners = new AtomicInteger();
+				future.whenComplete((v, e) -> {
+					if (ctx.markCompleted()) {
+						winners.incrementAndGet();
+					}
+				});
+
+				CountDownLatch go = new CountDownLatch(1);
+				Future<?> a = executor.submit(() -> {
+					go.await();
+					return stage.complete("x");
+				});
+				Future<?> b = executor.submit(() -> {
+					go.await();
+					if (ctx.markCompleted()) {
+						winners.incrementAndGet();
+					}
+					return null;
+				});
+				go.countDown();
+				a.get(5, TimeUnit.SECONDS);
+				b.get(5, TimeUnit.SECONDS);
+
+				Assert.assertTrue(waitDone(future));
+				Assert.assertEquals(1, winners.get());
+				Assert.assertTrue(lastRan.get() <= 1);
+				Assert.assertEquals(future.isCancelled() ? 0 : 1, lastRan.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
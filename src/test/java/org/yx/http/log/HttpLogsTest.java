@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.http.log;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.yx.http.HttpJson;
+import org.yx.log.LogKits;
+
+public class HttpLogsTest {
+
+	private static class BigList extends AbstractList<String> {
+		final AtomicInteger visited = new AtomicInteger();
+
+		@Override
+		public String get(int index) {
+			visited.incrementAndGet();
+			return "item-" + index;
+		}
+
+		@Override
+		public int size() {
+			return 1000_000;
+		}
+	}
+
+	@Test
+	public void sameAsFullSerialization() {
+		List<Object> list = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			Map<String, Object> map = new HashMap<>();
+			map.put("id", i);
+			map.put("name", "名字" + i);
+			list.add(map);
+		}
+		String full = HttpJson.operator().toJson(list);
+		for (int max : new int[] { 5, 6, 20, 100, full.length() - 1, full.length(), full.length() + 1, 100000 }) {
+			Assert.assertEquals(String.valueOf(max), LogKits.shorterSubfix(full, max),
+					HttpLogs.parse(null, list, max, StandardCharsets.UTF_8));
+		}
+		Assert.assertEquals(full, HttpLogs.parse(null, list, 3, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void stopAfterMaxLength() {
+		BigList big = new BigList();
+		String log = HttpLogs.parse(null, big, 100, StandardCharsets.UTF_8);
+		Assert.assertEquals(100, log.length());
+		Assert.assertTrue(log, log.startsWith("[\"item-0\",\"item-1\""));
+		Assert.assertTrue(log.endsWith(".."));
+		Assert.assertTrue(String.valueOf(big.visited.get()), big.visited.get() < 100);
+	}
+
+	@Test
+	public void stringAndBytes() {
+		Assert.assertEquals("abc", HttpLogs.parse("abc", new Object(), 100, StandardCharsets.UTF_8));
+		Assert.assertEquals("数据数据数",
+				HttpLogs.parse(null, "数据数据数据".getBytes(StandardCharsets.UTF_8), 5, StandardCharsets.UTF_8));
+		Assert.assertNull(HttpLogs.parse(null, null, 100, StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.http.user;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SessionCacheTest {
+
+	private static TimedCachedObject obj(String key, long refreshTime) {
+		TimedCachedObject o = new TimedCachedObject("{}", key.getBytes());
+		o.setRefreshTime(refreshTime);
+		return o;
+	}
+
+	@Test
+	public void hotKeysSurviveScan() {
+		SessionCache cache = new SessionCache(100, () -> 60_000L, 1000);
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < 50; i++) {
+			cache.put("hot" + i, obj("hot" + i, now));
+		}
+		for (int round = 0; round < 5; round++) {
+			for (int i = 0; i < 50; i++) {
+				Assert.assertNotNull(cache.get("hot" + i));
+			}
+		}
+		for (int i = 0; i < 1000; i++) {
+			cache.put("cold" + i, obj("cold" + i, now));
+		}
+		Assert.assertTrue(cache.size() <= 100);
+		Assert.assertTrue(cache.evictionCount() >= 900);
+		int hit = 0;
+		for (int i = 0; i < 50; i++) {
+			if (cache.get("hot" + i) != null) {
+				hit++;
+			}
+		}
+		// 纯LRU的话一个都留不下来，sketch有哈希碰撞，允许少量误差
+		Assert.assertTrue("hot keys left " + hit, hit >= 45);
+	}
+
+	@Test
+	public void newcomerWithHigherFrequencyIsAdmitted() {
+		SessionCache cache = new SessionCache(100, () -> 60_000L, 1000);
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < 100; i++) {
+			cache.put("k" + i, obj("k" + i, now));
+		}
+
+		for (int i = 0; i < 10; i++) {
+			Assert.assertNull(cache.get("popular"));
+		}
+		cache.put("popular", obj("popular", now));
+		cache.put("other", obj("other", now));
+		Assert.assertNotNull(cache.get("popular"));
+		Assert.assertEquals(100, cache.size());
+	}
+
+	@Test
+	public void unbounded() {
+		SessionCache cache = new SessionCache(0, () -> 60_000L, 1000);
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < 5000; i++) {
+			cache.put("k" + i, obj("k" + i, now));
+		}
+		Assert.assertEquals(5000, cache.size());
+		Assert.assertEquals(0, cache.evictionCount());
+		Assert.assertNotNull(cache.remove("k1"));
+		Assert.assertNull(cache.get("k1"));
+		Assert.assertEquals(4999, cache.size());
+	}
+
+	@Test
+	public void putIfAbsent() {
+		SessionCache cache = new SessionCache(0, () -> 60_000L, 1000);
+		long now = System.currentTimeMillis();
+		TimedCachedObject first = obj("a", now);
+		Assert.assertNull(cache.putIfAbsent("a", first));
+		Assert.assertSame(first, cache.putIfAbsent("a", obj("a", now)));
+		Assert.assertSame(first, cache.get("a"));
+	}
+
+	@Test
+	public void wheelExpiry() throws InterruptedException {
+		AtomicLong duration = new AtomicLong(50);
+		SessionCache cache = new SessionCache(0, duration::get, 10);
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < 100; i++) {
+			cache.put("k" + i, obj("k" + i, now));
+		}
+		TimedCachedObject alive = obj("alive", now);
+		cache.put("alive", alive);
+
+		cache.cleanUp();
+		Assert.assertEquals(101, cache.size());
+
+		Thread.sleep(30);
+		alive.setRefreshTime(System.currentTimeMillis() + 10_000);
+		Thread.sleep(50);
+		cache.cleanUp();
+		Assert.assertEquals(1, cache.size());
+		Assert.assertEquals(100, cache.expireCount());
+		Assert.assertSame(alive, cache.get("alive"));
+	}
+
+	@Test
+	public void expiredOnRead() throws InterruptedException {
+		SessionCache cache = new SessionCache(0, () -> 20L, 60_000);
+		cache.put("a", obj("a", System.currentTimeMillis()));
+		Thread.sleep(40);
+		Assert.assertNull(cache.get("a"));
+		Assert.assertEquals(0, cache.size());
+		Assert.assertEquals(1, cache.expireCount());
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.http.user;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.yx.util.S;
+
+public class TimedCachedObjectTest {
+
+	public static class SimpleSession extends SessionObject {
+		private String name;
+		private int level;
+	}
+
+	public static class ListSession extends SessionObject {
+		private List<String> roles = new ArrayList<>();
+	}
+
+	private static TimedCachedObject of(SessionObject obj) {
+		return new TimedCachedObject(S.json().toJson(obj), "k".getBytes());
+	}
+
+	@Test
+	public void simpleSessionIsCopied() {
+		SimpleSession s = new SimpleSession();
+		s.setUserId("u1");
+		s.name = "tom";
+		s.level = 3;
+		TimedCachedObject to = of(s);
+
+		SimpleSession a = to.decode(SimpleSession.class);
+		a.name = "changed";
+		SimpleSession b = to.decode(SimpleSession.class);
+		SimpleSession c = to.decode(SimpleSession.class);
+		Assert.assertNotSame(b, c);
+		Assert.assertEquals("tom", b.name);
+		Assert.assertEquals(3, c.level);
+		Assert.assertEquals("u1", c.getUserId());
+	}
+
+	@Test
+	public void mutableFieldsAreNotShared() {
+		ListSession s = new ListSession();
+		s.setUserId("u1");
+		s.roles.add("admin");
+		TimedCachedObject to = of(s);
+
+		ListSession a = to.decode(ListSession.class);
+		a.roles.add("hacker");
+		ListSession b = to.decode(ListSession.class);
+		Assert.assertNotSame(a.roles, b.roles);
+		Assert.assertEquals(1, b.roles.size());
+	}
+
+	@Test
+	public void exactClassOnLookup() {
+		SimpleSession s = new SimpleSession();
+		s.setUserId("u1");
+		s.name = "tom";
+		TimedCachedObject to = of(s);
+
+		Assert.assertEquals(SimpleSession.class, to.decode(SimpleSession.class).getClass());
+		SessionObject base = to.decode(SessionObject.class);
+		Assert.assertEquals(SessionObject.class, base.getClass());
+		Assert.assertEquals("u1", base.getUserId());
+		Assert.assertEquals(SessionObject.class, to.decode(SessionObject.class).getClass());
+		Assert.assertEquals(SimpleSession.class, to.decode(SimpleSession.class).getClass());
+	}
+}
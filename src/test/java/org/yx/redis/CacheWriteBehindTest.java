@@ -0,0 +1,272 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.redis;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.yx.annotation.db.Column;
+import org.yx.annotation.db.Table;
+import org.yx.conf.OverrideConfig;
+import org.yx.conf.SystemConfig;
+import org.yx.db.enums.ColumnType;
+import org.yx.db.sql.PojoMeta;
+import org.yx.db.sql.PojoMetaHolder;
+import org.yx.db.sql.TableFactory;
+import org.yx.exception.SumkException;
+
+/**
+ * 用假的redis测试异步写。假redis的mute()跟真的一样，出错的时候返回null而不是抛异常
+ */
+public class CacheWriteBehindTest {
+
+	@Table
+	public static class AsyncPojo {
+		@Column(type = ColumnType.ID_BOTH)
+		private String id;
+	}
+
+	private static final List<String> WRITTEN = Collections.synchronizedList(new ArrayList<>());
+	private static final AtomicInteger FAILS = new AtomicInteger();
+	private static volatile CountDownLatch entered;
+	private static volatile CountDownLatch release;
+	private static PojoMeta pm;
+	private static Redis redis;
+
+	private SystemConfig origin;
+
+	@BeforeClass
+	public static void init() throws Exception {
+		new TableFactory().accept(AsyncPojo.class);
+		pm = PojoMetaHolder.getPojoMeta(AsyncPojo.class);
+		Redis raw = fakeRedis();
+		Redis muted = (Redis) Proxy.newProxyInstance(Redis.class.getClassLoader(), new Class<?>[] { Redis.class },
+				(proxy, method, args) -> {
+					try {
+						return method.invoke(raw, args);
+					} catch (InvocationTargetException e) {
+						return null;
+					}
+				});
+		redis = (Redis) Proxy.newProxyInstance(Redis.class.getClassLoader(), new Class<?>[] { Redis.class },
+				(proxy, method, args) -> "mute".equals(method.getName()) ? muted : invoke(raw, method, args));
+		RedisPool.setDefaultRedis(redis);
+	}
+
+	private static Object invoke(Redis raw, java.lang.reflect.Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(raw, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	private static Redis fakeRedis() {
+		return (Redis) Proxy.newProxyInstance(Redis.class.getClassLoader(), new Class<?>[] { Redis.class },
+				(proxy, method, args) -> {
+					switch (method.getName()) {
+					case "pipeline":
+						@SuppressWarnings("unchecked")
+						Consumer<RedisPipeline> consumer = (Consumer<RedisPipeline>) args[0];
+						RedisPipeline p = new RedisPipeline();
+						consumer.accept(p);
+						List<String> cmds = new ArrayList<>();
+						for (RedisPipeline.Command cmd : p.commands) {
+							String id = cmd.key.substring(pm.getPre().length());
+							if (id.startsWith("fail")) {
+								FAILS.incrementAndGet();
+								throw new SumkException(-1, "fake redis error");
+							}
+							if (id.startsWith("block")) {
+								entered.countDown();
+								release.await();
+							}
+							cmds.add(cmd.type == RedisPipeline.DEL ? "DEL " + id : "SET " + id + " " + cmd.value);
+						}
+						WRITTEN.addAll(cmds);
+						return null;
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "equals":
+						return proxy == args[0];
+					case "toString":
+					case "hosts":
+						return "fakeRedis";
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+	}
+
+	@AfterClass
+	public static void clear() {
+		RedisPool.setDefaultRedis(null);
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		WRITTEN.clear();
+		FAILS.set(0);
+		entered = new CountDownLatch(1);
+		release = new CountDownLatch(1);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		release.countDown();
+		CacheWriteBehind.shutdown(2000);
+		setStatic("stripes", null);
+		setStatic("threads", null);
+		setStatic("closed", false);
+		if (origin != null) {
+			OverrideConfig.restore(origin);
+		}
+	}
+
+	private static void setStatic(String name, Object value) throws Exception {
+		Field f = CacheWriteBehind.class.getDeclaredField(name);
+		f.setAccessible(true);
+		f.set(null, value);
+	}
+
+	private void config(String capacity, String overflow) {
+		origin = OverrideConfig.apply("sumk.db.cache.async.threads", "1", "sumk.db.cache.async.capacity", capacity,
+				"sumk.db.cache.async.overflow", overflow, "sumk.db.cache.async.retry", "3",
+				"sumk.db.cache.async.retry.interval", "10");
+	}
+
+	private static void set(String id, String json, boolean fill) {
+		CacheWriteBehind.submit(pm, Collections.singletonMap(id, json), null, fill);
+	}
+
+	private static void del(String id) {
+		CacheWriteBehind.submit(pm, null, Collections.singletonList(id), false);
+	}
+
+	private static void awaitWritten(String cmd) throws InterruptedException {
+		for (int i = 0; i < 200 && !WRITTEN.contains(cmd); i++) {
+			Thread.sleep(10);
+		}
+		Assert.assertTrue(cmd + " not in " + WRITTEN, WRITTEN.contains(cmd));
+	}
+
+	/**
+	 * 占住写线程，后面提交的修改都留在队列里
+	 */
+	private static void blockWriter() throws InterruptedException {
+		set("block", "b", false);
+		Assert.assertTrue(entered.await(2, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void retryThenDrop() throws Exception {
+		config("100", "invalidate");
+		long dropped = CacheWriteBehind.droppedCount();
+		set("fail1", "v", false);
+		for (int i = 0; i < 200 && CacheWriteBehind.droppedCount() == dropped; i++) {
+			Thread.sleep(10);
+		}
+		Assert.assertEquals(dropped + 1, CacheWriteBehind.droppedCount());
+		Assert.assertEquals(4, FAILS.get());
+		Assert.assertEquals(0, CacheWriteBehind.pending());
+	}
+
+	@Test
+	public void coalesce() throws Exception {
+		config("100", "invalidate");
+		blockWriter();
+		long coalesced = CacheWriteBehind.coalescedCount();
+		set("k", "1", false);
+		set("k", "2", false);
+		del("k");
+		Assert.assertEquals(1, CacheWriteBehind.pending());
+		Assert.assertEquals(coalesced + 2, CacheWriteBehind.coalescedCount());
+		release.countDown();
+		awaitWritten("DEL k");
+		Assert.assertFalse(WRITTEN.contains("SET k 1"));
+		Assert.assertFalse(WRITTEN.contains("SET k 2"));
+	}
+
+	@Test
+	public void fillDoesNotOverrideModify() throws Exception {
+		config("100", "invalidate");
+		blockWriter();
+		set("k", "new", false);
+		set("k", "old", true);
+		release.countDown();
+		awaitWritten("SET k new");
+		CacheWriteBehind.shutdown(2000);
+		Assert.assertFalse(WRITTEN.contains("SET k old"));
+	}
+
+	@Test
+	public void overflowInvalidate() throws Exception {
+		config("1", "invalidate");
+		blockWriter();
+		set("a", "1", false);
+		set("b", "1", false);
+		Assert.assertTrue(WRITTEN.contains("DEL b"));
+		release.countDown();
+		awaitWritten("SET a 1");
+		CacheWriteBehind.shutdown(2000);
+		Assert.assertFalse(WRITTEN.contains("SET b 1"));
+	}
+
+	@Test
+	public void overflowDrop() throws Exception {
+		config("1", "drop");
+		blockWriter();
+		long dropped = CacheWriteBehind.droppedCount();
+		set("a", "1", false);
+		set("b", "1", false);
+		Assert.assertEquals(dropped + 1, CacheWriteBehind.droppedCount());
+		release.countDown();
+		awaitWritten("SET a 1");
+		CacheWriteBehind.shutdown(2000);
+		Assert.assertFalse(WRITTEN.contains("SET b 1"));
+		Assert.assertFalse(WRITTEN.contains("DEL b"));
+	}
+
+	@Test
+	public void overflowBlock() throws Exception {
+		config("1", "block");
+		blockWriter();
+		set("a", "1", false);
+		Thread t = new Thread(() -> set("b", "1", false));
+		t.start();
+		t.join(200);
+		Assert.assertTrue(t.isAlive());
+		release.countDown();
+		t.join(2000);
+		Assert.assertFalse(t.isAlive());
+		awaitWritten("SET b 1");
+		Assert.assertFalse(WRITTEN.contains("DEL b"));
+	}
+}
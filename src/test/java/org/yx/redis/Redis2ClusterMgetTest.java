@@ -0,0 +1,187 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.redis;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.Assert;
+import org.junit.Test;
+
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisSlotBasedConnectionHandler;
+import redis.clients.util.JedisClusterCRC16;
+
+/**
+ * 用两个假的redis节点测试跨槽位的mget，槽位是偶数的在第一个节点，奇数的在第二个节点
+ */
+public class Redis2ClusterMgetTest {
+
+	private static final AtomicInteger OPENED = new AtomicInteger();
+	private static final AtomicInteger CLOSED = new AtomicInteger();
+
+	/**
+	 * 每个key的值是"v-"+key，以miss开头的key不存在。failMget为true的话，MGET返回错误
+	 */
+	private static ServerSocket fakeNode(boolean failMget) throws Exception {
+		ServerSocket server = new ServerSocket(0);
+		Thread t = new Thread(() -> {
+			while (!server.isClosed()) {
+				try {
+					Socket socket = server.accept();
+					Thread worker = new Thread(() -> serve(socket, failMget));
+					worker.setDaemon(true);
+					worker.start();
+				} catch (Exception e) {
+					return;
+				}
+			}
+		});
+		t.setDaemon(true);
+		t.start();
+		return server;
+	}
+
+	private static void serve(Socket socket, boolean failMget) {
+		try (Socket s = socket) {
+			BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream(), StandardCharsets.UTF_8));
+			OutputStream out = s.getOutputStream();
+			String line;
+			while ((line = in.readLine()) != null) {
+				int count = Integer.parseInt(line.substring(1));
+				List<String> args = new ArrayList<>();
+				for (int i = 0; i < count; i++) {
+					in.readLine();
+					args.add(in.readLine());
+				}
+				String cmd = args.get(0).toUpperCase();
+				StringBuilder reply = new StringBuilder();
+				if ("MGET".equals(cmd)) {
+					if (failMget) {
+						reply.append("-ERR fake mget error\r\n");
+					} else {
+						reply.append('*').append(count - 1).append("\r\n");
+						for (int i = 1; i < count; i++) {
+							bulk(reply, args.get(i));
+						}
+					}
+				} else if ("GET".equals(cmd)) {
+					bulk(reply, args.get(1));
+				} else {
+					reply.append("-ERR unsupported\r\n");
+				}
+				out.write(reply.toString().getBytes(StandardCharsets.UTF_8));
+				out.flush();
+			}
+		} catch (Exception e) {
+		}
+	}
+
+	private static void bulk(StringBuilder reply, String key) {
+		if (key.startsWith("miss")) {
+			reply.append("$-1\r\n");
+			return;
+		}
+		String v = "v-" + key;
+		reply.append('$').append(v.length()).append("\r\n").append(v).append("\r\n");
+	}
+
+	private static class TrackedJedis extends Jedis {
+		TrackedJedis(int port) {
+			super("127.0.0.1", port);
+			OPENED.incrementAndGet();
+		}
+
+		@Override
+		public void close() {
+			CLOSED.incrementAndGet();
+			super.close();
+		}
+	}
+
+	private static class TwoNodeCluster extends Redis2Cluster {
+		TwoNodeCluster(int evenPort, int oddPort) {
+			super(Collections.<HostAndPort>emptySet(), 1000, 1000, 1, null, new RedisConfig("127.0.0.1"));
+			this.connectionHandler = new JedisSlotBasedConnectionHandler(Collections.<HostAndPort>emptySet(),
+					new GenericObjectPoolConfig(), 1000) {
+				@Override
+				public Jedis getConnectionFromSlot(int slot) {
+					return new TrackedJedis(slot % 2 == 0 ? evenPort : oddPort);
+				}
+			};
+		}
+	}
+
+	private static String[] keys(int count) {
+		String[] keys = new String[count];
+		for (int i = 0; i < count; i++) {
+			keys[i] = (i % 5 == 3 ? "miss" : "k") + i;
+		}
+		return keys;
+	}
+
+	private static void assertOrdered(String[] keys, List<String> values) {
+		Assert.assertEquals(keys.length, values.size());
+		for (int i = 0; i < keys.length; i++) {
+			Assert.assertEquals(keys[i], keys[i].startsWith("miss") ? null : "v-" + keys[i], values.get(i));
+		}
+	}
+
+	private static void assertCrossSlotsAndNodes(String[] keys) {
+		boolean even = false, odd = false;
+		for (String key : keys) {
+			if (JedisClusterCRC16.getSlot(key) % 2 == 0) {
+				even = true;
+			} else {
+				odd = true;
+			}
+		}
+		Assert.assertTrue(even && odd);
+	}
+
+	@Test
+	public void keepOrderAcrossSlotsAndNodes() throws Exception {
+		try (ServerSocket a = fakeNode(false); ServerSocket b = fakeNode(false)) {
+			TwoNodeCluster cluster = new TwoNodeCluster(a.getLocalPort(), b.getLocalPort());
+			String[] keys = keys(40);
+			assertCrossSlotsAndNodes(keys);
+			int opened = OPENED.get(), closed = CLOSED.get();
+			assertOrdered(keys, cluster.mget(keys));
+			Assert.assertEquals(OPENED.get() - opened, CLOSED.get() - closed);
+		}
+	}
+
+	@Test
+	public void fallbackPerNode() throws Exception {
+		try (ServerSocket a = fakeNode(false); ServerSocket b = fakeNode(true)) {
+			TwoNodeCluster cluster = new TwoNodeCluster(a.getLocalPort(), b.getLocalPort());
+			String[] keys = keys(40);
+			int opened = OPENED.get(), closed = CLOSED.get();
+			assertOrdered(keys, cluster.mget(keys));
+			Assert.assertEquals(OPENED.get() - opened, CLOSED.get() - closed);
+		}
+	}
+}
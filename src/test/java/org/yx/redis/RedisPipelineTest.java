@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.redis;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import redis.clients.jedis.Jedis;
+
+public class RedisPipelineTest {
+
+	/**
+	 * 只接受一个连接的假redis，key以moved开头的命令返回MOVED，其它的都成功
+	 */
+	private static ServerSocket fakeRedis() throws Exception {
+		ServerSocket server = new ServerSocket(0);
+		Thread t = new Thread(() -> {
+			try (Socket socket = server.accept()) {
+				BufferedReader in = new BufferedReader(
+						new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				OutputStream out = socket.getOutputStream();
+				String line;
+				while ((line = in.readLine()) != null) {
+					int count = Integer.parseInt(line.substring(1));
+					List<String> args = new ArrayList<>();
+					for (int i = 0; i < count; i++) {
+						in.readLine();
+						args.add(in.readLine());
+					}
+					String cmd = args.get(0).toUpperCase();
+					String reply;
+					if (args.size() > 1 && args.get(1).startsWith("moved")) {
+						reply = "-MOVED 3999 127.0.0.1:6381\r\n";
+					} else if ("SET".equals(cmd) || "SETEX".equals(cmd)) {
+						reply = "+OK\r\n";
+					} else {
+						reply = ":1\r\n";
+					}
+					out.write(reply.getBytes(StandardCharsets.UTF_8));
+					out.flush();
+				}
+			} catch (Exception e) {
+			}
+		});
+		t.setDaemon(true);
+		t.start();
+		return server;
+	}
+
+	@Test
+	public void errorRepliesAreReturned() throws Exception {
+		try (ServerSocket server = fakeRedis(); Jedis jedis = new Jedis("127.0.0.1", server.getLocalPort())) {
+			RedisPipeline p = new RedisPipeline();
+			p.set("a", "1").setex("moved1", 10, "2").del("b", "moved2").pexpire("c", 1000);
+
+			List<RedisPipeline.Command> failed = RedisPipeline.sync(jedis, p.commands);
+			Assert.assertEquals(2, failed.size());
+			Assert.assertEquals("moved1", failed.get(0).key);
+			Assert.assertEquals("moved2", failed.get(1).key);
+			Assert.assertEquals(Arrays.asList("OK", null, 1L, null, 1L), p.results());
+		}
+	}
+
+	@Test
+	public void allSucceed() throws Exception {
+		try (ServerSocket server = fakeRedis(); Jedis jedis = new Jedis("127.0.0.1", server.getLocalPort())) {
+			RedisPipeline p = new RedisPipeline();
+			p.set("a", "1").del("b");
+			Assert.assertTrue(RedisPipeline.sync(jedis, p.commands).isEmpty());
+			Assert.assertEquals(Arrays.asList("OK", 1L), p.results());
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdaptiveLimiterTest {
+
+	@Test
+	public void rejectOverLimit() {
+		AdaptiveLimiter limiter = new AdaptiveLimiter("test");
+		int limit = limiter.limit();
+		for (int i = 0; i < limit; i++) {
+			Assert.assertTrue(limiter.tryAcquire());
+		}
+		Assert.assertEquals(limit, limiter.inflight());
+		Assert.assertFalse(limiter.tryAcquire());
+		Assert.assertFalse(limiter.tryAcquire());
+		Assert.assertEquals(2, limiter.rejected());
+		Assert.assertEquals(limit, limiter.inflight());
+
+		limiter.release(1000);
+		Assert.assertEquals(limit - 1, limiter.inflight());
+		Assert.assertTrue(limiter.tryAcquire());
+	}
+
+	@Test
+	public void releaseMatchesAcquire() throws InterruptedException {
+		AdaptiveLimiter limiter = new AdaptiveLimiter("test");
+		int threads = 8;
+		CountDownLatch latch = new CountDownLatch(threads);
+		for (int t = 0; t < threads; t++) {
+			new Thread(() -> {
+				try {
+					for (int i = 0; i < 20000; i++) {
+						if (limiter.tryAcquire()) {
+							limiter.release(100_000);
+						}
+					}
+				} finally {
+					latch.countDown();
+				}
+			}).start();
+		}
+		Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+		Assert.assertEquals(0, limiter.inflight());
+		Assert.assertTrue(limiter.limit() > 0);
+		Assert.assertTrue(limiter.tryAcquire());
+	}
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.client;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.mina.core.future.DefaultWriteFuture;
+import org.apache.mina.core.future.WriteFuture;
+import org.apache.mina.core.session.IoSession;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.yx.common.Host;
+import org.yx.conf.OverrideConfig;
+import org.yx.conf.SystemConfig;
+import org.yx.rpc.RpcSettings;
+import org.yx.rpc.codec.ReqParamType;
+
+public class ReqBatcherTest {
+
+	private SystemConfig origin;
+	private final List<Object> written = new ArrayList<>();
+	private final List<DefaultWriteFuture> writeFutures = new ArrayList<>();
+	private IoSession session;
+
+	@Before
+	public void before() {
+		RpcSettings.init();
+		origin = OverrideConfig.apply("sumk.rpc.client.batch.size", "3", "sumk.rpc.client.batch.window", "60000000");
+		session = (IoSession) Proxy.newProxyInstance(IoSession.class.getClassLoader(),
+				new Class<?>[] { IoSession.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "write":
+						written.add(args[0]);
+						DefaultWriteFuture f = new DefaultWriteFuture((IoSession) proxy);
+						writeFutures.add(f);
+						return f;
+					case "hashCode":
+						return System.identityHashCode(proxy);
+					case "equals":
+						return proxy == args[0];
+					case "toString":
+						return "fakeSession";
+					default:
+						return null;
+					}
+				});
+	}
+
+	@After
+	public void after() {
+		OverrideConfig.restore(origin);
+	}
+
+	@Test
+	public void batchWriteCompletesEveryFuture() {
+		List<WriteFuture> futures = this.writeBatch();
+		for (WriteFuture f : futures) {
+			Assert.assertFalse(f.isDone());
+		}
+		writeFutures.get(0).setWritten();
+		for (WriteFuture f : futures) {
+			Assert.assertTrue(f.isDone());
+			Assert.assertTrue(f.isWritten());
+			Assert.assertNull(f.getException());
+		}
+	}
+
+	@Test
+	public void batchWriteFailureFailsEveryFuture() {
+		List<WriteFuture> futures = this.writeBatch();
+		IOException e = new IOException("broken pipe");
+		writeFutures.get(0).setException(e);
+		for (WriteFuture f : futures) {
+			Assert.assertTrue(f.isDone());
+			Assert.assertFalse(f.isWritten());
+			Assert.assertSame(e, f.getException());
+		}
+	}
+
+	@Test
+	public void notConnected() {
+		ReqBatcher batcher = new ReqBatcher(new ReqSession(Host.create("127.0.0.1", 1)));
+		List<WriteFuture> futures = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			futures.add(batcher.write(session, createReq(i)));
+		}
+		Assert.assertTrue(written.isEmpty());
+		for (WriteFuture f : futures) {
+			Assert.assertTrue(f.isDone());
+			Assert.assertTrue(f.getException() instanceof IOException);
+		}
+	}
+
+	private List<WriteFuture> writeBatch() {
+		ReqSession owner = new ReqSession(Host.create("127.0.0.1", 1));
+		owner.session = session;
+		ReqBatcher batcher = new ReqBatcher(owner);
+		List<Req> reqs = new ArrayList<>();
+		List<WriteFuture> futures = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			Req req = createReq(i);
+			reqs.add(req);
+			futures.add(batcher.write(session, req));
+		}
+		Assert.assertEquals(1, written.size());
+		Assert.assertTrue(written.get(0) instanceof ReqBatch);
+		Assert.assertEquals(reqs, ((ReqBatch) written.get(0)).reqs());
+		return futures;
+	}
+
+	private static Req createReq(int i) {
+		Req req = new Req();
+		req.setId(i);
+		req.setFullSn("sn" + i, "trace", "1");
+		req.setApi("demo.echo");
+		req.setParams(ReqParamType.REQ_PARAM_ORDER, new String[] { String.valueOf(i) });
+		return req;
+	}
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.codec;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.yx.asm.ParamPojo;
+import org.yx.asm.Parameters;
+
+import com.google.gson.reflect.TypeToken;
+
+public class CompactParamsTest {
+
+	public static class DemoParam implements ParamPojo {
+
+		@Override
+		public Object[] params() {
+			return new Object[0];
+		}
+
+		@Override
+		public Object invoke(Object owner) throws Throwable {
+			return null;
+		}
+
+		@Override
+		public void setParams(Object[] objs) {
+		}
+
+		@Override
+		public ParamPojo createEmpty() {
+			return new DemoParam();
+		}
+	}
+
+	@Test
+	public void compactParamsRoundTrip() {
+		Type listType = new TypeToken<List<String>>() {
+		}.getType();
+		Type[] types = { int.class, Long.class, String.class, boolean.class, double.class, float.class, byte[].class,
+				short.class, byte.class, char.class, listType, String.class, long.class };
+		String[] names = new String[types.length];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = "p" + i;
+		}
+		CompactParamSchema schema = new CompactParamSchema(new Parameters(DemoParam.class, names, types));
+		Object[] args = { -123456, Long.MAX_VALUE, "sumk中文", true, 3.25d, -1.5f, new byte[] { 1, 2, 3 },
+				(short) -7, (byte) 120, 'x', Arrays.asList("a", "b"), null, Long.MIN_VALUE };
+
+		Object[] ret = CompactParams.decode(CompactParams.encode(args), schema);
+		Assert.assertEquals(args.length, ret.length);
+		for (int i = 0; i < args.length; i++) {
+			if (args[i] instanceof byte[]) {
+				Assert.assertArrayEquals((byte[]) args[i], (byte[]) ret[i]);
+				continue;
+			}
+			Assert.assertEquals("index " + i, args[i], ret[i]);
+		}
+	}
+
+	@Test
+	public void compactParamsConvertToDeclaredType() {
+		Type[] types = { long.class, int.class, String.class };
+		CompactParamSchema schema = new CompactParamSchema(
+				new Parameters(DemoParam.class, new String[] { "a", "b", "c" }, types));
+		Object[] ret = CompactParams.decode(CompactParams.encode(new Object[] { 5, 6L, 7 }), schema);
+		Assert.assertEquals(5L, ret[0]);
+		Assert.assertEquals(6, ret[1]);
+		Assert.assertEquals("7", ret[2]);
+	}
+}
@@ -0,0 +1,200 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.codec;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.filterchain.IoFilter.NextFilter;
+import org.apache.mina.core.future.WriteFuture;
+import org.apache.mina.core.session.DummySession;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.codec.ProtocolDecoderOutput;
+import org.apache.mina.filter.codec.ProtocolEncoderOutput;
+import org.junit.Assert;
+import org.junit.Test;
+import org.yx.rpc.client.Req;
+import org.yx.rpc.client.ReqBatch;
+import org.yx.rpc.codec.decoders.BatchRequestDeserializer;
+import org.yx.rpc.codec.decoders.BinaryRequestDeserializer;
+import org.yx.rpc.codec.decoders.BinaryResponseDeserializer;
+import org.yx.rpc.codec.decoders.OrderedParamDeserializer;
+import org.yx.rpc.codec.decoders.SumkBufferDeserializer;
+import org.yx.rpc.codec.encoders.ReqEncoder;
+import org.yx.rpc.codec.encoders.ResponseEncoder;
+import org.yx.rpc.codec.encoders.SumkMinaEncoder;
+import org.yx.rpc.server.Response;
+
+public class RpcFrameCodecTest {
+
+	@Test
+	public void binaryRequestRoundTrip() throws Exception {
+		for (boolean binary : new boolean[] { true, false }) {
+			String payload = "{\"name\":\"sumk测试\",\"id\":1}";
+			Req req = createReq(new String[] { payload, "12345" }, binary);
+			Object decoded = decode(encode(req));
+			if (!binary) {
+				Assert.assertTrue(decoded instanceof ProtocolObject);
+				ProtocolObject obj = (ProtocolObject) decoded;
+				decoded = new OrderedParamDeserializer().decode(obj.getProtocol(), obj.getData());
+			}
+			Assert.assertTrue(String.valueOf(decoded), decoded instanceof Req);
+			Req r = (Req) decoded;
+			Assert.assertEquals(req.getApi(), r.getApi());
+			Assert.assertEquals(req.getSn(), r.getSn());
+			Assert.assertEquals(req.getTraceId(), r.getTraceId());
+			Assert.assertEquals(req.getFrom(), r.getFrom());
+			Assert.assertArrayEquals(req.getParamArray(), r.getParamArray());
+		}
+	}
+
+	@Test
+	public void binaryResponseRoundTrip() throws Exception {
+		Req req = createReq(new String[] { "1" }, true);
+		Response resp = new Response(req.getSn());
+		resp.id(req.getId());
+		StringBuilder sb = new StringBuilder();
+		while (sb.length() < 20000) {
+			sb.append("{\"v\":\"数据\"},");
+		}
+		resp.json(sb.toString());
+		resp.setClientAcceptedProtocol(req.getAcceptResponseTypes());
+
+		Object decoded = decode(encode(resp));
+		Assert.assertTrue(String.valueOf(decoded), decoded instanceof Response);
+		Response r = (Response) decoded;
+		Assert.assertEquals(resp.sn(), r.sn());
+		Assert.assertEquals(resp.json(), r.json());
+		Assert.assertTrue(r.isSuccess());
+	}
+
+	@Test
+	public void batchRequestRoundTrip() throws Exception {
+		Req order = createReq(new String[] { "{\"name\":\"sumk测试\"}", null, "12345" }, true);
+		Req compact = createReq(new String[0], true);
+		compact.setFullSn("sn-compact", "trace2", "2");
+		compact.setApi("demo.compact");
+		byte[] bytes = new byte[300];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) i;
+		}
+		compact.setParams(ReqParamType.REQ_PARAM_COMPACT, bytes);
+		Req json = createReq(new String[0], true);
+		json.setFullSn("sn-json", "trace3", "3");
+		json.setApi("demo.json");
+		json.setParams(ReqParamType.REQ_PARAM_JSON, "{\"a\":\"数据\",\"b\":2}");
+		Req empty = createReq(null, true);
+		empty.setFullSn("sn-empty", null, "4");
+		empty.setApi("demo.empty");
+		List<Req> reqs = Arrays.asList(order, compact, json, empty);
+
+		List<Object> decoded = decodeAll(encode(new ReqBatch(reqs)));
+		Assert.assertEquals(reqs.size(), decoded.size());
+		for (int i = 0; i < reqs.size(); i++) {
+			Req req = reqs.get(i);
+			Assert.assertTrue(String.valueOf(decoded.get(i)), decoded.get(i) instanceof Request);
+			Request r = (Request) decoded.get(i);
+			Assert.assertEquals(req.getSn(), r.getSn());
+			Assert.assertEquals(req.getApi(), r.getApi());
+			Assert.assertEquals(req.getTraceId(), r.getTraceId());
+			for (int type : new int[] { ReqParamType.REQ_PARAM_ORDER, ReqParamType.REQ_PARAM_COMPACT,
+					ReqParamType.REQ_PARAM_JSON }) {
+				Assert.assertEquals(req.hasFeature(type), r.hasFeature(type));
+			}
+		}
+		Assert.assertArrayEquals(order.getParamArray(), ((Request) decoded.get(0)).getParamArray());
+		Assert.assertArrayEquals(bytes, ((Request) decoded.get(1)).getCompactParam());
+		Assert.assertEquals(json.getJsonedParam(), ((Request) decoded.get(2)).getJsonedParam());
+		Assert.assertArrayEquals(new String[0], ((Request) decoded.get(3)).getParamArray());
+	}
+
+	private static Req createReq(String[] params, boolean binary) {
+		Req req = new Req();
+		req.setStart(System.currentTimeMillis());
+		req.setId(1);
+		req.setFullSn("sn123456", "trace", "1");
+		req.setApi("demo.echo");
+		req.setFrom("test");
+		req.initAcceptResponseTypes(binary ? Protocols.RESPONSE_ACCEPT_TYPES : Protocols.RESPONSE_SPLIT);
+		req.setServerProtocol(binary ? Protocols.profile() : 0);
+		req.setParams(ReqParamType.REQ_PARAM_ORDER, params);
+		return req;
+	}
+
+	private static IoBuffer encode(Object message) throws Exception {
+		SumkProtocolEncoder encoder = new SumkProtocolEncoder();
+		inject(encoder, "encoders", new SumkMinaEncoder[] { new ReqEncoder(), new ResponseEncoder() });
+		List<Object> out = new ArrayList<>();
+		encoder.encode(new DummySession(), message, new ProtocolEncoderOutput() {
+
+			@Override
+			public void write(Object encodedMessage) {
+				out.add(encodedMessage);
+			}
+
+			@Override
+			public void mergeAll() {
+			}
+
+			@Override
+			public WriteFuture flush() {
+				return null;
+			}
+		});
+		Assert.assertEquals(1, out.size());
+		IoBuffer buffer = (IoBuffer) out.get(0);
+		IoBuffer copy = IoBuffer.allocate(buffer.remaining(), false);
+		copy.put(buffer);
+		copy.flip();
+		IoBufferPool.release(buffer);
+		return copy;
+	}
+
+	private static Object decode(IoBuffer frame) throws Exception {
+		List<Object> out = decodeAll(frame);
+		Assert.assertEquals(1, out.size());
+		return out.get(0);
+	}
+
+	private static List<Object> decodeAll(IoBuffer frame) throws Exception {
+		SumkProtocolDecoder decoder = new SumkProtocolDecoder();
+		inject(decoder, "bufferDecoders", new SumkBufferDeserializer<?>[] { new BatchRequestDeserializer(),
+				new BinaryRequestDeserializer(), new BinaryResponseDeserializer() });
+		List<Object> out = new ArrayList<>();
+		decoder.decode(new DummySession(), frame, new ProtocolDecoderOutput() {
+
+			@Override
+			public void write(Object message) {
+				out.add(message);
+			}
+
+			@Override
+			public void flush(NextFilter nextFilter, IoSession session) {
+			}
+		});
+		Assert.assertFalse(frame.hasRemaining());
+		return out;
+	}
+
+	private static void inject(Object target, String fieldName, Object value) throws Exception {
+		Field f = target.getClass().getDeclaredField(fieldName);
+		f.setAccessible(true);
+		f.set(target, value);
+	}
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (C) 2016 - 2030 youtongluan.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.yx.rpc.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.mina.core.filterchain.IoFilterAdapter;
+import org.apache.mina.core.filterchain.IoFilterChain;
+import org.apache.mina.core.session.DummySession;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.core.write.WriteRequest;
+import org.apache.mina.filter.executor.ExecutorFilter;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.yx.asm.ParamPojo;
+import org.yx.asm.Parameters;
+import org.yx.conf.OverrideConfig;
+import org.yx.conf.SystemConfig;
+import org.yx.rpc.AdaptiveLimiter;
+import org.yx.rpc.RpcActionNode;
+import org.yx.rpc.RpcActions;
+import org.yx.rpc.RpcErrorCode;
+import org.yx.rpc.codec.Request;
+
+public class ConcurrencyLimitFilterTest {
+
+	private static final String API = "limitTest.echo";
+
+	public static class Echo {
+		public String echo() {
+			return "echo";
+		}
+	}
+
+	public static class EmptyParam implements ParamPojo {
+
+		@Override
+		public Object[] params() {
+			return new Object[0];
+		}
+
+		@Override
+		public Object invoke(Object owner) throws Throwable {
+			return ((Echo) owner).echo();
+		}
+
+		@Override
+		public void setParams(Object[] objs) {
+		}
+
+		@Override
+		public ParamPojo createEmpty() {
+			return new EmptyParam();
+		}
+	}
+
+	private static class WriteCapture extends IoFilterAdapter {
+		final List<Object> written = new ArrayList<>();
+
+		@Override
+		public void filterWrite(NextFilter nextFilter, IoSession session, WriteRequest writeRequest) throws Exception {
+			written.add(writeRequest.getMessage());
+		}
+	}
+
+	private static SystemConfig origin;
+
+	@BeforeClass
+	public static void register() throws Exception {
+		origin = OverrideConfig.apply("sumk.rpc.limit.enable." + API, "1");
+		if (RpcActions.getActionNode(API) == null) {
+			RpcActions.putActNode(API, new RpcActionNode(new Echo(), Echo.class.getMethod("echo"),
+					new Parameters(EmptyParam.class, new String[0], new Class<?>[0]), 10, false));
+		}
+	}
+
+	@AfterClass
+	public static void restore() {
+		OverrideConfig.restore(origin);
+	}
+
+	private static Request request() {
+		Request req = new Request();
+		req.setApi(API);
+		return req;
+	}
+
+	@Test
+	public void releaseWhenExecutorRejects() throws Exception {
+		Assert.assertTrue(AdaptiveLimiter.enable(API));
+		AdaptiveLimiter limiter = RpcActions.getActionNode(API).limiter();
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		executor.shutdown();
+
+		DummySession session = new DummySession();
+		IoFilterChain chain = session.getFilterChain();
+		WriteCapture capture = new WriteCapture();
+		chain.addLast("capture", capture);
+		chain.addLast("limit", new ConcurrencyLimitFilter());
+		chain.addLast("threadpool", new ExecutorFilter(executor));
+
+		int inflight = limiter.inflight();
+		Request req = request();
+		chain.fireMessageReceived(req);
+
+		Assert.assertEquals(inflight, limiter.inflight());
+		Assert.assertEquals(0, req.getLimitAcquired());
+		Assert.assertEquals(1, capture.written.size());
+		Response resp = (Response) capture.written.get(0);
+		Assert.assertEquals(RpcErrorCode.CONCURRENCY_LIMITED, resp.exception().getCode());
+	}
+
+	@Test
+	public void keepPermitUntilHandlerFinish() throws Exception {
+		AdaptiveLimiter limiter = RpcActions.getActionNode(API).limiter();
+		DummySession session = new DummySession();
+		IoFilterChain chain = session.getFilterChain();
+		WriteCapture capture = new WriteCapture();
+		chain.addLast("capture", capture);
+		chain.addLast("limit", new ConcurrencyLimitFilter());
+
+		int inflight = limiter.inflight();
+		Request req = request();
+		chain.fireMessageReceived(req);
+
+		Assert.assertEquals(inflight + 1, limiter.inflight());
+		Assert.assertNotEquals(0, req.getLimitAcquired());
+		Assert.assertTrue(capture.written.isEmpty());
+
+		ConcurrencyLimitFilter.release(req);
+		ConcurrencyLimitFilter.release(req);
+		Assert.assertEquals(inflight, limiter.inflight());
+	}
+
+	@Test
+	public void rejectOverLimit() throws Exception {
+		AdaptiveLimiter limiter = RpcActions.getActionNode(API).limiter();
+		List<Request> holding = new ArrayList<>();
+		while (limiter.inflight() < limiter.limit()) {
+			Request req = request();
+			Assert.assertTrue(ConcurrencyLimitFilter.tryAcquire(req));
+			holding.add(req);
+		}
+		DummySession session = new DummySession();
+		IoFilterChain chain = session.getFilterChain();
+		WriteCapture capture = new WriteCapture();
+		chain.addLast("capture", capture);
+		chain.addLast("limit", new ConcurrencyLimitFilter());
+
+		Request req = request();
+		chain.fireMessageReceived(req);
+		Assert.assertEquals(0, req.getLimitAcquired());
+		Assert.assertEquals(1, capture.written.size());
+		Assert.assertEquals(RpcErrorCode.CONCURRENCY_LIMITED,
+				((Response) capture.written.get(0)).exception().getCode());
+
+		for (Request r : holding) {
+			ConcurrencyLimitFilter.release(r);
+		}
+		Assert.assertTrue(ConcurrencyLimitFilter.tryAcquire(req));
+		ConcurrencyLimitFilter.release(req);
+	}
+}